@@ -0,0 +1,88 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Cache} when many threads read from it at once, comparing the default LRU policy that promotes
+ * every read under a global lock with frequency based admission that records reads in striped buffers. The keys follow a skewed
+ * distribution so that, like in the request and field data caches, a minority of the entries serve the majority of the reads.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Threads(16)
+public class CacheContentionBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({ "false", "true" })
+    public boolean frequencyBasedAdmission;
+
+    @Param({ "4096", "32768" })
+    public int maximumWeight;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .setFrequencyBasedAdmission(frequencyBasedAdmission)
+            .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final int[] keys = new int[1 << 12];
+        private int next;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(Thread.currentThread().getId());
+            for (int i = 0; i < keys.length; i++) {
+                // squaring a uniform value skews the keys towards the low end of the range
+                double uniform = random.nextDouble();
+                keys[i] = (int) (uniform * uniform * KEYS);
+            }
+        }
+
+        int nextKey() {
+            return keys[next++ & (keys.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public Integer computeIfAbsent(ThreadState state) throws ExecutionException {
+        return cache.computeIfAbsent(state.nextKey(), key -> key);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.search.aggregations.metrics.CompensatedSum;
+import org.elasticsearch.search.aggregations.metrics.NumericDoubleValuesBlock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares collecting a dense, single-valued numeric field one document at a time, the way metric aggregators collect by default,
+ * with collecting it in blocks through {@link NumericDoubleValuesBlock}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class NumericBlockCollectBenchmark {
+
+    @Param({ "1000000" })
+    public int numDocs;
+
+    @Param({ "64", "128", "1024" })
+    public int blockSize;
+
+    private double[] docValues;
+    private int[] docs;
+    private DoubleArray sums;
+    private DoubleArray compensations;
+    private DoubleArray maxes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        docValues = new double[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            docValues[i] = random.nextDouble() * 1000;
+        }
+        docs = new int[blockSize];
+        sums = BigArrays.NON_RECYCLING_INSTANCE.newDoubleArray(1, true);
+        compensations = BigArrays.NON_RECYCLING_INSTANCE.newDoubleArray(1, true);
+        maxes = BigArrays.NON_RECYCLING_INSTANCE.newDoubleArray(1, false);
+        maxes.set(0, Double.NEGATIVE_INFINITY);
+    }
+
+    @Benchmark
+    public double sumPerDoc() throws IOException {
+        NumericDoubleValues values = values();
+        CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (values.advanceExact(doc)) {
+                kahanSummation.reset(sums.get(0), compensations.get(0));
+                kahanSummation.add(values.doubleValue());
+                compensations.set(0, kahanSummation.delta());
+                sums.set(0, kahanSummation.value());
+            }
+        }
+        return sums.get(0);
+    }
+
+    @Benchmark
+    public double sumBlock() throws IOException {
+        NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values());
+        CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        for (int doc = 0; doc < numDocs;) {
+            int count = fillBlock(doc);
+            doc += count;
+            if (block.load(docs, count) > 0) {
+                kahanSummation.reset(sums.get(0), compensations.get(0));
+                block.sum(kahanSummation);
+                compensations.set(0, kahanSummation.delta());
+                sums.set(0, kahanSummation.value());
+            }
+        }
+        return sums.get(0);
+    }
+
+    @Benchmark
+    public double maxPerDoc() throws IOException {
+        NumericDoubleValues values = values();
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (values.advanceExact(doc)) {
+                maxes.set(0, Math.max(maxes.get(0), values.doubleValue()));
+            }
+        }
+        return maxes.get(0);
+    }
+
+    @Benchmark
+    public double maxBlock() throws IOException {
+        NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values());
+        for (int doc = 0; doc < numDocs;) {
+            int count = fillBlock(doc);
+            doc += count;
+            if (block.load(docs, count) > 0) {
+                maxes.set(0, block.max(maxes.get(0)));
+            }
+        }
+        return maxes.get(0);
+    }
+
+    private int fillBlock(int firstDoc) {
+        int count = Math.min(blockSize, numDocs - firstDoc);
+        for (int i = 0; i < count; i++) {
+            docs[i] = firstDoc + i;
+        }
+        return count;
+    }
+
+    private NumericDoubleValues values() {
+        return new NumericDoubleValues() {
+            private int doc;
+
+            @Override
+            public boolean advanceExact(int target) {
+                doc = target;
+                return true;
+            }
+
+            @Override
+            public double doubleValue() {
+                return docValues[doc];
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.fetch;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the {@code _source} of export-sized batches of hits from a single segment, either one hit at a time through the
+ * random access stored fields reader or through the sequential reader that the fetch phase uses for dense hits, for different
+ * distances between the hits.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class StoredFieldsFetchBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int hits;
+
+    @Param({ "1", "4", "8", "32" })
+    private int gap;
+
+    @Param({ "300", "4096" })
+    private int sourceSize;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private int[] docs;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = new ByteBuffersDirectory();
+        Random random = new Random(0);
+        try (IndexWriter w = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < hits * gap; i++) {
+                Document doc = new Document();
+                doc.add(new StoredField(SourceFieldMapper.NAME, new BytesRef(randomSource(random))));
+                w.addDocument(doc);
+            }
+            w.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        docs = new int[hits];
+        for (int i = 0; i < hits; i++) {
+            docs[i] = i * gap;
+        }
+    }
+
+    private String randomSource(Random random) {
+        StringBuilder source = new StringBuilder(sourceSize).append("{\"message\":\"");
+        while (source.length() < sourceSize - 2) {
+            source.append((char) ('a' + random.nextInt(26)));
+            if (random.nextInt(8) == 0) {
+                source.append(' ');
+            }
+        }
+        return source.append("\"}").toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public long randomAccess() throws IOException {
+        LeafReader leaf = reader.leaves().get(0).reader();
+        FieldsVisitor visitor = new FieldsVisitor(true);
+        long bytes = 0;
+        for (int doc : docs) {
+            visitor.reset();
+            leaf.document(doc, visitor);
+            bytes += visitor.source().length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long sequential() throws IOException {
+        CodecReader leaf = (CodecReader) reader.leaves().get(0).reader();
+        StoredFieldsReader fieldsReader = leaf.getFieldsReader().getMergeInstance();
+        FieldsVisitor visitor = new FieldsVisitor(true);
+        long bytes = 0;
+        for (int doc : docs) {
+            visitor.reset();
+            fieldsReader.visitDocument(doc, visitor);
+            bytes += visitor.source().length();
+        }
+        return bytes;
+    }
+}
@@ -68,6 +68,7 @@ public final class Grok {
 
     private final Map<String, String> patternBank;
     private final boolean namedCaptures;
+    private final String expression;
     private final Regex compiledExpression;
     private final MatcherWatchdog matcherWatchdog;
     private final List<GrokCaptureConfig> captureConfig;
@@ -90,14 +91,31 @@ public final class Grok {
         boolean namedCaptures,
         MatcherWatchdog matcherWatchdog,
         Consumer<String> logCallBack
+    ) {
+        this(patternBank, grokPattern, namedCaptures, matcherWatchdog, logCallBack, true);
+    }
+
+    /**
+     * @param checkPatternBank whether to check the pattern bank for circular references, which callers that build several instances
+     *                         from the same pattern bank only need to do once
+     */
+    Grok(
+        Map<String, String> patternBank,
+        String grokPattern,
+        boolean namedCaptures,
+        MatcherWatchdog matcherWatchdog,
+        Consumer<String> logCallBack,
+        boolean checkPatternBank
     ) {
         this.patternBank = patternBank;
         this.namedCaptures = namedCaptures;
         this.matcherWatchdog = matcherWatchdog;
 
-        forbidCircularReferences();
+        if (checkPatternBank) {
+            forbidCircularReferences();
+        }
 
-        String expression = toRegex(grokPattern);
+        this.expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(
             expressionBytes,
@@ -298,10 +316,35 @@ public final class Grok {
      * @throws RuntimeException if there was a timeout
      */
     public boolean match(byte[] utf8Bytes, int offset, int length, GrokCaptureExtracter extracter) {
-        Matcher matcher = compiledExpression.matcher(utf8Bytes, offset, offset + length);
+        Matcher matcher = matcher(utf8Bytes, offset, length);
+        if (search(matcher, offset, length) == Matcher.FAILED) {
+            return false;
+        }
+        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
+        return true;
+    }
+
+    Matcher matcher(byte[] utf8Bytes, int offset, int length) {
+        return compiledExpression.matcher(utf8Bytes, offset, offset + length);
+    }
+
+    /**
+     * Searches for the leftmost match of the expression, whose groups can then be read from the eager region of the matcher.
+     * @return the position of the start of the match, or {@link Matcher#FAILED} if there is no match
+     * @throws RuntimeException if there was a timeout
+     */
+    int search(Matcher matcher, int offset, int length) {
+        return search(matcher, offset, length, matcherWatchdog.relativeTimeInMillis());
+    }
+
+    /**
+     * Like {@link #search(Matcher, int, int)}, but the time limit of the watchdog counts from the given start time, see
+     * {@link MatcherWatchdog#register(Matcher, long)}.
+     */
+    int search(Matcher matcher, int offset, int length, long startTimeInMillis) {
         int result;
         try {
-            matcherWatchdog.register(matcher);
+            matcherWatchdog.register(matcher, startTimeInMillis);
             result = matcher.search(offset, length, Option.DEFAULT);
         } finally {
             matcherWatchdog.unregister(matcher);
@@ -311,11 +354,14 @@ public final class Grok {
                 "grok pattern matching was interrupted after [" + matcherWatchdog.maxExecutionTimeInMillis() + "] ms"
             );
         }
-        if (result == Matcher.FAILED) {
-            return false;
-        }
-        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
-        return true;
+        return result;
+    }
+
+    /**
+     * The regular expression that the grok pattern was converted to.
+     */
+    String expression() {
+        return expression;
     }
 
     /**
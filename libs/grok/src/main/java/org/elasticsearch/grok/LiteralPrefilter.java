@@ -0,0 +1,168 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton over the utf-8 bytes of the literals that each of a list of patterns requires, which finds all patterns whose
+ * literal occurs in a text in a single pass over the text.
+ */
+final class LiteralPrefilter {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The bytes of the transitions out of each state, sorted, and the states that they lead to.
+     */
+    private final byte[][] transitionBytes;
+    private final int[][] transitionTargets;
+    private final int[] failures;
+    /**
+     * The patterns whose literal ends at each state, including the ones that end at the states its failure links lead to.
+     */
+    private final int[][] outputs;
+    private final boolean[] alwaysCandidates;
+    private final int numberOfAlwaysCandidates;
+
+    /**
+     * @param literals the utf-8 bytes of the literal that each pattern requires, or {@code null} for patterns that don't require any
+     *                 literal and are always candidates
+     */
+    LiteralPrefilter(List<byte[]> literals) {
+        List<byte[]> bytes = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<int[]> ownOutputs = new ArrayList<>();
+        bytes.add(new byte[0]);
+        targets.add(EMPTY);
+        ownOutputs.add(EMPTY);
+        alwaysCandidates = new boolean[literals.size()];
+        int alwaysCount = 0;
+        for (int pattern = 0; pattern < literals.size(); pattern++) {
+            byte[] literal = literals.get(pattern);
+            if (literal == null || literal.length == 0) {
+                alwaysCandidates[pattern] = true;
+                alwaysCount++;
+                continue;
+            }
+            int state = 0;
+            for (byte b : literal) {
+                int next = find(bytes.get(state), targets.get(state), b);
+                if (next == -1) {
+                    next = bytes.size();
+                    bytes.add(new byte[0]);
+                    targets.add(EMPTY);
+                    ownOutputs.add(EMPTY);
+                    addTransition(bytes, targets, state, b, next);
+                }
+                state = next;
+            }
+            int[] output = ownOutputs.get(state);
+            output = Arrays.copyOf(output, output.length + 1);
+            output[output.length - 1] = pattern;
+            ownOutputs.set(state, output);
+        }
+        this.numberOfAlwaysCandidates = alwaysCount;
+        this.transitionBytes = bytes.toArray(new byte[0][]);
+        this.transitionTargets = targets.toArray(new int[0][]);
+        this.failures = new int[transitionBytes.length];
+        this.outputs = new int[transitionBytes.length][];
+        outputs[0] = ownOutputs.get(0);
+
+        // compute the failure links breadth first, so that the links of shorter prefixes are known when they are needed
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[0]) {
+            failures[child] = 0;
+            outputs[child] = ownOutputs.get(child);
+            queue.add(child);
+        }
+        while (queue.isEmpty() == false) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionBytes[state].length; i++) {
+                byte b = transitionBytes[state][i];
+                int child = transitionTargets[state][i];
+                int failure = next(failures[state], b);
+                failures[child] = failure;
+                outputs[child] = merge(ownOutputs.get(child), outputs[failure]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Marks the patterns whose literal occurs in the given text as candidates.
+     *
+     * @return the number of candidates
+     */
+    int candidates(byte[] utf8Bytes, int offset, int length, boolean[] candidates) {
+        System.arraycopy(alwaysCandidates, 0, candidates, 0, alwaysCandidates.length);
+        int count = numberOfAlwaysCandidates;
+        int state = 0;
+        for (int i = offset; i < offset + length && count < candidates.length; i++) {
+            state = next(state, utf8Bytes[i]);
+            for (int pattern : outputs[state]) {
+                if (candidates[pattern] == false) {
+                    candidates[pattern] = true;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int next(int state, byte b) {
+        while (true) {
+            int next = find(transitionBytes[state], transitionTargets[state], b);
+            if (next != -1) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failures[state];
+        }
+    }
+
+    private static int find(byte[] bytes, int[] targets, byte b) {
+        int index = Arrays.binarySearch(bytes, b);
+        return index >= 0 ? targets[index] : -1;
+    }
+
+    private static void addTransition(List<byte[]> bytes, List<int[]> targets, int state, byte b, int target) {
+        byte[] stateBytes = bytes.get(state);
+        int[] stateTargets = targets.get(state);
+        int insertion = -Arrays.binarySearch(stateBytes, b) - 1;
+        byte[] newBytes = new byte[stateBytes.length + 1];
+        int[] newTargets = new int[stateTargets.length + 1];
+        System.arraycopy(stateBytes, 0, newBytes, 0, insertion);
+        System.arraycopy(stateTargets, 0, newTargets, 0, insertion);
+        newBytes[insertion] = b;
+        newTargets[insertion] = target;
+        System.arraycopy(stateBytes, insertion, newBytes, insertion + 1, stateBytes.length - insertion);
+        System.arraycopy(stateTargets, insertion, newTargets, insertion + 1, stateTargets.length - insertion);
+        bytes.set(state, newBytes);
+        targets.set(state, newTargets);
+    }
+
+    private static int[] merge(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        if (first.length == 0) {
+            return second;
+        }
+        int[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        return merged;
+    }
+}
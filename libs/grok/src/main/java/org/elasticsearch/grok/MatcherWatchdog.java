@@ -36,6 +36,24 @@ public interface MatcherWatchdog {
      */
     void register(Matcher matcher);
 
+    /**
+     * Registers the current matcher like {@link #register(Matcher)}, but counts its execution time from the given start time rather
+     * than from now, so that several matchers that run one after the other for the same input share a single time limit.
+     *
+     * @param matcher           The matcher to register
+     * @param startTimeInMillis The relative time, as returned by {@link #relativeTimeInMillis()}, that the execution started at
+     */
+    default void register(Matcher matcher, long startTimeInMillis) {
+        register(matcher);
+    }
+
+    /**
+     * @return The current relative time in milliseconds, to pass to {@link #register(Matcher, long)}
+     */
+    default long relativeTimeInMillis() {
+        return 0L;
+    }
+
     /**
      * @return The maximum allowed time in milliseconds for a thread to invoke {@link #unregister(Matcher)}
      *         after {@link #register(Matcher)} has been invoked before this ThreadWatchDog starts to interrupting that thread.
@@ -111,8 +129,13 @@ public interface MatcherWatchdog {
         }
 
         public void register(Matcher matcher) {
+            register(matcher, relativeTimeSupplier.getAsLong());
+        }
+
+        @Override
+        public void register(Matcher matcher, long startTimeInMillis) {
             registered.getAndIncrement();
-            Long previousValue = registry.put(matcher, relativeTimeSupplier.getAsLong());
+            Long previousValue = registry.put(matcher, startTimeInMillis);
             if (running.compareAndSet(false, true)) {
                 scheduler.accept(interval, this::interruptLongRunningExecutions);
             }
@@ -124,6 +147,11 @@ public interface MatcherWatchdog {
             return maxExecutionTime;
         }
 
+        @Override
+        public long relativeTimeInMillis() {
+            return relativeTimeSupplier.getAsLong();
+        }
+
         public void unregister(Matcher matcher) {
             Long previousValue = registry.remove(matcher);
             registered.decrementAndGet();
@@ -0,0 +1,120 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.joni.Matcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Matches a text against a list of grok patterns and returns the captures of the pattern that matches first, as if the patterns were
+ * combined into a single alternation. Rather than running that alternation, which tries every pattern at every position of the text,
+ * it finds the literals that each pattern requires once, looks for all of them in a single pass over the text and only runs the patterns
+ * whose literal occurs in the text.
+ */
+public final class MultiPatternGrok {
+
+    /**
+     * Literals longer than this are cut, any prefix of a required literal is required as well.
+     */
+    private static final int MAX_LITERAL_LENGTH = 16;
+
+    private final List<Grok> groks;
+    private final LiteralPrefilter prefilter;
+    private final MatcherWatchdog matcherWatchdog;
+
+    public MultiPatternGrok(
+        Map<String, String> patternBank,
+        List<String> grokPatterns,
+        MatcherWatchdog matcherWatchdog,
+        Consumer<String> logCallBack
+    ) {
+        if (grokPatterns.isEmpty()) {
+            throw new IllegalArgumentException("at least one grok pattern is required");
+        }
+        List<Grok> groks = new ArrayList<>(grokPatterns.size());
+        List<byte[]> literals = new ArrayList<>(grokPatterns.size());
+        for (int i = 0; i < grokPatterns.size(); i++) {
+            Grok grok = new Grok(patternBank, grokPatterns.get(i), true, matcherWatchdog, logCallBack, i == 0);
+            groks.add(grok);
+            String literal = RequiredLiterals.longest(grok.expression());
+            if (literal == null) {
+                literals.add(null);
+            } else {
+                byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+                literals.add(bytes.length > MAX_LITERAL_LENGTH ? Arrays.copyOf(bytes, MAX_LITERAL_LENGTH) : bytes);
+            }
+        }
+        this.groks = List.copyOf(groks);
+        this.prefilter = new LiteralPrefilter(literals);
+        this.matcherWatchdog = matcherWatchdog;
+    }
+
+    /**
+     * The result of a match: the index of the pattern that matched and the values that it captured.
+     */
+    public record Match(int patternIndex, Map<String, Object> captures) {}
+
+    /**
+     * Checks whether a specific text matches any of the patterns.
+     *
+     * @param text the string to match
+     * @return true if any pattern matches the text, false otherwise
+     */
+    public boolean match(String text) {
+        return captures(text) != null;
+    }
+
+    /**
+     * Matches the text against the patterns. Like an alternation of the patterns, the match that starts first in the text wins, and of
+     * the matches that start at the same position the one of the pattern that comes first in the list.
+     *
+     * @param text the text to match and extract values from.
+     * @return the index of the pattern that matched and its captures, or null if no pattern matched
+     * @throws RuntimeException if there was a timeout, the searches of all candidate patterns share one time limit
+     */
+    public Match captures(String text) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        boolean[] candidates = new boolean[groks.size()];
+        prefilter.candidates(utf8Bytes, 0, utf8Bytes.length, candidates);
+
+        final long startTimeInMillis = matcherWatchdog.relativeTimeInMillis();
+        int bestPattern = -1;
+        int bestStart = Integer.MAX_VALUE;
+        Matcher bestMatcher = null;
+        for (int i = 0; i < groks.size(); i++) {
+            if (candidates[i] == false) {
+                continue;
+            }
+            Grok grok = groks.get(i);
+            Matcher matcher = grok.matcher(utf8Bytes, 0, utf8Bytes.length);
+            int start = grok.search(matcher, 0, utf8Bytes.length, startTimeInMillis);
+            if (start != Matcher.FAILED && start < bestStart) {
+                bestPattern = i;
+                bestStart = start;
+                bestMatcher = matcher;
+                if (start == 0) {
+                    // no later pattern can start earlier
+                    break;
+                }
+            }
+        }
+        if (bestMatcher == null) {
+            return null;
+        }
+        GrokCaptureExtracter.MapExtracter extracter = new GrokCaptureExtracter.MapExtracter(groks.get(bestPattern).captureConfig());
+        extracter.extract(utf8Bytes, 0, bestMatcher.getEagerRegion());
+        return new Match(bestPattern, extracter.result());
+    }
+}
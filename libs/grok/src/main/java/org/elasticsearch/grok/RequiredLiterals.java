@@ -0,0 +1,253 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the literal strings that any text matching a regular expression must contain, so that the expression doesn't need to be run on
+ * texts that don't contain them. The analysis is conservative: any construct that it doesn't fully understand, like inline options or
+ * unusual escapes, makes it give up on the whole expression rather than risk returning a literal that isn't actually required.
+ */
+final class RequiredLiterals {
+
+    /**
+     * Escapes of a letter that match a single character, or no character, out of a set. Any other escaped letter or digit is not supported.
+     */
+    private static final String CHARACTER_TYPE_ESCAPES = "dDwWsShHbBAzZGntrfvea";
+
+    private RequiredLiterals() {}
+
+    /**
+     * Returns the longest literal that any text matching the given regular expression contains, or {@code null} if no such literal could
+     * be found.
+     */
+    static String longest(String regex) {
+        List<String> literals = new ArrayList<>();
+        try {
+            Parser parser = new Parser(regex);
+            if (parser.parseSequence(literals) == false || parser.pos != regex.length()) {
+                return null;
+            }
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+        String longest = null;
+        for (String literal : literals) {
+            if (longest == null || literal.length() > longest.length()) {
+                longest = literal;
+            }
+        }
+        return longest;
+    }
+
+    private static final class Parser {
+
+        private final String regex;
+        private int pos;
+
+        private Parser(String regex) {
+            this.regex = regex;
+        }
+
+        /**
+         * Parses a sequence of atoms up to the end of the expression or of the current group, and adds the literals that it requires to
+         * the given list.
+         *
+         * @return false if the sequence has alternatives at its top level, in which case none of its literals are required
+         */
+        boolean parseSequence(List<String> literals) {
+            List<String> sequenceLiterals = new ArrayList<>();
+            StringBuilder run = new StringBuilder();
+            boolean alternation = false;
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == ')') {
+                    break;
+                }
+                int literalLength = 0;
+                List<String> groupLiterals = List.of();
+                switch (c) {
+                    case '|' -> {
+                        alternation = true;
+                        pos++;
+                        flush(run, sequenceLiterals);
+                        continue;
+                    }
+                    case '\\' -> {
+                        if (pos + 1 >= regex.length()) {
+                            throw unsupported();
+                        }
+                        int escaped = regex.codePointAt(pos + 1);
+                        if (Character.isLetterOrDigit(escaped)) {
+                            if (CHARACTER_TYPE_ESCAPES.indexOf(escaped) < 0) {
+                                throw unsupported();
+                            }
+                            flush(run, sequenceLiterals);
+                        } else {
+                            run.appendCodePoint(escaped);
+                            literalLength = Character.charCount(escaped);
+                        }
+                        pos += 1 + Character.charCount(escaped);
+                    }
+                    case '[' -> {
+                        flush(run, sequenceLiterals);
+                        skipCharacterClass();
+                    }
+                    case '(' -> {
+                        flush(run, sequenceLiterals);
+                        groupLiterals = parseGroup();
+                    }
+                    case '.', '^', '$' -> {
+                        flush(run, sequenceLiterals);
+                        pos++;
+                    }
+                    case '*', '+', '?', '{', '}', ']' -> throw unsupported();
+                    default -> {
+                        int codePoint = regex.codePointAt(pos);
+                        run.appendCodePoint(codePoint);
+                        literalLength = Character.charCount(codePoint);
+                        pos += literalLength;
+                    }
+                }
+                int quantifier = parseQuantifier();
+                if (quantifier != NO_QUANTIFIER) {
+                    if (quantifier == ZERO_OR_MORE) {
+                        run.setLength(run.length() - literalLength);
+                        groupLiterals = List.of();
+                    }
+                    // the repeated atom is not adjacent to what follows it anymore
+                    flush(run, sequenceLiterals);
+                }
+                sequenceLiterals.addAll(groupLiterals);
+            }
+            flush(run, sequenceLiterals);
+            if (alternation) {
+                return false;
+            }
+            literals.addAll(sequenceLiterals);
+            return true;
+        }
+
+        /**
+         * Parses a group, starting at its opening parenthesis, and returns the literals that it requires.
+         */
+        private List<String> parseGroup() {
+            pos++;
+            boolean required = true;
+            if (regex.startsWith("?", pos)) {
+                if (regex.startsWith("?:", pos) || regex.startsWith("?>", pos)) {
+                    pos += 2;
+                } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)) {
+                    required = false;
+                    pos += 2;
+                } else if (regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                    required = false;
+                    pos += 3;
+                } else if (regex.startsWith("?<", pos)) {
+                    int end = regex.indexOf('>', pos);
+                    if (end == -1) {
+                        throw unsupported();
+                    }
+                    pos = end + 1;
+                } else {
+                    // inline options, like case insensitive matching, or other constructs that we don't need to understand
+                    throw unsupported();
+                }
+            }
+            List<String> groupLiterals = new ArrayList<>();
+            boolean noAlternation = parseSequence(groupLiterals);
+            if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                throw unsupported();
+            }
+            pos++;
+            return required && noAlternation ? groupLiterals : List.of();
+        }
+
+        private void skipCharacterClass() {
+            pos++;
+            if (regex.startsWith("^", pos)) {
+                pos++;
+            }
+            if (regex.startsWith("]", pos)) {
+                pos++;
+            }
+            int depth = 1;
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                    continue;
+                }
+                pos++;
+                if (c == '[') {
+                    depth++;
+                } else if (c == ']' && --depth == 0) {
+                    return;
+                }
+            }
+            throw unsupported();
+        }
+
+        private static final int NO_QUANTIFIER = 0;
+        private static final int ZERO_OR_MORE = 1;
+        private static final int ONE_OR_MORE = 2;
+
+        private int parseQuantifier() {
+            int quantifier = NO_QUANTIFIER;
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == '?' || c == '*') {
+                    quantifier = ZERO_OR_MORE;
+                    pos++;
+                } else if (c == '+') {
+                    if (quantifier == NO_QUANTIFIER) {
+                        quantifier = ONE_OR_MORE;
+                    }
+                    pos++;
+                } else if (c == '{') {
+                    int end = regex.indexOf('}', pos);
+                    if (end == -1) {
+                        throw unsupported();
+                    }
+                    String interval = regex.substring(pos + 1, end);
+                    if (interval.matches("\\d*(,\\d*)?") == false || interval.isEmpty() || interval.equals(",")) {
+                        throw unsupported();
+                    }
+                    String min = interval.contains(",") ? interval.substring(0, interval.indexOf(',')) : interval;
+                    if (min.isEmpty() || Integer.parseInt(min) == 0) {
+                        quantifier = ZERO_OR_MORE;
+                    } else if (quantifier == NO_QUANTIFIER) {
+                        quantifier = ONE_OR_MORE;
+                    }
+                    pos = end + 1;
+                } else {
+                    break;
+                }
+                // lazy and possessive modifiers don't change which texts can match
+                if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                    pos++;
+                }
+            }
+            return quantifier;
+        }
+
+        private static void flush(StringBuilder run, List<String> literals) {
+            if (run.length() > 0) {
+                literals.add(run.toString());
+                run.setLength(0);
+            }
+        }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException();
+        }
+    }
+}
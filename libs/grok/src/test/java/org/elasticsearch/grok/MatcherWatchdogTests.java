@@ -11,6 +11,8 @@ import org.elasticsearch.test.ESTestCase;
 import org.joni.Matcher;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
@@ -22,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -66,6 +69,22 @@ public class MatcherWatchdogTests extends ESTestCase {
         assertBusy(() -> { assertThat(registry.size(), is(0)); });
     }
 
+    public void testRegisterWithStartTime() {
+        List<Runnable> commands = new ArrayList<>();
+        MatcherWatchdog watchdog = MatcherWatchdog.newInstance(10, 100, () -> 1000L, (delay, command) -> commands.add(command));
+        assertThat(watchdog.relativeTimeInMillis(), is(1000L));
+        Matcher late = mock(Matcher.class);
+        Matcher onTime = mock(Matcher.class);
+        // the execution time of a matcher counts from its start time, which may be before it was registered
+        watchdog.register(late, 850L);
+        watchdog.register(onTime, 950L);
+        commands.get(0).run();
+        verify(late).interrupt();
+        verify(onTime, never()).interrupt();
+        watchdog.unregister(late);
+        watchdog.unregister(onTime);
+    }
+
     public void testIdleIfNothingRegistered() throws Exception {
         long interval = 1L;
         ScheduledExecutorService threadPool = mock(ScheduledExecutorService.class);
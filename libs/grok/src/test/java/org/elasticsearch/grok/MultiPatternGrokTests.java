@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+import org.joni.Matcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MultiPatternGrokTests extends ESTestCase {
+
+    public void testRequiredLiterals() {
+        assertThat(RequiredLiterals.longest("foo"), equalTo("foo"));
+        assertThat(RequiredLiterals.longest("GET \\d+ HTTP/1\\.1"), equalTo(" HTTP/1.1"));
+        assertThat(RequiredLiterals.longest("ab?cdef"), equalTo("cdef"));
+        assertThat(RequiredLiterals.longest("abc+"), equalTo("abc"));
+        assertThat(RequiredLiterals.longest("x(?:abcd)*yz"), equalTo("yz"));
+        assertThat(RequiredLiterals.longest("x(?<name>abcd)yz"), equalTo("abcd"));
+        assertThat(RequiredLiterals.longest("[abcdef]+ ok"), equalTo(" ok"));
+        assertThat(RequiredLiterals.longest("(?:foo|barbaz) qux"), equalTo(" qux"));
+        assertThat(RequiredLiterals.longest("foo|barbaz"), nullValue());
+        assertThat(RequiredLiterals.longest("(?=lookahead)x"), equalTo("x"));
+        assertThat(RequiredLiterals.longest("(?i)foo"), nullValue());
+        assertThat(RequiredLiterals.longest("\\p{Alpha}foo"), nullValue());
+        assertThat(RequiredLiterals.longest(".*"), nullValue());
+    }
+
+    public void testLiteralPrefilter() {
+        List<byte[]> literals = new ArrayList<>();
+        for (String literal : Arrays.asList("he", "she", "his", "hers", null, "xyz")) {
+            literals.add(literal == null ? null : literal.getBytes(StandardCharsets.UTF_8));
+        }
+        LiteralPrefilter prefilter = new LiteralPrefilter(literals);
+        byte[] text = "ushers".getBytes(StandardCharsets.UTF_8);
+        boolean[] candidates = new boolean[literals.size()];
+        assertThat(prefilter.candidates(text, 0, text.length, candidates), equalTo(4));
+        assertThat(candidates, equalTo(new boolean[] { true, true, false, true, true, false }));
+
+        text = "this".getBytes(StandardCharsets.UTF_8);
+        assertThat(prefilter.candidates(text, 0, text.length, candidates), equalTo(2));
+        assertThat(candidates, equalTo(new boolean[] { false, false, true, false, true, false }));
+    }
+
+    public void testMatchesLikeAlternation() {
+        Map<String, String> patternBank = Grok.getBuiltinPatterns(false);
+        List<String> patterns = List.of(
+            "%{WORD:verb} /index.html",
+            "error %{NUMBER:code:int}",
+            "%{WORD:verb} %{URIPATHPARAM:path}",
+            "%{GREEDYDATA:message}"
+        );
+        MultiPatternGrok grok = new MultiPatternGrok(patternBank, patterns, MatcherWatchdog.noop(), logger::warn);
+        StringBuilder alternation = new StringBuilder();
+        for (String pattern : patterns) {
+            alternation.append(alternation.length() == 0 ? "" : "|").append("(?:").append(pattern).append(")");
+        }
+        Grok combined = new Grok(patternBank, alternation.toString(), logger::warn);
+
+        for (String text : List.of("GET /index.html", "GET /other.html", "some error 404", "x error 500", "", "no digits here")) {
+            MultiPatternGrok.Match match = grok.captures(text);
+            assertThat(text, match.captures(), equalTo(combined.captures(text)));
+        }
+        assertThat(grok.captures("GET /index.html").patternIndex(), equalTo(0));
+        assertThat(grok.captures("GET /other.html").patternIndex(), equalTo(2));
+        assertThat(grok.captures("error 404").patternIndex(), equalTo(1));
+        assertThat(grok.captures("some error 404").patternIndex(), equalTo(3));
+    }
+
+    public void testNoMatch() {
+        MultiPatternGrok grok = new MultiPatternGrok(
+            Grok.getBuiltinPatterns(false),
+            List.of("foo %{NUMBER:n}", "bar %{WORD:w}"),
+            MatcherWatchdog.noop(),
+            logger::warn
+        );
+        assertThat(grok.captures("foo bar"), nullValue());
+        assertThat(grok.match("bar baz"), equalTo(true));
+        assertThat(grok.captures("foo 12").captures(), equalTo(Map.of("n", "12")));
+    }
+
+    public void testCandidatePatternsShareOneTimeLimit() {
+        AtomicLong clock = new AtomicLong();
+        List<Long> startTimes = new ArrayList<>();
+        MatcherWatchdog watchdog = new MatcherWatchdog() {
+            @Override
+            public void register(Matcher matcher) {
+                fail("matchers must be registered with the start time of the whole match");
+            }
+
+            @Override
+            public void register(Matcher matcher, long startTimeInMillis) {
+                startTimes.add(startTimeInMillis);
+                clock.addAndGet(10);
+            }
+
+            @Override
+            public long maxExecutionTimeInMillis() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void unregister(Matcher matcher) {}
+
+            @Override
+            public long relativeTimeInMillis() {
+                return clock.get();
+            }
+        };
+        MultiPatternGrok grok = new MultiPatternGrok(
+            Grok.getBuiltinPatterns(false),
+            List.of("foo %{NUMBER:n}", "bar %{WORD:w}"),
+            watchdog,
+            logger::warn
+        );
+        // both patterns are candidates and the one that is searched first matches later in the text
+        assertThat(grok.captures("bar baz foo 12").patternIndex(), equalTo(1));
+        assertThat(startTimes, equalTo(List.of(0L, 0L)));
+    }
+}
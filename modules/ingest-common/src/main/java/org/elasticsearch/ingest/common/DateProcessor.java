@@ -72,9 +72,25 @@ public final class DateProcessor extends AbstractProcessor {
         this.targetField = targetField;
         this.formats = formats;
         this.dateParsers = new ArrayList<>(this.formats.size());
+        final boolean parameterIndependent = (timezone == null || timezone.isParameterIndependent())
+            && (locale == null || locale.isParameterIndependent());
         for (String format : formats) {
             DateFormat dateFormat = DateFormat.fromString(format);
-            dateParsers.add((params) -> dateFormat.getFunction(format, newDateTimeZone(params), newLocale(params)));
+            Function<String, ZonedDateTime> dateParser = null;
+            if (parameterIndependent) {
+                // the timezone and locale don't depend on the document, so build the parser once rather than for every document
+                try {
+                    dateParser = dateFormat.getFunction(format, newDateTimeZone(Map.of()), newLocale(Map.of()));
+                } catch (Exception e) {
+                    // keep reporting the failure when documents are processed, as if the parser had been built for each of them
+                }
+            }
+            if (dateParser != null) {
+                final Function<String, ZonedDateTime> sharedDateParser = dateParser;
+                dateParsers.add((params) -> sharedDateParser);
+            } else {
+                dateParsers.add((params) -> dateFormat.getFunction(format, newDateTimeZone(params), newLocale(params)));
+            }
         }
         this.outputFormat = outputFormat;
         formatter = DateFormatter.forPattern(this.outputFormat);
@@ -8,24 +8,22 @@
 
 package org.elasticsearch.ingest.geoip;
 
+import com.maxmind.db.DatabaseRecord;
 import com.maxmind.db.NoCache;
 import com.maxmind.db.Reader;
-import com.maxmind.geoip2.DatabaseReader;
-import com.maxmind.geoip2.model.AbstractResponse;
-import com.maxmind.geoip2.model.AsnResponse;
-import com.maxmind.geoip2.model.CityResponse;
-import com.maxmind.geoip2.model.CountryResponse;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.SpecialPermission;
-import org.elasticsearch.common.CheckedBiFunction;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.AsnData;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.CityData;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.CountryData;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -37,12 +35,15 @@ import java.nio.file.Path;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Facilitates lazy loading of the database reader, so that when the geoip plugin is installed, but not used,
  * no memory is being wasted on the database reader.
+ * <p>
+ * Lookups walk the search tree of the memory mapped database with the maxmind {@link Reader} and decode the record that they find
+ * straight into the compact classes of {@link GeoIpData}, which the {@link GeoIpCache} then holds.
  */
 class DatabaseReaderLazyLoader implements Closeable {
 
@@ -53,8 +54,8 @@ class DatabaseReaderLazyLoader implements Closeable {
     private final String md5;
     private final GeoIpCache cache;
     private final Path databasePath;
-    private final CheckedSupplier<DatabaseReader, IOException> loader;
-    final SetOnce<DatabaseReader> databaseReader;
+    private final CheckedSupplier<Reader, IOException> loader;
+    final SetOnce<Reader> databaseReader;
 
     // cache the database type so that we do not re-read it on every pipeline execution
     final SetOnce<String> databaseType;
@@ -66,7 +67,7 @@ class DatabaseReaderLazyLoader implements Closeable {
         this(cache, databasePath, md5, createDatabaseLoader(databasePath));
     }
 
-    DatabaseReaderLazyLoader(GeoIpCache cache, Path databasePath, String md5, CheckedSupplier<DatabaseReader, IOException> loader) {
+    DatabaseReaderLazyLoader(GeoIpCache cache, Path databasePath, String md5, CheckedSupplier<Reader, IOException> loader) {
         this.cache = cache;
         this.databasePath = Objects.requireNonNull(databasePath);
         this.md5 = md5;
@@ -154,18 +155,23 @@ class DatabaseReaderLazyLoader implements Closeable {
     }
 
     @Nullable
-    CityResponse getCity(InetAddress ipAddress) {
-        return getResponse(ipAddress, DatabaseReader::tryCity);
+    CityData getCity(InetAddress ipAddress) {
+        return getResponse(ipAddress, CityData.class, DatabaseRecord::getData);
     }
 
     @Nullable
-    CountryResponse getCountry(InetAddress ipAddress) {
-        return getResponse(ipAddress, DatabaseReader::tryCountry);
+    CountryData getCountry(InetAddress ipAddress) {
+        return getResponse(ipAddress, CountryData.class, DatabaseRecord::getData);
     }
 
     @Nullable
-    AsnResponse getAsn(InetAddress ipAddress) {
-        return getResponse(ipAddress, DatabaseReader::tryAsn);
+    AsnData getAsn(InetAddress ipAddress) {
+        // the network is not part of the record, but of the path through the search tree that led to it
+        return getResponse(
+            ipAddress,
+            AsnData.class,
+            record -> record.getData() == null ? null : record.getData().withNetwork(record.getNetwork())
+        );
     }
 
     boolean preLookup() {
@@ -183,21 +189,18 @@ class DatabaseReaderLazyLoader implements Closeable {
     }
 
     @Nullable
-    private <T extends AbstractResponse> T getResponse(
-        InetAddress ipAddress,
-        CheckedBiFunction<DatabaseReader, InetAddress, Optional<T>, Exception> responseProvider
-    ) {
+    private <T> T getResponse(InetAddress ipAddress, Class<T> recordClass, Function<DatabaseRecord<T>, T> responseProvider) {
         SpecialPermission.check();
         return AccessController.doPrivileged((PrivilegedAction<T>) () -> cache.putIfAbsent(ipAddress, databasePath.toString(), ip -> {
             try {
-                return responseProvider.apply(get(), ipAddress).orElse(null);
+                return responseProvider.apply(get().getRecord(ip, recordClass));
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }));
     }
 
-    DatabaseReader get() throws IOException {
+    Reader get() throws IOException {
         if (databaseReader.get() == null) {
             synchronized (databaseReader) {
                 if (databaseReader.get() == null) {
@@ -235,21 +238,19 @@ class DatabaseReaderLazyLoader implements Closeable {
         }
     }
 
-    private static CheckedSupplier<DatabaseReader, IOException> createDatabaseLoader(Path databasePath) {
+    private static CheckedSupplier<Reader, IOException> createDatabaseLoader(Path databasePath) {
         return () -> {
-            DatabaseReader.Builder builder = createDatabaseBuilder(databasePath).withCache(NoCache.getInstance());
             if (LOAD_DATABASE_ON_HEAP) {
-                builder.fileMode(Reader.FileMode.MEMORY);
+                return createDatabaseReader(databasePath, Reader.FileMode.MEMORY);
             } else {
-                builder.fileMode(Reader.FileMode.MEMORY_MAPPED);
+                return createDatabaseReader(databasePath, Reader.FileMode.MEMORY_MAPPED);
             }
-            return builder.build();
         };
     }
 
     @SuppressForbidden(reason = "Maxmind API requires java.io.File")
-    private static DatabaseReader.Builder createDatabaseBuilder(Path databasePath) {
-        return new DatabaseReader.Builder(databasePath.toFile());
+    private static Reader createDatabaseReader(Path databasePath, Reader.FileMode fileMode) throws IOException {
+        return new Reader(databasePath.toFile(), fileMode, NoCache.getInstance());
     }
 
 }
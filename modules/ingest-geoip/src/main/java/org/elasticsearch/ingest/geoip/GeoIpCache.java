@@ -8,64 +8,67 @@
 package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.db.NodeCache;
-import com.maxmind.geoip2.model.AbstractResponse;
 
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 
+import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
-import java.util.Objects;
 import java.util.function.Function;
 
 /**
  * The in-memory cache for the geoip data. There should only be 1 instance of this class..
- * This cache differs from the maxmind's {@link NodeCache} such that this cache stores the deserialized Json objects to avoid the
- * cost of deserialization for each lookup (cached or not). This comes at slight expense of higher memory usage, but significant
+ * This cache differs from the maxmind's {@link NodeCache} such that this cache stores the decoded records to avoid the
+ * cost of decoding for each lookup (cached or not). This comes at slight expense of higher memory usage, but significant
  * reduction of CPU usage.
+ * <p>
+ * Keys hold the address as primitives, an IPv4 address as an int and an IPv6 address as two longs, rather than the {@link InetAddress},
+ * so that hashing and comparing them is cheap. Lookups of addresses that are not in the database are cached as well.
  */
 final class GeoIpCache {
-    private final Cache<CacheKey, AbstractResponse> cache;
+
+    /**
+     * The cached value of addresses that are not in the database.
+     */
+    private static final Object NO_RESULT = new Object();
+
+    private final Cache<CacheKey, Object> cache;
 
     // package private for testing
     GeoIpCache(long maxSize) {
         if (maxSize < 0) {
             throw new IllegalArgumentException("geoip max cache size must be 0 or greater");
         }
-        this.cache = CacheBuilder.<CacheKey, AbstractResponse>builder().setMaximumWeight(maxSize).build();
+        this.cache = CacheBuilder.<CacheKey, Object>builder().setMaximumWeight(maxSize).build();
     }
 
     @SuppressWarnings("unchecked")
-    <T extends AbstractResponse> T putIfAbsent(
-        InetAddress ip,
-        String databasePath,
-        Function<InetAddress, AbstractResponse> retrieveFunction
-    ) {
-
-        // can't use cache.computeIfAbsent due to the elevated permissions for the jackson (run via the cache loader)
-        CacheKey cacheKey = new CacheKey(ip, databasePath);
+    <T> T putIfAbsent(InetAddress ip, String databasePath, Function<InetAddress, T> retrieveFunction) {
+
+        // can't use cache.computeIfAbsent due to the elevated permissions for the maxmind reader (run via the cache loader)
+        CacheKey cacheKey = CacheKey.of(ip, databasePath);
         // intentionally non-locking for simplicity...it's OK if we re-put the same key/value in the cache during a race condition.
-        AbstractResponse response = cache.get(cacheKey);
+        Object response = cache.get(cacheKey);
         if (response == null) {
             response = retrieveFunction.apply(ip);
-            if (response != null) {
-                cache.put(cacheKey, response);
-            }
+            cache.put(cacheKey, response == null ? NO_RESULT : response);
         }
-        return (T) response;
+        return response == NO_RESULT ? null : (T) response;
     }
 
     // only useful for testing
-    AbstractResponse get(InetAddress ip, String databasePath) {
-        CacheKey cacheKey = new CacheKey(ip, databasePath);
-        return cache.get(cacheKey);
+    Object get(InetAddress ip, String databasePath) {
+        Object response = cache.get(CacheKey.of(ip, databasePath));
+        return response == NO_RESULT ? null : response;
     }
 
     public int purgeCacheEntriesForDatabase(Path databaseFile) {
         String databasePath = databaseFile.toString();
         int counter = 0;
         for (CacheKey key : cache.keys()) {
-            if (key.databasePath.equals(databasePath)) {
+            if (key.databasePath().equals(databasePath)) {
                 cache.invalidate(key);
                 counter++;
             }
@@ -82,29 +85,21 @@ final class GeoIpCache {
      * path is needed to be included in the cache key. For example, if we only used the IP address as the key the City and ASN the same
      * IP may be in both with different values and we need to cache both.
      */
-    private static class CacheKey {
+    private interface CacheKey {
 
-        private final InetAddress ip;
-        private final String databasePath;
+        String databasePath();
 
-        private CacheKey(InetAddress ip, String databasePath) {
-            this.ip = ip;
-            this.databasePath = databasePath;
+        static CacheKey of(InetAddress ip, String databasePath) {
+            byte[] address = ip.getAddress();
+            if (ip instanceof Inet4Address) {
+                return new Ipv4Key(ByteBuffer.wrap(address).getInt(), databasePath);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(address);
+            return new Ipv6Key(buffer.getLong(), buffer.getLong(), databasePath);
         }
+    }
 
-        // generated
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return Objects.equals(ip, cacheKey.ip) && Objects.equals(databasePath, cacheKey.databasePath);
-        }
+    private record Ipv4Key(int address, String databasePath) implements CacheKey {}
 
-        // generated
-        @Override
-        public int hashCode() {
-            return Objects.hash(ip, databasePath);
-        }
-    }
+    private record Ipv6Key(long high, long low, String databasePath) implements CacheKey {}
 }
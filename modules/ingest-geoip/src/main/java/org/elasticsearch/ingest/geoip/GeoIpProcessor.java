@@ -9,14 +9,6 @@
 package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.db.Network;
-import com.maxmind.geoip2.model.AsnResponse;
-import com.maxmind.geoip2.model.CityResponse;
-import com.maxmind.geoip2.model.CountryResponse;
-import com.maxmind.geoip2.record.City;
-import com.maxmind.geoip2.record.Continent;
-import com.maxmind.geoip2.record.Country;
-import com.maxmind.geoip2.record.Location;
-import com.maxmind.geoip2.record.Subdivision;
 
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.ResourceNotFoundException;
@@ -31,6 +23,11 @@ import org.elasticsearch.common.network.NetworkAddress;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.AsnData;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.CityData;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.CountryData;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.Location;
+import org.elasticsearch.ingest.geoip.records.GeoIpData.Place;
 import org.elasticsearch.persistent.PersistentTasksCustomMetadata.PersistentTask;
 
 import java.io.IOException;
@@ -213,34 +210,34 @@ public final class GeoIpProcessor extends AbstractProcessor {
     }
 
     private Map<String, Object> retrieveCityGeoData(DatabaseReaderLazyLoader lazyLoader, InetAddress ipAddress) {
-        CityResponse response = lazyLoader.getCity(ipAddress);
+        CityData response = lazyLoader.getCity(ipAddress);
         if (response == null) {
             return Map.of();
         }
-        Country country = response.getCountry();
-        City city = response.getCity();
-        Location location = response.getLocation();
-        Continent continent = response.getContinent();
-        Subdivision subdivision = response.getMostSpecificSubdivision();
+        Place country = response.country();
+        Place city = response.city();
+        Location location = response.location();
+        Place continent = response.continent();
+        Place subdivision = response.mostSpecificSubdivision();
 
         Map<String, Object> geoData = new HashMap<>();
         for (Property property : this.properties) {
             switch (property) {
                 case IP -> geoData.put("ip", NetworkAddress.format(ipAddress));
                 case COUNTRY_ISO_CODE -> {
-                    String countryIsoCode = country.getIsoCode();
+                    String countryIsoCode = country.isoCode();
                     if (countryIsoCode != null) {
                         geoData.put("country_iso_code", countryIsoCode);
                     }
                 }
                 case COUNTRY_NAME -> {
-                    String countryName = country.getName();
+                    String countryName = country.name();
                     if (countryName != null) {
                         geoData.put("country_name", countryName);
                     }
                 }
                 case CONTINENT_NAME -> {
-                    String continentName = continent.getName();
+                    String continentName = continent.name();
                     if (continentName != null) {
                         geoData.put("continent_name", continentName);
                     }
@@ -248,34 +245,34 @@ public final class GeoIpProcessor extends AbstractProcessor {
                 case REGION_ISO_CODE -> {
                     // ISO 3166-2 code for country subdivisions.
                     // See iso.org/iso-3166-country-codes.html
-                    String countryIso = country.getIsoCode();
-                    String subdivisionIso = subdivision.getIsoCode();
+                    String countryIso = country.isoCode();
+                    String subdivisionIso = subdivision.isoCode();
                     if (countryIso != null && subdivisionIso != null) {
                         String regionIsoCode = countryIso + "-" + subdivisionIso;
                         geoData.put("region_iso_code", regionIsoCode);
                     }
                 }
                 case REGION_NAME -> {
-                    String subdivisionName = subdivision.getName();
+                    String subdivisionName = subdivision.name();
                     if (subdivisionName != null) {
                         geoData.put("region_name", subdivisionName);
                     }
                 }
                 case CITY_NAME -> {
-                    String cityName = city.getName();
+                    String cityName = city.name();
                     if (cityName != null) {
                         geoData.put("city_name", cityName);
                     }
                 }
                 case TIMEZONE -> {
-                    String locationTimeZone = location.getTimeZone();
+                    String locationTimeZone = location.timeZone();
                     if (locationTimeZone != null) {
                         geoData.put("timezone", locationTimeZone);
                     }
                 }
                 case LOCATION -> {
-                    Double latitude = location.getLatitude();
-                    Double longitude = location.getLongitude();
+                    Double latitude = location.latitude();
+                    Double longitude = location.longitude();
                     if (latitude != null && longitude != null) {
                         Map<String, Object> locationObject = new HashMap<>();
                         locationObject.put("lat", latitude);
@@ -289,31 +286,31 @@ public final class GeoIpProcessor extends AbstractProcessor {
     }
 
     private Map<String, Object> retrieveCountryGeoData(DatabaseReaderLazyLoader lazyLoader, InetAddress ipAddress) {
-        CountryResponse response = lazyLoader.getCountry(ipAddress);
+        CountryData response = lazyLoader.getCountry(ipAddress);
         if (response == null) {
             return Map.of();
         }
-        Country country = response.getCountry();
-        Continent continent = response.getContinent();
+        Place country = response.country();
+        Place continent = response.continent();
 
         Map<String, Object> geoData = new HashMap<>();
         for (Property property : this.properties) {
             switch (property) {
                 case IP -> geoData.put("ip", NetworkAddress.format(ipAddress));
                 case COUNTRY_ISO_CODE -> {
-                    String countryIsoCode = country.getIsoCode();
+                    String countryIsoCode = country.isoCode();
                     if (countryIsoCode != null) {
                         geoData.put("country_iso_code", countryIsoCode);
                     }
                 }
                 case COUNTRY_NAME -> {
-                    String countryName = country.getName();
+                    String countryName = country.name();
                     if (countryName != null) {
                         geoData.put("country_name", countryName);
                     }
                 }
                 case CONTINENT_NAME -> {
-                    String continentName = continent.getName();
+                    String continentName = continent.name();
                     if (continentName != null) {
                         geoData.put("continent_name", continentName);
                     }
@@ -324,13 +321,13 @@ public final class GeoIpProcessor extends AbstractProcessor {
     }
 
     private Map<String, Object> retrieveAsnGeoData(DatabaseReaderLazyLoader lazyLoader, InetAddress ipAddress) {
-        AsnResponse response = lazyLoader.getAsn(ipAddress);
+        AsnData response = lazyLoader.getAsn(ipAddress);
         if (response == null) {
             return Map.of();
         }
-        Long asn = response.getAutonomousSystemNumber();
-        String organization_name = response.getAutonomousSystemOrganization();
-        Network network = response.getNetwork();
+        Long asn = response.asn();
+        String organization_name = response.organizationName();
+        Network network = response.network();
 
         Map<String, Object> geoData = new HashMap<>();
         for (Property property : this.properties) {
@@ -0,0 +1,219 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.ingest.geoip.records;
+
+import com.maxmind.db.MaxMindDbConstructor;
+import com.maxmind.db.MaxMindDbParameter;
+import com.maxmind.db.Network;
+
+import java.util.ArrayList;
+
+/**
+ * Compact versions of the records of the geoip databases, which only hold the values that the geoip processor can add to a document.
+ * The maxmind reader decodes a record straight into these classes and skips all other values of the record, like the names in other
+ * languages than English. The reader calls their constructors by reflection, which is why they are public and this package is exported
+ * to the maxmind reader's module.
+ */
+public final class GeoIpData {
+
+    private GeoIpData() {}
+
+    /**
+     * The English name of a place.
+     */
+    public static final class Names {
+
+        private final String en;
+
+        @MaxMindDbConstructor
+        public Names(@MaxMindDbParameter(name = "en") String en) {
+            this.en = en;
+        }
+
+        public String en() {
+            return en;
+        }
+    }
+
+    /**
+     * A continent, country, subdivision or city.
+     */
+    public static final class Place {
+
+        static final Place EMPTY = new Place(null, null);
+
+        private final String isoCode;
+        private final Names names;
+
+        @MaxMindDbConstructor
+        public Place(@MaxMindDbParameter(name = "iso_code") String isoCode, @MaxMindDbParameter(name = "names") Names names) {
+            this.isoCode = isoCode;
+            this.names = names;
+        }
+
+        public String isoCode() {
+            return isoCode;
+        }
+
+        public String name() {
+            return names == null ? null : names.en();
+        }
+
+        private static Place orEmpty(Place place) {
+            return place == null ? EMPTY : place;
+        }
+    }
+
+    /**
+     * The coordinates and time zone of a place.
+     */
+    public static final class Location {
+
+        static final Location EMPTY = new Location(null, null, null);
+
+        private final Double latitude;
+        private final Double longitude;
+        private final String timeZone;
+
+        @MaxMindDbConstructor
+        public Location(
+            @MaxMindDbParameter(name = "latitude") Double latitude,
+            @MaxMindDbParameter(name = "longitude") Double longitude,
+            @MaxMindDbParameter(name = "time_zone") String timeZone
+        ) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.timeZone = timeZone;
+        }
+
+        public Double latitude() {
+            return latitude;
+        }
+
+        public Double longitude() {
+            return longitude;
+        }
+
+        public String timeZone() {
+            return timeZone;
+        }
+    }
+
+    /**
+     * A record of a city database.
+     */
+    public static final class CityData {
+
+        private final Place continent;
+        private final Place country;
+        private final Place mostSpecificSubdivision;
+        private final Place city;
+        private final Location location;
+
+        @MaxMindDbConstructor
+        public CityData(
+            @MaxMindDbParameter(name = "continent") Place continent,
+            @MaxMindDbParameter(name = "country") Place country,
+            @MaxMindDbParameter(name = "subdivisions") ArrayList<Place> subdivisions,
+            @MaxMindDbParameter(name = "city") Place city,
+            @MaxMindDbParameter(name = "location") Location location
+        ) {
+            this.continent = Place.orEmpty(continent);
+            this.country = Place.orEmpty(country);
+            this.mostSpecificSubdivision = subdivisions == null || subdivisions.isEmpty()
+                ? Place.EMPTY
+                : Place.orEmpty(subdivisions.get(subdivisions.size() - 1));
+            this.city = Place.orEmpty(city);
+            this.location = location == null ? Location.EMPTY : location;
+        }
+
+        public Place continent() {
+            return continent;
+        }
+
+        public Place country() {
+            return country;
+        }
+
+        public Place mostSpecificSubdivision() {
+            return mostSpecificSubdivision;
+        }
+
+        public Place city() {
+            return city;
+        }
+
+        public Location location() {
+            return location;
+        }
+    }
+
+    /**
+     * A record of a country database.
+     */
+    public static final class CountryData {
+
+        private final Place continent;
+        private final Place country;
+
+        @MaxMindDbConstructor
+        public CountryData(@MaxMindDbParameter(name = "continent") Place continent, @MaxMindDbParameter(name = "country") Place country) {
+            this.continent = Place.orEmpty(continent);
+            this.country = Place.orEmpty(country);
+        }
+
+        public Place continent() {
+            return continent;
+        }
+
+        public Place country() {
+            return country;
+        }
+    }
+
+    /**
+     * A record of an asn database, together with the network that the looked up address belongs to.
+     */
+    public static final class AsnData {
+
+        private final Long asn;
+        private final String organizationName;
+        private final Network network;
+
+        @MaxMindDbConstructor
+        public AsnData(
+            @MaxMindDbParameter(name = "autonomous_system_number") Long asn,
+            @MaxMindDbParameter(name = "autonomous_system_organization") String organizationName
+        ) {
+            this(asn, organizationName, null);
+        }
+
+        private AsnData(Long asn, String organizationName, Network network) {
+            this.asn = asn;
+            this.organizationName = organizationName;
+            this.network = network;
+        }
+
+        public AsnData withNetwork(Network network) {
+            return new AsnData(asn, organizationName, network);
+        }
+
+        public Long asn() {
+            return asn;
+        }
+
+        public String organizationName() {
+            return organizationName;
+        }
+
+        public Network network() {
+            return network;
+        }
+    }
+}
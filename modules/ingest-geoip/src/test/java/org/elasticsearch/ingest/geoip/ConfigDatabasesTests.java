@@ -8,11 +8,10 @@
 
 package org.elasticsearch.ingest.geoip;
 
-import com.maxmind.geoip2.model.CityResponse;
-
 import org.elasticsearch.common.network.InetAddresses;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.ingest.geoip.records.GeoIpData;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -126,8 +125,8 @@ public class ConfigDatabasesTests extends ESTestCase {
 
             DatabaseReaderLazyLoader loader = configDatabases.getDatabase("GeoLite2-City.mmdb");
             assertThat(loader.getDatabaseType(), equalTo("GeoLite2-City"));
-            CityResponse cityResponse = loader.getCity(InetAddresses.forString("89.160.20.128"));
-            assertThat(cityResponse.getCity().getName(), equalTo("Tumba"));
+            GeoIpData.CityData cityResponse = loader.getCity(InetAddresses.forString("89.160.20.128"));
+            assertThat(cityResponse.city().name(), equalTo("Tumba"));
             assertThat(cache.count(), equalTo(1));
         }
 
@@ -142,8 +141,8 @@ public class ConfigDatabasesTests extends ESTestCase {
 
             DatabaseReaderLazyLoader loader = configDatabases.getDatabase("GeoLite2-City.mmdb");
             assertThat(loader.getDatabaseType(), equalTo("GeoLite2-City"));
-            CityResponse cityResponse = loader.getCity(InetAddresses.forString("89.160.20.128"));
-            assertThat(cityResponse.getCity().getName(), equalTo("Linköping"));
+            GeoIpData.CityData cityResponse = loader.getCity(InetAddresses.forString("89.160.20.128"));
+            assertThat(cityResponse.city().name(), equalTo("Linköping"));
             assertThat(cache.count(), equalTo(1));
         });
 
@@ -8,22 +8,19 @@
 
 package org.elasticsearch.ingest.geoip;
 
-import com.maxmind.geoip2.model.AbstractResponse;
-
 import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.core.PathUtils;
 import org.elasticsearch.test.ESTestCase;
 
-import static org.mockito.Mockito.mock;
-
 public class GeoIpCacheTests extends ESTestCase {
 
     public void testCachesAndEvictsResults() {
         GeoIpCache cache = new GeoIpCache(1);
-        AbstractResponse response1 = mock(AbstractResponse.class);
-        AbstractResponse response2 = mock(AbstractResponse.class);
+        Object response1 = new Object();
+        Object response2 = new Object();
 
         // add a key
-        AbstractResponse cachedResponse = cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> response1);
+        Object cachedResponse = cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> response1);
         assertSame(cachedResponse, response1);
         assertSame(cachedResponse, cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> response1));
         assertSame(cachedResponse, cache.get(InetAddresses.forString("127.0.0.1"), "path/to/db"));
@@ -38,8 +35,8 @@ public class GeoIpCacheTests extends ESTestCase {
 
     public void testCacheKey() {
         GeoIpCache cache = new GeoIpCache(2);
-        AbstractResponse response1 = mock(AbstractResponse.class);
-        AbstractResponse response2 = mock(AbstractResponse.class);
+        Object response1 = new Object();
+        Object response2 = new Object();
 
         assertSame(response1, cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db1", ip -> response1));
         assertSame(response2, cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db2", ip -> response2));
@@ -47,6 +44,37 @@ public class GeoIpCacheTests extends ESTestCase {
         assertSame(response2, cache.get(InetAddresses.forString("127.0.0.1"), "path/to/db2"));
     }
 
+    public void testCachesMissingResults() {
+        GeoIpCache cache = new GeoIpCache(1);
+        int[] lookups = new int[1];
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.putIfAbsent(InetAddresses.forString("127.0.0.1"), "path/to/db", ip -> {
+                lookups[0]++;
+                return null;
+            }));
+        }
+        assertEquals(1, lookups[0]);
+        assertEquals(1, cache.count());
+        assertNull(cache.get(InetAddresses.forString("127.0.0.1"), "path/to/db"));
+    }
+
+    public void testIpv4AndIpv6Keys() {
+        GeoIpCache cache = new GeoIpCache(4);
+        Object ipv4 = new Object();
+        Object ipv6 = new Object();
+        Object otherIpv6 = new Object();
+
+        assertSame(ipv4, cache.putIfAbsent(InetAddresses.forString("1.2.3.4"), "path/to/db", ip -> ipv4));
+        assertSame(ipv6, cache.putIfAbsent(InetAddresses.forString("::102:304"), "path/to/db", ip -> ipv6));
+        assertSame(otherIpv6, cache.putIfAbsent(InetAddresses.forString("2001:db8::102:304"), "path/to/db", ip -> otherIpv6));
+        assertSame(ipv4, cache.get(InetAddresses.forString("1.2.3.4"), "path/to/db"));
+        assertSame(ipv6, cache.get(InetAddresses.forString("::102:304"), "path/to/db"));
+        assertSame(otherIpv6, cache.get(InetAddresses.forString("2001:db8::102:304"), "path/to/db"));
+
+        assertEquals(3, cache.purgeCacheEntriesForDatabase(PathUtils.get("path/to/db")));
+        assertEquals(0, cache.count());
+    }
+
     public void testThrowsFunctionsException() {
         GeoIpCache cache = new GeoIpCache(1);
         IllegalArgumentException ex = expectThrows(
@@ -0,0 +1,165 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.ingest.geoip;
+
+import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.core.PathUtils;
+import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.jdk.JarHell;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.net.InetAddress;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.test.hamcrest.ModuleDescriptorMatchers.exportsOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Decodes a database record with the maxmind reader and the geoip module each loaded as a named module, like they are in a node. This
+ * test creates its own module layer and class loader, so it runs in a separate test task without the security manager.
+ */
+public class GeoIpDataModuleTests extends ESTestCase {
+
+    private static final String GEOIP_MODULE_NAME = "org.elasticsearch.ingest.geoip";
+    private static final String MAXMIND_DB_MODULE_NAME = "maxmind.db";
+    private static final String RECORDS_PACKAGE = "org.elasticsearch.ingest.geoip.records";
+
+    public void testRecordsPackageIsExportedToReader() {
+        ModuleDescriptor descriptor = findModule(GEOIP_MODULE_NAME).descriptor();
+        assertThat(descriptor.exports(), hasItem(exportsOf(RECORDS_PACKAGE, Set.of(MAXMIND_DB_MODULE_NAME))));
+    }
+
+    public void testReaderDecodesRecordsInModuleLayer() throws Exception {
+        ModuleReference geoipModule = findModule(GEOIP_MODULE_NAME);
+        ModuleReference maxmindDbModule = findModule(MAXMIND_DB_MODULE_NAME);
+        // the other modules that the geoip module requires are not needed to decode a record, so empty modules stand in for them
+        ModuleFinder requiredModules = emptyModules(
+            geoipModule.descriptor()
+                .requires()
+                .stream()
+                .map(ModuleDescriptor.Requires::name)
+                .filter(name -> name.equals(MAXMIND_DB_MODULE_NAME) == false && name.startsWith("java.") == false)
+                .collect(Collectors.toSet())
+        );
+        ModuleFinder finder = ModuleFinder.compose(singleModule(geoipModule), singleModule(maxmindDbModule), requiredModules);
+        Configuration configuration = ModuleLayer.boot().configuration().resolve(finder, ModuleFinder.of(), Set.of(GEOIP_MODULE_NAME));
+        ModuleLayer.Controller controller = ModuleLayer.defineModulesWithOneLoader(
+            configuration,
+            List.of(ModuleLayer.boot()),
+            ClassLoader.getPlatformClassLoader()
+        );
+        ModuleLayer layer = controller.layer();
+        Module geoip = layer.findModule(GEOIP_MODULE_NAME).orElseThrow();
+        // the test itself reads the decoded record, the reader only needs the export that the module declares
+        controller.addExports(geoip, RECORDS_PACKAGE, GeoIpDataModuleTests.class.getModule());
+
+        ClassLoader loader = layer.findLoader(GEOIP_MODULE_NAME);
+        Class<?> readerClass = Class.forName("com.maxmind.db.Reader", true, loader);
+        Class<?> cityDataClass = Class.forName(RECORDS_PACKAGE + ".GeoIpData$CityData", true, loader);
+        assertThat(readerClass.getModule().getName(), equalTo(MAXMIND_DB_MODULE_NAME));
+        assertThat(cityDataClass.getModule(), equalTo(geoip));
+
+        try (InputStream database = GeoIpDataModuleTests.class.getResourceAsStream("/GeoLite2-City-Test.mmdb")) {
+            Closeable reader = (Closeable) readerClass.getConstructor(InputStream.class).newInstance(database);
+            try (reader) {
+                Object cityData = readerClass.getMethod("get", InetAddress.class, Class.class)
+                    .invoke(reader, InetAddresses.forString("89.160.20.128"), cityDataClass);
+                assertThat(cityData, notNullValue());
+                Object city = cityDataClass.getMethod("city").invoke(cityData);
+                assertThat(city.getClass().getMethod("name").invoke(city), equalTo("Linköping"));
+            }
+        }
+    }
+
+    private static ModuleReference findModule(String name) {
+        Map<String, ModuleReference> modules = JarHell.parseClassPath()
+            .stream()
+            .map(GeoIpDataModuleTests::urlToPath)
+            .filter(GeoIpDataModuleTests::isModuleCandidate)
+            .flatMap(path -> ModuleFinder.of(path).findAll().stream())
+            .collect(Collectors.toMap(reference -> reference.descriptor().name(), Function.identity(), (first, second) -> first));
+        ModuleReference reference = modules.get(name);
+        assertNotNull("module [" + name + "] is not on the class path", reference);
+        return reference;
+    }
+
+    /**
+     * Only the named modules on the class path and the maxmind reader's jar, other jars may not have a valid automatic module name.
+     */
+    private static boolean isModuleCandidate(Path path) {
+        if (Files.isDirectory(path)) {
+            return Files.exists(path.resolve("module-info.class"));
+        }
+        return path.getFileName().toString().startsWith("maxmind-db");
+    }
+
+    private static ModuleFinder singleModule(ModuleReference reference) {
+        return finderOf(Map.of(reference.descriptor().name(), reference));
+    }
+
+    private static ModuleFinder emptyModules(Set<String> names) {
+        Map<String, ModuleReference> modules = names.stream().collect(Collectors.toMap(Function.identity(), EmptyModuleReference::new));
+        return finderOf(modules);
+    }
+
+    private static ModuleFinder finderOf(Map<String, ModuleReference> modules) {
+        return new ModuleFinder() {
+            @Override
+            public Optional<ModuleReference> find(String name) {
+                return Optional.ofNullable(modules.get(name));
+            }
+
+            @Override
+            public Set<ModuleReference> findAll() {
+                return Set.copyOf(modules.values());
+            }
+        };
+    }
+
+    private static class EmptyModuleReference extends ModuleReference {
+
+        EmptyModuleReference(String name) {
+            super(ModuleDescriptor.newModule(name).build(), null);
+        }
+
+        @Override
+        public ModuleReader open() {
+            throw new UnsupportedOperationException("module [" + descriptor().name() + "] has no content");
+        }
+    }
+
+    @SuppressForbidden(reason = "converts the class path URLs to paths")
+    private static Path urlToPath(URL url) {
+        try {
+            return PathUtils.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+}
@@ -8,7 +8,7 @@
 
 package org.elasticsearch.ingest.geoip;
 
-import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.db.Reader;
 
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.core.PathUtils;
@@ -547,8 +547,7 @@ public class GeoIpProcessorTests extends ESTestCase {
 
     private CheckedSupplier<DatabaseReaderLazyLoader, IOException> loader(final String path) {
         final Supplier<InputStream> databaseInputStreamSupplier = () -> GeoIpProcessor.class.getResourceAsStream(path);
-        final CheckedSupplier<DatabaseReader, IOException> loader = () -> new DatabaseReader.Builder(databaseInputStreamSupplier.get())
-            .build();
+        final CheckedSupplier<Reader, IOException> loader = () -> new Reader(databaseInputStreamSupplier.get());
         final GeoIpCache cache = new GeoIpCache(1000);
         DatabaseReaderLazyLoader lazyLoader = new DatabaseReaderLazyLoader(cache, PathUtils.get(path), null, loader) {
 
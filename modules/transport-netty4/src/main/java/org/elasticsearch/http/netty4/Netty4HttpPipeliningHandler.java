@@ -11,6 +11,7 @@ package org.elasticsearch.http.netty4;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.compression.JdkZlibEncoder;
@@ -26,9 +27,14 @@ import io.netty.util.concurrent.PromiseCombiner;
 
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.core.Booleans;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.transport.Transports;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+import org.elasticsearch.transport.netty4.Netty4WriteThrottlingHandler;
 import org.elasticsearch.transport.netty4.NettyAllocator;
 
 import java.nio.channels.ClosedChannelException;
@@ -47,7 +53,7 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
     private final Logger logger;
 
     private final int maxEventsHeld;
-    private final PriorityQueue<Tuple<Netty4HttpResponse, ChannelPromise>> outboundHoldingQueue;
+    private final PriorityQueue<Tuple<Netty4RestResponse, ChannelPromise>> outboundHoldingQueue;
 
     /*
      * The current read and write sequence numbers. Read sequence numbers are attached to requests in the order they are read from the
@@ -65,6 +71,14 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
      */
     private final Queue<WriteOperation> queuedWrites = new ArrayDeque<>();
 
+    /**
+     * The chunked response that is currently being written, if any. Its chunks are only serialized once all {@link #queuedWrites} have
+     * been written and the channel is writable, and the responses that follow it are held in {@link #outboundHoldingQueue} until it has
+     * been written fully.
+     */
+    @Nullable
+    private ChunkedWrite currentChunkedWrite;
+
     private final Netty4HttpServerTransport serverTransport;
 
     /**
@@ -120,10 +134,10 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     @Override
     public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
-        assert msg instanceof Netty4HttpResponse : "Invalid message type: " + msg.getClass();
+        assert msg instanceof Netty4RestResponse : "Invalid message type: " + msg.getClass();
         boolean success = false;
         try {
-            final Netty4HttpResponse response = (Netty4HttpResponse) msg;
+            final Netty4RestResponse response = (Netty4RestResponse) msg;
             if (response.getSequence() != writeSequence) {
                 assert response.getSequence() > writeSequence
                     : "response sequence [" + response.getSequence() + "] we below write sequence [" + writeSequence + "]";
@@ -144,11 +158,7 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
             doWrite(ctx, response, promise);
             success = true;
             // see if we have any queued up responses that became writeable due to the above write
-            while (outboundHoldingQueue.isEmpty() == false && outboundHoldingQueue.peek().v1().getSequence() == writeSequence) {
-                final Tuple<Netty4HttpResponse, ChannelPromise> top = outboundHoldingQueue.poll();
-                assert top != null : "we know the outbound holding queue to not be empty at this point";
-                doWrite(ctx, top.v1(), top.v2());
-            }
+            writeHeldResponses(ctx);
         } catch (IllegalStateException e) {
             ctx.channel().close();
         } finally {
@@ -169,10 +179,29 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         SPLIT_THRESHOLD = (int) (NettyAllocator.suggestedMaxAllocationSize() * 0.99);
     }
 
+    private void writeHeldResponses(ChannelHandlerContext ctx) {
+        while (currentChunkedWrite == null
+            && outboundHoldingQueue.isEmpty() == false
+            && outboundHoldingQueue.peek().v1().getSequence() == writeSequence) {
+            final Tuple<Netty4RestResponse, ChannelPromise> top = outboundHoldingQueue.poll();
+            assert top != null : "we know the outbound holding queue to not be empty at this point";
+            doWrite(ctx, top.v1(), top.v2());
+        }
+    }
+
+    private void doWrite(ChannelHandlerContext ctx, Netty4RestResponse readyResponse, ChannelPromise promise) {
+        assert currentChunkedWrite == null : "unexpected existing write [" + currentChunkedWrite + "]";
+        if (readyResponse instanceof Netty4HttpResponse fullResponse) {
+            doWriteFullResponse(ctx, fullResponse, promise);
+        } else {
+            doWriteChunkedResponse(ctx, (Netty4ChunkedHttpResponse) readyResponse, promise);
+        }
+    }
+
     /**
      * Split up large responses to prevent batch compression {@link JdkZlibEncoder} down the pipeline.
      */
-    private void doWrite(ChannelHandlerContext ctx, Netty4HttpResponse readyResponse, ChannelPromise promise) {
+    private void doWriteFullResponse(ChannelHandlerContext ctx, Netty4HttpResponse readyResponse, ChannelPromise promise) {
         if (DO_NOT_SPLIT_HTTP_RESPONSES || readyResponse.content().readableBytes() <= SPLIT_THRESHOLD) {
             enqueueWrite(ctx, readyResponse, promise);
         } else {
@@ -181,6 +210,51 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         writeSequence++;
     }
 
+    /**
+     * Writes the headers of a chunked response. Its chunks are serialized and written by {@link #doFlush} as the channel becomes writable,
+     * which completes the write of the response and advances the write sequence once the last chunk has been written.
+     */
+    private void doWriteChunkedResponse(ChannelHandlerContext ctx, Netty4ChunkedHttpResponse readyResponse, ChannelPromise promise) {
+        final PromiseCombiner combiner = new PromiseCombiner(ctx.executor());
+        combiner.add(enqueueWrite(ctx, readyResponse));
+        currentChunkedWrite = new ChunkedWrite(combiner, promise, readyResponse);
+    }
+
+    /**
+     * Serializes and writes the next chunk of the current chunked response.
+     *
+     * @return true if this was the last chunk of the response
+     */
+    private boolean writeChunk(ChannelHandlerContext ctx, ChunkedWrite chunkedWrite) {
+        final ChunkedRestResponseBody body = chunkedWrite.response().body();
+        assert body.isDone() == false : "should not continue to try and serialize once done";
+        final ReleasableBytesReference bytes;
+        try {
+            bytes = body.encodeChunk(Netty4WriteThrottlingHandler.MAX_BYTES_PER_WRITE, serverTransport.recycler());
+        } catch (Exception e) {
+            // the headers of the response are sent already so all we can do is to abort the response by closing the channel
+            logger.error("failed to serialize chunk of http response", e);
+            chunkedWrite.combiner().add(ctx.newFailedFuture(e));
+            ctx.channel().close();
+            return true;
+        }
+        final ByteBuf content = Netty4Utils.toByteBuf(bytes);
+        final boolean done = body.isDone();
+        final ChannelFuture future = ctx.write(done ? new DefaultLastHttpContent(content) : new DefaultHttpContent(content));
+        // the pages of the chunk go back to the recycler as soon as the chunk is written out
+        future.addListener(ignored -> bytes.close());
+        chunkedWrite.combiner().add(future);
+        return done;
+    }
+
+    private void finishChunkedWrite() {
+        assert currentChunkedWrite != null;
+        final ChunkedWrite chunkedWrite = currentChunkedWrite;
+        currentChunkedWrite = null;
+        chunkedWrite.combiner().finish(chunkedWrite.onDone());
+        writeSequence++;
+    }
+
     private void splitAndWrite(ChannelHandlerContext ctx, Netty4HttpResponse msg, ChannelPromise promise) {
         final PromiseCombiner combiner = new PromiseCombiner(ctx.executor());
         HttpResponse response = new DefaultHttpResponse(msg.protocolVersion(), msg.status(), msg.headers());
@@ -228,10 +302,18 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         boolean needsFlush = true;
         while (channel.isWritable()) {
             final WriteOperation currentWrite = queuedWrites.poll();
-            if (currentWrite == null) {
+            if (currentWrite != null) {
+                ctx.write(currentWrite.msg, currentWrite.promise);
+            } else if (currentChunkedWrite != null) {
+                // everything before the next chunk of the current chunked response is written so we can serialize it now
+                if (writeChunk(ctx, currentChunkedWrite)) {
+                    finishChunkedWrite();
+                    // the responses that waited for the chunked response to complete can now be written
+                    writeHeldResponses(ctx);
+                }
+            } else {
                 break;
             }
-            ctx.write(currentWrite.msg, currentWrite.promise);
             needsFlush = true;
             if (channel.isWritable() == false) {
                 // try flushing to make channel writable again, loop will only continue if channel becomes writable again
@@ -253,15 +335,20 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         while ((queuedWrite = queuedWrites.poll()) != null) {
             queuedWrite.failAsClosedChannel();
         }
+        if (currentChunkedWrite != null) {
+            final ChunkedWrite chunkedWrite = currentChunkedWrite;
+            currentChunkedWrite = null;
+            chunkedWrite.onDone().tryFailure(new ClosedChannelException());
+        }
     }
 
     @Override
     public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
-        List<Tuple<Netty4HttpResponse, ChannelPromise>> inflightResponses = removeAllInflightResponses();
+        List<Tuple<Netty4RestResponse, ChannelPromise>> inflightResponses = removeAllInflightResponses();
 
         if (inflightResponses.isEmpty() == false) {
             ClosedChannelException closedChannelException = new ClosedChannelException();
-            for (Tuple<Netty4HttpResponse, ChannelPromise> inflightResponse : inflightResponses) {
+            for (Tuple<Netty4RestResponse, ChannelPromise> inflightResponse : inflightResponses) {
                 try {
                     inflightResponse.v2().setFailure(closedChannelException);
                 } catch (RuntimeException e) {
@@ -299,12 +386,14 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         }
     }
 
-    private List<Tuple<Netty4HttpResponse, ChannelPromise>> removeAllInflightResponses() {
-        ArrayList<Tuple<Netty4HttpResponse, ChannelPromise>> responses = new ArrayList<>(outboundHoldingQueue);
+    private List<Tuple<Netty4RestResponse, ChannelPromise>> removeAllInflightResponses() {
+        ArrayList<Tuple<Netty4RestResponse, ChannelPromise>> responses = new ArrayList<>(outboundHoldingQueue);
         outboundHoldingQueue.clear();
         return responses;
     }
 
+    private record ChunkedWrite(PromiseCombiner combiner, ChannelPromise onDone, Netty4ChunkedHttpResponse response) {}
+
     private record WriteOperation(HttpObject msg, ChannelPromise promise) {
 
         void failAsClosedChannel() {
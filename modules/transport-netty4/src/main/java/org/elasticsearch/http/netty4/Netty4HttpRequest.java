@@ -22,6 +22,8 @@ import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.http.HttpResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.netty4.Netty4Utils;
@@ -237,6 +239,20 @@ public class Netty4HttpRequest implements HttpRequest {
         return new Netty4HttpResponse(sequence, request.protocolVersion(), status, contentRef);
     }
 
+    @Override
+    public boolean supportsChunkedResponse() {
+        // chunked transfer encoding is not supported by HTTP/1.0 clients
+        return protocolVersion() != HttpRequest.HttpVersion.HTTP_1_0;
+    }
+
+    @Override
+    public HttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+        if (supportsChunkedResponse() == false) {
+            return HttpRequest.super.createResponse(status, content);
+        }
+        return new Netty4ChunkedHttpResponse(sequence, request.protocolVersion(), status, content);
+    }
+
     @Override
     public Exception getInboundException() {
         return inboundException;
@@ -31,8 +31,10 @@ import io.netty.util.AttributeKey;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.network.NetworkService;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -178,6 +180,13 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
         return this.settings;
     }
 
+    /**
+     * The recycler that the chunks of chunked responses are serialized into.
+     */
+    Recycler<BytesRef> recycler() {
+        return recycler;
+    }
+
     @Override
     protected void doStart() {
         boolean success = false;
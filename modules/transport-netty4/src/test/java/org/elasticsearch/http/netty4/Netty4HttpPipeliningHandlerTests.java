@@ -10,25 +10,36 @@ package org.elasticsearch.http.netty4;
 
 import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ReferenceCountUtil;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.http.HttpResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.After;
 
+import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,12 +47,15 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
 
 public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
 
@@ -197,6 +211,109 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
         }
     }
 
+    public void testChunkedResponseIsWrittenBeforeLaterResponses() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(chunkedPipeliningHandler());
+        final List<Netty4HttpRequest> requests = readRequests(embeddedChannel, 3);
+        final TestChunkedBody body = new TestChunkedBody("a", "b", "c");
+
+        // the responses that follow the chunked response are held until its last chunk was written
+        final ChannelPromise laterPromise = embeddedChannel.newPromise();
+        embeddedChannel.write(requests.get(2).createResponse(RestStatus.OK, new BytesArray("2")), laterPromise);
+        final ChannelPromise chunkedPromise = embeddedChannel.newPromise();
+        embeddedChannel.write(requests.get(0).createResponse(RestStatus.OK, body), chunkedPromise);
+        final ChannelPromise nextPromise = embeddedChannel.newPromise();
+        embeddedChannel.write(requests.get(1).createResponse(RestStatus.OK, new BytesArray("1")), nextPromise);
+        assertThat(body.encoded.get(), is(0));
+        embeddedChannel.flush();
+
+        final Object headers = embeddedChannel.readOutbound();
+        assertThat(headers, instanceOf(Netty4ChunkedHttpResponse.class));
+        for (String chunk : List.of("a", "b", "c")) {
+            final HttpContent content = embeddedChannel.readOutbound();
+            assertThat(content instanceof LastHttpContent, is(chunk.equals("c")));
+            assertThat(content.content().toString(StandardCharsets.UTF_8), is(chunk));
+        }
+        assertReadHttpMessageHasContent(embeddedChannel, "1");
+        assertReadHttpMessageHasContent(embeddedChannel, "2");
+        assertNull(embeddedChannel.readOutbound());
+
+        assertTrue(chunkedPromise.isSuccess());
+        assertTrue(nextPromise.isSuccess());
+        assertTrue(laterPromise.isSuccess());
+        assertThat(body.released.get(), is(3));
+        assertTrue(embeddedChannel.isOpen());
+    }
+
+    public void testChunksAreReleasedWhenWriteFails() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                if (msg instanceof HttpContent) {
+                    ReferenceCountUtil.release(msg);
+                    promise.setFailure(new IOException("simulated"));
+                } else {
+                    ctx.write(msg, promise);
+                }
+            }
+        }, chunkedPipeliningHandler());
+        final List<Netty4HttpRequest> requests = readRequests(embeddedChannel, 1);
+        final int numChunks = randomIntBetween(1, 5);
+        final TestChunkedBody body = new TestChunkedBody(IntStream.range(0, numChunks).mapToObj(Integer::toString).toArray(String[]::new));
+
+        final ChannelPromise promise = embeddedChannel.newPromise();
+        embeddedChannel.writeAndFlush(requests.get(0).createResponse(RestStatus.OK, body), promise);
+
+        assertTrue(promise.isDone());
+        assertThat(promise.cause(), instanceOf(IOException.class));
+        assertThat(body.encoded.get(), is(numChunks));
+        assertThat(body.released.get(), is(numChunks));
+    }
+
+    public void testChannelIsClosedWhenChunkCannotBeSerialized() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(chunkedPipeliningHandler());
+        final List<Netty4HttpRequest> requests = readRequests(embeddedChannel, 2);
+        final TestChunkedBody body = new TestChunkedBody("a", "b", "c");
+        body.failAt = 1;
+
+        final ChannelPromise chunkedPromise = embeddedChannel.newPromise();
+        embeddedChannel.write(requests.get(0).createResponse(RestStatus.OK, body), chunkedPromise);
+        final ChannelPromise nextPromise = embeddedChannel.newPromise();
+        embeddedChannel.write(requests.get(1).createResponse(RestStatus.OK, new BytesArray("1")), nextPromise);
+        embeddedChannel.flush();
+
+        // the headers of the response were sent already, so the channel is closed to abort the response
+        assertFalse(embeddedChannel.isOpen());
+        assertTrue(chunkedPromise.isDone());
+        assertThat(chunkedPromise.cause(), instanceOf(IOException.class));
+        assertTrue(nextPromise.isDone());
+        assertThat(nextPromise.cause(), instanceOf(ClosedChannelException.class));
+        assertThat(body.encoded.get(), is(1));
+        assertThat(body.released.get(), is(1));
+    }
+
+    private Netty4HttpPipeliningHandler chunkedPipeliningHandler() {
+        // the test bodies don't use the recycler of the transport that chunks are serialized into
+        return new Netty4HttpPipeliningHandler(logger, 10, mock(Netty4HttpServerTransport.class)) {
+            @Override
+            protected void handlePipelinedRequest(ChannelHandlerContext ctx, Netty4HttpRequest pipelinedRequest) {
+                ctx.fireChannelRead(pipelinedRequest);
+            }
+        };
+    }
+
+    private List<Netty4HttpRequest> readRequests(EmbeddedChannel embeddedChannel, int numberOfRequests) {
+        for (int i = 0; i < numberOfRequests; i++) {
+            embeddedChannel.writeInbound(createHttpRequest("/" + i));
+        }
+        final List<Netty4HttpRequest> requests = new ArrayList<>(numberOfRequests);
+        Netty4HttpRequest inbound;
+        while ((inbound = embeddedChannel.readInbound()) != null) {
+            requests.add(inbound);
+        }
+        assertThat(requests.size(), is(numberOfRequests));
+        return requests;
+    }
+
     private void assertReadHttpMessageHasContent(EmbeddedChannel embeddedChannel, String expectedContent) {
         FullHttpResponse response = (FullHttpResponse) embeddedChannel.outboundMessages().poll();
         assertNotNull("Expected response to exist, maybe you did not wait long enough?", response);
@@ -209,6 +326,40 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
         return new DefaultFullHttpRequest(HTTP_1_1, HttpMethod.GET, uri);
     }
 
+    /**
+     * A body whose chunks are the given strings, which counts the chunks that were serialized and released.
+     */
+    private static class TestChunkedBody implements ChunkedRestResponseBody {
+
+        private final Iterator<String> chunks;
+        private final AtomicInteger encoded = new AtomicInteger();
+        private final AtomicInteger released = new AtomicInteger();
+        private int failAt = -1;
+
+        TestChunkedBody(String... chunks) {
+            this.chunks = Arrays.asList(chunks).iterator();
+        }
+
+        @Override
+        public boolean isDone() {
+            return chunks.hasNext() == false;
+        }
+
+        @Override
+        public ReleasableBytesReference encodeChunk(int sizeHint, Recycler<BytesRef> recycler) throws IOException {
+            if (encoded.get() == failAt) {
+                throw new IOException("simulated");
+            }
+            encoded.incrementAndGet();
+            return new ReleasableBytesReference(new BytesArray(chunks.next()), released::incrementAndGet);
+        }
+
+        @Override
+        public String getResponseContentTypeString() {
+            return "application/json";
+        }
+    }
+
     private class WorkEmulatorHandler extends SimpleChannelInboundHandler<Netty4HttpRequest> {
 
         @Override
@@ -15,13 +15,21 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.ReplicatedWriteRequest;
 import org.elasticsearch.action.support.replication.ReplicationRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.transport.RawIndexingDataTransportRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> implements Accountable, RawIndexingDataTransportRequest {
@@ -30,17 +38,54 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
 
     private final BulkItemRequest[] items;
 
+    /**
+     * Releases the document sources of a request that was read from the network. The sources are slices of the (possibly pooled)
+     * network buffer rather than copies, so they must stay referenced until the request has been executed. {@code null} for requests
+     * that were created locally.
+     */
+    @Nullable
+    private final RefCounted sourcesRefCounted;
+
     public BulkShardRequest(StreamInput in) throws IOException {
         super(in);
         items = in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+        final List<ReleasableBytesReference> sources = releasableSources(items);
+        sourcesRefCounted = sources.isEmpty() ? null : AbstractRefCounted.of(() -> Releasables.close(sources));
     }
 
     public BulkShardRequest(ShardId shardId, RefreshPolicy refreshPolicy, BulkItemRequest[] items) {
         super(shardId);
         this.items = items;
+        this.sourcesRefCounted = null;
         setRefreshPolicy(refreshPolicy);
     }
 
+    private static List<ReleasableBytesReference> releasableSources(BulkItemRequest[] items) {
+        final List<ReleasableBytesReference> sources = new ArrayList<>();
+        for (BulkItemRequest item : items) {
+            if (item == null) {
+                continue;
+            }
+            final DocWriteRequest<?> request = item.request();
+            if (request instanceof IndexRequest indexRequest) {
+                addReleasableSource(indexRequest, sources);
+            } else if (request instanceof UpdateRequest updateRequest) {
+                addReleasableSource(updateRequest.doc(), sources);
+                addReleasableSource(updateRequest.upsertRequest(), sources);
+            }
+        }
+        return sources;
+    }
+
+    private static void addReleasableSource(@Nullable IndexRequest request, List<ReleasableBytesReference> sources) {
+        if (request != null) {
+            final BytesReference source = request.source();
+            if (source instanceof ReleasableBytesReference releasable) {
+                sources.add(releasable);
+            }
+        }
+    }
+
     public long totalSizeInBytes() {
         long totalSizeInBytes = 0;
         for (int i = 0; i < items.length; i++) {
@@ -93,6 +138,28 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
         }, items);
     }
 
+    @Override
+    public void incRef() {
+        if (sourcesRefCounted != null) {
+            sourcesRefCounted.incRef();
+        }
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return sourcesRefCounted == null || sourcesRefCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return sourcesRefCounted != null && sourcesRefCounted.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return sourcesRefCounted == null || sourcesRefCounted.hasReferences();
+    }
+
     @Override
     public String toString() {
         // This is included in error messages so we'll try to make it somewhat user friendly.
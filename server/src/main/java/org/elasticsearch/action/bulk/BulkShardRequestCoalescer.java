@@ -0,0 +1,235 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces shard-level bulk requests that target the same shard on their way from the coordinating node to the primary. While a
+ * shard-level bulk request is in flight for a shard, further requests for the same shard are queued and, once the in-flight request
+ * completes, all queued requests are sent as a single {@link BulkShardRequest}. This means the primary executes them in a single pass,
+ * with a single translog sync and a single replication round-trip, and the per-item responses are fanned back out to the original
+ * requests. Requests are never delayed while no request for their shard is in flight, so this only kicks in under concurrency.
+ * <p>
+ * Only requests without a refresh policy, and with the same timeout and wait-for-active-shards, are coalesced. Requests whose parent
+ * task can be cancelled are never coalesced, since a coalesced request serves several parent tasks and cancelling one of them must
+ * still reach its shard work. Items keep the order in which their requests were submitted. Indexing pressure is unaffected since the
+ * coordinating node accounts for the original bulk requests and the primary and replicas account for the items of the coalesced
+ * request.
+ */
+public final class BulkShardRequestCoalescer {
+
+    public static final Setting<Boolean> COALESCING_ENABLED_SETTING = Setting.boolSetting(
+        "action.bulk.shard_request_coalescing.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<Integer> COALESCING_MAX_OPERATIONS_SETTING = Setting.intSetting(
+        "action.bulk.shard_request_coalescing.max_operations",
+        1000,
+        1,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    private final BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> executor;
+    private final Map<Key, Queue> queues = new HashMap<>();
+
+    private volatile boolean enabled;
+    private volatile int maxOperations;
+
+    BulkShardRequestCoalescer(
+        Settings settings,
+        ClusterSettings clusterSettings,
+        BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> executor
+    ) {
+        this.executor = executor;
+        this.enabled = COALESCING_ENABLED_SETTING.get(settings);
+        this.maxOperations = COALESCING_MAX_OPERATIONS_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(COALESCING_ENABLED_SETTING, enabled -> this.enabled = enabled);
+        clusterSettings.addSettingsUpdateConsumer(COALESCING_MAX_OPERATIONS_SETTING, maxOperations -> this.maxOperations = maxOperations);
+    }
+
+    /**
+     * Executes the given shard-level bulk request, possibly together with other requests for the same shard.
+     *
+     * @param clusterStateVersion the version of the cluster state that was used to route the request
+     * @param cancellableParent    whether the parent task of the request can be cancelled, in which case the request is sent on its own
+     */
+    void execute(
+        BulkShardRequest request,
+        long clusterStateVersion,
+        boolean cancellableParent,
+        ActionListener<BulkShardResponse> listener
+    ) {
+        if (enabled == false
+            || cancellableParent
+            || request.getRefreshPolicy() != RefreshPolicy.NONE
+            || request.items().length >= maxOperations) {
+            request.routedBasedOnClusterVersion(clusterStateVersion);
+            executor.accept(request, listener);
+            return;
+        }
+        final Key key = new Key(request.shardId(), request.timeout(), request.waitForActiveShards());
+        final Pending pending = new Pending(request, clusterStateVersion, listener);
+        final boolean sendNow;
+        synchronized (queues) {
+            final Queue queue = queues.get(key);
+            if (queue == null) {
+                queues.put(key, new Queue());
+                sendNow = true;
+            } else {
+                queue.pending.add(pending);
+                sendNow = false;
+            }
+        }
+        if (sendNow) {
+            send(key, List.of(pending));
+        }
+    }
+
+    // visible for testing
+    int pendingRequests() {
+        synchronized (queues) {
+            return queues.values().stream().mapToInt(queue -> queue.pending.size()).sum();
+        }
+    }
+
+    private void send(Key key, List<Pending> batch) {
+        assert batch.isEmpty() == false;
+        final ActionListener<BulkShardResponse> batchListener = batch.size() == 1
+            ? batch.get(0).listener
+            : new FanOutListener(batch);
+        final ActionListener<BulkShardResponse> listener = ActionListener.runAfter(batchListener, () -> onBatchCompleted(key));
+        try {
+            executor.accept(buildRequest(key, batch), listener);
+        } catch (Exception e) {
+            listener.onFailure(e);
+        }
+    }
+
+    private void onBatchCompleted(Key key) {
+        final List<Pending> nextBatch;
+        synchronized (queues) {
+            final Queue queue = queues.get(key);
+            assert queue != null : "no queue for " + key;
+            if (queue.pending.isEmpty()) {
+                queues.remove(key);
+                return;
+            }
+            nextBatch = new ArrayList<>();
+            int operations = 0;
+            do {
+                final Pending next = queue.pending.peek();
+                if (nextBatch.isEmpty() == false && operations + next.request.items().length > maxOperations) {
+                    break;
+                }
+                queue.pending.poll();
+                nextBatch.add(next);
+                operations += next.request.items().length;
+            } while (queue.pending.isEmpty() == false);
+        }
+        send(key, nextBatch);
+    }
+
+    private static BulkShardRequest buildRequest(Key key, List<Pending> batch) {
+        if (batch.size() == 1) {
+            final Pending pending = batch.get(0);
+            return pending.request.routedBasedOnClusterVersion(pending.clusterStateVersion);
+        }
+        final List<BulkItemRequest> items = new ArrayList<>();
+        long clusterStateVersion = 0;
+        for (Pending pending : batch) {
+            for (BulkItemRequest item : pending.request.items()) {
+                items.add(new BulkItemRequest(items.size(), item.request()));
+            }
+            clusterStateVersion = Math.max(clusterStateVersion, pending.clusterStateVersion);
+        }
+        final BulkShardRequest request = new BulkShardRequest(key.shardId, RefreshPolicy.NONE, items.toArray(new BulkItemRequest[0]));
+        request.timeout(key.timeout);
+        request.waitForActiveShards(key.waitForActiveShards);
+        // no parent task is set since the coalesced request serves several bulk requests, none of which can be cancelled
+        return request.routedBasedOnClusterVersion(clusterStateVersion);
+    }
+
+    /**
+     * Splits the response of a coalesced request into the responses of the requests it was built from, restoring the original item ids.
+     */
+    private static final class FanOutListener implements ActionListener<BulkShardResponse> {
+
+        private final List<Pending> batch;
+
+        FanOutListener(List<Pending> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onResponse(BulkShardResponse response) {
+            final BulkItemResponse[] responses = response.getResponses();
+            final List<Exception> exceptions = new ArrayList<>();
+            int offset = 0;
+            for (Pending pending : batch) {
+                final BulkItemRequest[] items = pending.request.items();
+                final BulkItemResponse[] itemResponses = new BulkItemResponse[items.length];
+                for (int i = 0; i < items.length; i++) {
+                    final BulkItemResponse itemResponse = responses[offset + i];
+                    itemResponses[i] = itemResponse.isFailed()
+                        ? BulkItemResponse.failure(items[i].id(), itemResponse.getOpType(), itemResponse.getFailure())
+                        : BulkItemResponse.success(items[i].id(), itemResponse.getOpType(), itemResponse.getResponse());
+                }
+                offset += items.length;
+                final BulkShardResponse pendingResponse = new BulkShardResponse(response.getShardId(), itemResponses);
+                pendingResponse.setShardInfo(response.getShardInfo());
+                // a listener that throws must not keep the remaining ones from being notified
+                try {
+                    pending.listener.onResponse(pendingResponse);
+                } catch (Exception e) {
+                    try {
+                        pending.listener.onFailure(e);
+                    } catch (Exception inner) {
+                        exceptions.add(inner);
+                    }
+                }
+            }
+            assert offset == responses.length : "expected [" + offset + "] responses but got [" + responses.length + "]";
+            ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            ActionListener.onFailure(batch.stream().map(Pending::listener).toList(), e);
+        }
+    }
+
+    private record Key(ShardId shardId, TimeValue timeout, ActiveShardCount waitForActiveShards) {}
+
+    private record Pending(BulkShardRequest request, long clusterStateVersion, ActionListener<BulkShardResponse> listener) {}
+
+    private static final class Queue {
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    }
+}
@@ -58,6 +58,7 @@ import org.elasticsearch.indices.IndexClosedException;
 import org.elasticsearch.indices.SystemIndices;
 import org.elasticsearch.ingest.IngestService;
 import org.elasticsearch.node.NodeClosedException;
+import org.elasticsearch.tasks.CancellableTask;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.threadpool.ThreadPool.Names;
@@ -99,6 +100,7 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
     private static final String DROPPED_ITEM_WITH_AUTO_GENERATED_ID = "auto-generated";
     private final IndexingPressure indexingPressure;
     private final SystemIndices systemIndices;
+    private final BulkShardRequestCoalescer shardRequestCoalescer;
 
     @Inject
     public TransportBulkAction(
@@ -149,6 +151,11 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.indexingPressure = indexingPressure;
         this.systemIndices = systemIndices;
+        this.shardRequestCoalescer = new BulkShardRequestCoalescer(
+            clusterService.getSettings(),
+            clusterService.getClusterSettings(),
+            (request, listener) -> client.executeLocally(TransportShardBulkAction.TYPE, request, listener)
+        );
         clusterService.addStateApplier(this.ingestForwarder);
     }
 
@@ -575,11 +582,11 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                 );
                 bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
                 bulkShardRequest.timeout(bulkRequest.timeout());
-                bulkShardRequest.routedBasedOnClusterVersion(clusterState.version());
                 if (task != null) {
                     bulkShardRequest.setParentTask(nodeId, task.getId());
                 }
-                client.executeLocally(TransportShardBulkAction.TYPE, bulkShardRequest, new ActionListener<>() {
+                final boolean cancellableParent = task instanceof CancellableTask;
+                shardRequestCoalescer.execute(bulkShardRequest, clusterState.version(), cancellableParent, new ActionListener<>() {
                     @Override
                     public void onResponse(BulkShardResponse bulkShardResponse) {
                         for (BulkItemResponse bulkItemResponse : bulkShardResponse.getResponses()) {
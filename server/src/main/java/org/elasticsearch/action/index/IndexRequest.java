@@ -134,7 +134,12 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
         }
         id = in.readOptionalString();
         routing = in.readOptionalString();
-        source = in.readBytesReference();
+        if (shardId == null) {
+            source = in.readBytesReference();
+        } else {
+            // shard-level requests are read as part of a BulkShardRequest which releases the source once it is no longer referenced
+            source = in.readReleasableBytesReference();
+        }
         opType = OpType.fromId(in.readByte());
         version = in.readLong();
         versionType = VersionType.fromValue(in.readByte());
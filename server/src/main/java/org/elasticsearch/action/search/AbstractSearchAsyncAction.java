@@ -24,8 +24,10 @@ import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchContextMissingException;
 import org.elasticsearch.search.SearchPhaseResult;
@@ -38,6 +40,7 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.transport.Transport;
 
 import java.util.ArrayDeque;
@@ -98,6 +101,8 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
     private final Map<String, PendingExecutions> pendingExecutionsPerNode = new ConcurrentHashMap<>();
     private final boolean throttleConcurrentRequests;
     private final AtomicBoolean requestCancelled = new AtomicBoolean();
+    @Nullable
+    private final ShardRequestHedging hedging;
 
     private final List<Releasable> releasables = new ArrayList<>();
 
@@ -118,6 +123,46 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         SearchPhaseResults<Result> resultConsumer,
         int maxConcurrentRequestsPerNode,
         SearchResponse.Clusters clusters
+    ) {
+        this(
+            name,
+            logger,
+            searchTransportService,
+            nodeIdToConnection,
+            aliasFilter,
+            concreteIndexBoosts,
+            executor,
+            request,
+            listener,
+            shardsIts,
+            timeProvider,
+            clusterState,
+            task,
+            resultConsumer,
+            maxConcurrentRequestsPerNode,
+            clusters,
+            null
+        );
+    }
+
+    AbstractSearchAsyncAction(
+        String name,
+        Logger logger,
+        SearchTransportService searchTransportService,
+        BiFunction<String, String, Transport.Connection> nodeIdToConnection,
+        Map<String, AliasFilter> aliasFilter,
+        Map<String, Float> concreteIndexBoosts,
+        Executor executor,
+        SearchRequest request,
+        ActionListener<SearchResponse> listener,
+        GroupShardsIterator<SearchShardIterator> shardsIts,
+        SearchTimeProvider timeProvider,
+        ClusterState clusterState,
+        SearchTask task,
+        SearchPhaseResults<Result> resultConsumer,
+        int maxConcurrentRequestsPerNode,
+        SearchResponse.Clusters clusters,
+        @Nullable ShardRequestHedging hedging
     ) {
         super(name);
         final List<SearchShardIterator> toSkipIterators = new ArrayList<>();
@@ -165,6 +210,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         this.aliasFilter = aliasFilter;
         this.results = resultConsumer;
         this.clusters = clusters;
+        this.hedging = hedging;
     }
 
     protected void notifyListShards(
@@ -330,12 +376,15 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                 : null;
             Runnable r = () -> {
                 final Thread thread = Thread.currentThread();
+                final HedgedShardExecution hedgedExecution = maybeHedge(shardIndex, shardIt, shard);
                 try {
                     executePhaseOnShard(shardIt, shard, new SearchActionListener<Result>(shard, shardIndex) {
                         @Override
                         public void innerOnResponse(Result result) {
                             try {
-                                onShardResult(result, shardIt);
+                                if (hedgedExecution == null || hedgedExecution.useResponse(result)) {
+                                    onShardResult(result, shardIt);
+                                }
                             } catch (Exception exc) {
                                 onShardFailure(shardIndex, shard, shardIt, exc);
                             } finally {
@@ -346,7 +395,9 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                         @Override
                         public void onFailure(Exception t) {
                             try {
-                                onShardFailure(shardIndex, shard, shardIt, t);
+                                if (hedgedExecution == null || hedgedExecution.retryOnFailure(shard, t)) {
+                                    onShardFailure(shardIndex, shard, shardIt, t);
+                                }
                             } finally {
                                 executeNext(pendingExecutions, thread);
                             }
@@ -358,7 +409,9 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
                          * It is possible to run into connection exceptions here because we are getting the connection early and might
                          * run into nodes that are not connected. In this case, on shard failure will move us to the next shard copy.
                          */
-                        fork(() -> onShardFailure(shardIndex, shard, shardIt, e));
+                        if (hedgedExecution == null || hedgedExecution.retryOnFailure(shard, e)) {
+                            fork(() -> onShardFailure(shardIndex, shard, shardIt, e));
+                        }
                     } finally {
                         executeNext(pendingExecutions, thread);
                     }
@@ -372,6 +425,165 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         }
     }
 
+    /**
+     * Schedules sending the request to the next copy of the shard if the request to the given copy takes longer than usual for its node.
+     * Returns {@code null} if the request isn't hedged.
+     */
+    @Nullable
+    private HedgedShardExecution maybeHedge(int shardIndex, SearchShardIterator shardIt, SearchShardTarget shard) {
+        if (hedging == null || shardIt.getSearchContextId() != null || shardIt.remaining() == 0) {
+            return null;
+        }
+        final TimeValue delay = hedging.hedgeDelay(shard.getNodeId());
+        if (delay == null) {
+            return null;
+        }
+        final HedgedShardExecution hedgedExecution = new HedgedShardExecution(shardIndex, shardIt);
+        hedgedExecution.scheduleHedge(delay);
+        return hedgedExecution;
+    }
+
+    /**
+     * Tracks the requests for a single shard when the request to its first copy is hedged with a request to the next copy. The first
+     * successful response is used and the other one is released. If one of the requests fails while the other is still outstanding
+     * then the failure is recorded but the outstanding request takes the place of the retry on the next copy. All access to the shard
+     * iterator goes through this object until it hands control back to the regular retry logic.
+     */
+    private final class HedgedShardExecution {
+        private final int shardIndex;
+        private final SearchShardIterator shardIt;
+        private int outstanding = 1;
+        private boolean hedged;
+        private boolean done;
+        private Scheduler.Cancellable scheduledHedge;
+
+        HedgedShardExecution(int shardIndex, SearchShardIterator shardIt) {
+            this.shardIndex = shardIndex;
+            this.shardIt = shardIt;
+        }
+
+        synchronized void scheduleHedge(TimeValue delay) {
+            scheduledHedge = hedging.schedule(this::sendHedge, delay);
+        }
+
+        private void sendHedge() {
+            final SearchShardTarget nextShard;
+            synchronized (this) {
+                if (done || hedged) {
+                    return;
+                }
+                nextShard = shardIt.nextOrNull();
+                if (nextShard == null) {
+                    return;
+                }
+                hedged = true;
+                outstanding++;
+            }
+            logger.trace("hedging request for shard [{}] with a request to [{}]", shardIt.shardId(), nextShard);
+            try {
+                executePhaseOnShard(shardIt, nextShard, new SearchActionListener<Result>(nextShard, shardIndex) {
+                    @Override
+                    protected void innerOnResponse(Result result) {
+                        try {
+                            if (useResponse(result)) {
+                                onShardResult(result, shardIt);
+                            }
+                        } catch (Exception exc) {
+                            onShardFailure(shardIndex, nextShard, shardIt, exc);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (retryOnFailure(nextShard, e)) {
+                            onShardFailure(shardIndex, nextShard, shardIt, e);
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                if (retryOnFailure(nextShard, e)) {
+                    fork(() -> onShardFailure(shardIndex, nextShard, shardIt, e));
+                }
+            }
+        }
+
+        /**
+         * Called with every successful response. Returns {@code true} if the response is the first one and should be used.
+         */
+        boolean useResponse(Result result) {
+            final boolean first;
+            final boolean otherOutstanding;
+            synchronized (this) {
+                outstanding--;
+                first = done == false;
+                done = true;
+                otherOutstanding = outstanding > 0;
+            }
+            if (first == false) {
+                // the other request already answered
+                releaseHedgedResult(result);
+                return false;
+            }
+            cancelScheduledHedge();
+            if (otherOutstanding) {
+                // the other request was taken from the shard iterator but its response will be ignored
+                totalOps.incrementAndGet();
+            }
+            return true;
+        }
+
+        /**
+         * Called with every failure. Returns {@code true} if the failure should go through the regular retry logic, {@code false} if
+         * the other request is still outstanding or already succeeded.
+         */
+        boolean retryOnFailure(SearchShardTarget shard, Exception e) {
+            final boolean last;
+            synchronized (this) {
+                outstanding--;
+                if (done) {
+                    return false;
+                }
+                last = outstanding == 0;
+                done = last;
+            }
+            if (last) {
+                cancelScheduledHedge();
+                return true;
+            }
+            logger.debug(() -> format("%s: Failed to execute [%s] while a hedged request is outstanding", shard, request), e);
+            onShardFailure(shardIndex, shard, e);
+            final int totalOps = AbstractSearchAsyncAction.this.totalOps.incrementAndGet();
+            assert totalOps < expectedTotalOps : "the outstanding request must still be accounted for";
+            return false;
+        }
+
+        private void cancelScheduledHedge() {
+            final Scheduler.Cancellable cancellable;
+            synchronized (this) {
+                cancellable = scheduledHedge;
+            }
+            if (cancellable != null) {
+                cancellable.cancel();
+            }
+        }
+    }
+
+    /**
+     * Releases the reader context of the result of a hedged shard request that lost the race with the other request.
+     */
+    private void releaseHedgedResult(Result result) {
+        final ShardSearchContextId contextId = result.getContextId();
+        if (contextId != null) {
+            try {
+                final SearchShardTarget target = result.getSearchShardTarget();
+                final Transport.Connection connection = getConnection(target.getClusterAlias(), target.getNodeId());
+                sendReleaseSearchContext(contextId, connection, getOriginalIndices(result.getShardIndex()));
+            } catch (Exception e) {
+                logger.trace("failed to release context of hedged request", e);
+            }
+        }
+    }
+
     /**
      * Sends the request to the actual shard.
      * @param shardIt the shards iterator
@@ -8,17 +8,21 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.profile.SearchProfileResults;
 import org.elasticsearch.search.profile.SearchProfileShardResult;
 import org.elasticsearch.search.suggest.Suggest;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -29,7 +33,7 @@ import java.util.Map;
  * to parse aggregations into, which are not serializable. This is the common part that can be
  * shared between core and client.
  */
-public class SearchResponseSections implements ToXContentFragment {
+public class SearchResponseSections implements ToXContentFragment, ChunkedToXContent {
 
     protected final SearchHits hits;
     protected final Aggregations aggregations;
@@ -112,6 +116,23 @@ public class SearchResponseSections implements ToXContentFragment {
         return builder;
     }
 
+    @Override
+    public Iterator<? extends ToXContent> toXContentChunked() {
+        return Iterators.<ToXContent>concat(
+            hits.toXContentChunked(),
+            aggregations == null ? Collections.<ToXContent>emptyIterator() : aggregations.toXContentChunked(),
+            Iterators.<ToXContent>single((builder, params) -> {
+                if (suggest != null) {
+                    suggest.toXContent(builder, params);
+                }
+                if (profileResults != null) {
+                    profileResults.toXContent(builder, params);
+                }
+                return builder;
+            })
+        );
+    }
+
     protected void writeTo(StreamOutput out) throws IOException {
         throw new UnsupportedOperationException();
     }
@@ -0,0 +1,53 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+/**
+ * Decides when a shard level query request is hedged, that is sent to the next best copy of the shard while the request to the first
+ * copy is still outstanding, using whichever response arrives first. Requests are hedged once they have been outstanding for longer than
+ * the recent 95th percentile response time of the node they were sent to, so that a single node that is slow because of garbage
+ * collection or merges doesn't hold up the whole search while only a few percent of the requests are sent twice.
+ */
+final class ShardRequestHedging {
+
+    static final double HEDGE_PERCENTILE = 95;
+
+    private final ThreadPool threadPool;
+    private final ResponseCollectorService responseCollectorService;
+    private final TimeValue minDelay;
+
+    ShardRequestHedging(ThreadPool threadPool, ResponseCollectorService responseCollectorService, TimeValue minDelay) {
+        this.threadPool = threadPool;
+        this.responseCollectorService = responseCollectorService;
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * Returns how long to wait for a response from the given node before hedging the request, or {@code null} if nothing is known about
+     * the response times of the node yet.
+     */
+    @Nullable
+    TimeValue hedgeDelay(String nodeId) {
+        final long percentile = responseCollectorService.getResponseTimePercentile(nodeId, HEDGE_PERCENTILE);
+        if (percentile < 0) {
+            return null;
+        }
+        return TimeValue.timeValueNanos(Math.max(percentile, minDelay.nanos()));
+    }
+
+    Scheduler.Cancellable schedule(Runnable hedge, TimeValue delay) {
+        return threadPool.schedule(hedge, delay, ThreadPool.Names.SEARCH_COORDINATION);
+    }
+}
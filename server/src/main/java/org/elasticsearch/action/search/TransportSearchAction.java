@@ -38,6 +38,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.logging.DeprecationCategory;
 import org.elasticsearch.common.logging.DeprecationLogger;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.util.Maps;
@@ -115,6 +116,24 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    public static final Setting<Boolean> HEDGED_REQUESTS_ENABLED_SETTING = Setting.boolSetting(
+        "search.hedged_requests.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * The minimum time to wait before hedging a shard request, so that the requests to very fast nodes aren't all sent twice.
+     */
+    public static final Setting<TimeValue> HEDGED_REQUESTS_MIN_DELAY_SETTING = Setting.timeSetting(
+        "search.hedged_requests.min_delay",
+        TimeValue.timeValueMillis(10),
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final Setting<Integer> DEFAULT_PRE_FILTER_SHARD_SIZE = Setting.intSetting(
         "action.search.pre_filter_shard_size.default",
         SearchRequest.DEFAULT_PRE_FILTER_SHARD_SIZE,
@@ -134,6 +153,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     private final ExecutorSelector executorSelector;
     private final int defaultPreFilterShardSize;
     private final boolean ccsCheckCompatibility;
+    private volatile boolean hedgedRequestsEnabled;
+    private volatile TimeValue hedgedRequestsMinDelay;
 
     @Inject
     public TransportSearchAction(
@@ -163,6 +184,19 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.executorSelector = executorSelector;
         this.defaultPreFilterShardSize = DEFAULT_PRE_FILTER_SHARD_SIZE.get(clusterService.getSettings());
         this.ccsCheckCompatibility = SearchService.CCS_VERSION_CHECK_SETTING.get(clusterService.getSettings());
+        this.hedgedRequestsEnabled = HEDGED_REQUESTS_ENABLED_SETTING.get(clusterService.getSettings());
+        this.hedgedRequestsMinDelay = HEDGED_REQUESTS_MIN_DELAY_SETTING.get(clusterService.getSettings());
+        final ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        clusterSettings.addSettingsUpdateConsumer(HEDGED_REQUESTS_ENABLED_SETTING, this::setHedgedRequestsEnabled);
+        clusterSettings.addSettingsUpdateConsumer(HEDGED_REQUESTS_MIN_DELAY_SETTING, this::setHedgedRequestsMinDelay);
+    }
+
+    private void setHedgedRequestsEnabled(boolean hedgedRequestsEnabled) {
+        this.hedgedRequestsEnabled = hedgedRequestsEnabled;
+    }
+
+    private void setHedgedRequestsMinDelay(TimeValue hedgedRequestsMinDelay) {
+        this.hedgedRequestsMinDelay = hedgedRequestsMinDelay;
     }
 
     private Map<String, OriginalIndices> buildPerIndexOriginalIndices(
@@ -1225,13 +1259,26 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                     timeProvider,
                     clusterState,
                     task,
-                    clusters
+                    clusters,
+                    shardRequestHedging(searchRequest, threadPool)
                 );
             };
             return searchAsyncAction;
         }
     }
 
+    /**
+     * Returns how to hedge the shard requests of the query phase of the given search, or {@code null} if they should not be hedged.
+     * Requests that keep a reader open on the shard copy they were sent to, like scrolls and point in time searches, are never hedged.
+     */
+    @Nullable
+    private ShardRequestHedging shardRequestHedging(SearchRequest searchRequest, ThreadPool threadPool) {
+        if (hedgedRequestsEnabled == false || searchRequest.scroll() != null || searchRequest.pointInTimeBuilder() != null) {
+            return null;
+        }
+        return new ShardRequestHedging(threadPool, searchService.getResponseCollectorService(), hedgedRequestsMinDelay);
+    }
+
     private static void validateAndResolveWaitForCheckpoint(
         ClusterState clusterState,
         IndexNameExpressionResolver resolver,
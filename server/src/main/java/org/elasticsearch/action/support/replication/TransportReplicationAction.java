@@ -329,9 +329,11 @@ public abstract class TransportReplicationAction<
 
     private void handleOperationRequest(final Request request, final TransportChannel channel, Task task) {
         Releasable releasable = checkOperationLimits(request);
+        // the request may hold on to network buffers and must stay referenced until it has been executed
+        request.incRef();
         ActionListener<Response> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, actionName, request),
-            releasable::close
+            () -> Releasables.close(releasable, request::decRef)
         );
         runReroutePhase(task, request, listener, false);
     }
@@ -346,9 +348,10 @@ public abstract class TransportReplicationAction<
             request.sentFromLocalReroute(),
             request.localRerouteInitiatedByNodeClient()
         );
+        request.incRef();
         ActionListener<Response> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, transportPrimaryAction, request),
-            releasable::close
+            () -> Releasables.close(releasable, request::decRef)
         );
 
         try {
@@ -606,9 +609,10 @@ public abstract class TransportReplicationAction<
         final Task task
     ) {
         Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
+        replicaRequest.incRef();
         ActionListener<ReplicaResponse> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest),
-            releasable::close
+            () -> Releasables.close(releasable, replicaRequest::decRef)
         );
 
         try {
@@ -1371,6 +1375,26 @@ public abstract class TransportReplicationAction<
             return "[" + request.getDescription() + "] for aID [" + targetAllocationID + "] and term [" + primaryTerm + "]";
         }
 
+        @Override
+        public void incRef() {
+            request.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return request.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return request.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return request.hasReferences();
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             // If sentFromLocalReroute is marked true, then this request should just be looped back through
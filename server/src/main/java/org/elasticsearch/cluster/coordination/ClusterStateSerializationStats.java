@@ -8,6 +8,7 @@
 
 package org.elasticsearch.cluster.coordination;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -19,7 +20,7 @@ import java.io.IOException;
 
 public class ClusterStateSerializationStats implements Writeable, ToXContentObject {
 
-    public static final ClusterStateSerializationStats EMPTY = new ClusterStateSerializationStats(0L, 0L, 0L, 0L, 0L, 0L);
+    public static final ClusterStateSerializationStats EMPTY = new ClusterStateSerializationStats(0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
 
     private final long fullStateCount;
     private final long totalUncompressedFullStateBytes;
@@ -27,6 +28,8 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
     private final long diffCount;
     private final long totalUncompressedDiffBytes;
     private final long totalCompressedDiffBytes;
+    private final long chunkedSendCount;
+    private final long totalChunkCount;
 
     public ClusterStateSerializationStats(
         long fullStateCount,
@@ -34,7 +37,9 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         long totalCompressedFullStateBytes,
         long diffCount,
         long totalUncompressedDiffBytes,
-        long totalCompressedDiffBytes
+        long totalCompressedDiffBytes,
+        long chunkedSendCount,
+        long totalChunkCount
     ) {
         this.fullStateCount = fullStateCount;
         this.totalUncompressedFullStateBytes = totalUncompressedFullStateBytes;
@@ -42,6 +47,8 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         this.diffCount = diffCount;
         this.totalUncompressedDiffBytes = totalUncompressedDiffBytes;
         this.totalCompressedDiffBytes = totalCompressedDiffBytes;
+        this.chunkedSendCount = chunkedSendCount;
+        this.totalChunkCount = totalChunkCount;
     }
 
     public ClusterStateSerializationStats(StreamInput in) throws IOException {
@@ -51,6 +58,13 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         this.diffCount = in.readVLong();
         this.totalUncompressedDiffBytes = in.readVLong();
         this.totalCompressedDiffBytes = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            this.chunkedSendCount = in.readVLong();
+            this.totalChunkCount = in.readVLong();
+        } else {
+            this.chunkedSendCount = 0L;
+            this.totalChunkCount = 0L;
+        }
     }
 
     public long getFullStateCount() {
@@ -77,6 +91,14 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         return totalCompressedDiffBytes;
     }
 
+    public long getChunkedSendCount() {
+        return chunkedSendCount;
+    }
+
+    public long getTotalChunkCount() {
+        return totalChunkCount;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
@@ -90,6 +112,10 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         builder.humanReadableField("uncompressed_size_in_bytes", "uncompressed_size", new ByteSizeValue(totalUncompressedDiffBytes));
         builder.humanReadableField("compressed_size_in_bytes", "compressed_size", new ByteSizeValue(totalCompressedDiffBytes));
         builder.endObject();
+        builder.startObject("chunked");
+        builder.field("count", chunkedSendCount);
+        builder.field("chunks", totalChunkCount);
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -102,6 +128,10 @@ public class ClusterStateSerializationStats implements Writeable, ToXContentObje
         out.writeVLong(diffCount);
         out.writeVLong(totalUncompressedDiffBytes);
         out.writeVLong(totalCompressedDiffBytes);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeVLong(chunkedSendCount);
+            out.writeVLong(totalChunkCount);
+        }
     }
 
 }
@@ -260,7 +260,12 @@ public class Coordinator extends AbstractLifecycleComponent implements ClusterSt
                 new ChannelActionListener<>(channel, COMMIT_STATE_ACTION_NAME, request).map(r -> Empty.INSTANCE)
             )
         );
-        this.publicationHandler = new PublicationTransportHandler(transportService, namedWriteableRegistry, this::handlePublishRequest);
+        this.publicationHandler = new PublicationTransportHandler(
+            settings,
+            transportService,
+            namedWriteableRegistry,
+            this::handlePublishRequest
+        );
         this.leaderChecker = new LeaderChecker(settings, transportService, this::onLeaderFailure, nodeHealthService);
         this.followersChecker = new FollowersChecker(
             settings,
@@ -998,7 +1003,8 @@ public class Coordinator extends AbstractLifecycleComponent implements ClusterSt
             new PendingClusterStateStats(0, 0, 0),
             publicationHandler.stats(),
             getLocalNode().isMasterNode() ? masterService.getClusterStateUpdateStats() : null,
-            clusterApplier.getStats()
+            clusterApplier.getStats(),
+            getLocalNode().isMasterNode() ? masterService.getClusterStateTaskExecutorStats() : null
         );
     }
 
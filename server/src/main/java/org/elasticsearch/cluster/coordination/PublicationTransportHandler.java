@@ -21,6 +21,7 @@ import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
@@ -32,6 +33,9 @@ import org.elasticsearch.common.io.stream.PositionTrackingOutputStreamStreamOutp
 import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.LazyInitializable;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.IOUtils;
@@ -62,19 +66,43 @@ import static org.elasticsearch.core.Strings.format;
  * <p>
  * It also uses the {@link Diff} mechanism to reduce the data to be transferred wherever possible. This is only a best-effort mechanism so
  * we fall back to sending a full cluster state if the diff cannot be applied for some reason.
+ * <p>
+ * Serialized states and diffs that are larger than {@link #PUBLISH_CHUNK_SIZE_SETTING} are sent to each node as a sequence of
+ * {@link PublishChunkRequest}s, each sent once the previous one is acknowledged, so that no single transport message has to carry the
+ * whole state. The receiving node accumulates the chunks in recycled pages and applies the state once the last chunk arrives.
  */
 public class PublicationTransportHandler {
 
     private static final Logger logger = LogManager.getLogger(PublicationTransportHandler.class);
 
     public static final String PUBLISH_STATE_ACTION_NAME = "internal:cluster/coordination/publish_state";
+    public static final String PUBLISH_STATE_CHUNK_ACTION_NAME = "internal:cluster/coordination/publish_state_chunk";
+
+    /**
+     * The maximum size of a transport message that carries a serialized cluster state or diff. Larger serialized states are sent in
+     * chunks of this size to nodes that support it. Set to {@code 0} to always send serialized states in a single message.
+     */
+    public static final Setting<ByteSizeValue> PUBLISH_CHUNK_SIZE_SETTING = Setting.byteSizeSetting(
+        "cluster.publish.chunk_size",
+        ByteSizeValue.ofMb(8),
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ofBytes(Integer.MAX_VALUE),
+        Setting.Property.NodeScope
+    );
 
     private final TransportService transportService;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest;
+    private final int chunkSize;
 
     private final AtomicReference<ClusterState> lastSeenClusterState = new AtomicReference<>();
 
+    // the chunks received so far of the state that the master is currently sending in chunks, if any
+    private String chunkedPublicationId; // guarded by this
+    private long chunkedPublicationTerm; // guarded by this
+    private long chunkedPublicationVersion; // guarded by this
+    private RecyclerBytesStreamOutput chunkedPublicationBytes; // guarded by this
+
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
@@ -88,6 +116,7 @@ public class PublicationTransportHandler {
     private final SerializationStatsTracker serializationStatsTracker = new SerializationStatsTracker();
 
     public PublicationTransportHandler(
+        Settings settings,
         TransportService transportService,
         NamedWriteableRegistry namedWriteableRegistry,
         Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest
@@ -95,6 +124,7 @@ public class PublicationTransportHandler {
         this.transportService = transportService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.handlePublishRequest = handlePublishRequest;
+        this.chunkSize = Math.toIntExact(PUBLISH_CHUNK_SIZE_SETTING.get(settings).getBytes());
 
         transportService.registerRequestHandler(
             PUBLISH_STATE_ACTION_NAME,
@@ -102,7 +132,16 @@ public class PublicationTransportHandler {
             false,
             false,
             BytesTransportRequest::new,
-            (request, channel, task) -> channel.sendResponse(handleIncomingPublishRequest(request))
+            (request, channel, task) -> channel.sendResponse(handleIncomingPublishRequest(request.bytes(), request.version()))
+        );
+
+        transportService.registerRequestHandler(
+            PUBLISH_STATE_CHUNK_ACTION_NAME,
+            ThreadPool.Names.CLUSTER_COORDINATION,
+            false,
+            false,
+            PublishChunkRequest::new,
+            (request, channel, task) -> channel.sendResponse(handleIncomingPublishChunk(request))
         );
     }
 
@@ -115,15 +154,118 @@ public class PublicationTransportHandler {
         );
     }
 
-    private PublishWithJoinResponse handleIncomingPublishRequest(BytesTransportRequest request) throws IOException {
-        final Compressor compressor = CompressorFactory.compressor(request.bytes());
-        StreamInput in = request.bytes().streamInput();
+    private PublishChunkResponse handleIncomingPublishChunk(PublishChunkRequest request) throws IOException {
+        final RecyclerBytesStreamOutput completeBytes;
+        synchronized (this) {
+            if (request.getPublicationId().equals(chunkedPublicationId) == false) {
+                if (chunkedPublicationId != null && isOlderThanChunkedPublication(request.getTerm(), request.getStateVersion())) {
+                    throw new IllegalStateException(
+                        "received chunk of publication ["
+                            + request.getPublicationId()
+                            + "] in term ["
+                            + request.getTerm()
+                            + "] with version ["
+                            + request.getStateVersion()
+                            + "] while receiving publication ["
+                            + chunkedPublicationId
+                            + "] in term ["
+                            + chunkedPublicationTerm
+                            + "] with version ["
+                            + chunkedPublicationVersion
+                            + "]"
+                    );
+                }
+                // the chunks of a previous publication that were not all received will never be completed
+                releaseChunkedPublication();
+                if (request.getOffset() != 0) {
+                    throw new IllegalStateException(
+                        "received chunk at offset [" + request.getOffset() + "] of unknown publication [" + request.getPublicationId() + "]"
+                    );
+                }
+                chunkedPublicationId = request.getPublicationId();
+                chunkedPublicationTerm = request.getTerm();
+                chunkedPublicationVersion = request.getStateVersion();
+                chunkedPublicationBytes = transportService.newNetworkBytesStream();
+            }
+            if (request.getOffset() != chunkedPublicationBytes.position()) {
+                final long expectedOffset = chunkedPublicationBytes.position();
+                releaseChunkedPublication();
+                throw new IllegalStateException(
+                    "received chunk at offset ["
+                        + request.getOffset()
+                        + "] of publication ["
+                        + request.getPublicationId()
+                        + "] but expected offset ["
+                        + expectedOffset
+                        + "]"
+                );
+            }
+            boolean success = false;
+            try {
+                request.bytes().writeTo(chunkedPublicationBytes);
+                success = true;
+            } finally {
+                if (success == false) {
+                    releaseChunkedPublication();
+                }
+            }
+            if (request.isLast() == false) {
+                return PublishChunkResponse.ACKNOWLEDGED;
+            }
+            completeBytes = chunkedPublicationBytes;
+            chunkedPublicationId = null;
+            chunkedPublicationBytes = null;
+        }
+        try (completeBytes) {
+            return new PublishChunkResponse(handleIncomingPublishRequest(completeBytes.bytes(), request.version()));
+        }
+    }
+
+    private synchronized boolean isOlderThanChunkedPublication(long term, long version) {
+        return term < chunkedPublicationTerm || (term == chunkedPublicationTerm && version < chunkedPublicationVersion);
+    }
+
+    private synchronized void releaseChunkedPublication() {
+        if (chunkedPublicationBytes != null) {
+            chunkedPublicationBytes.close();
+        }
+        chunkedPublicationId = null;
+        chunkedPublicationBytes = null;
+    }
+
+    /**
+     * Releases the chunks received so far of a publication that the given state supersedes, since they will never be completed.
+     */
+    private synchronized void releaseChunkedPublicationSupersededBy(ClusterState state) {
+        if (chunkedPublicationId != null && isOlderThanChunkedPublication(state.term(), state.version()) == false) {
+            logger.debug(
+                "releasing chunks of publication [{}] in term [{}] with version [{}] superseded by state in term [{}] with version [{}]",
+                chunkedPublicationId,
+                chunkedPublicationTerm,
+                chunkedPublicationVersion,
+                state.term(),
+                state.version()
+            );
+            releaseChunkedPublication();
+        }
+    }
+
+    /**
+     * The number of bytes of a publication that is being received in chunks, for tests.
+     */
+    synchronized long getChunkedPublicationBytes() {
+        return chunkedPublicationBytes == null ? 0L : chunkedPublicationBytes.size();
+    }
+
+    private PublishWithJoinResponse handleIncomingPublishRequest(BytesReference bytes, Version version) throws IOException {
+        final Compressor compressor = CompressorFactory.compressor(bytes);
+        StreamInput in = bytes.streamInput();
         try {
             if (compressor != null) {
                 in = new InputStreamStreamInput(compressor.threadLocalInputStream(in));
             }
             in = new NamedWriteableAwareStreamInput(in, namedWriteableRegistry);
-            in.setVersion(request.version());
+            in.setVersion(version);
             // If true we received full cluster state - otherwise diffs
             if (in.readBoolean()) {
                 final ClusterState incomingState;
@@ -136,7 +278,8 @@ public class PublicationTransportHandler {
                     throw e;
                 }
                 fullClusterStateReceivedCount.incrementAndGet();
-                logger.debug("received full cluster state version [{}] with size [{}]", incomingState.version(), request.bytes().length());
+                logger.debug("received full cluster state version [{}] with size [{}]", incomingState.version(), bytes.length());
+                releaseChunkedPublicationSupersededBy(incomingState);
                 final PublishWithJoinResponse response = acceptState(incomingState);
                 lastSeenClusterState.set(incomingState);
                 return response;
@@ -168,8 +311,9 @@ public class PublicationTransportHandler {
                         "received diff cluster state version [{}] with uuid [{}], diff size [{}]",
                         incomingState.version(),
                         incomingState.stateUUID(),
-                        request.bytes().length()
+                        bytes.length()
                     );
+                    releaseChunkedPublicationSupersededBy(incomingState);
                     final PublishWithJoinResponse response = acceptState(incomingState);
                     lastSeenClusterState.compareAndSet(lastSeen, incomingState);
                     return response;
@@ -378,7 +522,7 @@ public class PublicationTransportHandler {
                     return;
                 }
             }
-            sendClusterState(destination, bytes, listener);
+            sendClusterState(destination, bytes, newState.stateUUID() + "/full", listener);
         }
 
         private void sendClusterStateDiff(DiscoveryNode destination, ActionListener<PublishWithJoinResponse> listener) {
@@ -392,7 +536,8 @@ public class PublicationTransportHandler {
                 listener.onFailure(new IllegalStateException("publication context released before transmission"));
                 return;
             }
-            sendClusterState(destination, bytes, ActionListener.runAfter(listener.delegateResponse((delegate, e) -> {
+            final String publicationId = newState.stateUUID() + "/diff";
+            sendClusterState(destination, bytes, publicationId, ActionListener.runAfter(listener.delegateResponse((delegate, e) -> {
                 if (e instanceof final TransportException transportException) {
                     if (transportException.unwrapCause() instanceof IncompatibleClusterStateVersionException) {
                         logger.debug(
@@ -415,6 +560,7 @@ public class PublicationTransportHandler {
         private void sendClusterState(
             DiscoveryNode destination,
             ReleasableBytesReference bytes,
+            String publicationId,
             ActionListener<PublishWithJoinResponse> listener
         ) {
             assert refCount() > 0;
@@ -423,6 +569,13 @@ public class PublicationTransportHandler {
                 listener.onFailure(new IllegalStateException("serialized cluster state released before transmission"));
                 return;
             }
+            if (chunkSize > 0 && bytes.length() > chunkSize && destination.getVersion().onOrAfter(Version.V_8_4_0)) {
+                final int chunks = (bytes.length() + chunkSize - 1) / chunkSize;
+                serializationStatsTracker.sentInChunks(chunks);
+                logger.trace("sending [{}] bytes to [{}] in [{}] chunks", bytes.length(), destination, chunks);
+                sendChunk(destination, bytes, publicationId, 0, ActionListener.runAfter(listener, bytes::decRef));
+                return;
+            }
             try {
                 transportService.sendChildRequest(
                     destination,
@@ -443,6 +596,50 @@ public class PublicationTransportHandler {
             }
         }
 
+        /**
+         * Sends the chunk of the given serialized state that starts at the given offset, and the following chunks once the destination
+         * acknowledged it. The caller holds a reference to the serialized state until the listener is completed.
+         */
+        private void sendChunk(
+            DiscoveryNode destination,
+            ReleasableBytesReference bytes,
+            String publicationId,
+            int offset,
+            ActionListener<PublishWithJoinResponse> listener
+        ) {
+            final int length = Math.min(chunkSize, bytes.length() - offset);
+            final boolean last = offset + length == bytes.length();
+            try {
+                transportService.sendChildRequest(
+                    destination,
+                    PUBLISH_STATE_CHUNK_ACTION_NAME,
+                    new PublishChunkRequest(
+                        publicationId,
+                        newState.term(),
+                        newState.version(),
+                        offset,
+                        last,
+                        ReleasableBytesReference.wrap(bytes.slice(offset, length)),
+                        destination.getVersion()
+                    ),
+                    task,
+                    STATE_REQUEST_OPTIONS,
+                    new ActionListenerResponseHandler<>(listener.delegateFailure((delegate, response) -> {
+                        if (last) {
+                            assert response.getPublishWithJoinResponse() != null : "no publish response to the last chunk";
+                            delegate.onResponse(response.getPublishWithJoinResponse());
+                        } else {
+                            sendChunk(destination, bytes, publicationId, offset + length, delegate);
+                        }
+                    }), PublishChunkResponse::new, ThreadPool.Names.CLUSTER_COORDINATION)
+                );
+            } catch (Exception e) {
+                assert false : e;
+                logger.warn(() -> format("error sending cluster state chunk to %s", destination), e);
+                listener.onFailure(e);
+            }
+        }
+
         @Override
         protected void closeInternal() {
             serializedDiffs.values().forEach(Releasables::closeExpectNoException);
@@ -460,6 +657,9 @@ public class PublicationTransportHandler {
         private long totalUncompressedDiffBytes;
         private long totalCompressedDiffBytes;
 
+        private long chunkedSendCount;
+        private long totalChunkCount;
+
         public synchronized void serializedFullState(long uncompressedBytes, int compressedBytes) {
             fullStateCount += 1;
             totalUncompressedFullStateBytes += uncompressedBytes;
@@ -472,6 +672,11 @@ public class PublicationTransportHandler {
             totalCompressedDiffBytes += compressedBytes;
         }
 
+        public synchronized void sentInChunks(int chunks) {
+            chunkedSendCount += 1;
+            totalChunkCount += chunks;
+        }
+
         public synchronized ClusterStateSerializationStats getSerializationStats() {
             return new ClusterStateSerializationStats(
                 fullStateCount,
@@ -479,7 +684,9 @@ public class PublicationTransportHandler {
                 totalCompressedFullStateBytes,
                 diffCount,
                 totalUncompressedDiffBytes,
-                totalCompressedDiffBytes
+                totalCompressedDiffBytes,
+                chunkedSendCount,
+                totalChunkCount
             );
         }
     }
@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+/**
+ * A chunk of a serialized cluster state or diff that is too large to be published in a single message. The chunks of a publication are
+ * sent one after the other, and the receiver accumulates them until the {@link #isLast() last one} arrives, at which point it applies the
+ * whole serialized state exactly as if it had been sent at once.
+ */
+public class PublishChunkRequest extends TransportRequest {
+
+    private final String publicationId;
+    private final long term;
+    private final long stateVersion;
+    private final long offset;
+    private final boolean last;
+    private final ReleasableBytesReference bytes;
+    private final Version version;
+
+    public PublishChunkRequest(
+        String publicationId,
+        long term,
+        long stateVersion,
+        long offset,
+        boolean last,
+        ReleasableBytesReference bytes,
+        Version version
+    ) {
+        this.publicationId = publicationId;
+        this.term = term;
+        this.stateVersion = stateVersion;
+        this.offset = offset;
+        this.last = last;
+        this.bytes = bytes;
+        this.version = version;
+    }
+
+    public PublishChunkRequest(StreamInput in) throws IOException {
+        super(in);
+        publicationId = in.readString();
+        term = in.readVLong();
+        stateVersion = in.readVLong();
+        offset = in.readVLong();
+        last = in.readBoolean();
+        bytes = in.readReleasableBytesReference();
+        version = in.getVersion();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(publicationId);
+        out.writeVLong(term);
+        out.writeVLong(stateVersion);
+        out.writeVLong(offset);
+        out.writeBoolean(last);
+        out.writeBytesReference(bytes);
+    }
+
+    /**
+     * Identifies the serialized state or diff that this chunk belongs to.
+     */
+    public String getPublicationId() {
+        return publicationId;
+    }
+
+    /**
+     * The term of the cluster state that this chunk belongs to.
+     */
+    public long getTerm() {
+        return term;
+    }
+
+    /**
+     * The version of the cluster state that this chunk belongs to.
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * The position of this chunk in the serialized state or diff.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Whether this is the last chunk of the serialized state or diff.
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    public BytesReference bytes() {
+        return bytes;
+    }
+
+    /**
+     * The version of the node that serialized the state, which is the version to deserialize it with.
+     */
+    public Version version() {
+        return version;
+    }
+
+    @Override
+    public void incRef() {
+        bytes.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return bytes.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return bytes.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return bytes.hasReferences();
+    }
+
+    @Override
+    public String toString() {
+        return "PublishChunkRequest{publicationId="
+            + publicationId
+            + ", term="
+            + term
+            + ", stateVersion="
+            + stateVersion
+            + ", offset="
+            + offset
+            + ", length="
+            + bytes.length()
+            + ", last="
+            + last
+            + '}';
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+
+/**
+ * Response to a {@link PublishChunkRequest}. Only the response to the last chunk of a publication holds a
+ * {@link PublishWithJoinResponse}, the other chunks are merely acknowledged.
+ */
+public class PublishChunkResponse extends TransportResponse {
+
+    public static final PublishChunkResponse ACKNOWLEDGED = new PublishChunkResponse((PublishWithJoinResponse) null);
+
+    @Nullable
+    private final PublishWithJoinResponse publishWithJoinResponse;
+
+    public PublishChunkResponse(@Nullable PublishWithJoinResponse publishWithJoinResponse) {
+        this.publishWithJoinResponse = publishWithJoinResponse;
+    }
+
+    public PublishChunkResponse(StreamInput in) throws IOException {
+        this.publishWithJoinResponse = in.readOptionalWriteable(PublishWithJoinResponse::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeOptionalWriteable(publishWithJoinResponse);
+    }
+
+    @Nullable
+    public PublishWithJoinResponse getPublishWithJoinResponse() {
+        return publishWithJoinResponse;
+    }
+
+    @Override
+    public String toString() {
+        return "PublishChunkResponse{" + publishWithJoinResponse + '}';
+    }
+}
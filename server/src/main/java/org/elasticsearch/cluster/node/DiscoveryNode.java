@@ -338,6 +338,14 @@ public class DiscoveryNode implements Writeable, ToXContentFragment {
         return Set.copyOf(NODE_ROLES_SETTING.get(settings));
     }
 
+    /**
+     * Returns the instance of the given node id or name that the discovery nodes hold, so that structures that refer to nodes by their
+     * id, like the routing table, do not keep a copy of it for every reference they read from the wire.
+     */
+    public static String deduplicateNodeIdentifier(String nodeIdentifier) {
+        return nodeStringDeduplicator.deduplicate(nodeIdentifier);
+    }
+
     private static final Writeable.Reader<String> readStringLiteral = s -> nodeStringDeduplicator.deduplicate(s.readString());
 
     /**
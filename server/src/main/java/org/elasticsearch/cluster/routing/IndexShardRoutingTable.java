@@ -100,9 +100,17 @@ public class IndexShardRoutingTable {
         this.allShardsStarted = allShardsStarted;
         this.primary = primary;
         this.replicas = CollectionUtils.wrapUnmodifiableOrEmptySingleton(replicas);
-        this.activeShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(activeShards);
-        this.assignedShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(assignedShards);
-        this.allInitializingShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(allInitializingShards);
+        if (allShardsStarted) {
+            // the usual case in a stable cluster: every copy is both active and assigned so both can share a single list
+            final List<ShardRouting> allShards = Collections.unmodifiableList(Arrays.asList(this.shards));
+            this.activeShards = allShards;
+            this.assignedShards = allShards;
+            this.allInitializingShards = List.of();
+        } else {
+            this.activeShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(activeShards);
+            this.assignedShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(assignedShards);
+            this.allInitializingShards = CollectionUtils.wrapUnmodifiableOrEmptySingleton(allInitializingShards);
+        }
     }
 
     /**
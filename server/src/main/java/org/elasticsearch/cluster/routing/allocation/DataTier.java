@@ -109,6 +109,20 @@ public class DataTier {
         PREFERENCE_TIER_CONFIGURATION_SETTINGS = Map.copyOf(tmpSettings);
     }
 
+    // The parsed form of the tier preferences that nearly every index uses, shared by the metadata of all these indices
+    private static final Map<String, List<String>> COMMON_TIER_LISTS;
+
+    static {
+        final Map<String, List<String>> tmp = new HashMap<>();
+        for (String tier : ALL_DATA_TIERS) {
+            tmp.put(tier, List.of(tier));
+        }
+        for (String preference : PREFERENCE_TIER_CONFIGURATIONS.values()) {
+            tmp.put(preference, List.of(preference.split(",")));
+        }
+        COMMON_TIER_LISTS = Map.copyOf(tmp);
+    }
+
     /**
      * Returns true if the given tier name is a valid tier
      */
@@ -186,9 +200,12 @@ public class DataTier {
         if (Strings.hasText(tiers) == false) {
             // avoid parsing overhead in the null/empty string case
             return List.of();
-        } else {
-            return List.of(tiers.split(","));
         }
+        final List<String> common = COMMON_TIER_LISTS.get(tiers);
+        if (common != null) {
+            return common;
+        }
+        return List.of(tiers.split(","));
     }
 
     /**
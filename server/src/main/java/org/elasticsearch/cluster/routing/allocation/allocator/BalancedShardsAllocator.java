@@ -37,8 +37,10 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.gateway.PriorityComparator;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -48,6 +50,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiFunction;
 import java.util.stream.StreamSupport;
 
@@ -94,8 +100,28 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Property.NodeScope
     );
 
+    /**
+     * The number of threads that compute how unbalanced each index is before rebalancing, including the thread that runs the reroute.
+     * The other threads are taken from the generic thread pool. Only worth increasing on clusters with many thousands of indices.
+     */
+    public static final Setting<Integer> THREADS_SETTING = Setting.intSetting(
+        "cluster.routing.allocation.balance.threads",
+        1,
+        1,
+        Property.NodeScope
+    );
+
+    /**
+     * The minimum number of indices that a thread computes the balance of, so that small clusters don't pay the cost of handing work
+     * over to other threads.
+     */
+    static final int MIN_INDICES_PER_THREAD = 1024;
+
     private volatile WeightFunction weightFunction;
     private volatile float threshold;
+    @Nullable
+    private final Executor executor;
+    private final int threads;
 
     public BalancedShardsAllocator(Settings settings) {
         this(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
@@ -103,6 +129,24 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
+        this(settings, clusterSettings, null, 1);
+    }
+
+    /**
+     * Creates an allocator that computes the balance of the indices on up to {@link #THREADS_SETTING} threads of the generic pool.
+     */
+    public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
+        this(
+            settings,
+            clusterSettings,
+            THREADS_SETTING.get(settings) > 1 ? threadPool.executor(ThreadPool.Names.GENERIC) : null,
+            THREADS_SETTING.get(settings)
+        );
+    }
+
+    BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings, @Nullable Executor executor, int threads) {
+        this.executor = executor;
+        this.threads = executor == null ? 1 : threads;
         setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
         setThreshold(THRESHOLD_SETTING.get(settings));
         clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
@@ -123,7 +167,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             failAllocationOfNewPrimaries(allocation);
             return;
         }
-        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, executor, threads);
         balancer.allocateUnassigned();
         balancer.moveShards();
         balancer.balance();
@@ -131,7 +175,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Override
     public ShardAllocationDecision decideShardAllocation(final ShardRouting shard, final RoutingAllocation allocation) {
-        Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
+        Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold, executor, threads);
         AllocateUnassignedDecision allocateUnassignedDecision = AllocateUnassignedDecision.NOT_TAKEN;
         MoveDecision moveDecision = MoveDecision.NOT_TAKEN;
         if (shard.unassigned()) {
@@ -258,9 +302,25 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final Metadata metadata;
         private final float avgShardsPerNode;
         private final NodeSorter sorter;
+        @Nullable
+        private final Executor executor;
+        private final int threads;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
+            this(logger, allocation, weight, threshold, null, 1);
+        }
+
+        Balancer(
+            Logger logger,
+            RoutingAllocation allocation,
+            WeightFunction weight,
+            float threshold,
+            @Nullable Executor executor,
+            int threads
+        ) {
             this.logger = logger;
+            this.executor = executor;
+            this.threads = threads;
             this.allocation = allocation;
             this.weight = weight;
             this.threshold = threshold;
@@ -620,11 +680,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          */
         private String[] buildWeightOrderedIndices() {
             final String[] indices = allocation.routingTable().indicesRouting().keySet().toArray(new String[0]);
-            final float[] deltas = new float[indices.length];
-            for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
-            }
+            final float[] deltas = computeDeltas(indices);
             new IntroSorter() {
 
                 float pivotWeight;
@@ -658,6 +714,67 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return indices;
         }
 
+        /**
+         * Computes the delta between the highest and the lowest weight of the nodes for each of the given indices. If the balancer
+         * has an executor and there are enough indices, the indices are split into chunks whose deltas are computed concurrently,
+         * which only reads the model of the cluster. Otherwise the deltas are computed with the {@link NodeSorter} on this thread.
+         */
+        private float[] computeDeltas(String[] indices) {
+            final float[] deltas = new float[indices.length];
+            final int numChunks = executor == null ? 1 : Math.min(threads, indices.length / MIN_INDICES_PER_THREAD);
+            if (numChunks <= 1) {
+                for (int i = 0; i < deltas.length; i++) {
+                    sorter.reset(indices[i]);
+                    deltas[i] = sorter.delta();
+                }
+                return deltas;
+            }
+            final ModelNode[] modelNodes = sorter.modelNodes;
+            final int chunkSize = (indices.length + numChunks - 1) / numChunks;
+            final List<FutureTask<Void>> tasks = new ArrayList<>(numChunks - 1);
+            for (int from = chunkSize; from < indices.length; from += chunkSize) {
+                final int chunkFrom = from;
+                final int chunkTo = Math.min(from + chunkSize, indices.length);
+                final FutureTask<Void> task = new FutureTask<>(() -> {
+                    computeDeltas(modelNodes, indices, deltas, chunkFrom, chunkTo);
+                    return null;
+                });
+                tasks.add(task);
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // this thread runs the task below
+                }
+            }
+            computeDeltas(modelNodes, indices, deltas, 0, Math.min(chunkSize, indices.length));
+            for (FutureTask<Void> task : tasks) {
+                // runs the task on this thread unless the executor started it already, in which case it waits for it to complete
+                task.run();
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("failed to compute the balance of indices", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while computing the balance of indices", e);
+                }
+            }
+            return deltas;
+        }
+
+        private void computeDeltas(ModelNode[] modelNodes, String[] indices, float[] deltas, int from, int to) {
+            for (int i = from; i < to; i++) {
+                float min = Float.POSITIVE_INFINITY;
+                float max = Float.NEGATIVE_INFINITY;
+                for (ModelNode node : modelNodes) {
+                    final float nodeWeight = weight.weight(this, node, indices[i]);
+                    min = Math.min(min, nodeWeight);
+                    max = Math.max(max, nodeWeight);
+                }
+                deltas[i] = max - min;
+            }
+        }
+
         /**
          * Move started shards that can not be allocated to a node anymore
          *
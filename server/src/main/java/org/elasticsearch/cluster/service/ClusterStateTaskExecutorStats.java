@@ -0,0 +1,211 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics about the cluster state update tasks that the master service executed, per {@link ClusterStateTaskExecutor}. The time that
+ * tasks spent in the queue and the time that it took to compute their batches are recorded in histograms with the buckets
+ * {@link #BUCKET_UPPER_BOUNDS_MILLIS}.
+ */
+public class ClusterStateTaskExecutorStats implements Writeable, ToXContentFragment {
+
+    /**
+     * The exclusive upper bounds of the buckets of the histograms, in milliseconds. The last bucket has no upper bound.
+     */
+    static final long[] BUCKET_UPPER_BOUNDS_MILLIS = new long[] { 1, 10, 100, 1000, 10000 };
+
+    private final Map<String, Executor> executors;
+
+    public ClusterStateTaskExecutorStats(Map<String, Executor> executors) {
+        this.executors = executors;
+    }
+
+    public ClusterStateTaskExecutorStats(StreamInput in) throws IOException {
+        this(in.readOrderedMap(StreamInput::readString, Executor::new));
+    }
+
+    public Map<String, Executor> getExecutors() {
+        return executors;
+    }
+
+    static int bucket(long millis) {
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_MILLIS.length && millis >= BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeMap(executors, StreamOutput::writeString, (o, executor) -> executor.writeTo(o));
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_state_task_executors");
+        builder.startArray("executors");
+        for (Map.Entry<String, Executor> entry : executors.entrySet()) {
+            final Executor executor = entry.getValue();
+            builder.startObject();
+            builder.field("name", entry.getKey());
+            builder.field("batch_count", executor.batchCount);
+            builder.field("task_count", executor.taskCount);
+            builder.field("estimated_task_cost_micros", executor.estimatedTaskCostMicros);
+            histogramToXContent(builder, "queue_time_histogram", executor.queueTimeHistogram);
+            histogramToXContent(builder, "computation_time_histogram", executor.computationTimeHistogram);
+            builder.endObject();
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    private static void histogramToXContent(XContentBuilder builder, String name, long[] histogram) throws IOException {
+        builder.startArray(name);
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            builder.startObject();
+            if (bucket > 0) {
+                builder.field("ge_millis", BUCKET_UPPER_BOUNDS_MILLIS[bucket - 1]);
+            }
+            if (bucket < BUCKET_UPPER_BOUNDS_MILLIS.length) {
+                builder.field("lt_millis", BUCKET_UPPER_BOUNDS_MILLIS[bucket]);
+            }
+            builder.field("count", histogram[bucket]);
+            builder.endObject();
+        }
+        builder.endArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClusterStateTaskExecutorStats that = (ClusterStateTaskExecutorStats) o;
+        return Objects.equals(executors, that.executors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(executors);
+    }
+
+    /**
+     * The statistics of the tasks of a single executor.
+     */
+    public static class Executor implements Writeable {
+
+        private final long batchCount;
+        private final long taskCount;
+        private final long estimatedTaskCostMicros;
+        // the time that each task spent in the queue
+        private final long[] queueTimeHistogram;
+        // the time that it took to compute the new cluster state for each batch
+        private final long[] computationTimeHistogram;
+
+        public Executor(
+            long batchCount,
+            long taskCount,
+            long estimatedTaskCostMicros,
+            long[] queueTimeHistogram,
+            long[] computationTimeHistogram
+        ) {
+            assert queueTimeHistogram.length == BUCKET_UPPER_BOUNDS_MILLIS.length + 1 : queueTimeHistogram.length;
+            assert computationTimeHistogram.length == BUCKET_UPPER_BOUNDS_MILLIS.length + 1 : computationTimeHistogram.length;
+            this.batchCount = batchCount;
+            this.taskCount = taskCount;
+            this.estimatedTaskCostMicros = estimatedTaskCostMicros;
+            this.queueTimeHistogram = queueTimeHistogram;
+            this.computationTimeHistogram = computationTimeHistogram;
+        }
+
+        public Executor(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong(), in.readVLong(), in.readVLongArray(), in.readVLongArray());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(batchCount);
+            out.writeVLong(taskCount);
+            out.writeVLong(estimatedTaskCostMicros);
+            out.writeVLongArray(queueTimeHistogram);
+            out.writeVLongArray(computationTimeHistogram);
+        }
+
+        public long getBatchCount() {
+            return batchCount;
+        }
+
+        public long getTaskCount() {
+            return taskCount;
+        }
+
+        /**
+         * The moving average of the time it takes to compute the cluster state update of a single task of this executor.
+         */
+        public long getEstimatedTaskCostMicros() {
+            return estimatedTaskCostMicros;
+        }
+
+        public long[] getQueueTimeHistogram() {
+            return queueTimeHistogram;
+        }
+
+        public long[] getComputationTimeHistogram() {
+            return computationTimeHistogram;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Executor executor = (Executor) o;
+            return batchCount == executor.batchCount
+                && taskCount == executor.taskCount
+                && estimatedTaskCostMicros == executor.estimatedTaskCostMicros
+                && Arrays.equals(queueTimeHistogram, executor.queueTimeHistogram)
+                && Arrays.equals(computationTimeHistogram, executor.computationTimeHistogram);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(batchCount, taskCount, estimatedTaskCostMicros);
+            result = 31 * result + Arrays.hashCode(queueTimeHistogram);
+            result = 31 * result + Arrays.hashCode(computationTimeHistogram);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Executor{"
+                + "batchCount="
+                + batchCount
+                + ", taskCount="
+                + taskCount
+                + ", estimatedTaskCostMicros="
+                + estimatedTaskCostMicros
+                + ", queueTimeHistogram="
+                + Arrays.toString(queueTimeHistogram)
+                + ", computationTimeHistogram="
+                + Arrays.toString(computationTimeHistogram)
+                + '}';
+        }
+    }
+}
@@ -26,12 +26,14 @@ import org.elasticsearch.cluster.coordination.FailedToCommitClusterStateExceptio
 import org.elasticsearch.cluster.metadata.ProcessClusterEventTimeoutException;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -50,7 +52,9 @@ import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -76,6 +80,19 @@ public class MasterService extends AbstractLifecycleComponent {
         Setting.Property.NodeScope
     );
 
+    /**
+     * Limits the number of tasks of an executor that are executed in a single batch to the number of tasks that are expected to be
+     * computed within this time, based on the measured cost of the previous tasks of the executor. Pending tasks of other executors
+     * with a higher priority then run between the batches of a slow executor. A value of {@code 0}, the default, disables this limit.
+     */
+    public static final Setting<TimeValue> MASTER_SERVICE_BATCH_TIME_BUDGET_SETTING = Setting.timeSetting(
+        "cluster.service.master_service_batch_time_budget",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
     static final String MASTER_UPDATE_THREAD_NAME = "masterService#updateTask";
 
     public static final String STATE_UPDATE_ACTION_NAME = "publish_cluster_state_update";
@@ -88,6 +105,7 @@ public class MasterService extends AbstractLifecycleComponent {
 
     private volatile TimeValue slowTaskLoggingThreshold;
     private final TimeValue starvationLoggingThreshold;
+    private volatile TimeValue batchTimeBudget;
 
     protected final ThreadPool threadPool;
     private final TaskManager taskManager;
@@ -96,6 +114,7 @@ public class MasterService extends AbstractLifecycleComponent {
     private volatile Batcher taskBatcher;
 
     private final ClusterStateUpdateStatsTracker clusterStateUpdateStatsTracker = new ClusterStateUpdateStatsTracker();
+    private final TaskExecutorStatsTracker taskExecutorStatsTracker = new TaskExecutorStatsTracker();
 
     public MasterService(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool, TaskManager taskManager) {
         this.nodeName = Objects.requireNonNull(Node.NODE_NAME_SETTING.get(settings));
@@ -105,6 +124,9 @@ public class MasterService extends AbstractLifecycleComponent {
 
         this.starvationLoggingThreshold = MASTER_SERVICE_STARVATION_LOGGING_THRESHOLD_SETTING.get(settings);
 
+        this.batchTimeBudget = MASTER_SERVICE_BATCH_TIME_BUDGET_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MASTER_SERVICE_BATCH_TIME_BUDGET_SETTING, this::setBatchTimeBudget);
+
         this.threadPool = threadPool;
         this.taskManager = taskManager;
     }
@@ -113,6 +135,10 @@ public class MasterService extends AbstractLifecycleComponent {
         this.slowTaskLoggingThreshold = slowTaskLoggingThreshold;
     }
 
+    private void setBatchTimeBudget(TimeValue batchTimeBudget) {
+        this.batchTimeBudget = batchTimeBudget;
+    }
+
     public synchronized void setClusterStatePublisher(ClusterStatePublisher publisher) {
         clusterStatePublisher = publisher;
     }
@@ -147,6 +173,10 @@ public class MasterService extends AbstractLifecycleComponent {
         return clusterStateUpdateStatsTracker.getStatistics();
     }
 
+    public ClusterStateTaskExecutorStats getClusterStateTaskExecutorStats() {
+        return taskExecutorStatsTracker.getStatistics();
+    }
+
     @SuppressWarnings("unchecked")
     class Batcher extends TaskBatcher {
 
@@ -165,6 +195,15 @@ public class MasterService extends AbstractLifecycleComponent {
             runTasks((ClusterStateTaskExecutor<ClusterStateTaskListener>) batchingKey, (List<UpdateTask>) tasks, tasksSummary);
         }
 
+        @Override
+        protected int maxBatchSize(Object batchingKey) {
+            final TimeValue batchTimeBudget = MasterService.this.batchTimeBudget;
+            if (batchTimeBudget.nanos() == 0) {
+                return Integer.MAX_VALUE;
+            }
+            return taskExecutorStatsTracker.maxBatchSize(executorName((ClusterStateTaskExecutor<?>) batchingKey), batchTimeBudget);
+        }
+
         class UpdateTask extends BatchedTask {
             private final ClusterStateTaskListener listener;
             private final Supplier<ThreadContext.StoredContext> threadContextSupplier;
@@ -255,6 +294,7 @@ public class MasterService extends AbstractLifecycleComponent {
         }
 
         final long computationStartTime = threadPool.rawRelativeTimeInMillis();
+        final long[] queueTimesMillis = updateTasks.stream().mapToLong(Batcher.UpdateTask::getAgeInMillis).toArray();
         final var executionResults = updateTasks.stream().map(ExecutionResult::new).toList();
         final var newClusterState = patchVersions(
             previousClusterState,
@@ -268,6 +308,7 @@ public class MasterService extends AbstractLifecycleComponent {
         }
         final TimeValue computationTime = getTimeSince(computationStartTime);
         logExecutionTime(computationTime, "compute cluster state update", summary);
+        taskExecutorStatsTracker.onBatchComputed(executorName(executor), queueTimesMillis, computationTime);
 
         if (previousClusterState == newClusterState) {
             final long notificationStartTime = threadPool.rawRelativeTimeInMillis();
@@ -1038,6 +1079,83 @@ public class MasterService extends AbstractLifecycleComponent {
         }
     }
 
+    /**
+     * Returns the name under which the statistics of the given executor are tracked: the name of its class, without the package and
+     * without the generated suffix of lambdas, so that all instances of an executor class share their statistics.
+     */
+    static String executorName(ClusterStateTaskExecutor<?> executor) {
+        final String className = executor.getClass().getName();
+        final int lambdaIndex = className.indexOf("$$Lambda");
+        final String name = lambdaIndex < 0 ? className : className.substring(0, lambdaIndex);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Measures the cost per task of each executor and records how long tasks waited in the queue and how long their batches took to
+     * compute.
+     */
+    private static class TaskExecutorStatsTracker {
+
+        private static final double COST_EWMA_ALPHA = 0.3;
+
+        private final Map<String, ExecutorStatsTracker> executors = new HashMap<>();
+
+        synchronized void onBatchComputed(String executorName, long[] queueTimesMillis, TimeValue computationTime) {
+            final ExecutorStatsTracker tracker = executors.computeIfAbsent(executorName, k -> new ExecutorStatsTracker());
+            tracker.batchCount += 1;
+            tracker.taskCount += queueTimesMillis.length;
+            for (long queueTimeMillis : queueTimesMillis) {
+                tracker.queueTimeHistogram[ClusterStateTaskExecutorStats.bucket(queueTimeMillis)] += 1;
+            }
+            tracker.computationTimeHistogram[ClusterStateTaskExecutorStats.bucket(computationTime.millis())] += 1;
+            final double costMicros = (double) TimeUnit.MILLISECONDS.toMicros(computationTime.millis()) / queueTimesMillis.length;
+            if (tracker.costMicros == null) {
+                tracker.costMicros = new ExponentiallyWeightedMovingAverage(COST_EWMA_ALPHA, costMicros);
+            } else {
+                tracker.costMicros.addValue(costMicros);
+            }
+        }
+
+        synchronized int maxBatchSize(String executorName, TimeValue batchTimeBudget) {
+            final ExecutorStatsTracker tracker = executors.get(executorName);
+            if (tracker == null || tracker.costMicros == null || tracker.costMicros.getAverage() < 1.0) {
+                // nothing measured yet, or too cheap to measure
+                return Integer.MAX_VALUE;
+            }
+            final double maxBatchSize = batchTimeBudget.micros() / tracker.costMicros.getAverage();
+            return (int) Math.max(1, Math.min(Integer.MAX_VALUE - 1, maxBatchSize));
+        }
+
+        synchronized ClusterStateTaskExecutorStats getStatistics() {
+            return new ClusterStateTaskExecutorStats(
+                executors.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<String, ExecutorStatsTracker>comparingByKey())
+                    .collect(
+                        Maps.toUnmodifiableOrderedMap(
+                            Map.Entry::getKey,
+                            e -> new ClusterStateTaskExecutorStats.Executor(
+                                e.getValue().batchCount,
+                                e.getValue().taskCount,
+                                e.getValue().costMicros == null ? 0L : Math.round(e.getValue().costMicros.getAverage()),
+                                e.getValue().queueTimeHistogram.clone(),
+                                e.getValue().computationTimeHistogram.clone()
+                            )
+                        )
+                    )
+            );
+        }
+
+        private static class ExecutorStatsTracker {
+            private long batchCount;
+            private long taskCount;
+            @Nullable
+            private ExponentiallyWeightedMovingAverage costMicros;
+            private final long[] queueTimeHistogram = new long[ClusterStateTaskExecutorStats.BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+            private final long[] computationTimeHistogram = new long[ClusterStateTaskExecutorStats.BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+        }
+    }
+
     private static class ClusterStateUpdateStatsTracker {
 
         private long unchangedTaskCount;
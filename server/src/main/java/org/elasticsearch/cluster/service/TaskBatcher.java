@@ -17,6 +17,7 @@ import org.elasticsearch.core.TimeValue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -90,20 +91,11 @@ public abstract class TaskBatcher {
         // to give other tasks with different batching key a chance to execute.
         if (updateTask.processed.get() == false) {
             final List<BatchedTask> toExecute = new ArrayList<>();
-            final Set<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
-            if (pending != null) {
-                // pending is a java.util.Collections.SynchronizedSet so we can safely iterate holding its mutex
-                // noinspection SynchronizationOnLocalVariableOrMethodParameter
-                synchronized (pending) {
-                    for (BatchedTask task : pending) {
-                        if (task.processed.getAndSet(true) == false) {
-                            logger.trace("will process {}", task);
-                            toExecute.add(task);
-                        } else {
-                            logger.trace("skipping {}, already processed", task);
-                        }
-                    }
-                }
+            final int maxBatchSize = maxBatchSize(updateTask.batchingKey);
+            if (maxBatchSize < Integer.MAX_VALUE) {
+                takeBatch(updateTask, maxBatchSize, toExecute);
+            } else {
+                takeAll(updateTask, toExecute);
             }
 
             if (toExecute.isEmpty() == false) {
@@ -112,6 +104,65 @@ public abstract class TaskBatcher {
         }
     }
 
+    private void takeAll(BatchedTask updateTask, List<BatchedTask> toExecute) {
+        final Set<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
+        if (pending != null) {
+            // pending is a java.util.Collections.SynchronizedSet so we can safely iterate holding its mutex
+            // noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (pending) {
+                for (BatchedTask task : pending) {
+                    if (task.processed.getAndSet(true) == false) {
+                        logger.trace("will process {}", task);
+                        toExecute.add(task);
+                    } else {
+                        logger.trace("skipping {}, already processed", task);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes at most {@code maxBatchSize} of the pending tasks, always including the given task, in the order in which they were
+     * submitted. The remaining tasks stay pending and are executed in a later batch, once the executor reaches another one of them,
+     * which gives tasks with a higher priority a chance to run first.
+     */
+    private void takeBatch(BatchedTask updateTask, int maxBatchSize, List<BatchedTask> toExecute) {
+        assert maxBatchSize > 0 : maxBatchSize;
+        // computing the mapping excludes concurrent submissions of tasks with the same batching key
+        tasksPerBatchingKey.computeIfPresent(updateTask.batchingKey, (key, pending) -> {
+            // pending is a java.util.Collections.SynchronizedSet so we can safely iterate holding its mutex
+            // noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (pending) {
+                boolean updateTaskTaken = false;
+                for (Iterator<BatchedTask> iterator = pending.iterator(); iterator.hasNext();) {
+                    final BatchedTask task = iterator.next();
+                    // the given task is not queued for execution anymore so it must be part of this batch
+                    final int capacity = updateTaskTaken ? maxBatchSize : maxBatchSize - 1;
+                    if (task != updateTask && toExecute.size() >= capacity) {
+                        continue;
+                    }
+                    iterator.remove();
+                    if (task.processed.getAndSet(true) == false) {
+                        logger.trace("will process {}", task);
+                        toExecute.add(task);
+                        updateTaskTaken |= task == updateTask;
+                    } else {
+                        logger.trace("skipping {}, already processed", task);
+                    }
+                }
+                return pending.isEmpty() ? null : pending;
+            }
+        });
+    }
+
+    /**
+     * The maximum number of tasks with the given batching key to execute in a single batch, which is unlimited by default.
+     */
+    protected int maxBatchSize(Object batchingKey) {
+        return Integer.MAX_VALUE;
+    }
+
     /**
      * Action to be implemented by the specific batching implementation
      * All tasks have the given batching key.
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.common.cache;
 
+import org.apache.lucene.util.hppc.BitMixer;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.Tuple;
 
@@ -18,6 +19,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -52,6 +55,14 @@ import java.util.function.ToLongBiFunction;
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
+ * <p>
+ * Caches that are read from by many threads at once can opt in to frequency based admission through
+ * {@link CacheBuilder#setFrequencyBasedAdmission(boolean)}. Reads then no longer promote entries under the LRU lock but
+ * record the access in one of several striped, lossy buffers that are drained in batches by whichever thread manages to
+ * acquire the LRU lock without waiting. New entries are admitted to a small window LRU list that takes 1% of the maximum
+ * weight; entries leaving the window only make it into the main LRU list if their access frequency, as estimated by a
+ * {@link FrequencySketch}, is higher than that of the entry the main list would otherwise evict (W-TinyLFU). This keeps
+ * frequently used entries in the cache when it is flooded with entries that are used only once.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -91,6 +102,15 @@ public class Cache<K, V> {
     // the removal callback
     private RemovalListener<K, V> removalListener = notification -> {};
 
+    // the access frequencies of keys; null unless frequency based admission is enabled
+    private FrequencySketch sketch;
+
+    // the striped buffers recording reads; null unless frequency based admission is enabled
+    private AccessBuffer<K, V>[] accessBuffers;
+
+    // the weight of the entries in the window list
+    private long windowWeight = 0;
+
     // use CacheBuilder to construct
     Cache() {}
 
@@ -137,6 +157,21 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    @SuppressWarnings("unchecked")
+    void enableFrequencyBasedAdmission() {
+        this.sketch = new FrequencySketch();
+        final int stripes = Math.min(MAX_ACCESS_BUFFERS, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1);
+        this.accessBuffers = (AccessBuffer<K, V>[]) new AccessBuffer<?, ?>[stripes];
+        for (int i = 0; i < stripes; i++) {
+            accessBuffers[i] = new AccessBuffer<>();
+        }
+    }
+
+    // pkg-private for testing
+    boolean isFrequencyBasedAdmission() {
+        return sketch != null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -163,6 +198,8 @@ public class Cache<K, V> {
         Entry<K, V> before;
         Entry<K, V> after;
         State state = State.NEW;
+        // whether the entry is linked in the window list rather than in the main list
+        boolean window;
 
         Entry(K key, V value, long writeTime) {
             this.key = key;
@@ -319,6 +356,57 @@ public class Cache<K, V> {
 
     }
 
+    /**
+     * A bounded, lossy buffer of entries that were read from the cache and still have to be promoted in the LRU lists. Any thread
+     * can add entries to the buffer without locking, but only the thread holding the LRU lock drains it. Entries are dropped if the
+     * buffer is full or if another thread is adding an entry at the same time: the buffer only exists to approximate recency and
+     * frequency, so losing the odd access is a good trade for never blocking reads.
+     */
+    private static final class AccessBuffer<K, V> {
+        static final int SIZE = 16;
+
+        final AtomicReferenceArray<Entry<K, V>> entries = new AtomicReferenceArray<>(SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        final AtomicLong readCounter = new AtomicLong();
+
+        /**
+         * Records an access to the given entry.
+         *
+         * @return whether the buffer is full and should be drained
+         */
+        boolean offer(Entry<K, V> entry) {
+            final long read = readCounter.get();
+            final long write = writeCounter.get();
+            final long size = write - read;
+            if (size >= SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(write, write + 1)) {
+                entries.lazySet((int) (write & (SIZE - 1)), entry);
+                return size + 1 >= SIZE;
+            }
+            return false;
+        }
+
+        void drainTo(Consumer<Entry<K, V>> consumer) {
+            long read = readCounter.get();
+            final long write = writeCounter.get();
+            for (; read < write; read++) {
+                final int index = (int) (read & (SIZE - 1));
+                final Entry<K, V> entry = entries.get(index);
+                if (entry == null) {
+                    // the slot was claimed but the entry isn't published yet, pick it up on the next drain
+                    break;
+                }
+                entries.lazySet(index, null);
+                consumer.accept(entry);
+            }
+            readCounter.lazySet(read);
+        }
+    }
+
+    static final int MAX_ACCESS_BUFFERS = 64;
+
     public static final int NUMBER_OF_SEGMENTS = 256;
     @SuppressWarnings("unchecked")
     private final CacheSegment[] segments = (CacheSegment[]) Array.newInstance(CacheSegment.class, NUMBER_OF_SEGMENTS);
@@ -332,6 +420,10 @@ public class Cache<K, V> {
     Entry<K, V> head;
     Entry<K, V> tail;
 
+    // the window list that new entries are admitted to when frequency based admission is enabled
+    Entry<K, V> windowHead;
+    Entry<K, V> windowTail;
+
     // lock protecting mutations to the LRU list
     private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
@@ -350,12 +442,46 @@ public class Cache<K, V> {
         Entry<K, V> entry = segment.get(key, now, eagerEvict);
         if (entry == null) {
             return null;
+        } else if (accessBuffers != null) {
+            recordAccess(entry, now);
+            return entry.value;
         } else {
             promote(entry, now);
             return entry.value;
         }
     }
 
+    private void recordAccess(Entry<K, V> entry, long now) {
+        // don't trust Thread.hashCode to have equiprobable low bits
+        final int stripe = (int) BitMixer.mix64(Thread.currentThread().getId()) & (accessBuffers.length - 1);
+        if (accessBuffers[stripe].offer(entry)) {
+            // only drain if nobody else is holding the lock, otherwise this read would be blocked on the LRU lock after all
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    drainAccessBuffers();
+                    evict(now);
+                }
+            }
+        }
+    }
+
+    private void drainAccessBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (accessBuffers != null) {
+            for (AccessBuffer<K, V> accessBuffer : accessBuffers) {
+                accessBuffer.drainTo(this::onAccess);
+            }
+        }
+    }
+
+    private void onAccess(Entry<K, V> entry) {
+        sketch.increment(entry.key.hashCode());
+        if (entry.state == State.EXISTING) {
+            relinkAtHead(entry);
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -519,6 +645,7 @@ public class Cache<K, V> {
      */
     public void invalidateAll() {
         Entry<K, V> h;
+        Entry<K, V> w;
 
         boolean[] haveSegmentLock = new boolean[NUMBER_OF_SEGMENTS];
         try {
@@ -527,18 +654,19 @@ public class Cache<K, V> {
                 haveSegmentLock[i] = true;
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
+                drainAccessBuffers();
                 h = head;
+                w = windowHead;
                 for (CacheSegment segment : segments) {
                     segment.map = null;
                 }
-                Entry<K, V> current = head;
-                while (current != null) {
-                    current.state = State.DELETED;
-                    current = current.after;
-                }
+                markDeleted(head);
+                markDeleted(windowHead);
                 head = tail = null;
+                windowHead = windowTail = null;
                 count = 0;
                 weight = 0;
+                windowWeight = 0;
             }
         } finally {
             for (int i = NUMBER_OF_SEGMENTS - 1; i >= 0; i--) {
@@ -547,6 +675,19 @@ public class Cache<K, V> {
                 }
             }
         }
+        notifyInvalidated(w);
+        notifyInvalidated(h);
+    }
+
+    private static <K, V> void markDeleted(Entry<K, V> h) {
+        Entry<K, V> current = h;
+        while (current != null) {
+            current.state = State.DELETED;
+            current = current.after;
+        }
+    }
+
+    private void notifyInvalidated(Entry<K, V> h) {
         while (h != null) {
             removalListener.onRemoval(new RemovalNotification<>(h.key, h.value, RemovalNotification.RemovalReason.INVALIDATED));
             h = h.after;
@@ -559,6 +700,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainAccessBuffers();
             evict(now);
         }
     }
@@ -590,7 +732,7 @@ public class Cache<K, V> {
      */
     public Iterable<K> keys() {
         return () -> new Iterator<K>() {
-            private final CacheIterator iterator = new CacheIterator(head);
+            private final CacheIterator iterator = new CacheIterator();
 
             @Override
             public boolean hasNext() {
@@ -618,7 +760,7 @@ public class Cache<K, V> {
      */
     public Iterable<V> values() {
         return () -> new Iterator<V>() {
-            private final CacheIterator iterator = new CacheIterator(head);
+            private final CacheIterator iterator = new CacheIterator();
 
             @Override
             public boolean hasNext() {
@@ -669,9 +811,10 @@ public class Cache<K, V> {
         private Entry<K, V> current;
         private Entry<K, V> next;
 
-        CacheIterator(Entry<K, V> head) {
+        CacheIterator() {
             current = null;
-            next = head;
+            // the entries in the window list are the most recently added ones
+            next = windowHead != null ? windowHead : head;
         }
 
         @Override
@@ -683,6 +826,9 @@ public class Cache<K, V> {
         public Entry<K, V> next() {
             current = next;
             next = next.after;
+            if (next == null && current.window) {
+                next = head;
+            }
             return current;
         }
 
@@ -737,10 +883,14 @@ public class Cache<K, V> {
     private void promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainAccessBuffers();
+            if (sketch != null && entry.state != State.DELETED) {
+                sketch.increment(entry.key.hashCode());
+            }
             switch (entry.state) {
                 case DELETED -> promoted = false;
                 case EXISTING -> relinkAtHead(entry);
-                case NEW -> linkAtHead(entry);
+                case NEW -> linkAtHead(entry, sketch != null);
             }
             if (promoted) {
                 evict(now);
@@ -751,9 +901,37 @@ public class Cache<K, V> {
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
-        while (tail != null && shouldPrune(tail, now)) {
+        if (sketch == null) {
+            while (tail != null && shouldPrune(tail, now)) {
+                evictEntry(tail);
+            }
+            return;
+        }
+
+        while (windowTail != null && isExpired(windowTail, now)) {
+            evictEntry(windowTail);
+        }
+        while (tail != null && isExpired(tail, now)) {
             evictEntry(tail);
         }
+        final long maximumWindowWeight = maximumWeight == -1 ? Long.MAX_VALUE : Math.max(1, maximumWeight / 100);
+        while (windowTail != null && windowWeight > maximumWindowWeight) {
+            final Entry<K, V> candidate = windowTail;
+            if (exceedsWeight() && tail != null) {
+                // the candidate is only admitted to the main list if it is used more often than the entry it would replace
+                if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(tail.key.hashCode())) {
+                    evictEntry(tail);
+                    relinkAtHead(candidate, false);
+                } else {
+                    evictEntry(candidate);
+                }
+            } else {
+                relinkAtHead(candidate, false);
+            }
+        }
+        while (exceedsWeight()) {
+            evictEntry(tail != null ? tail : windowTail);
+        }
     }
 
     private void evictEntry(Entry<K, V> entry) {
@@ -796,10 +974,15 @@ public class Cache<K, V> {
 
             if (before == null) {
                 // removing the head
-                assert head == entry;
-                head = after;
-                if (head != null) {
-                    head.before = null;
+                if (entry.window) {
+                    assert windowHead == entry;
+                    windowHead = after;
+                } else {
+                    assert head == entry;
+                    head = after;
+                }
+                if (after != null) {
+                    after.before = null;
                 }
             } else {
                 // removing inner element
@@ -809,10 +992,15 @@ public class Cache<K, V> {
 
             if (after == null) {
                 // removing tail
-                assert tail == entry;
-                tail = before;
-                if (tail != null) {
-                    tail.after = null;
+                if (entry.window) {
+                    assert windowTail == entry;
+                    windowTail = before;
+                } else {
+                    assert tail == entry;
+                    tail = before;
+                }
+                if (before != null) {
+                    before.after = null;
                 }
             } else {
                 // removing inner element
@@ -820,8 +1008,12 @@ public class Cache<K, V> {
                 entry.after = null;
             }
 
+            final long entryWeight = weigher.applyAsLong(entry.key, entry.value);
             count--;
-            weight -= weigher.applyAsLong(entry.key, entry.value);
+            weight -= entryWeight;
+            if (entry.window) {
+                windowWeight -= entryWeight;
+            }
             entry.state = State.DELETED;
             return true;
         } else {
@@ -829,30 +1021,50 @@ public class Cache<K, V> {
         }
     }
 
-    private void linkAtHead(Entry<K, V> entry) {
+    private void linkAtHead(Entry<K, V> entry, boolean window) {
         assert lruLock.isHeldByCurrentThread();
 
-        Entry<K, V> h = head;
+        Entry<K, V> h = window ? windowHead : head;
         entry.before = null;
-        entry.after = head;
-        head = entry;
+        entry.after = h;
+        if (window) {
+            windowHead = entry;
+        } else {
+            head = entry;
+        }
         if (h == null) {
-            tail = entry;
+            if (window) {
+                windowTail = entry;
+            } else {
+                tail = entry;
+            }
         } else {
             h.before = entry;
         }
 
+        final long entryWeight = weigher.applyAsLong(entry.key, entry.value);
         count++;
-        weight += weigher.applyAsLong(entry.key, entry.value);
+        weight += entryWeight;
+        if (window) {
+            windowWeight += entryWeight;
+        }
+        entry.window = window;
         entry.state = State.EXISTING;
+        if (sketch != null) {
+            sketch.ensureCapacity(count);
+        }
     }
 
     private void relinkAtHead(Entry<K, V> entry) {
+        relinkAtHead(entry, entry.window);
+    }
+
+    private void relinkAtHead(Entry<K, V> entry, boolean window) {
         assert lruLock.isHeldByCurrentThread();
 
-        if (head != entry) {
+        if ((window ? windowHead : head) != entry) {
             unlink(entry);
-            linkAtHead(entry);
+            linkAtHead(entry, window);
         }
     }
 
@@ -19,6 +19,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean frequencyBasedAdmission;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -78,6 +79,17 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether the cache records reads in striped buffers rather than promoting entries under a global lock, and only admits new
+     * entries to the bulk of the cache if they are used more frequently than the entries they would replace. This reduces contention
+     * for caches that are read from by many threads at once and makes them resistant to scans of entries that are used only once, at
+     * the cost of evicting entries in an order that is only approximately least recently used.
+     */
+    public CacheBuilder<K, V> setFrequencyBasedAdmission(boolean frequencyBasedAdmission) {
+        this.frequencyBasedAdmission = frequencyBasedAdmission;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -95,6 +107,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (frequencyBasedAdmission) {
+            cache.enableFrequencyBasedAdmission();
+        }
         return cache;
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+/**
+ * A count-min sketch of the access frequency of keys with 4-bit counters, as used by the TinyLFU admission policy. Each key maps to one
+ * counter in each of four rows, all packed into the same {@code long}, and its frequency is the minimum of its four counters. Once the
+ * number of increments reaches ten times the capacity all counters are halved, so that the sketch favours keys that were accessed
+ * frequently in the recent past over keys that were popular a long time ago.
+ * <p>
+ * This class is not thread safe.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private long[] table;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch() {
+        resize(16);
+    }
+
+    /**
+     * Grows the sketch so that it can tell apart the frequencies of about {@code expectedEntries} keys. Growing the sketch forgets all
+     * frequencies.
+     */
+    void ensureCapacity(long expectedEntries) {
+        final int length = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(16, expectedEntries) - 1) << 1);
+        if (table.length < length) {
+            resize(length);
+        }
+    }
+
+    private void resize(int length) {
+        assert Integer.bitCount(length) == 1 : length;
+        table = new long[length];
+        sampleSize = 10 * length;
+        size = 0;
+    }
+
+    /**
+     * The estimated number of times the key with the given hash code was accessed, up to {@link #MAX_FREQUENCY}.
+     */
+    int frequency(int hashCode) {
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the key with the given hash code.
+     */
+    void increment(int hashCode) {
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves all counters.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = size >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (SEEDS[row] + hash) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
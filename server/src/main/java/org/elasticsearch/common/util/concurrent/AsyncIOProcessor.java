@@ -31,6 +31,8 @@ public abstract class AsyncIOProcessor<Item> {
     private final ArrayBlockingQueue<Tuple<Item, Consumer<Exception>>> queue;
     private final ThreadContext threadContext;
     private final Semaphore promiseSemaphore = new Semaphore(1);
+    // only accessed by the caller that holds the promise to process
+    private int lastBatchSize;
 
     protected AsyncIOProcessor(Logger logger, int queueSize, ThreadContext threadContext) {
         this.logger = logger;
@@ -81,7 +83,9 @@ public abstract class AsyncIOProcessor<Item> {
     private void drainAndProcessAndRelease(List<Tuple<Item, Consumer<Exception>>> candidates) {
         Exception exception;
         try {
+            beforeDrain(Math.max(lastBatchSize, candidates.size() + queue.size()));
             queue.drainTo(candidates);
+            lastBatchSize = candidates.size();
             exception = processList(candidates);
         } finally {
             promiseSemaphore.release();
@@ -90,6 +94,14 @@ public abstract class AsyncIOProcessor<Item> {
         candidates.clear();
     }
 
+    private void beforeDrain(int concurrentItems) {
+        try {
+            awaitBatch(concurrentItems);
+        } catch (Exception ex) {
+            logger.warn("failed to wait for concurrent items before processing", ex);
+        }
+    }
+
     private Exception processList(List<Tuple<Item, Consumer<Exception>>> candidates) {
         Exception exception = null;
         if (candidates.isEmpty() == false) {
@@ -124,6 +136,16 @@ public abstract class AsyncIOProcessor<Item> {
         };
     }
 
+    /**
+     * Called by the caller that is about to process the queued items before it drains the queue. It holds nothing but the promise to
+     * process, so other callers keep adding their items to the queue and return. Implementations may wait here for a short time so that
+     * the items of concurrent callers are processed by the same batch. The default implementation returns immediately.
+     *
+     * @param concurrentItems the number of items of the previous batch or of the items that are ready to be processed now, whichever is
+     *                        larger, which tells how many callers use this processor concurrently
+     */
+    protected void awaitBatch(int concurrentItems) {}
+
     /**
      * Writes or processes the items out or to disk.
      */
@@ -0,0 +1,40 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.xcontent;
+
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.ToXContentObject;
+
+import java.util.Iterator;
+
+/**
+ * An object that can render itself as a sequence of {@link ToXContent} chunks, so that a large response does not need to be serialized
+ * into a single buffer but can be written out a few chunks at a time instead. Rendering all chunks in order into the same builder must
+ * produce the same output as rendering the object at once.
+ */
+public interface ChunkedToXContent {
+
+    /**
+     * Returns the chunks that make up the serialized form of this object, in order.
+     */
+    Iterator<? extends ToXContent> toXContentChunked();
+
+    /**
+     * Wraps the given instance in a {@link ToXContentObject} that renders all of its chunks at once.
+     */
+    static ToXContentObject wrapAsToXContentObject(ChunkedToXContent chunkedToXContent) {
+        return (builder, params) -> {
+            Iterator<? extends ToXContent> serialization = chunkedToXContent.toXContentChunked();
+            while (serialization.hasNext()) {
+                serialization.next().toXContent(builder, params);
+            }
+            return builder;
+        };
+    }
+}
@@ -12,6 +12,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.cluster.coordination.PendingClusterStateStats;
 import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
 import org.elasticsearch.cluster.service.ClusterApplierRecordingService;
+import org.elasticsearch.cluster.service.ClusterStateTaskExecutorStats;
 import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -27,17 +28,20 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     private final PublishClusterStateStats publishStats;
     private final ClusterStateUpdateStats clusterStateUpdateStats;
     private final ClusterApplierRecordingService.Stats applierRecordingStats;
+    private final ClusterStateTaskExecutorStats taskExecutorStats;
 
     public DiscoveryStats(
         PendingClusterStateStats queueStats,
         PublishClusterStateStats publishStats,
         ClusterStateUpdateStats clusterStateUpdateStats,
-        ClusterApplierRecordingService.Stats applierRecordingStats
+        ClusterApplierRecordingService.Stats applierRecordingStats,
+        ClusterStateTaskExecutorStats taskExecutorStats
     ) {
         this.queueStats = queueStats;
         this.publishStats = publishStats;
         this.clusterStateUpdateStats = clusterStateUpdateStats;
         this.applierRecordingStats = applierRecordingStats;
+        this.taskExecutorStats = taskExecutorStats;
     }
 
     public DiscoveryStats(StreamInput in) throws IOException {
@@ -53,6 +57,11 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         } else {
             applierRecordingStats = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            taskExecutorStats = in.readOptionalWriteable(ClusterStateTaskExecutorStats::new);
+        } else {
+            taskExecutorStats = null;
+        }
     }
 
     @Override
@@ -65,6 +74,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_7_16_0)) {
             out.writeOptionalWriteable(applierRecordingStats);
         }
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeOptionalWriteable(taskExecutorStats);
+        }
     }
 
     @Override
@@ -82,6 +94,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (applierRecordingStats != null) {
             applierRecordingStats.toXContent(builder, params);
         }
+        if (taskExecutorStats != null) {
+            taskExecutorStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -105,4 +120,8 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     public ClusterApplierRecordingService.Stats getApplierRecordingStats() {
         return applierRecordingStats;
     }
+
+    public ClusterStateTaskExecutorStats getTaskExecutorStats() {
+        return taskExecutorStats;
+    }
 }
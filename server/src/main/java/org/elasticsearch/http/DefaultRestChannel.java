@@ -21,11 +21,14 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.rest.AbstractRestChannel;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -94,23 +97,35 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
         String opaque = null;
         String contentLength = null;
         try {
-            final BytesReference content = restResponse.content();
-            if (content instanceof Releasable) {
-                toClose.add((Releasable) content);
-            }
-            toClose.add(this::releaseOutputBuffer);
-
-            BytesReference finalContent = content;
+            boolean isHeadRequest = false;
             try {
-                if (request.method() == RestRequest.Method.HEAD) {
-                    finalContent = BytesArray.EMPTY;
-                }
+                isHeadRequest = request.method() == RestRequest.Method.HEAD;
             } catch (IllegalArgumentException ignored) {
                 assert restResponse.status() == RestStatus.METHOD_NOT_ALLOWED
                     : "request HTTP method is unsupported but HTTP status is not METHOD_NOT_ALLOWED(405)";
             }
 
-            final HttpResponse httpResponse = httpRequest.createResponse(restResponse.status(), finalContent);
+            toClose.add(this::releaseOutputBuffer);
+            BytesReference content = restResponse.content();
+            ChunkedRestResponseBody chunkedContent = restResponse.chunkedContent();
+            if (chunkedContent != null && (isHeadRequest || httpRequest.supportsChunkedResponse() == false)) {
+                // the response must carry the length of the body, so it is serialized up front
+                content = serializeFully(chunkedContent);
+                chunkedContent = null;
+            }
+            if (content instanceof Releasable) {
+                toClose.add((Releasable) content);
+            }
+
+            final HttpResponse httpResponse;
+            if (isHeadRequest) {
+                httpResponse = httpRequest.createResponse(restResponse.status(), BytesArray.EMPTY);
+            } else if (chunkedContent != null) {
+                // the body is serialized as the channel becomes writable, so its length is not known up front
+                httpResponse = httpRequest.createResponse(restResponse.status(), chunkedContent);
+            } else {
+                httpResponse = httpRequest.createResponse(restResponse.status(), content);
+            }
 
             corsHandler.setCorsResponseHeaders(httpRequest, httpResponse);
 
@@ -125,9 +140,11 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
 
             // If our response doesn't specify a content-type header, set one
             setHeaderField(httpResponse, CONTENT_TYPE, restResponse.contentType(), false);
-            // If our response has no content-length, calculate and set one
-            contentLength = String.valueOf(restResponse.content().length());
-            setHeaderField(httpResponse, CONTENT_LENGTH, contentLength, false);
+            if (content != null) {
+                // If our response has no content-length, calculate and set one
+                contentLength = String.valueOf(content.length());
+                setHeaderField(httpResponse, CONTENT_LENGTH, contentLength, false);
+            }
 
             addCookies(httpResponse);
 
@@ -146,6 +163,14 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
         }
     }
 
+    private BytesReference serializeFully(ChunkedRestResponseBody chunkedContent) {
+        try {
+            return ChunkedRestResponseBody.serializeFully(chunkedContent, recycler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static void setHeaderField(HttpResponse response, String headerField, String value) {
         setHeaderField(response, headerField, value, true);
     }
@@ -10,9 +10,13 @@ package org.elasticsearch.http;
 
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.transport.BytesRefRecycler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -66,6 +70,26 @@ public interface HttpRequest {
      */
     HttpResponse createResponse(RestStatus status, BytesReference content);
 
+    /**
+     * Whether a response to this request can be sent with chunked transfer encoding by
+     * {@link #createResponse(RestStatus, ChunkedRestResponseBody)}. If it cannot, the body of a chunked response is serialized up front.
+     */
+    default boolean supportsChunkedResponse() {
+        return false;
+    }
+
+    /**
+     * Create an http response from this request and the supplied status and chunked content. Implementations that cannot send a response
+     * in chunks serialize the whole content up front.
+     */
+    default HttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+        try {
+            return createResponse(status, ChunkedRestResponseBody.serializeFully(content, BytesRefRecycler.NON_RECYCLING_INSTANCE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Nullable
     Exception getInboundException();
 
@@ -49,6 +49,7 @@ import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.indices.IndicesStoredFieldsCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.indices.recovery.RecoveryState;
@@ -431,6 +432,7 @@ public final class IndexModule {
         ClusterService clusterService,
         Client client,
         IndicesQueryCache indicesQueryCache,
+        IndicesStoredFieldsCache indicesStoredFieldsCache,
         MapperRegistry mapperRegistry,
         IndicesFieldDataCache indicesFieldDataCache,
         NamedWriteableRegistry namedWriteableRegistry,
@@ -483,6 +485,7 @@ public final class IndexModule {
                 clusterService,
                 client,
                 queryCache,
+                indicesStoredFieldsCache,
                 directoryFactory,
                 eventListener,
                 readerWrapperFactory,
@@ -65,6 +65,7 @@ import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.IndicesStoredFieldsCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -159,6 +160,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         ClusterService clusterService,
         Client client,
         QueryCache queryCache,
+        IndicesStoredFieldsCache storedFieldsCache,
         IndexStorePlugin.DirectoryFactory directoryFactory,
         IndexEventListener eventListener,
         Function<IndexService, CheckedFunction<DirectoryReader, DirectoryReader, IOException>> wrapperFactory,
@@ -213,7 +215,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
             indexFieldData.setListener(new FieldDataCacheListener(this));
             this.bitsetFilterCache = new BitsetFilterCache(indexSettings, new BitsetCacheListener(this));
             this.warmer = new IndexWarmer(threadPool, indexFieldData, bitsetFilterCache.createListener(threadPool));
-            this.indexCache = new IndexCache(queryCache, bitsetFilterCache);
+            this.indexCache = new IndexCache(queryCache, bitsetFilterCache, storedFieldsCache);
         } else {
             assert indexAnalyzers == null;
             this.mapperService = null;
@@ -554,6 +556,9 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                         // ignore
                     }
                 }
+                if (indexFieldData != null) {
+                    indexFieldData.clearShard(sId);
+                }
                 // call this before we close the store, so we can release resources for it
                 listener.afterIndexShardClosed(sId, indexShard, indexSettings);
             }
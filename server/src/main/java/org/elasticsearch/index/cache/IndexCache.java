@@ -9,8 +9,10 @@
 package org.elasticsearch.index.cache;
 
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.cache.query.QueryCache;
+import org.elasticsearch.indices.IndicesStoredFieldsCache;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -19,10 +21,13 @@ public class IndexCache implements Closeable {
 
     private final QueryCache queryCache;
     private final BitsetFilterCache bitsetFilterCache;
+    @Nullable
+    private final IndicesStoredFieldsCache storedFieldsCache;
 
-    public IndexCache(QueryCache queryCache, BitsetFilterCache bitsetFilterCache) {
+    public IndexCache(QueryCache queryCache, BitsetFilterCache bitsetFilterCache, @Nullable IndicesStoredFieldsCache storedFieldsCache) {
         this.queryCache = queryCache;
         this.bitsetFilterCache = bitsetFilterCache;
+        this.storedFieldsCache = storedFieldsCache;
     }
 
     public QueryCache query() {
@@ -36,6 +41,15 @@ public class IndexCache implements Closeable {
         return bitsetFilterCache;
     }
 
+    /**
+     * Return the node level {@link IndicesStoredFieldsCache}, which is shared with other indices and so is not closed or cleared with
+     * this cache.
+     */
+    @Nullable
+    public IndicesStoredFieldsCache storedFields() {
+        return storedFieldsCache;
+    }
+
     @Override
     public void close() throws IOException {
         IOUtils.close(queryCache, bitsetFilterCache);
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -23,6 +24,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long warmMemorySize;
+    private long warmHitCount;
 
     public RequestCacheStats() {}
 
@@ -31,13 +34,23 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            warmMemorySize = in.readVLong();
+            warmHitCount = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0, 0);
+    }
+
+    public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount, long warmMemorySize, long warmHitCount) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.warmMemorySize = warmMemorySize;
+        this.warmHitCount = warmHitCount;
     }
 
     public void add(RequestCacheStats stats) {
@@ -45,6 +58,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.warmMemorySize += stats.warmMemorySize;
+        this.warmHitCount += stats.warmHitCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -67,12 +82,34 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The off-heap memory used by the warm tier of the cache.
+     */
+    public long getWarmMemorySizeInBytes() {
+        return this.warmMemorySize;
+    }
+
+    public ByteSizeValue getWarmMemorySize() {
+        return new ByteSizeValue(warmMemorySize);
+    }
+
+    /**
+     * The number of hits that were served from the warm tier of the cache, which are included in {@link #getHitCount()}.
+     */
+    public long getWarmHitCount() {
+        return this.warmHitCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeVLong(warmMemorySize);
+            out.writeVLong(warmHitCount);
+        }
     }
 
     @Override
@@ -82,6 +119,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.humanReadableField(Fields.WARM_MEMORY_SIZE_IN_BYTES, Fields.WARM_MEMORY_SIZE, getWarmMemorySize());
+        builder.field(Fields.WARM_HIT_COUNT, getWarmHitCount());
         builder.endObject();
         return builder;
     }
@@ -93,5 +132,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String WARM_MEMORY_SIZE = "warm_memory_size";
+        static final String WARM_MEMORY_SIZE_IN_BYTES = "warm_memory_size_in_bytes";
+        static final String WARM_HIT_COUNT = "warm_hit_count";
     }
 }
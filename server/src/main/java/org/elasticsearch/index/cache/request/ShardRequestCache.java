@@ -21,9 +21,18 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric warmTotalMetric = new CounterMetric();
+    final CounterMetric warmHitCount = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            warmTotalMetric.count(),
+            warmHitCount.count()
+        );
     }
 
     public void onHit() {
@@ -51,4 +60,20 @@ public final class ShardRequestCache {
         }
         totalMetric.dec(dec);
     }
+
+    /**
+     * Called when an entry was served from the off-heap warm tier, which also counts as a hit.
+     */
+    public void onWarmHit() {
+        hitCount.inc();
+        warmHitCount.inc();
+    }
+
+    public void onWarmCached(long sizeInBytes) {
+        warmTotalMetric.inc(sizeInBytes);
+    }
+
+    public void onWarmRemoval(long sizeInBytes) {
+        warmTotalMetric.dec(sizeInBytes);
+    }
 }
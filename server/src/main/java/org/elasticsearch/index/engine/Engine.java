@@ -718,6 +718,12 @@ public abstract class Engine implements Closeable {
 
     public abstract void syncTranslog() throws IOException;
 
+    /**
+     * Waits for the translog group commit window before the locations of the given number of concurrent sync requests are synced with
+     * {@link #ensureTranslogSynced(Stream)}. Engines without a translog of their own return immediately.
+     */
+    public void awaitTranslogGroupCommitWindow(int concurrentSyncRequests) {}
+
     /**
      * Acquires a lock on the translog files and Lucene soft-deleted documents to prevent them from being trimmed
      */
@@ -108,6 +108,19 @@ public final class EngineConfig {
         }
     }, Property.IndexScope, Property.NodeScope);
 
+    /**
+     * Index setting to keep the live version map in {@link org.elasticsearch.common.util.BigArrays}-backed paged tables instead of
+     * hash maps of objects. This reduces the number of objects that the version map holds on to between refreshes, which helps
+     * update-heavy indices with long refresh intervals.
+     * This setting is <b>not</b> realtime updateable.
+     */
+    public static final Setting<Boolean> INDEX_PAGED_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.paged_version_map",
+        false,
+        Property.IndexScope,
+        Property.Final
+    );
+
     private final TranslogConfig translogConfig;
 
     /**
@@ -130,7 +130,7 @@ public class InternalEngine extends Engine {
 
     // A uid (in the form of BytesRef) to the version map
     // we use the hashed variant since we iterate over it and check removal and additions on existing keys
-    private final LiveVersionMap versionMap = new LiveVersionMap();
+    private final LiveVersionMap versionMap;
 
     private volatile SegmentInfos lastCommittedSegmentInfos;
 
@@ -195,6 +195,9 @@ public class InternalEngine extends Engine {
     InternalEngine(EngineConfig engineConfig, int maxDocs, BiFunction<Long, Long, LocalCheckpointTracker> localCheckpointTrackerSupplier) {
         super(engineConfig);
         this.maxDocs = maxDocs;
+        this.versionMap = new LiveVersionMap(
+            EngineConfig.INDEX_PAGED_VERSION_MAP_SETTING.get(engineConfig.getIndexSettings().getSettings())
+        );
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
         store.incRef();
         IndexWriter writer = null;
@@ -558,6 +561,11 @@ public class InternalEngine extends Engine {
         return synced;
     }
 
+    @Override
+    public void awaitTranslogGroupCommitWindow(int concurrentSyncRequests) {
+        getTranslog().awaitGroupCommitWindow(concurrentSyncRequests);
+    }
+
     @Override
     public void syncTranslog() throws IOException {
         translog.sync();
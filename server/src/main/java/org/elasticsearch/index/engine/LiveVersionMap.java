@@ -12,8 +12,10 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 
 import java.io.IOException;
@@ -57,6 +59,32 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             this.map = map;
         }
 
+        /**
+         * Creates a new lookup that is backed by paged tables if the given {@link BigArrays} is not null or by a concurrent hash map
+         * otherwise.
+         */
+        static VersionLookup newLookup(@Nullable BigArrays bigArrays, int expectedSize) {
+            if (bigArrays != null) {
+                return new VersionLookup(new PagedVersionValueMap(bigArrays, expectedSize));
+            }
+            return new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize));
+        }
+
+        /**
+         * Returns true if the underlying map accounts for its own memory usage in which case the ram bytes used counter of this
+         * lookup must not be adjusted by the caller.
+         */
+        boolean tracksOwnRamBytesUsed() {
+            return map instanceof PagedVersionValueMap;
+        }
+
+        long ramBytesUsed() {
+            if (map instanceof PagedVersionValueMap pagedMap) {
+                return pagedMap.ramBytesUsed();
+            }
+            return ramBytesUsed.get();
+        }
+
         VersionValue get(BytesRef key) {
             return map.get(key);
         }
@@ -105,14 +133,19 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        // if not null the lookups are backed by paged tables allocated from this instance
+        @Nullable
+        private final BigArrays bigArrays;
+
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, @Nullable BigArrays bigArrays) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.bigArrays = bigArrays;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(@Nullable BigArrays bigArrays) {
+            this(VersionLookup.newLookup(bigArrays, 16), VersionLookup.EMPTY, false, bigArrays);
         }
 
         boolean isSafeAccessMode() {
@@ -130,18 +163,14 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(VersionLookup.newLookup(bigArrays, current.size()), current, shouldInheritSafeAccess(), bigArrays);
         }
 
         /**
          * builds a new map that invalidates the old map but maintains the current. This should be called in afterRefresh()
          */
         Maps invalidateOldMap() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, bigArrays);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -153,7 +182,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         }
 
         void adjustRam(long value) {
-            if (value != 0) {
+            if (value != 0 && current.tracksOwnRamBytesUsed() == false) {
                 long v = current.ramBytesUsed.addAndGet(value);
                 assert v >= 0 : "bytes=" + v;
             }
@@ -181,10 +210,27 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    // if not null the live versions are kept in paged tables allocated from this instance rather than in concurrent hash maps
+    @Nullable
+    private final BigArrays bigArrays;
+
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap = new Maps(null);
+
+    LiveVersionMap() {
+        this(false);
+    }
+
+    /**
+     * @param pagedMaps whether live versions should be stored in {@link BigArrays}-backed paged tables, see {@link PagedVersionValueMap}
+     */
+    LiveVersionMap(boolean pagedMaps) {
+        // pages are never released explicitly since a concurrent lookup may still read from maps that were dropped by a refresh
+        this.bigArrays = pagedMaps ? BigArrays.NON_RECYCLING_INSTANCE : null;
+        this.maps = new Maps(bigArrays);
+    }
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -405,7 +451,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(bigArrays);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedTombstones is non-zero after clear since the
@@ -415,7 +461,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     @Override
     public long ramBytesUsed() {
-        return maps.current.ramBytesUsed.get() + ramBytesUsedTombstones.get();
+        return maps.current.ramBytesUsed() + ramBytesUsedTombstones.get();
     }
 
     /**
@@ -423,7 +469,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * don't clear on refresh.
      */
     long ramBytesUsedForRefresh() {
-        return maps.current.ramBytesUsed.get();
+        return maps.current.ramBytesUsed();
     }
 
     /**
@@ -431,7 +477,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * except does not include tombstones because they don't clear on refresh.
      */
     long getRefreshingBytes() {
-        return maps.old.ramBytesUsed.get();
+        return maps.old.ramBytesUsed();
     }
 
     @Override
@@ -0,0 +1,275 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A map from _uid to {@link IndexVersionValue} that stores its keys and values in {@link BigArrays}-backed paged open-addressing
+ * tables instead of one {@link BytesRef} key and one {@link VersionValue} object per entry. This keeps the number of live objects
+ * independent of the number of in-flight uids, which matters for update-heavy workloads with long refresh intervals.
+ * <p>
+ * The map only holds index operations: deletes are tracked as tombstones by {@link LiveVersionMap}. Entries are never physically
+ * removed from the underlying tables, removing an entry only marks its slot as unused, since the whole map is dropped on refresh.
+ * Clearing the map replaces the tables of every stripe with empty ones.
+ * Values are materialized on every {@link #get} so callers must not rely on identity.
+ * <p>
+ * The tables are split into stripes, each guarded by its own monitor, so concurrent operations on different uids rarely contend.
+ * Pages are never released explicitly since a concurrent reader may still hold on to a map that was dropped by a refresh, which is
+ * why this map must only be used with a non-recycling {@link BigArrays} instance.
+ */
+final class PagedVersionValueMap extends AbstractMap<BytesRef, VersionValue> implements Accountable {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(PagedVersionValueMap.class);
+
+    private static final int NUM_STRIPES = 16;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+
+    PagedVersionValueMap(BigArrays bigArrays, int expectedSize) {
+        final int stripeCapacity = Math.max(MIN_STRIPE_CAPACITY, expectedSize / NUM_STRIPES);
+        stripes = new Stripe[NUM_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(bigArrays, stripeCapacity);
+        }
+    }
+
+    private Stripe stripe(BytesRef uid) {
+        return stripes[Math.floorMod(uid.hashCode(), NUM_STRIPES)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        if (key instanceof BytesRef uid) {
+            return stripe(uid).get(uid);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef uid, VersionValue value) {
+        if (value instanceof IndexVersionValue == false) {
+            throw new IllegalArgumentException("only index version values can be stored in a paged version map but got [" + value + "]");
+        }
+        return stripe(uid).put(uid, value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        if (key instanceof BytesRef uid) {
+            return stripe(uid).remove(uid);
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Returns a point in time copy of all live entries. This is expensive and only meant for testing.
+     */
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        final Set<Entry<BytesRef, VersionValue>> entries = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            stripe.collectEntries(entries);
+        }
+        return Collections.unmodifiableSet(entries);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = SHALLOW_SIZE + RamUsageEstimator.shallowSizeOf(stripes);
+        for (Stripe stripe : stripes) {
+            ramBytesUsed += stripe.ramBytesUsed();
+        }
+        return ramBytesUsed;
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+        return Collections.emptyList();
+    }
+
+    private static final class Stripe {
+
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Stripe.class);
+
+        private static final byte REMOVED = 0;
+        private static final byte LIVE = 1;
+        private static final byte LIVE_WITH_LOCATION = 2;
+
+        private final BigArrays bigArrays;
+        private final long initialCapacity;
+        private BytesRefHash uids;
+        private LongArray versions;
+        private LongArray seqNos;
+        private LongArray terms;
+        private LongArray locationGenerations;
+        private LongArray locationOffsets;
+        private IntArray locationSizes;
+        // one of REMOVED, LIVE and LIVE_WITH_LOCATION
+        private ByteArray states;
+        private int liveEntries;
+
+        Stripe(BigArrays bigArrays, long capacity) {
+            this.bigArrays = bigArrays;
+            this.initialCapacity = capacity;
+            allocate();
+        }
+
+        private void allocate() {
+            uids = new BytesRefHash(initialCapacity, bigArrays);
+            versions = bigArrays.newLongArray(initialCapacity, false);
+            seqNos = bigArrays.newLongArray(initialCapacity, false);
+            terms = bigArrays.newLongArray(initialCapacity, false);
+            locationGenerations = bigArrays.newLongArray(initialCapacity, false);
+            locationOffsets = bigArrays.newLongArray(initialCapacity, false);
+            locationSizes = bigArrays.newIntArray(initialCapacity, false);
+            states = bigArrays.newByteArray(initialCapacity, false);
+            liveEntries = 0;
+        }
+
+        synchronized VersionValue get(BytesRef uid) {
+            final long id = uids.find(uid);
+            return id < 0 ? null : read(id);
+        }
+
+        synchronized VersionValue put(BytesRef uid, VersionValue value) {
+            long id = uids.add(uid);
+            final VersionValue previous;
+            if (id < 0) {
+                id = -1 - id;
+                previous = read(id);
+            } else {
+                versions = bigArrays.grow(versions, id + 1);
+                seqNos = bigArrays.grow(seqNos, id + 1);
+                terms = bigArrays.grow(terms, id + 1);
+                locationGenerations = bigArrays.grow(locationGenerations, id + 1);
+                locationOffsets = bigArrays.grow(locationOffsets, id + 1);
+                locationSizes = bigArrays.grow(locationSizes, id + 1);
+                states = bigArrays.grow(states, id + 1);
+                previous = null;
+            }
+            versions.set(id, value.version);
+            seqNos.set(id, value.seqNo);
+            terms.set(id, value.term);
+            final Translog.Location location = value.getLocation();
+            if (location == null) {
+                states.set(id, LIVE);
+            } else {
+                locationGenerations.set(id, location.generation);
+                locationOffsets.set(id, location.translogLocation);
+                locationSizes.set(id, location.size);
+                states.set(id, LIVE_WITH_LOCATION);
+            }
+            if (previous == null) {
+                liveEntries++;
+            }
+            return previous;
+        }
+
+        synchronized VersionValue remove(BytesRef uid) {
+            final long id = uids.find(uid);
+            if (id < 0) {
+                return null;
+            }
+            final VersionValue previous = read(id);
+            if (previous != null) {
+                states.set(id, REMOVED);
+                liveEntries--;
+            }
+            return previous;
+        }
+
+        synchronized int size() {
+            return liveEntries;
+        }
+
+        synchronized void clear() {
+            // the previous tables are not released, see the class level comment
+            allocate();
+        }
+
+        synchronized void collectEntries(Set<Entry<BytesRef, VersionValue>> entries) {
+            final List<Entry<BytesRef, VersionValue>> stripeEntries = new ArrayList<>(liveEntries);
+            final BytesRef spare = new BytesRef();
+            for (long id = 0; id < uids.size(); id++) {
+                final VersionValue value = read(id);
+                if (value != null) {
+                    stripeEntries.add(new SimpleImmutableEntry<>(BytesRef.deepCopyOf(uids.get(id, spare)), value));
+                }
+            }
+            entries.addAll(stripeEntries);
+        }
+
+        synchronized long ramBytesUsed() {
+            return SHALLOW_SIZE + uids.ramBytesUsed() + versions.ramBytesUsed() + seqNos.ramBytesUsed() + terms.ramBytesUsed()
+                + locationGenerations.ramBytesUsed() + locationOffsets.ramBytesUsed() + locationSizes.ramBytesUsed()
+                + states.ramBytesUsed();
+        }
+
+        private VersionValue read(long id) {
+            assert Thread.holdsLock(this);
+            final byte state = states.get(id);
+            if (state == REMOVED) {
+                return null;
+            }
+            final Translog.Location location = state == LIVE_WITH_LOCATION
+                ? new Translog.Location(locationGenerations.get(id), locationOffsets.get(id), locationSizes.get(id))
+                : null;
+            return new IndexVersionValue(location, versions.get(id), seqNos.get(id), terms.get(id));
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.shard.ShardId;
 
 /**
@@ -23,6 +24,20 @@ public interface IndexFieldDataCache {
     <FD extends LeafFieldData, IFD extends IndexFieldData.Global<FD>> IFD load(DirectoryReader indexReader, IFD indexFieldData)
         throws Exception;
 
+    /**
+     * Returns the global field data that this cache last loaded for the given shard, or null if there is none or if it has
+     * already been garbage collected. Global field data of a newer reader of the same shard may reuse parts of it.
+     */
+    @Nullable
+    default IndexFieldData<?> lastLoadedGlobal(ShardId shardId) {
+        return null;
+    }
+
+    /**
+     * Forgets the global field data that was last loaded for the given shard, which has been closed.
+     */
+    default void clearShard(ShardId shardId) {}
+
     /**
      * Clears all the field data stored cached in on this index.
      */
@@ -80,6 +80,15 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
     }
 
+    /**
+     * Forgets the global field data that was last loaded for the given shard, which has been closed.
+     */
+    public synchronized void clearShard(ShardId shardId) {
+        for (IndexFieldDataCache cache : fieldDataCaches.values()) {
+            cache.clearShard(shardId);
+        }
+    }
+
     public synchronized void clearField(final String fieldName) {
         List<Exception> exceptions = new ArrayList<>(0);
         final IndexFieldDataCache cache = fieldDataCaches.remove(fieldName);
@@ -11,6 +11,8 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.util.LongValues;
+import org.elasticsearch.core.Nullable;
 
 /**
  * Specialization of {@link IndexFieldData} for data that is indexed with ordinals.
@@ -36,6 +38,17 @@ public interface IndexOrdinalsFieldData extends IndexFieldData.Global<LeafOrdina
      */
     OrdinalMap getOrdinalMap();
 
+    /**
+     * Returns the mapping from the ordinals of the segment at the given index to global ordinals
+     * or null if global ordinals are not needed (constant value or single segment). Unlike
+     * {@link #getOrdinalMap} this does not require global ordinals to be backed by an {@link OrdinalMap}.
+     */
+    @Nullable
+    default LongValues getGlobalOrds(int segmentIndex) {
+        final OrdinalMap ordinalMap = getOrdinalMap();
+        return ordinalMap == null ? null : ordinalMap.getGlobalOrds(segmentIndex);
+    }
+
     /**
      * Whether this field data is able to provide a mapping between global and segment ordinals,
      * by returning the underlying {@link OrdinalMap}. If this method returns false, then calling
@@ -13,9 +13,14 @@ import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -26,6 +31,8 @@ import org.elasticsearch.script.field.ToScriptFieldFactory;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -35,11 +42,14 @@ public enum GlobalOrdinalsBuilder {
     ;
 
     /**
-     * Build global ordinals for the provided {@link IndexReader}.
+     * Build global ordinals for the provided {@link IndexReader}. If the global ordinals that were previously built for the same
+     * shard are provided and all of their segments are still part of the reader then only the terms of the segments that were added
+     * since are merged into them, instead of merging the terms of all segments again.
      */
     public static IndexOrdinalsFieldData build(
         final IndexReader indexReader,
         IndexOrdinalsFieldData indexFieldData,
+        @Nullable GlobalOrdinalsIndexFieldData previous,
         CircuitBreakerService breakerService,
         Logger logger,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
@@ -49,32 +59,146 @@ public enum GlobalOrdinalsBuilder {
 
         final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
         final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        IndexReader.CacheKey[] segmentKeys = new IndexReader.CacheKey[indexReader.leaves().size()];
         for (int i = 0; i < indexReader.leaves().size(); ++i) {
             atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
             subs[i] = atomicFD[i].getOrdinalsValues();
+            final IndexReader.CacheHelper cacheHelper = indexReader.leaves().get(i).reader().getCoreCacheHelper();
+            if (cacheHelper == null) {
+                segmentKeys = null;
+            } else if (segmentKeys != null) {
+                segmentKeys[i] = cacheHelper.getKey();
+            }
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
-        final long memorySizeInBytes = ordinalMap.ramBytesUsed();
-        breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
+        GlobalOrdinalsMap ordinalsMap = null;
+        if (previous != null && segmentKeys != null) {
+            ordinalsMap = buildIncrementally(previous, segmentKeys, subs);
+        }
+        final boolean incremental = ordinalsMap != null;
+        if (ordinalsMap == null) {
+            ordinalsMap = GlobalOrdinalsMap.of(OrdinalMap.build(null, subs, PackedInts.DEFAULT));
+        }
+        final long memorySizeInBytes = ordinalsMap.ramBytesUsed();
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        breaker.addWithoutBreaking(memorySizeInBytes);
 
         if (logger.isDebugEnabled()) {
             logger.debug(
-                "global-ordinals [{}][{}] took [{}]",
+                "global-ordinals [{}][{}] took [{}] (incremental [{}])",
                 indexFieldData.getFieldName(),
-                ordinalMap.getValueCount(),
-                new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS)
+                ordinalsMap.getValueCount(),
+                new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS),
+                incremental
             );
         }
         return new GlobalOrdinalsIndexFieldData(
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
-            ordinalMap,
+            segmentKeys,
+            ordinalsMap,
             memorySizeInBytes,
+            breaker,
             toScriptFieldFactory
         );
     }
 
+    /**
+     * Builds the mapping to global ordinals of the given segments from the mapping of previously built global ordinals. The terms of
+     * the previous global ordinals, which are already sorted and deduplicated, are merged with the terms of the segments that were
+     * added since, and the mapping of the segments that were already there is composed with the mapping of the previous global
+     * ordinals to the new ones. Returns {@code null} if the previous global ordinals can't be reused because some of their segments
+     * are gone, which is typically the case after a merge.
+     */
+    @Nullable
+    static GlobalOrdinalsMap buildIncrementally(
+        GlobalOrdinalsIndexFieldData previous,
+        IndexReader.CacheKey[] segmentKeys,
+        SortedSetDocValues[] subs
+    ) throws IOException {
+        final IndexReader.CacheKey[] previousKeys = previous.segmentKeys();
+        if (previousKeys == null) {
+            return null;
+        }
+        final Map<IndexReader.CacheKey, Integer> segmentIndices = new HashMap<>();
+        for (int i = 0; i < segmentKeys.length; i++) {
+            segmentIndices.put(segmentKeys[i], i);
+        }
+        // the index in the new reader of each segment of the previous reader
+        final int[] previousToCurrent = new int[previousKeys.length];
+        final boolean[] reused = new boolean[segmentKeys.length];
+        for (int j = 0; j < previousKeys.length; j++) {
+            final Integer i = segmentIndices.get(previousKeys[j]);
+            if (i == null || subs[i].getValueCount() != previous.segmentValueCount(j)) {
+                return null;
+            }
+            previousToCurrent[j] = i;
+            reused[i] = true;
+        }
+        final GlobalOrdinalsMap previousMap = previous.ordinalsMap();
+        if (previousKeys.length == segmentKeys.length) {
+            // no segment was added
+            boolean sameOrder = true;
+            for (int j = 0; j < previousToCurrent.length; j++) {
+                sameOrder &= previousToCurrent[j] == j;
+            }
+            if (sameOrder) {
+                return previousMap;
+            }
+        }
+
+        // merge the terms of the previous global ordinals, as the first sub, with the terms of the added segments
+        final TermsEnum[] lookups = new TermsEnum[previousKeys.length];
+        for (int j = 0; j < previousKeys.length; j++) {
+            lookups[j] = subs[previousToCurrent[j]].termsEnum();
+        }
+        final int[] deltaToCurrent = new int[segmentKeys.length - previousKeys.length + 1];
+        final SortedSetDocValues[] deltaSubs = new SortedSetDocValues[deltaToCurrent.length];
+        deltaSubs[0] = new PreviousGlobalTerms(previousMap, lookups);
+        for (int i = 0, k = 1; i < segmentKeys.length; i++) {
+            if (reused[i] == false) {
+                deltaToCurrent[k] = i;
+                deltaSubs[k++] = subs[i];
+            }
+        }
+        final OrdinalMap delta = OrdinalMap.build(null, deltaSubs, PackedInts.DEFAULT);
+
+        final PackedLongValues[] segmentToGlobalOrds = new PackedLongValues[segmentKeys.length];
+        final LongValues previousToGlobalOrds = delta.getGlobalOrds(0);
+        for (int j = 0; j < previousKeys.length; j++) {
+            final LongValues segmentToPreviousOrds = previousMap.getGlobalOrds(j);
+            final PackedLongValues.Builder builder = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            for (long ord = 0; ord < subs[previousToCurrent[j]].getValueCount(); ord++) {
+                builder.add(previousToGlobalOrds.get(segmentToPreviousOrds.get(ord)));
+            }
+            segmentToGlobalOrds[previousToCurrent[j]] = builder.build();
+        }
+        for (int k = 1; k < deltaSubs.length; k++) {
+            final LongValues segmentToGlobalOrd = delta.getGlobalOrds(k);
+            final PackedLongValues.Builder builder = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            for (long ord = 0; ord < deltaSubs[k].getValueCount(); ord++) {
+                builder.add(segmentToGlobalOrd.get(ord));
+            }
+            segmentToGlobalOrds[deltaToCurrent[k]] = builder.build();
+        }
+
+        final PackedLongValues.Builder firstSegments = PackedLongValues.deltaPackedBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder globalOrdDeltas = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        for (long globalOrd = 0; globalOrd < delta.getValueCount(); globalOrd++) {
+            final int deltaSegment = delta.getFirstSegmentNumber(globalOrd);
+            final long deltaSegmentOrd = delta.getFirstSegmentOrd(globalOrd);
+            if (deltaSegment == 0) {
+                // the term was already there, resolve it to the segment that it was first found in
+                firstSegments.add(previousToCurrent[previousMap.getFirstSegmentNumber(deltaSegmentOrd)]);
+                globalOrdDeltas.add(globalOrd - previousMap.getFirstSegmentOrd(deltaSegmentOrd));
+            } else {
+                firstSegments.add(deltaToCurrent[deltaSegment]);
+                globalOrdDeltas.add(globalOrd - deltaSegmentOrd);
+            }
+        }
+        return new GlobalOrdinalsMap.Packed(delta.getValueCount(), segmentToGlobalOrds, firstSegments.build(), globalOrdDeltas.build());
+    }
+
     public static IndexOrdinalsFieldData buildEmpty(
         IndexReader indexReader,
         IndexOrdinalsFieldData indexFieldData,
@@ -111,10 +235,73 @@ public enum GlobalOrdinalsBuilder {
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
-            ordinalMap,
+            null,
+            GlobalOrdinalsMap.of(ordinalMap),
             0,
+            null,
             toScriptFieldFactory
         );
     }
 
+    /**
+     * Exposes the sorted terms of previously built global ordinals so that they can be merged with the terms of other segments.
+     * Only the terms dictionary is available, these doc values don't have any documents.
+     */
+    private static final class PreviousGlobalTerms extends SortedSetDocValues {
+        private final GlobalOrdinalsMap previousMap;
+        private final TermsEnum[] lookups;
+
+        PreviousGlobalTerms(GlobalOrdinalsMap previousMap, TermsEnum[] lookups) {
+            this.previousMap = previousMap;
+            this.lookups = lookups;
+        }
+
+        @Override
+        public long getValueCount() {
+            return previousMap.getValueCount();
+        }
+
+        @Override
+        public BytesRef lookupOrd(long ord) throws IOException {
+            final TermsEnum lookup = lookups[previousMap.getFirstSegmentNumber(ord)];
+            lookup.seekExact(previousMap.getFirstSegmentOrd(ord));
+            return lookup.term();
+        }
+
+        @Override
+        public long nextOrd() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int docValueCount() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean advanceExact(int target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int docID() {
+            return -1;
+        }
+
+        @Override
+        public int nextDoc() {
+            return NO_MORE_DOCS;
+        }
+
+        @Override
+        public int advance(int target) {
+            return NO_MORE_DOCS;
+        }
+
+        @Override
+        public long cost() {
+            return 0;
+        }
+    }
+
 }
@@ -8,12 +8,16 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
@@ -40,6 +44,8 @@ import java.util.Collections;
  * Each instance of {@link Consumer} uses a new set of {@link TermsEnum} that can be reused during the collection,
  * this is done to avoid creating all segment's {@link TermsEnum} each time we want to access the values of a single
  * segment.
+ * Global ordinals that were built incrementally from the global ordinals of a previous reader don't hold an {@link OrdinalMap}, one is
+ * only built, and accounted for, the first time that {@link #getOrdinalMap()} is called.
  */
 public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldData, Accountable {
 
@@ -47,26 +53,60 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
     private final ValuesSourceType valuesSourceType;
     private final long memorySizeInBytes;
 
-    private final OrdinalMap ordinalMap;
+    private final GlobalOrdinalsMap ordinalsMap;
     private final LeafOrdinalsFieldData[] segmentAfd;
+    private final IndexReader.CacheKey[] segmentKeys;
+    private final CircuitBreaker breaker;
     private final ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory;
 
+    private volatile OrdinalMap ordinalMap;
+
     protected GlobalOrdinalsIndexFieldData(
         String fieldName,
         ValuesSourceType valuesSourceType,
         LeafOrdinalsFieldData[] segmentAfd,
-        OrdinalMap ordinalMap,
+        @Nullable IndexReader.CacheKey[] segmentKeys,
+        GlobalOrdinalsMap ordinalsMap,
         long memorySizeInBytes,
+        @Nullable CircuitBreaker breaker,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
     ) {
+        assert ordinalsMap.ordinalMap() != null || breaker != null : "incrementally built global ordinals need a breaker";
         this.fieldName = fieldName;
         this.valuesSourceType = valuesSourceType;
         this.memorySizeInBytes = memorySizeInBytes;
-        this.ordinalMap = ordinalMap;
+        this.ordinalsMap = ordinalsMap;
+        this.ordinalMap = ordinalsMap.ordinalMap();
         this.segmentAfd = segmentAfd;
+        this.segmentKeys = segmentKeys;
+        this.breaker = breaker;
         this.toScriptFieldFactory = toScriptFieldFactory;
     }
 
+    /**
+     * The core cache keys of the segments that these global ordinals were built for, in the order of the leaves of the reader, or
+     * {@code null} if some segments don't support caching.
+     */
+    @Nullable
+    IndexReader.CacheKey[] segmentKeys() {
+        return segmentKeys;
+    }
+
+    GlobalOrdinalsMap ordinalsMap() {
+        return ordinalsMap;
+    }
+
+    /**
+     * Whether these global ordinals were built incrementally from the global ordinals of a previous reader of the same shard.
+     */
+    public boolean isBuiltIncrementally() {
+        return ordinalsMap instanceof GlobalOrdinalsMap.Packed;
+    }
+
+    long segmentValueCount(int segmentIndex) {
+        return segmentAfd[segmentIndex].getOrdinalsValues().getValueCount();
+    }
+
     public IndexOrdinalsFieldData newConsumer(DirectoryReader source) {
         return new Consumer(source);
     }
@@ -117,6 +157,10 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
     @Override
     public long ramBytesUsed() {
+        final OrdinalMap ordinalMap = this.ordinalMap;
+        if (ordinalMap != null && ordinalsMap.ordinalMap() == null) {
+            return memorySizeInBytes + ordinalMap.ramBytesUsed();
+        }
         return memorySizeInBytes;
     }
 
@@ -133,9 +177,40 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
     @Override
     public OrdinalMap getOrdinalMap() {
+        OrdinalMap ordinalMap = this.ordinalMap;
+        if (ordinalMap == null) {
+            synchronized (this) {
+                ordinalMap = this.ordinalMap;
+                if (ordinalMap == null) {
+                    ordinalMap = buildOrdinalMap();
+                    this.ordinalMap = ordinalMap;
+                }
+            }
+        }
+        return ordinalMap;
+    }
+
+    private OrdinalMap buildOrdinalMap() {
+        final SortedSetDocValues[] subs = new SortedSetDocValues[segmentAfd.length];
+        for (int i = 0; i < segmentAfd.length; i++) {
+            subs[i] = segmentAfd[i].getOrdinalsValues();
+        }
+        final OrdinalMap ordinalMap;
+        try {
+            ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build ordinal map", e);
+        }
+        // released together with the rest of these global ordinals since it is included in ramBytesUsed() from now on
+        breaker.addWithoutBreaking(ordinalMap.ramBytesUsed());
         return ordinalMap;
     }
 
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return ordinalsMap.getGlobalOrds(segmentIndex);
+    }
+
     @Override
     public boolean supportsGlobalOrdinalsMapping() {
         return true;
@@ -216,7 +291,7 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
         @Override
         public long ramBytesUsed() {
-            return memorySizeInBytes;
+            return GlobalOrdinalsIndexFieldData.this.ramBytesUsed();
         }
 
         @Override
@@ -231,18 +306,18 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
                 @Override
                 public SortedSetDocValues getOrdinalsValues() {
                     final SortedSetDocValues values = segmentAfd[context.ord].getOrdinalsValues();
-                    if (values.getValueCount() == ordinalMap.getValueCount()) {
+                    if (values.getValueCount() == ordinalsMap.getValueCount()) {
                         // segment ordinals match global ordinals
                         return values;
                     }
                     TermsEnum[] atomicLookups = getOrLoadTermsEnums();
                     SortedSetDocValues singleton = SingletonGlobalOrdinalMapping.singletonIfPossible(
-                        ordinalMap,
+                        ordinalsMap,
                         values,
                         atomicLookups,
                         context.ord
                     );
-                    return singleton == null ? new GlobalOrdinalMapping(ordinalMap, values, atomicLookups, context.ord) : singleton;
+                    return singleton == null ? new GlobalOrdinalMapping(ordinalsMap, values, atomicLookups, context.ord) : singleton;
                 }
 
                 @Override
@@ -267,7 +342,16 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
         @Override
         public OrdinalMap getOrdinalMap() {
-            return ordinalMap;
+            return GlobalOrdinalsIndexFieldData.this.getOrdinalMap();
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return ordinalsMap.getGlobalOrds(segmentIndex);
+        }
+
+        public boolean isBuiltIncrementally() {
+            return GlobalOrdinalsIndexFieldData.this.isBuiltIncrementally();
         }
 
     }
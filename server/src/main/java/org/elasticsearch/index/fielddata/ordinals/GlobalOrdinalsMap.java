@@ -0,0 +1,140 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedLongValues;
+import org.elasticsearch.core.Nullable;
+
+/**
+ * Maps the ordinals of each segment of a reader to global ordinals and each global ordinal back to the first segment that contains
+ * its term. This is either backed by a Lucene {@link OrdinalMap} or, if it was built incrementally from the mapping of a previous
+ * reader, by packed arrays that hold the same information.
+ */
+abstract class GlobalOrdinalsMap implements Accountable {
+
+    /**
+     * Returns the total number of unique terms in the global ordinal space.
+     */
+    abstract long getValueCount();
+
+    /**
+     * Returns the mapping from the ordinals of the segment at the given index to global ordinals.
+     */
+    abstract LongValues getGlobalOrds(int segmentIndex);
+
+    /**
+     * Returns the index of the first segment that contains the term of the given global ordinal.
+     */
+    abstract int getFirstSegmentNumber(long globalOrd);
+
+    /**
+     * Returns the ordinal of the term of the given global ordinal in the first segment that contains it.
+     */
+    abstract long getFirstSegmentOrd(long globalOrd);
+
+    /**
+     * Returns the underlying {@link OrdinalMap} or {@code null} if this mapping was built incrementally.
+     */
+    @Nullable
+    abstract OrdinalMap ordinalMap();
+
+    static GlobalOrdinalsMap of(OrdinalMap ordinalMap) {
+        return new GlobalOrdinalsMap() {
+            @Override
+            long getValueCount() {
+                return ordinalMap.getValueCount();
+            }
+
+            @Override
+            LongValues getGlobalOrds(int segmentIndex) {
+                return ordinalMap.getGlobalOrds(segmentIndex);
+            }
+
+            @Override
+            int getFirstSegmentNumber(long globalOrd) {
+                return ordinalMap.getFirstSegmentNumber(globalOrd);
+            }
+
+            @Override
+            long getFirstSegmentOrd(long globalOrd) {
+                return ordinalMap.getFirstSegmentOrd(globalOrd);
+            }
+
+            @Override
+            OrdinalMap ordinalMap() {
+                return ordinalMap;
+            }
+
+            @Override
+            public long ramBytesUsed() {
+                return ordinalMap.ramBytesUsed();
+            }
+        };
+    }
+
+    /**
+     * A {@link GlobalOrdinalsMap} that stores the mapping of every segment, like {@link OrdinalMap} does, but that is not tied to how
+     * {@link OrdinalMap} computes it.
+     */
+    static final class Packed extends GlobalOrdinalsMap {
+
+        private final long valueCount;
+        private final PackedLongValues[] segmentToGlobalOrds;
+        private final PackedLongValues firstSegments;
+        private final PackedLongValues globalOrdDeltas;
+        private final long ramBytesUsed;
+
+        Packed(long valueCount, PackedLongValues[] segmentToGlobalOrds, PackedLongValues firstSegments, PackedLongValues globalOrdDeltas) {
+            this.valueCount = valueCount;
+            this.segmentToGlobalOrds = segmentToGlobalOrds;
+            this.firstSegments = firstSegments;
+            this.globalOrdDeltas = globalOrdDeltas;
+            long ramBytesUsed = RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds);
+            ramBytesUsed += firstSegments.ramBytesUsed() + globalOrdDeltas.ramBytesUsed();
+            for (PackedLongValues values : segmentToGlobalOrds) {
+                ramBytesUsed += values.ramBytesUsed();
+            }
+            this.ramBytesUsed = ramBytesUsed;
+        }
+
+        @Override
+        long getValueCount() {
+            return valueCount;
+        }
+
+        @Override
+        LongValues getGlobalOrds(int segmentIndex) {
+            return segmentToGlobalOrds[segmentIndex];
+        }
+
+        @Override
+        int getFirstSegmentNumber(long globalOrd) {
+            return (int) firstSegments.get(globalOrd);
+        }
+
+        @Override
+        long getFirstSegmentOrd(long globalOrd) {
+            return globalOrd - globalOrdDeltas.get(globalOrd);
+        }
+
+        @Override
+        OrdinalMap ordinalMap() {
+            return null;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return ramBytesUsed;
+        }
+    }
+}
@@ -8,7 +8,6 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DocValues;
-import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
@@ -27,10 +26,15 @@ class SingletonGlobalOrdinalMapping extends SortedDocValues {
      * Lots of other code tries to unwrap the singleton with
      * {@link DocValues#unwrapSingleton} and it'll take a fast path if
      * it gets a singleton. This'll return a singleton that can be
-     * unwrapped or {@code null} if the {@link OrdinalMap} and
+     * unwrapped or {@code null} if the {@link GlobalOrdinalsMap} and
      * {@link SortedSetDocValues} aren't compatible with {@link SortedDocValues}.
      */
-    static SortedSetDocValues singletonIfPossible(OrdinalMap ordinalMap, SortedSetDocValues values, TermsEnum[] lookups, int segmentIndex) {
+    static SortedSetDocValues singletonIfPossible(
+        GlobalOrdinalsMap ordinalMap,
+        SortedSetDocValues values,
+        TermsEnum[] lookups,
+        int segmentIndex
+    ) {
         /*
          * We can manage a singleton if the total value count
          * fits in an `int` *and* the segment ords are a singleton.
@@ -48,11 +52,11 @@ class SingletonGlobalOrdinalMapping extends SortedDocValues {
     }
 
     private final SortedDocValues values;
-    private final OrdinalMap ordinalMap;
+    private final GlobalOrdinalsMap ordinalMap;
     private final LongValues mapping;
     private final TermsEnum[] lookups;
 
-    private SingletonGlobalOrdinalMapping(OrdinalMap ordinalMap, SortedDocValues values, TermsEnum[] lookups, int segmentIndex) {
+    private SingletonGlobalOrdinalMapping(GlobalOrdinalsMap ordinalMap, SortedDocValues values, TermsEnum[] lookups, int segmentIndex) {
         this.values = values;
         this.lookups = lookups;
         this.ordinalMap = ordinalMap;
@@ -23,6 +23,8 @@ import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.RamAccountingTermsEnum;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.ShardUtils;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.script.field.ToScriptFieldFactory;
 import org.elasticsearch.search.aggregations.support.ValuesSourceType;
@@ -136,7 +138,13 @@ public abstract class AbstractIndexOrdinalsFieldData implements IndexOrdinalsFie
 
     @Override
     public IndexOrdinalsFieldData loadGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, breakerService, logger, toScriptFieldFactory);
+        GlobalOrdinalsIndexFieldData previous = null;
+        final ShardId shardId = ShardUtils.extractShardId(indexReader);
+        if (shardId != null && cache.lastLoadedGlobal(shardId) instanceof GlobalOrdinalsIndexFieldData lastLoaded) {
+            // the global ordinals of a newer reader only need to merge the terms of the segments that were added since
+            previous = lastLoaded;
+        }
+        return GlobalOrdinalsBuilder.build(indexReader, this, previous, breakerService, logger, toScriptFieldFactory);
     }
 
     @Override
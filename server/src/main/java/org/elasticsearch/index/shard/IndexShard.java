@@ -135,6 +135,7 @@ import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.IndicesStoredFieldsCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
@@ -1507,7 +1508,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             : "DirectoryReader must be an instance or ElasticsearchDirectoryReader";
         boolean success = false;
         try {
-            final Engine.Searcher newSearcher = wrapSearcher(searcher, fieldUsageTracker.createSession(), readerWrapper);
+            final Engine.Searcher newSearcher = wrapSearcher(
+                searcher,
+                fieldUsageTracker.createSession(),
+                readerWrapper,
+                indexCache != null ? indexCache.storedFields() : null
+            );
             assert newSearcher != null;
             success = true;
             return newSearcher;
@@ -1523,7 +1529,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     static Engine.Searcher wrapSearcher(
         Engine.Searcher engineSearcher,
         ShardFieldUsageTracker.FieldUsageStatsTrackingSession fieldUsageStatsTrackingSession,
-        @Nullable CheckedFunction<DirectoryReader, DirectoryReader, IOException> readerWrapper
+        @Nullable CheckedFunction<DirectoryReader, DirectoryReader, IOException> readerWrapper,
+        @Nullable IndicesStoredFieldsCache storedFieldsCache
     ) throws IOException {
         final ElasticsearchDirectoryReader elasticsearchDirectoryReader = ElasticsearchDirectoryReader.getElasticsearchDirectoryReader(
             engineSearcher.getDirectoryReader()
@@ -1534,10 +1541,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         if (readerWrapper == null) {
             readerWrapper = r -> r;
         }
-        NonClosingReaderWrapper nonClosingReaderWrapper = new NonClosingReaderWrapper(engineSearcher.getDirectoryReader());
+        DirectoryReader nonClosingReader = new NonClosingReaderWrapper(engineSearcher.getDirectoryReader());
+        if (storedFieldsCache != null) {
+            // the cache must be applied below all other wrappers so that wrappers that filter stored fields also apply to cached documents
+            nonClosingReader = storedFieldsCache.wrap(nonClosingReader);
+        }
         // first apply field usage stats wrapping before applying other wrappers so that it can track the effects of these wrappers
         DirectoryReader reader = readerWrapper.apply(
-            new FieldUsageTrackingDirectoryReader(nonClosingReaderWrapper, fieldUsageStatsTrackingSession)
+            new FieldUsageTrackingDirectoryReader(nonClosingReader, fieldUsageStatsTrackingSession)
         );
         if (reader.getReaderCacheHelper() != elasticsearchDirectoryReader.getReaderCacheHelper()) {
             throw new IllegalStateException(
@@ -3591,6 +3602,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         Supplier<Engine> engineSupplier
     ) {
         return new AsyncIOProcessor<>(logger, 1024, threadContext) {
+            @Override
+            protected void awaitBatch(int concurrentItems) {
+                try {
+                    engineSupplier.get().awaitTranslogGroupCommitWindow(concurrentItems);
+                } catch (AlreadyClosedException ex) {
+                    // the translog is synced on engine close, write is a noop in that case too
+                }
+            }
+
             @Override
             protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
                 try {
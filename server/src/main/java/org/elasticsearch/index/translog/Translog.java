@@ -112,6 +112,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final List<TranslogReader> readers = new ArrayList<>();
     private final BigArrays bigArrays;
     private final DiskIoBufferPool diskIoBufferPool;
+    private final TranslogSyncTracker syncTracker;
     protected final ReleasableLock readLock;
     protected final ReleasableLock writeLock;
     private final Path location;
@@ -162,6 +163,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         this.translogUUID = translogUUID;
         bigArrays = config.getBigArrays();
         diskIoBufferPool = config.getDiskIoBufferPool();
+        syncTracker = new TranslogSyncTracker(config.getIndexSettings()::getTranslogGroupCommitMaxDelay);
         ReadWriteLock rwl = new ReentrantReadWriteLock();
         readLock = new ReleasableLock(rwl.readLock());
         writeLock = new ReleasableLock(rwl.writeLock());
@@ -553,7 +555,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 tragedy,
                 persistedSequenceNumberConsumer,
                 bigArrays,
-                diskIoBufferPool
+                diskIoBufferPool,
+                syncTracker
             );
         } catch (final IOException e) {
             throw new TranslogException(shardId, "failed to create new translog file", e);
@@ -858,6 +861,17 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         return false;
     }
 
+    /**
+     * Waits for the group commit window if group commit is enabled and more than one sync request is waiting for this translog, so that
+     * the operations of concurrent writers are made durable by the same fsync. Must be called before syncing and without holding any
+     * lock, see {@link org.elasticsearch.index.IndexSettings#INDEX_TRANSLOG_GROUP_COMMIT_MAX_DELAY_SETTING}.
+     *
+     * @param concurrentSyncRequests the number of sync requests that are waiting for this translog to be synced
+     */
+    public void awaitGroupCommitWindow(int concurrentSyncRequests) {
+        syncTracker.maybeAwaitGroupCommitWindow(concurrentSyncRequests);
+    }
+
     /**
      * Ensures that all locations in the given stream have been synced / written to the underlying storage.
      * This method allows for internal optimization to minimize the amount of fsync operations if multiple
@@ -915,7 +929,11 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 sizeInBytes(),
                 totalOperationsByMinGen(uncommittedGen),
                 sizeInBytesByMinGen(uncommittedGen),
-                earliestLastModifiedAge()
+                earliestLastModifiedAge(),
+                syncTracker.getSyncs(),
+                syncTracker.getSyncedOperations(),
+                syncTracker.getSyncTimeInMillis(),
+                syncTracker.getGroupCommitWaitTimeInMillis()
             );
         }
     }
@@ -1958,7 +1976,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             new TragicExceptionHolder(),
             seqNo -> { throw new UnsupportedOperationException(); },
             BigArrays.NON_RECYCLING_INSTANCE,
-            DiskIoBufferPool.INSTANCE
+            DiskIoBufferPool.INSTANCE,
+            TranslogSyncTracker.noGroupCommit()
         );
         writer.close();
         return uuid;
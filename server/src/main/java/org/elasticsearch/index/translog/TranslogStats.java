@@ -7,11 +7,13 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
@@ -24,6 +26,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long syncs;
+    private long syncedOperations;
+    private long syncTimeInMillis;
+    private long groupCommitWaitTimeInMillis;
 
     public TranslogStats() {}
 
@@ -33,6 +39,12 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            syncs = in.readVLong();
+            syncedOperations = in.readVLong();
+            syncTimeInMillis = in.readVLong();
+            groupCommitWaitTimeInMillis = in.readVLong();
+        }
     }
 
     public TranslogStats(
@@ -41,6 +53,20 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         int uncommittedOperations,
         long uncommittedSizeInBytes,
         long earliestLastModifiedAge
+    ) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0, 0, 0);
+    }
+
+    public TranslogStats(
+        int numberOfOperations,
+        long translogSizeInBytes,
+        int uncommittedOperations,
+        long uncommittedSizeInBytes,
+        long earliestLastModifiedAge,
+        long syncs,
+        long syncedOperations,
+        long syncTimeInMillis,
+        long groupCommitWaitTimeInMillis
     ) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
@@ -57,11 +83,27 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         if (earliestLastModifiedAge < 0) {
             throw new IllegalArgumentException("earliestLastModifiedAge must be >= 0");
         }
+        if (syncs < 0) {
+            throw new IllegalArgumentException("syncs must be >= 0");
+        }
+        if (syncedOperations < 0) {
+            throw new IllegalArgumentException("syncedOperations must be >= 0");
+        }
+        if (syncTimeInMillis < 0) {
+            throw new IllegalArgumentException("syncTimeInMillis must be >= 0");
+        }
+        if (groupCommitWaitTimeInMillis < 0) {
+            throw new IllegalArgumentException("groupCommitWaitTimeInMillis must be >= 0");
+        }
         this.numberOfOperations = numberOfOperations;
         this.translogSizeInBytes = translogSizeInBytes;
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.syncs = syncs;
+        this.syncedOperations = syncedOperations;
+        this.syncTimeInMillis = syncTimeInMillis;
+        this.groupCommitWaitTimeInMillis = groupCommitWaitTimeInMillis;
     }
 
     public void add(TranslogStats translogStats) {
@@ -78,6 +120,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         } else {
             this.earliestLastModifiedAge = Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
         }
+        this.syncs += translogStats.syncs;
+        this.syncedOperations += translogStats.syncedOperations;
+        this.syncTimeInMillis += translogStats.syncTimeInMillis;
+        this.groupCommitWaitTimeInMillis += translogStats.groupCommitWaitTimeInMillis;
     }
 
     public long getTranslogSizeInBytes() {
@@ -102,6 +148,31 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         return earliestLastModifiedAge;
     }
 
+    /** the number of fsyncs of the translog */
+    public long getSyncs() {
+        return syncs;
+    }
+
+    /** the number of operations that were made durable by fsyncs of the translog */
+    public long getSyncedOperations() {
+        return syncedOperations;
+    }
+
+    /** the average number of operations that were made durable by a single fsync of the translog */
+    public double getOperationsPerSync() {
+        return syncs == 0 ? 0.0 : (double) syncedOperations / syncs;
+    }
+
+    /** the total time spent fsyncing the translog */
+    public long getSyncTimeInMillis() {
+        return syncTimeInMillis;
+    }
+
+    /** the total time that fsyncs of the translog were delayed to let concurrent writers join a group commit */
+    public long getGroupCommitWaitTimeInMillis() {
+        return groupCommitWaitTimeInMillis;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -110,6 +181,16 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.startObject("sync");
+        builder.field("total", syncs);
+        builder.field("operations", syncedOperations);
+        builder.humanReadableField("total_time_in_millis", "total_time", new TimeValue(syncTimeInMillis));
+        builder.humanReadableField(
+            "group_commit_wait_time_in_millis",
+            "group_commit_wait_time",
+            new TimeValue(groupCommitWaitTimeInMillis)
+        );
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -126,5 +207,11 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeVLong(syncs);
+            out.writeVLong(syncedOperations);
+            out.writeVLong(syncTimeInMillis);
+            out.writeVLong(groupCommitWaitTimeInMillis);
+        }
     }
 }
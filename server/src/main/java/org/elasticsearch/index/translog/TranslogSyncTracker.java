@@ -0,0 +1,108 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Tracks the fsyncs of a {@link Translog} across all of its generations and implements group commit: when enabled, the thread that
+ * is about to fsync the translog on behalf of a batch of sync requests waits for a short window, before it takes any lock of the
+ * translog, so that the operations and sync requests of concurrent writers are covered by the same fsync. The window adapts to the
+ * device: it is half of the moving average of the observed fsync latency, bounded by {@code index.translog.group_commit.max_delay},
+ * and it is only applied if more than one sync request is waiting for the translog, so that a single writer never pays for the delay.
+ */
+final class TranslogSyncTracker {
+
+    private static final double FSYNC_LATENCY_EWMA_ALPHA = 0.3;
+
+    private final Supplier<TimeValue> maxGroupCommitDelay;
+    private final ExponentiallyWeightedMovingAverage fsyncLatencyNanos = new ExponentiallyWeightedMovingAverage(
+        FSYNC_LATENCY_EWMA_ALPHA,
+        0.0
+    );
+
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncedOperations = new LongAdder();
+    private final LongAdder syncTimeNanos = new LongAdder();
+    private final LongAdder groupCommitWaitTimeNanos = new LongAdder();
+
+    /**
+     * @param maxGroupCommitDelay supplies the upper bound of the group commit window, {@link TimeValue#ZERO} disables group commit
+     */
+    TranslogSyncTracker(Supplier<TimeValue> maxGroupCommitDelay) {
+        this.maxGroupCommitDelay = maxGroupCommitDelay;
+    }
+
+    /**
+     * A tracker that never delays fsyncs.
+     */
+    static TranslogSyncTracker noGroupCommit() {
+        return new TranslogSyncTracker(() -> TimeValue.ZERO);
+    }
+
+    /**
+     * Called by the thread that is about to fsync the translog on behalf of a batch of sync requests, before it takes any lock of the
+     * translog. Waits for the group commit window if group commit is enabled and other sync requests are waiting concurrently.
+     *
+     * @param concurrentSyncRequests the number of sync requests that are waiting for the translog to be synced, see
+     *                               {@link org.elasticsearch.common.util.concurrent.AsyncIOProcessor#awaitBatch(int)}
+     */
+    void maybeAwaitGroupCommitWindow(int concurrentSyncRequests) {
+        final long delayNanos = groupCommitDelayNanos(concurrentSyncRequests);
+        if (delayNanos > 0) {
+            final long startNanos = System.nanoTime();
+            LockSupport.parkNanos(delayNanos);
+            groupCommitWaitTimeNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    long groupCommitDelayNanos(int concurrentSyncRequests) {
+        final long maxDelayNanos = maxGroupCommitDelay.get().nanos();
+        if (maxDelayNanos <= 0 || concurrentSyncRequests <= 1) {
+            return 0L;
+        }
+        return Math.min(maxDelayNanos, (long) (fsyncLatencyNanos.getAverage() / 2));
+    }
+
+    /**
+     * Called by the thread that performed an fsync while still holding the sync lock.
+     *
+     * @param operations the number of operations that were made durable by the fsync
+     * @param tookNanos  the time it took to fsync the translog and its checkpoint
+     */
+    void onSynced(long operations, long tookNanos) {
+        assert operations >= 0 : "operations must not be negative but was " + operations;
+        syncs.increment();
+        syncedOperations.add(operations);
+        syncTimeNanos.add(tookNanos);
+        fsyncLatencyNanos.addValue(tookNanos);
+    }
+
+    long getSyncs() {
+        return syncs.sum();
+    }
+
+    long getSyncedOperations() {
+        return syncedOperations.sum();
+    }
+
+    long getSyncTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(syncTimeNanos.sum());
+    }
+
+    long getGroupCommitWaitTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(groupCommitWaitTimeNanos.sum());
+    }
+}
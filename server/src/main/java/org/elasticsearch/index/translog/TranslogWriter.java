@@ -83,6 +83,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
 
     private final DiskIoBufferPool diskIoBufferPool;
 
+    private final TranslogSyncTracker syncTracker;
+
     private TranslogWriter(
         final ShardId shardId,
         final Checkpoint initialCheckpoint,
@@ -97,7 +99,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         final TragicExceptionHolder tragedy,
         final LongConsumer persistedSequenceNumberConsumer,
         final BigArrays bigArrays,
-        final DiskIoBufferPool diskIoBufferPool
+        final DiskIoBufferPool diskIoBufferPool,
+        final TranslogSyncTracker syncTracker
     ) throws IOException {
         super(initialCheckpoint.generation, channel, path, header);
         assert initialCheckpoint.offset == channel.position()
@@ -122,6 +125,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         this.persistedSequenceNumberConsumer = persistedSequenceNumberConsumer;
         this.bigArrays = bigArrays;
         this.diskIoBufferPool = diskIoBufferPool;
+        this.syncTracker = syncTracker;
         this.seenSequenceNumbers = Assertions.ENABLED ? new HashMap<>() : null;
         this.tragedy = tragedy;
     }
@@ -141,7 +145,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         TragicExceptionHolder tragedy,
         final LongConsumer persistedSequenceNumberConsumer,
         final BigArrays bigArrays,
-        DiskIoBufferPool diskIoBufferPool
+        DiskIoBufferPool diskIoBufferPool,
+        TranslogSyncTracker syncTracker
     ) throws IOException {
         final Path checkpointFile = file.getParent().resolve(Translog.CHECKPOINT_FILE_NAME);
 
@@ -183,7 +188,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                 tragedy,
                 persistedSequenceNumberConsumer,
                 bigArrays,
-                diskIoBufferPool
+                diskIoBufferPool,
+                syncTracker
             );
         } catch (Exception exception) {
             // if we fail to bake the file-generation into the checkpoint we stick with the file and once we recover and that
@@ -481,6 +487,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                     }
                     // now do the actual fsync outside of the synchronized block such that
                     // we can continue writing to the buffer etc.
+                    final long syncStartNanos = System.nanoTime();
                     try {
                         assert lastSyncedCheckpoint.offset != checkpointToSync.offset || toWrite.length() == 0;
                         if (lastSyncedCheckpoint.offset != checkpointToSync.offset) {
@@ -491,6 +498,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                         closeWithTragicEvent(ex);
                         throw ex;
                     }
+                    syncTracker.onSynced(checkpointToSync.numOps - lastSyncedCheckpoint.numOps, System.nanoTime() - syncStartNanos);
                     if (flushedSequenceNumbers != null) {
                         flushedSequenceNumbers.forEach(persistedSequenceNumberConsumer::accept);
                     }
@@ -46,4 +46,19 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
             notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED
         );
     }
+
+    @Override
+    public final void onWarmCached(IndicesRequestCache.Key key, long sizeInBytes) {
+        stats().onWarmCached(sizeInBytes);
+    }
+
+    @Override
+    public final void onWarmHit() {
+        stats().onWarmHit();
+    }
+
+    @Override
+    public final void onWarmRemoval(IndicesRequestCache.Key key, long sizeInBytes) {
+        stats().onWarmRemoval(sizeInBytes);
+    }
 }
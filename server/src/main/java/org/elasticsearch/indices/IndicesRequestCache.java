@@ -10,8 +10,11 @@ package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
@@ -24,18 +27,26 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.monitor.jvm.JvmInfo;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 
 /**
  * The indices request cache allows to cache a shard level request stage responses, helping with improving
@@ -47,6 +58,11 @@ import java.util.concurrent.ConcurrentMap;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * Entries that are evicted from the on-heap cache can optionally be moved to a second, warm tier that stores
+ * their bytes off-heap, sized with {@link #INDICES_CACHE_WARM_SIZE}. Entries that are found in the warm tier
+ * are moved back to the on-heap cache, which saves computing them again without putting pressure on the heap.
+ * The off-heap memory of the warm tier is allocated as it fills up and then reused, see {@link WarmTier}.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -73,11 +89,38 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         Property.NodeScope
     );
 
+    /**
+     * Whether the on-heap cache only keeps new entries if their keys are requested more often than those of the entries they would
+     * replace, see {@link Cache}. This keeps the results of frequent requests cached when many requests are only made once.
+     */
+    public static final Setting<Boolean> INDICES_CACHE_FREQUENCY_BASED_ADMISSION = Setting.boolSetting(
+        "indices.requests.cache.frequency_based_admission",
+        false,
+        Property.NodeScope
+    );
+
+    /**
+     * The size of the off-heap warm tier of the cache, which holds the entries that were evicted from the on-heap cache. Up to this much
+     * direct memory is allocated as the warm tier fills up, which may be at most half of the direct memory of the JVM since other parts
+     * of the node need direct memory too. The warm tier is disabled if this is 0, which is the default.
+     */
+    public static final Setting<ByteSizeValue> INDICES_CACHE_WARM_SIZE = Setting.byteSizeSetting(
+        "indices.requests.cache.warm.size",
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ofBytes(maxDirectMemory() / 2),
+        Property.NodeScope
+    );
+
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final ByteSizeValue size;
     private final TimeValue expire;
     private final Cache<Key, BytesReference> cache;
+    @Nullable
+    private final WarmTier warmTier;
+    // the entries evicted from the on-heap cache, which notifies removals under its LRU lock, on their way to the warm tier
+    private final Queue<Tuple<Key, BytesReference>> evictedEntries = ConcurrentCollections.newQueue();
 
     IndicesRequestCache(Settings settings) {
         this.size = INDICES_CACHE_QUERY_SIZE.get(settings);
@@ -86,16 +129,23 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
             .setMaximumWeight(sizeInBytes)
             .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
+            .setFrequencyBasedAdmission(INDICES_CACHE_FREQUENCY_BASED_ADMISSION.get(settings))
             .removalListener(this);
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
         cache = cacheBuilder.build();
+        final long warmSizeInBytes = INDICES_CACHE_WARM_SIZE.get(settings).getBytes();
+        warmTier = warmSizeInBytes > 0 ? new WarmTier(warmSizeInBytes, expire, this::acceptsWarmEntry) : null;
     }
 
     @Override
     public void close() {
         cache.invalidateAll();
+        if (warmTier != null) {
+            evictedEntries.clear();
+            warmTier.clear();
+        }
     }
 
     void clear(CacheEntity entity) {
@@ -105,7 +155,68 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
 
     @Override
     public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
-        notification.getKey().entity.onRemoval(notification);
+        final Key key = notification.getKey();
+        key.entity.onRemoval(notification);
+        if (warmTier != null && notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED) {
+            // copying the value to the warm tier takes a while, so it happens after the cache released its lock, see #moveEvictedEntries
+            evictedEntries.add(Tuple.tuple(key, notification.getValue()));
+        }
+    }
+
+    /**
+     * Moves the entries that were evicted from the on-heap cache to the warm tier. This is called after each operation on the on-heap
+     * cache that can evict entries, by the thread that made it.
+     */
+    private void moveEvictedEntries() {
+        if (warmTier == null) {
+            return;
+        }
+        for (Tuple<Key, BytesReference> evicted = evictedEntries.poll(); evicted != null; evicted = evictedEntries.poll()) {
+            warmTier.put(evicted.v1(), evicted.v2());
+        }
+    }
+
+    /**
+     * The maximum amount of direct memory of the JVM. This is the maximum heap size, unless {@code -XX:MaxDirectMemorySize} is set, which
+     * Elasticsearch does by default.
+     */
+    static long maxDirectMemory() {
+        long maxDirectMemory = 0;
+        for (String argument : JvmInfo.jvmInfo().getInputArguments()) {
+            if (argument.startsWith("-XX:MaxDirectMemorySize=")) {
+                // the last occurrence wins, like it does for the JVM
+                maxDirectMemory = parseJvmMemorySize(argument.substring("-XX:MaxDirectMemorySize=".length()));
+            }
+        }
+        return maxDirectMemory > 0 ? maxDirectMemory : Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Parses a memory size the way the JVM does for its options, that is a number of bytes with an optional unit suffix.
+     */
+    static long parseJvmMemorySize(String value) {
+        final int shift = switch (value.isEmpty() ? ' ' : Character.toLowerCase(value.charAt(value.length() - 1))) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            case 't' -> 40;
+            default -> 0;
+        };
+        final String number = shift == 0 ? value : value.substring(0, value.length() - 1);
+        try {
+            return Long.parseLong(number) << shift;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Only the entries of readers that are still open go to the warm tier, the entries of closed readers are about to be cleaned up or
+     * have been cleaned up already. The warm tier checks this under the same lock as it is cleaned up with, and a reader's cleanup key
+     * is unregistered before its cleanup is queued, so that no entry of a cleaned up reader can be left behind in the warm tier.
+     */
+    private boolean acceptsWarmEntry(Key key) {
+        return key.entity.isOpen() && registeredClosedListeners.containsKey(new CleanupKey(key.entity, key.readerCacheKey));
     }
 
     BytesReference getOrCompute(
@@ -119,9 +230,18 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         assert cacheHelper != null;
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
         Loader cacheLoader = new Loader(cacheEntity, loader);
-        BytesReference value = cache.computeIfAbsent(key, cacheLoader);
+        final BytesReference value;
+        try {
+            value = cache.computeIfAbsent(key, cacheLoader);
+        } finally {
+            moveEvictedEntries();
+        }
         if (cacheLoader.isLoaded()) {
-            key.entity.onMiss();
+            if (cacheLoader.isLoadedFromWarmCache()) {
+                key.entity.onWarmHit();
+            } else {
+                key.entity.onMiss();
+            }
             // see if its the first time we see this reader, and make sure to register a cleanup key
             CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
             if (registeredClosedListeners.containsKey(cleanupKey) == false) {
@@ -153,14 +273,19 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
      */
     void invalidate(CacheEntity cacheEntity, MappingLookup.CacheKey mappingCacheKey, DirectoryReader reader, BytesReference cacheKey) {
         assert reader.getReaderCacheHelper() != null;
-        cache.invalidate(new Key(cacheEntity, mappingCacheKey, reader.getReaderCacheHelper().getKey(), cacheKey));
+        final Key key = new Key(cacheEntity, mappingCacheKey, reader.getReaderCacheHelper().getKey(), cacheKey);
+        cache.invalidate(key);
+        if (warmTier != null) {
+            warmTier.invalidate(key);
+        }
     }
 
-    private static class Loader implements CacheLoader<Key, BytesReference> {
+    private class Loader implements CacheLoader<Key, BytesReference> {
 
         private final CacheEntity entity;
         private final CheckedSupplier<BytesReference, IOException> loader;
         private boolean loaded;
+        private boolean loadedFromWarmCache;
 
         Loader(CacheEntity entity, CheckedSupplier<BytesReference, IOException> loader) {
             this.entity = entity;
@@ -171,13 +296,30 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             return this.loaded;
         }
 
+        public boolean isLoadedFromWarmCache() {
+            return this.loadedFromWarmCache;
+        }
+
         @Override
         public BytesReference load(Key key) throws Exception {
-            BytesReference value = loader.get();
+            BytesReference value = loadFromWarmCache(key);
+            if (value != null) {
+                loadedFromWarmCache = true;
+            } else {
+                value = loader.get();
+            }
             entity.onCached(key, value);
             loaded = true;
             return value;
         }
+
+        /**
+         * Moves the entry for the given key from the warm tier back to the heap, if there is one.
+         */
+        @Nullable
+        private BytesReference loadFromWarmCache(Key key) {
+            return warmTier == null ? null : warmTier.remove(key);
+        }
     }
 
     /**
@@ -216,6 +358,21 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
          * Called when this entity instance is removed
          */
         void onRemoval(RemovalNotification<Key, BytesReference> notification);
+
+        /**
+         * Called after an evicted value was moved to the warm tier, where it takes the given number of bytes.
+         */
+        void onWarmCached(Key key, long sizeInBytes);
+
+        /**
+         * Called each time this entity has a cache miss that was served from the warm tier.
+         */
+        void onWarmHit();
+
+        /**
+         * Called when a value of this entity that takes the given number of bytes is removed from the warm tier.
+         */
+        void onWarmRemoval(Key key, long sizeInBytes);
     }
 
     static class Key implements Accountable {
@@ -316,6 +473,179 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         }
     }
 
+    /**
+     * The off-heap warm tier of the cache. Its memory is made of direct buffers that are cut into fixed size pages, and each value takes
+     * as many pages as it needs. The buffers are allocated when the warm tier runs out of free pages, until it reaches its size. The
+     * pages of a value are reused as soon as the value leaves the warm tier, so the warm tier never holds more direct memory than its
+     * size, regardless of when the garbage collector frees unreachable buffers. Once all buffers are allocated, the least recently added
+     * values are evicted to make room for new ones.
+     */
+    static final class WarmTier {
+
+        static final int PAGE_SIZE = 1024;
+        static final int PAGES_PER_BUFFER = 1024;
+
+        private final int pageCount;
+        @Nullable
+        private final TimeValue expire;
+        private final Predicate<Key> accepts;
+
+        // guarded by this
+        private final ByteBuffer[] buffers;
+        private int allocatedPageCount;
+        private final int[] freePages;
+        private int freePageCount;
+        // in insertion order, which is the order in which values are evicted
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+        private record Entry(int[] pages, int length, long addedNanos) {}
+
+        WarmTier(long sizeInBytes, @Nullable TimeValue expire, Predicate<Key> accepts) {
+            this.pageCount = Math.toIntExact(Math.max(1L, sizeInBytes / PAGE_SIZE));
+            this.expire = expire;
+            this.accepts = accepts;
+            this.buffers = new ByteBuffer[(pageCount + PAGES_PER_BUFFER - 1) / PAGES_PER_BUFFER];
+            this.freePages = new int[pageCount];
+        }
+
+        /**
+         * Copies the given value to the warm tier, evicting older values if there are not enough free pages. The value is dropped if the
+         * warm tier does not accept its key or if it is larger than the warm tier.
+         */
+        synchronized void put(Key key, BytesReference value) {
+            final int valuePageCount = (value.length() + PAGE_SIZE - 1) / PAGE_SIZE;
+            if (valuePageCount > pageCount || accepts.test(key) == false) {
+                return;
+            }
+            release(key, entries.remove(key));
+            while (freePageCount < valuePageCount && allocatedPageCount < pageCount) {
+                allocateBuffer();
+            }
+            for (Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator(); freePageCount < valuePageCount;) {
+                final Map.Entry<Key, Entry> eldest = iterator.next();
+                iterator.remove();
+                release(eldest.getKey(), eldest.getValue());
+            }
+            final int[] pages = new int[valuePageCount];
+            for (int i = 0; i < valuePageCount; i++) {
+                pages[i] = freePages[--freePageCount];
+            }
+            try {
+                final BytesRefIterator iterator = value.iterator();
+                int offset = 0;
+                for (BytesRef bytes = iterator.next(); bytes != null; bytes = iterator.next()) {
+                    for (int copied = 0; copied < bytes.length;) {
+                        final int length = Math.min(bytes.length - copied, PAGE_SIZE - offset % PAGE_SIZE);
+                        page(pages[offset / PAGE_SIZE]).put(offset % PAGE_SIZE, bytes.bytes, bytes.offset + copied, length);
+                        copied += length;
+                        offset += length;
+                    }
+                }
+            } catch (IOException e) {
+                // this is really an error since we don't do IO in our bytesreferences
+                throw new AssertionError("won't happen", e);
+            }
+            entries.put(key, new Entry(pages, value.length(), System.nanoTime()));
+            key.entity.onWarmCached(key, (long) valuePageCount * PAGE_SIZE);
+        }
+
+        /**
+         * Removes the value of the given key from the warm tier and returns a copy of it on the heap, or null if there is no such value.
+         */
+        @Nullable
+        synchronized BytesReference remove(Key key) {
+            final Entry entry = entries.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            final byte[] value = new byte[entry.length()];
+            for (int offset = 0; offset < value.length; offset += PAGE_SIZE) {
+                page(entry.pages()[offset / PAGE_SIZE]).get(0, value, offset, Math.min(PAGE_SIZE, value.length - offset));
+            }
+            release(key, entry);
+            return new BytesArray(value);
+        }
+
+        synchronized void invalidate(Key key) {
+            release(key, entries.remove(key));
+        }
+
+        synchronized void removeIf(Predicate<Key> predicate) {
+            for (Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext();) {
+                final Map.Entry<Key, Entry> entry = iterator.next();
+                if (predicate.test(entry.getKey())) {
+                    iterator.remove();
+                    release(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        /**
+         * Removes the values that were added longer ago than the expiry time.
+         */
+        synchronized void refresh() {
+            if (expire == null) {
+                return;
+            }
+            final long now = System.nanoTime();
+            for (Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext();) {
+                final Map.Entry<Key, Entry> entry = iterator.next();
+                if (now - entry.getValue().addedNanos() < expire.nanos()) {
+                    break;
+                }
+                iterator.remove();
+                release(entry.getKey(), entry.getValue());
+            }
+        }
+
+        synchronized void clear() {
+            removeIf(key -> true);
+        }
+
+        synchronized int count() {
+            return entries.size();
+        }
+
+        synchronized long freeBytes() {
+            return (long) (freePageCount + pageCount - allocatedPageCount) * PAGE_SIZE;
+        }
+
+        synchronized long allocatedBytes() {
+            return (long) allocatedPageCount * PAGE_SIZE;
+        }
+
+        /**
+         * Allocates the next buffer and adds its pages to the free pages, in an order that hands out its first page first.
+         */
+        private void allocateBuffer() {
+            assert Thread.holdsLock(this);
+            final int bufferPageCount = Math.min(PAGES_PER_BUFFER, pageCount - allocatedPageCount);
+            buffers[allocatedPageCount / PAGES_PER_BUFFER] = ByteBuffer.allocateDirect(bufferPageCount * PAGE_SIZE);
+            for (int i = bufferPageCount - 1; i >= 0; i--) {
+                freePages[freePageCount++] = allocatedPageCount + i;
+            }
+            allocatedPageCount += bufferPageCount;
+        }
+
+        private void release(Key key, @Nullable Entry entry) {
+            assert Thread.holdsLock(this);
+            if (entry != null) {
+                for (int page : entry.pages()) {
+                    freePages[freePageCount++] = page;
+                }
+                key.entity.onWarmRemoval(key, (long) entry.pages().length * PAGE_SIZE);
+            }
+        }
+
+        /**
+         * A view of the given page, whose position is the start of the page.
+         */
+        private ByteBuffer page(int page) {
+            final int offset = (page % PAGES_PER_BUFFER) * PAGE_SIZE;
+            return buffers[page / PAGES_PER_BUFFER].slice(offset, PAGE_SIZE);
+        }
+    }
+
     synchronized void cleanCache() {
         final Set<CleanupKey> currentKeysToClean = new HashSet<>();
         final Set<Object> currentFullClean = new HashSet<>();
@@ -330,19 +660,23 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             }
         }
         if (currentKeysToClean.isEmpty() == false || currentFullClean.isEmpty() == false) {
+            final Predicate<Key> toClean = key -> currentFullClean.contains(key.entity.getCacheIdentity())
+                || currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey));
             for (Iterator<Key> iterator = cache.keys().iterator(); iterator.hasNext();) {
-                Key key = iterator.next();
-                if (currentFullClean.contains(key.entity.getCacheIdentity())) {
+                if (toClean.test(iterator.next())) {
                     iterator.remove();
-                } else {
-                    if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey))) {
-                        iterator.remove();
-                    }
                 }
             }
+            if (warmTier != null) {
+                warmTier.removeIf(toClean);
+            }
         }
 
         cache.refresh();
+        moveEvictedEntries();
+        if (warmTier != null) {
+            warmTier.refresh();
+        }
     }
 
     /**
@@ -356,6 +690,20 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         return cache.keys();
     }
 
+    /**
+     * Returns the current size of the warm tier of the cache
+     */
+    int warmCount() {
+        return warmTier == null ? 0 : warmTier.count();
+    }
+
+    /**
+     * Returns the number of bytes of the warm tier that are not used by any entry
+     */
+    long warmFreeBytes() {
+        return warmTier == null ? 0L : warmTier.freeBytes();
+    }
+
     int numRegisteredCloseListeners() { // for testing
         return registeredClosedListeners.size();
     }
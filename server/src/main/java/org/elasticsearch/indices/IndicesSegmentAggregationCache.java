@@ -0,0 +1,245 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalListener;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the shard-level aggregation results of individual segments. Unlike the {@link IndicesRequestCache}, which is keyed by the
+ * top-level reader and so is invalidated by every refresh, entries are keyed by the reader of each segment, which only changes when the
+ * segment is merged away or documents are deleted from it. When the shard-level request cache misses, only the segments without a cached
+ * result are collected and their results are merged with the cached results of the other segments through a partial reduce.
+ * <p>
+ * Only aggregations whose partial reduce of per-segment results is exactly the same as collecting all segments at once can be cached this
+ * way. Aggregations such as {@code terms} that prune their results to the top buckets of the shard are not. Caching is opted into with an
+ * index setting since it trades some extra work on the first request for cheaper requests after a refresh.
+ */
+public final class IndicesSegmentAggregationCache
+    implements
+        RemovalListener<IndicesSegmentAggregationCache.Key, BytesReference>,
+        Closeable {
+
+    public static final Setting<Boolean> INDEX_CACHE_SEGMENT_AGGREGATIONS_ENABLED_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_aggregations.enable",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    public static final Setting<ByteSizeValue> INDICES_CACHE_SEGMENT_AGGREGATIONS_SIZE = Setting.memorySizeSetting(
+        "indices.requests.cache.segment_aggregations.size",
+        "1%",
+        Property.NodeScope
+    );
+
+    /**
+     * The aggregations whose per-segment results reduce to exactly the result of collecting the whole shard.
+     */
+    private static final Set<String> CACHEABLE_AGGREGATIONS = Set.of(
+        "avg",
+        "date_histogram",
+        "date_range",
+        "extended_stats",
+        "filter",
+        "filters",
+        "histogram",
+        "max",
+        "min",
+        "range",
+        "stats",
+        "sum",
+        "value_count"
+    );
+
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final Cache<Key, BytesReference> cache;
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysByReader = ConcurrentCollections.newConcurrentMap();
+
+    IndicesSegmentAggregationCache(Settings settings, NamedWriteableRegistry namedWriteableRegistry) {
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.cache = CacheBuilder.<Key, BytesReference>builder()
+            .setMaximumWeight(INDICES_CACHE_SEGMENT_AGGREGATIONS_SIZE.get(settings).getBytes())
+            .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
+            .removalListener(this)
+            .build();
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
+        final Key key = notification.getKey();
+        final Set<Key> keys = keysByReader.get(key.readerCacheKey);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Can the aggregations of this search be cached per segment? The caller must have checked that the request can be cached at all.
+     */
+    static boolean canCache(SearchContext context) {
+        if (context.aggregations() == null || context.request().source() == null || context.request().source().aggregations() == null) {
+            return false;
+        }
+        if (context.indexShard().indexSettings().getValue(INDEX_CACHE_SEGMENT_AGGREGATIONS_ENABLED_SETTING) == false) {
+            return false;
+        }
+        if (context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        if (context.aggregations().factories().context() == null
+            || context.aggregations().factories().context().isInSortOrderExecutionRequired()) {
+            return false;
+        }
+        return allCacheable(context.request().source().aggregations().getAggregatorFactories());
+    }
+
+    private static boolean allCacheable(Collection<AggregationBuilder> builders) {
+        for (AggregationBuilder builder : builders) {
+            if (CACHEABLE_AGGREGATIONS.contains(builder.getType()) == false || allCacheable(builder.getSubAggregations()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a view of this cache for a single shard request.
+     *
+     * @param requestCacheKey the same key that the {@link IndicesRequestCache} uses for this request
+     */
+    ForRequest forRequest(MappingLookup.CacheKey mappingCacheKey, BytesReference requestCacheKey, AggregatorFactories.Builder builders) {
+        return new ForRequest(mappingCacheKey, requestCacheKey, builders);
+    }
+
+    /**
+     * Number of cached segment results, for testing.
+     */
+    long count() {
+        return cache.count();
+    }
+
+    /**
+     * The cached segment results of a single shard request.
+     */
+    public final class ForRequest {
+        private final MappingLookup.CacheKey mappingCacheKey;
+        private final BytesReference requestCacheKey;
+        private final AggregatorFactories.Builder builders;
+
+        private ForRequest(MappingLookup.CacheKey mappingCacheKey, BytesReference requestCacheKey, AggregatorFactories.Builder builders) {
+            this.mappingCacheKey = mappingCacheKey;
+            this.requestCacheKey = requestCacheKey;
+            this.builders = builders;
+        }
+
+        /**
+         * The aggregations of the request, used to reduce the per-segment results.
+         */
+        public AggregatorFactories.Builder builders() {
+            return builders;
+        }
+
+        /**
+         * Returns the cached aggregation results of the given segment or {@code null} if there are none.
+         */
+        @Nullable
+        public InternalAggregations get(LeafReaderContext ctx) throws IOException {
+            final IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+            if (cacheHelper == null) {
+                return null;
+            }
+            final BytesReference bytes = cache.get(new Key(cacheHelper.getKey(), mappingCacheKey, requestCacheKey));
+            if (bytes == null) {
+                return null;
+            }
+            try (StreamInput in = new NamedWriteableAwareStreamInput(bytes.streamInput(), namedWriteableRegistry)) {
+                return InternalAggregations.readFrom(in);
+            }
+        }
+
+        /**
+         * Caches the aggregation results of the given segment. Results are cached in their serialized form since reducing aggregations
+         * may modify them.
+         */
+        public void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException {
+            final IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+            if (cacheHelper == null) {
+                return;
+            }
+            final BytesReference bytes;
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                aggregations.writeTo(out);
+                bytes = out.copyBytes();
+            }
+            final Key key = new Key(cacheHelper.getKey(), mappingCacheKey, requestCacheKey);
+            keysByReader.computeIfAbsent(cacheHelper.getKey(), readerCacheKey -> {
+                cacheHelper.addClosedListener(IndicesSegmentAggregationCache.this::onReaderClosed);
+                return ConcurrentCollections.newConcurrentSet();
+            }).add(key);
+            cache.put(key, bytes);
+        }
+    }
+
+    private void onReaderClosed(IndexReader.CacheKey readerCacheKey) {
+        final Set<Key> keys = keysByReader.remove(readerCacheKey);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    record Key(IndexReader.CacheKey readerCacheKey, MappingLookup.CacheKey mappingCacheKey, BytesReference requestCacheKey) {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        Key {
+            Objects.requireNonNull(readerCacheKey);
+            Objects.requireNonNull(mappingCacheKey);
+            Objects.requireNonNull(requestCacheKey);
+        }
+
+        long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + requestCacheKey.length();
+        }
+    }
+}
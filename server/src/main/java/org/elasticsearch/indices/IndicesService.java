@@ -226,7 +226,9 @@ public class IndicesService extends AbstractLifecycleComponent
     private final IndexingMemoryController indexingMemoryController;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
+    final IndicesSegmentAggregationCache segmentAggregationCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
+    private final IndicesStoredFieldsCache indicesStoredFieldsCache;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, IndexStorePlugin.DirectoryFactory> directoryFactories;
@@ -295,6 +297,7 @@ public class IndicesService extends AbstractLifecycleComponent
         this.indicesQueryCache = new IndicesQueryCache(settings);
         this.mapperRegistry = mapperRegistry;
         this.namedWriteableRegistry = namedWriteableRegistry;
+        this.segmentAggregationCache = new IndicesSegmentAggregationCache(settings, namedWriteableRegistry);
         indexingMemoryController = new IndexingMemoryController(
             settings,
             threadPool,
@@ -303,6 +306,7 @@ public class IndicesService extends AbstractLifecycleComponent
         );
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
+        this.indicesStoredFieldsCache = new IndicesStoredFieldsCache(settings, circuitBreakerService.getBreaker(CircuitBreaker.ACCOUNTING));
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
         this.clusterService = clusterService;
@@ -350,7 +354,9 @@ public class IndicesService extends AbstractLifecycleComponent
                     indicesFieldDataCache,
                     cacheCleaner,
                     indicesRequestCache,
-                    indicesQueryCache
+                    segmentAggregationCache,
+                    indicesQueryCache,
+                    indicesStoredFieldsCache
                 );
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
@@ -457,7 +463,11 @@ public class IndicesService extends AbstractLifecycleComponent
             }
         }
 
-        return new NodeIndicesStats(commonStats, statsByShard(this, flags));
+        return new NodeIndicesStats(
+            commonStats,
+            statsByShard(this, flags),
+            indicesStoredFieldsCache.isEnabled() ? indicesStoredFieldsCache.stats() : null
+        );
     }
 
     static Map<Index, List<IndexShardStats>> statsByShard(final IndicesService indicesService, final CommonStatsFlags flags) {
@@ -720,6 +730,7 @@ public class IndicesService extends AbstractLifecycleComponent
             clusterService,
             client,
             indicesQueryCache,
+            indicesStoredFieldsCache,
             mapperRegistry,
             indicesFieldDataCache,
             namedWriteableRegistry,
@@ -1491,6 +1502,17 @@ public class IndicesService extends AbstractLifecycleComponent
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        if (IndicesSegmentAggregationCache.canCache(context)) {
+            // only used if the shard-level result isn't cached, to skip collecting the segments that didn't change since they were cached
+            context.aggregations()
+                .segmentCache(
+                    segmentAggregationCache.forRequest(
+                        context.getSearchExecutionContext().mappingCacheKey(),
+                        cacheKey,
+                        context.request().source().aggregations()
+                    )
+                );
+        }
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
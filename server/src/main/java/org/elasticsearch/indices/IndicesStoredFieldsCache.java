@@ -0,0 +1,334 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FilterDirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalListener;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A node level cache of the decompressed stored fields of documents, shared by all shards of the node. Fetching a document from a
+ * segment decompresses the whole block of documents that it was stored in, so that fetching the same hot documents over and over, as
+ * small searches and gets by id do, spends most of its time decompressing. Entries are keyed by the core of the segment and the doc id,
+ * so they stay valid across refreshes that only add deletes, and are removed when the segment is closed.
+ * <p>
+ * The cache sits below all other reader wrappers of a shard, see {@link #wrap(DirectoryReader)}, so that wrappers that filter the fields
+ * of a document are still applied to cached documents. It records all stored fields of a document and replays the ones that each visitor
+ * asks for. It is disabled by default and accounted against the {@link CircuitBreaker#ACCOUNTING accounting} circuit breaker.
+ */
+public final class IndicesStoredFieldsCache
+    implements
+        RemovalListener<IndicesStoredFieldsCache.Key, IndicesStoredFieldsCache.CachedDocument>,
+        Closeable {
+
+    public static final Setting<ByteSizeValue> INDICES_STORED_FIELDS_CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "indices.stored_fields_cache.size",
+        "0b",
+        Property.NodeScope
+    );
+
+    private static final String BREAKER_LABEL = "stored_fields_cache";
+
+    private final long maxSizeInBytes;
+    private final CircuitBreaker breaker;
+    private final Cache<Key, CachedDocument> cache;
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysByCore = ConcurrentCollections.newConcurrentMap();
+
+    IndicesStoredFieldsCache(Settings settings, CircuitBreaker breaker) {
+        this.maxSizeInBytes = INDICES_STORED_FIELDS_CACHE_SIZE_SETTING.get(settings).getBytes();
+        this.breaker = breaker;
+        this.cache = CacheBuilder.<Key, CachedDocument>builder()
+            .setMaximumWeight(maxSizeInBytes)
+            .weigher((k, v) -> v.ramBytesUsed)
+            .removalListener(this)
+            .build();
+    }
+
+    /**
+     * Is the cache enabled, ie. does it have a non-zero size?
+     */
+    public boolean isEnabled() {
+        return maxSizeInBytes > 0;
+    }
+
+    /**
+     * Wraps the given reader so that its stored fields are read through this cache, or returns it as is if the cache is disabled.
+     */
+    public DirectoryReader wrap(DirectoryReader reader) throws IOException {
+        return isEnabled() ? new StoredFieldsCachingDirectoryReader(reader, this) : reader;
+    }
+
+    public StoredFieldsCacheStats stats() {
+        final Cache.CacheStats stats = cache.stats();
+        return new StoredFieldsCacheStats(cache.weight(), cache.count(), stats.getHits(), stats.getMisses(), stats.getEvictions());
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, CachedDocument> notification) {
+        breaker.addWithoutBreaking(-notification.getValue().ramBytesUsed);
+        if (notification.getRemovalReason() == RemovalNotification.RemovalReason.REPLACED) {
+            // another thread cached the same document concurrently, the key is still in the cache
+            return;
+        }
+        final Key key = notification.getKey();
+        final Set<Key> keys = keysByCore.get(key.coreCacheKey);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    void document(LeafReader reader, int docId, StoredFieldVisitor visitor) throws IOException {
+        final IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        if (cacheHelper == null) {
+            reader.document(docId, visitor);
+            return;
+        }
+        final Key key = new Key(cacheHelper.getKey(), docId);
+        CachedDocument document = cache.get(key);
+        if (document == null) {
+            final RecordingVisitor recorder = new RecordingVisitor();
+            reader.document(docId, recorder);
+            document = recorder.build();
+            put(cacheHelper, key, document);
+        }
+        document.visit(visitor);
+    }
+
+    private void put(IndexReader.CacheHelper cacheHelper, Key key, CachedDocument document) {
+        if (document.ramBytesUsed > maxSizeInBytes) {
+            return;
+        }
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(document.ramBytesUsed, BREAKER_LABEL);
+        } catch (CircuitBreakingException e) {
+            // the document was loaded anyway, so just don't cache it
+            return;
+        }
+        final Set<Key> keys = keysByCore.computeIfAbsent(cacheHelper.getKey(), coreCacheKey -> {
+            cacheHelper.addClosedListener(this::onCoreClosed);
+            return ConcurrentCollections.newConcurrentSet();
+        });
+        keys.add(key);
+        cache.put(key, document);
+        if (keysByCore.get(cacheHelper.getKey()) != keys) {
+            // the core was closed concurrently and may have invalidated its keys before this one was cached
+            cache.invalidate(key);
+        }
+    }
+
+    private void onCoreClosed(IndexReader.CacheKey coreCacheKey) {
+        final Set<Key> keys = keysByCore.remove(coreCacheKey);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Number of cached documents, for testing.
+     */
+    long count() {
+        return cache.count();
+    }
+
+    record Key(IndexReader.CacheKey coreCacheKey, int docId) {}
+
+    /**
+     * The stored fields of a document, in the order in which they were stored.
+     */
+    static final class CachedDocument {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CachedDocument.class)
+            + RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        private final FieldInfo[] fieldInfos;
+        private final Object[] values;
+        private final long ramBytesUsed;
+
+        private CachedDocument(FieldInfo[] fieldInfos, Object[] values, long ramBytesUsed) {
+            this.fieldInfos = fieldInfos;
+            this.values = values;
+            this.ramBytesUsed = ramBytesUsed;
+        }
+
+        void visit(StoredFieldVisitor visitor) throws IOException {
+            for (int i = 0; i < fieldInfos.length; i++) {
+                final FieldInfo fieldInfo = fieldInfos[i];
+                switch (visitor.needsField(fieldInfo)) {
+                    case YES -> {
+                        final Object value = values[i];
+                        if (value instanceof byte[] bytes) {
+                            visitor.binaryField(fieldInfo, bytes);
+                        } else if (value instanceof String string) {
+                            visitor.stringField(fieldInfo, string);
+                        } else if (value instanceof Integer integer) {
+                            visitor.intField(fieldInfo, integer);
+                        } else if (value instanceof Long l) {
+                            visitor.longField(fieldInfo, l);
+                        } else if (value instanceof Float f) {
+                            visitor.floatField(fieldInfo, f);
+                        } else {
+                            visitor.doubleField(fieldInfo, (Double) value);
+                        }
+                    }
+                    case NO -> {}
+                    case STOP -> {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records all stored fields of a document.
+     */
+    private static final class RecordingVisitor extends StoredFieldVisitor {
+
+        private static final long NUMERIC_VALUE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Long.class);
+
+        private final List<FieldInfo> fieldInfos = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+        private long ramBytesUsed = CachedDocument.BASE_RAM_BYTES_USED;
+
+        @Override
+        public Status needsField(FieldInfo fieldInfo) {
+            return Status.YES;
+        }
+
+        @Override
+        public void binaryField(FieldInfo fieldInfo, byte[] value) {
+            add(fieldInfo, value, RamUsageEstimator.sizeOf(value));
+        }
+
+        @Override
+        public void stringField(FieldInfo fieldInfo, String value) {
+            add(fieldInfo, value, RamUsageEstimator.sizeOf(value));
+        }
+
+        @Override
+        public void intField(FieldInfo fieldInfo, int value) {
+            add(fieldInfo, value, NUMERIC_VALUE_RAM_BYTES_USED);
+        }
+
+        @Override
+        public void longField(FieldInfo fieldInfo, long value) {
+            add(fieldInfo, value, NUMERIC_VALUE_RAM_BYTES_USED);
+        }
+
+        @Override
+        public void floatField(FieldInfo fieldInfo, float value) {
+            add(fieldInfo, value, NUMERIC_VALUE_RAM_BYTES_USED);
+        }
+
+        @Override
+        public void doubleField(FieldInfo fieldInfo, double value) {
+            add(fieldInfo, value, NUMERIC_VALUE_RAM_BYTES_USED);
+        }
+
+        private void add(FieldInfo fieldInfo, Object value, long valueRamBytesUsed) {
+            fieldInfos.add(fieldInfo);
+            values.add(value);
+            ramBytesUsed += 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF + valueRamBytesUsed;
+        }
+
+        CachedDocument build() {
+            return new CachedDocument(fieldInfos.toArray(new FieldInfo[0]), values.toArray(), ramBytesUsed);
+        }
+    }
+
+    /**
+     * A {@link FilterDirectoryReader} that reads the stored fields of its segments through a {@link IndicesStoredFieldsCache}.
+     */
+    static final class StoredFieldsCachingDirectoryReader extends FilterDirectoryReader {
+
+        private final IndicesStoredFieldsCache cache;
+
+        StoredFieldsCachingDirectoryReader(DirectoryReader in, IndicesStoredFieldsCache cache) throws IOException {
+            super(in, new SubReaderWrapper() {
+                @Override
+                public LeafReader wrap(LeafReader reader) {
+                    return new StoredFieldsCachingLeafReader(reader, cache);
+                }
+            });
+            this.cache = cache;
+        }
+
+        @Override
+        protected DirectoryReader doWrapDirectoryReader(DirectoryReader in) throws IOException {
+            return new StoredFieldsCachingDirectoryReader(in, cache);
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return in.getReaderCacheHelper();
+        }
+    }
+
+    static final class StoredFieldsCachingLeafReader extends SequentialStoredFieldsLeafReader {
+
+        private final IndicesStoredFieldsCache cache;
+
+        StoredFieldsCachingLeafReader(LeafReader in, IndicesStoredFieldsCache cache) {
+            super(in);
+            this.cache = cache;
+        }
+
+        @Override
+        public void document(int docID, StoredFieldVisitor visitor) throws IOException {
+            cache.document(in, docID, visitor);
+        }
+
+        @Override
+        protected StoredFieldsReader doGetSequentialStoredFieldsReader(StoredFieldsReader reader) {
+            // sequential reads of dense hits decompress each block only once anyway, so they don't go through the cache
+            return reader;
+        }
+
+        @Override
+        public CacheHelper getCoreCacheHelper() {
+            return in.getCoreCacheHelper();
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return in.getReaderCacheHelper();
+        }
+    }
+}
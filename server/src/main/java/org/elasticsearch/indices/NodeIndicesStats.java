@@ -8,6 +8,7 @@
 
 package org.elasticsearch.indices;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.stats.CommonStats;
 import org.elasticsearch.action.admin.indices.stats.IndexShardStats;
 import org.elasticsearch.action.admin.indices.stats.ShardStats;
@@ -51,6 +52,8 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
 
     private final CommonStats stats;
     private final Map<Index, List<IndexShardStats>> statsByShard;
+    @Nullable
+    private final StoredFieldsCacheStats storedFieldsCacheStats;
 
     public NodeIndicesStats(StreamInput in) throws IOException {
         stats = new CommonStats(in);
@@ -66,10 +69,20 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
             }
             statsByShard.put(index, indexShardStats);
         }
+        if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+            storedFieldsCacheStats = in.readOptionalWriteable(StoredFieldsCacheStats::new);
+        } else {
+            storedFieldsCacheStats = null;
+        }
     }
 
-    public NodeIndicesStats(CommonStats oldStats, Map<Index, List<IndexShardStats>> statsByShard) {
+    public NodeIndicesStats(
+        CommonStats oldStats,
+        Map<Index, List<IndexShardStats>> statsByShard,
+        @Nullable StoredFieldsCacheStats storedFieldsCacheStats
+    ) {
         this.statsByShard = Objects.requireNonNull(statsByShard);
+        this.storedFieldsCacheStats = storedFieldsCacheStats;
 
         // make a total common stats from old ones and current ones
         this.stats = oldStats;
@@ -172,10 +185,21 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
         return stats.getShards();
     }
 
+    /**
+     * The statistics of the node level stored fields cache, or {@code null} if it is disabled.
+     */
+    @Nullable
+    public StoredFieldsCacheStats getStoredFieldsCache() {
+        return storedFieldsCacheStats;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         stats.writeTo(out);
         out.writeMap(statsByShard, (o, k) -> k.writeTo(o), StreamOutput::writeList);
+        if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+            out.writeOptionalWriteable(storedFieldsCacheStats);
+        }
     }
 
     @Override
@@ -191,6 +215,9 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
         // "node" level
         builder.startObject(Fields.INDICES);
         stats.toXContent(builder, params);
+        if (storedFieldsCacheStats != null) {
+            storedFieldsCacheStats.toXContent(builder, params);
+        }
 
         if ("indices".equals(level)) {
             Map<Index, CommonStats> indexStats = createStatsByIndex();
@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Statistics about the node level {@link IndicesStoredFieldsCache}.
+ */
+public class StoredFieldsCacheStats implements Writeable, ToXContentFragment {
+
+    private final long memorySizeInBytes;
+    private final long cacheSize;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictions;
+
+    public StoredFieldsCacheStats(long memorySizeInBytes, long cacheSize, long hitCount, long missCount, long evictions) {
+        this.memorySizeInBytes = memorySizeInBytes;
+        this.cacheSize = cacheSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictions = evictions;
+    }
+
+    public StoredFieldsCacheStats(StreamInput in) throws IOException {
+        this(in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(memorySizeInBytes);
+        out.writeVLong(cacheSize);
+        out.writeVLong(hitCount);
+        out.writeVLong(missCount);
+        out.writeVLong(evictions);
+    }
+
+    public long getMemorySizeInBytes() {
+        return memorySizeInBytes;
+    }
+
+    public ByteSizeValue getMemorySize() {
+        return new ByteSizeValue(memorySizeInBytes);
+    }
+
+    /**
+     * The number of documents that are in the cache.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * The number of documents that were read from the cache.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of documents that had to be read from the segment.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The ratio of lookups that were served from the cache, or {@code 0} if there were no lookups.
+     */
+    public double getHitRatio() {
+        final long totalCount = hitCount + missCount;
+        return totalCount == 0 ? 0 : (double) hitCount / totalCount;
+    }
+
+    /**
+     * The number of documents that were evicted from the cache because it was full.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.STORED_FIELDS_CACHE);
+        builder.humanReadableField(Fields.MEMORY_SIZE_IN_BYTES, Fields.MEMORY_SIZE, getMemorySize());
+        builder.field(Fields.CACHE_SIZE, cacheSize);
+        builder.field(Fields.HIT_COUNT, hitCount);
+        builder.field(Fields.MISS_COUNT, missCount);
+        builder.field(Fields.HIT_RATIO, getHitRatio());
+        builder.field(Fields.EVICTIONS, evictions);
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StoredFieldsCacheStats that = (StoredFieldsCacheStats) o;
+        return memorySizeInBytes == that.memorySizeInBytes
+            && cacheSize == that.cacheSize
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && evictions == that.evictions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(memorySizeInBytes, cacheSize, hitCount, missCount, evictions);
+    }
+
+    static final class Fields {
+        static final String STORED_FIELDS_CACHE = "stored_fields_cache";
+        static final String MEMORY_SIZE = "memory_size";
+        static final String MEMORY_SIZE_IN_BYTES = "memory_size_in_bytes";
+        static final String CACHE_SIZE = "cache_size";
+        static final String HIT_COUNT = "hit_count";
+        static final String MISS_COUNT = "miss_count";
+        static final String HIT_RATIO = "hit_ratio";
+        static final String EVICTIONS = "evictions";
+    }
+}
@@ -24,6 +24,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.Index;
@@ -33,9 +34,11 @@ import org.elasticsearch.index.fielddata.LeafFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable {
@@ -47,6 +50,16 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         new ByteSizeValue(-1),
         Property.NodeScope
     );
+
+    /**
+     * Whether a bounded cache only keeps new entries if they are loaded more often than the entries they would replace, see
+     * {@link Cache}. This has no effect if the size of the cache is unbounded, which is the default.
+     */
+    public static final Setting<Boolean> INDICES_FIELDDATA_CACHE_FREQUENCY_BASED_ADMISSION = Setting.boolSetting(
+        "indices.fielddata.cache.frequency_based_admission",
+        false,
+        Property.NodeScope
+    );
     private final IndexFieldDataCache.Listener indicesFieldDataCacheListener;
     private final Cache<Key, Accountable> cache;
 
@@ -55,7 +68,9 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final long sizeInBytes = INDICES_FIELDDATA_CACHE_SIZE_KEY.get(settings).getBytes();
         CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder().removalListener(this);
         if (sizeInBytes > 0) {
-            cacheBuilder.setMaximumWeight(sizeInBytes).weigher(new FieldDataWeigher());
+            cacheBuilder.setMaximumWeight(sizeInBytes)
+                .weigher(new FieldDataWeigher())
+                .setFrequencyBasedAdmission(INDICES_FIELDDATA_CACHE_FREQUENCY_BASED_ADMISSION.get(settings));
         }
         cache = cacheBuilder.build();
     }
@@ -111,6 +126,8 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final String fieldName;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        // weakly referenced so that we neither retain evicted global field data nor the readers that it was loaded from
+        private final Map<ShardId, WeakReference<IndexFieldData<?>>> lastLoadedGlobals = ConcurrentCollections.newConcurrentMap();
 
         IndexFieldCache(Logger logger, final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
             this.logger = logger;
@@ -162,7 +179,8 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             final Accountable accountable = cache.computeIfAbsent(key, k -> {
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
-                final Accountable ifd = (Accountable) indexFieldData.loadGlobalDirect(indexReader);
+                final IndexFieldData<?> global = indexFieldData.loadGlobalDirect(indexReader);
+                final Accountable ifd = (Accountable) global;
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, ifd);
@@ -171,11 +189,25 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                         logger.error("Failed to call listener on global ordinals loading", e);
                     }
                 }
+                if (shardId != null) {
+                    lastLoadedGlobals.put(shardId, new WeakReference<>(global));
+                }
                 return ifd;
             });
             return (IFD) accountable;
         }
 
+        @Override
+        public IndexFieldData<?> lastLoadedGlobal(ShardId shardId) {
+            final WeakReference<IndexFieldData<?>> reference = lastLoadedGlobals.get(shardId);
+            return reference == null ? null : reference.get();
+        }
+
+        @Override
+        public void clearShard(ShardId shardId) {
+            lastLoadedGlobals.remove(shardId);
+        }
+
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
@@ -184,6 +216,7 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
         @Override
         public void clear() {
+            lastLoadedGlobals.clear();
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     cache.invalidate(key);
@@ -195,6 +228,9 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
         @Override
         public void clear(String fieldName) {
+            if (this.fieldName.equals(fieldName)) {
+                lastLoadedGlobals.clear();
+            }
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     if (key.indexCache.fieldName.equals(fieldName)) {
@@ -9,6 +9,7 @@
 package org.elasticsearch.ingest;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.core.Tuple;
 
 import java.util.ArrayList;
@@ -16,6 +17,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
@@ -36,6 +39,7 @@ public class CompoundProcessor implements Processor {
     private final List<Tuple<Processor, IngestMetric>> processorsWithMetrics;
     private final LongSupplier relativeTimeProvider;
     private final boolean isAsync;
+    private final boolean supportsBatchExecution;
 
     CompoundProcessor(LongSupplier relativeTimeProvider, boolean ignoreFailure, Processor... processor) {
         this(ignoreFailure, Arrays.asList(processor), Collections.emptyList(), relativeTimeProvider);
@@ -62,6 +66,7 @@ public class CompoundProcessor implements Processor {
         this.relativeTimeProvider = relativeTimeProvider;
         this.processorsWithMetrics = new ArrayList<>(processors.size());
         this.isAsync = flattenProcessors().stream().anyMatch(Processor::isAsync);
+        this.supportsBatchExecution = processors.stream().anyMatch(Processor::supportsBatchExecution);
         processors.forEach(p -> processorsWithMetrics.add(new Tuple<>(p, new IngestMetric())));
     }
 
@@ -147,6 +152,127 @@ public class CompoundProcessor implements Processor {
         innerExecute(0, ingestDocument, handler);
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return supportsBatchExecution;
+    }
+
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        final int[] slots = new int[ingestDocuments.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        innerExecuteBatch(0, ingestDocuments, slots, handler);
+    }
+
+    /**
+     * Executes the given documents through the processors from {@code currentProcessor} onwards, one processor at a time for the whole
+     * batch. Documents that fail leave the batch and continue on their own, see {@link #executeOnFailureOuter}. Like
+     * {@link #innerExecute}, it iterates over the processors that complete the batch before they return and only continues from the
+     * callback of a processor that completes the batch later.
+     *
+     * @param slots the positions of the documents in the batch that was originally passed to the handler
+     */
+    void innerExecuteBatch(int currentProcessor, List<IngestDocument> ingestDocuments, int[] slots, BatchHandler handler) {
+        Batch batch = new Batch(ingestDocuments, slots);
+        while (batch != null) {
+            if (batch.ingestDocuments().isEmpty()) {
+                return;
+            }
+            if (currentProcessor == processorsWithMetrics.size()) {
+                for (int i = 0; i < batch.slots().length; i++) {
+                    handler.accept(batch.slots()[i], batch.ingestDocuments().get(i), null);
+                }
+                return;
+            }
+            if (batch.ingestDocuments().size() == 1) {
+                final int slot = batch.slots()[0];
+                innerExecute(currentProcessor, batch.ingestDocuments().get(0), (result, e) -> handler.accept(slot, result, e));
+                return;
+            }
+            batch = executeBatchStep(currentProcessor, batch, handler);
+            currentProcessor++;
+        }
+    }
+
+    /**
+     * The documents of a batch and their positions in the batch that was originally passed to the handler.
+     */
+    private record Batch(List<IngestDocument> ingestDocuments, int[] slots) {}
+
+    /**
+     * Executes the processor at {@code currentProcessor} for the given batch.
+     *
+     * @return the documents that continue with the next processor if the processor completed all documents before it returned, or
+     *         {@code null} if it did not, in which case the callback of the document that completes last continues with them
+     */
+    private Batch executeBatchStep(int currentProcessor, Batch batch, BatchHandler handler) {
+        final List<IngestDocument> ingestDocuments = batch.ingestDocuments();
+        final int[] slots = batch.slots();
+        final Processor processor = processorsWithMetrics.get(currentProcessor).v1();
+        final IngestMetric metric = processorsWithMetrics.get(currentProcessor).v2();
+        final IngestDocument[] results = new IngestDocument[ingestDocuments.size()];
+        final AtomicIntegerArray completed = new AtomicIntegerArray(results.length);
+        final CountDown countDown = new CountDown(results.length);
+        // the caller and the callback of the document that completes last both flip this, the one that comes second continues
+        final AtomicBoolean handOff = new AtomicBoolean();
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        for (int i = 0; i < results.length; i++) {
+            metric.preIngest();
+        }
+        final BatchHandler batchHandler = (slot, result, e) -> {
+            if (completed.compareAndSet(slot, 0, 1) == false) {
+                assert false : "document [" + slot + "] of the batch completed more than once";
+                return;
+            }
+            // split the time of the batch evenly across its documents rather than counting it once per document
+            metric.postIngest((relativeTimeProvider.getAsLong() - startTimeInNanos) / results.length);
+            if (e != null) {
+                final int originalSlot = slots[slot];
+                executeOnFailureOuter(
+                    currentProcessor,
+                    ingestDocuments.get(slot),
+                    (r, ex) -> handler.accept(originalSlot, r, ex),
+                    processor,
+                    metric,
+                    e
+                );
+            } else if (result == null) {
+                handler.accept(slots[slot], null, null);
+            } else {
+                results[slot] = result;
+            }
+            if (countDown.countDown() && handOff.getAndSet(true)) {
+                final Batch remaining = remaining(results, slots);
+                innerExecuteBatch(currentProcessor + 1, remaining.ingestDocuments(), remaining.slots(), handler);
+            }
+        };
+        try {
+            processor.executeBatch(ingestDocuments, batchHandler);
+        } catch (Exception e) {
+            // fail the documents that the processor did not complete before it threw, the others went on already
+            for (int i = 0; i < results.length; i++) {
+                if (completed.get(i) == 0) {
+                    batchHandler.accept(i, null, e);
+                }
+            }
+        }
+        return handOff.getAndSet(true) ? remaining(results, slots) : null;
+    }
+
+    private static Batch remaining(IngestDocument[] results, int[] slots) {
+        final List<IngestDocument> remaining = new ArrayList<>(results.length);
+        final int[] remainingSlots = new int[results.length];
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                remainingSlots[remaining.size()] = slots[i];
+                remaining.add(results[i]);
+            }
+        }
+        return new Batch(remaining, Arrays.copyOf(remainingSlots, remaining.size()));
+    }
+
     void innerExecute(int currentProcessor, IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
         if (currentProcessor == processorsWithMetrics.size()) {
             handler.accept(ingestDocument, null);
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.LongSupplier;
@@ -136,6 +137,68 @@ public class ConditionalProcessor extends AbstractProcessor implements WrappingP
         }
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return processor.supportsBatchExecution();
+    }
+
+    /**
+     * Evaluates the condition for each document and passes the documents that match it to the wrapped processor as one batch. The
+     * documents that do not match, or whose condition fails to evaluate, are handed back right away.
+     */
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        final List<IngestDocument> matching = new ArrayList<>(ingestDocuments.size());
+        final int[] slots = new int[ingestDocuments.size()];
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            final boolean matches;
+            try {
+                matches = evaluate(ingestDocument);
+            } catch (Exception e) {
+                handler.accept(i, null, e);
+                continue;
+            }
+            if (matches) {
+                slots[matching.size()] = i;
+                matching.add(ingestDocument);
+            } else {
+                handler.accept(i, ingestDocument, null);
+            }
+        }
+        if (matching.isEmpty()) {
+            return;
+        }
+
+        final AtomicIntegerArray completed = new AtomicIntegerArray(matching.size());
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        for (int i = 0; i < matching.size(); i++) {
+            metric.preIngest();
+        }
+        final BatchHandler batchHandler = (slot, result, e) -> {
+            if (completed.compareAndSet(slot, 0, 1) == false) {
+                assert false : "document [" + slot + "] of the batch completed more than once";
+                return;
+            }
+            // split the time of the batch evenly across its documents, like CompoundProcessor does
+            metric.postIngest((relativeTimeProvider.getAsLong() - startTimeInNanos) / matching.size());
+            if (e != null) {
+                metric.ingestFailed();
+            }
+            handler.accept(slots[slot], result, e);
+        };
+        try {
+            processor.executeBatch(matching, batchHandler);
+        } catch (Exception e) {
+            // fail the documents that the processor did not complete before it threw
+            for (int i = 0; i < matching.size(); i++) {
+                if (completed.get(i) == 0) {
+                    batchHandler.accept(i, null, e);
+                }
+            }
+        }
+    }
+
     boolean evaluate(IngestDocument ingestDocument) {
         IngestConditionalScript script = precompiledConditionScript;
         if (script == null) {
@@ -507,18 +507,41 @@ public final class ConfigurationUtils {
                 Script script = new Script(ScriptType.INLINE, DEFAULT_TEMPLATE_LANG, propertyValue, Collections.emptyMap());
                 return scriptService.compile(script, TemplateScript.CONTEXT);
             } else {
-                return (params) -> new TemplateScript(params) {
-                    @Override
-                    public String execute() {
-                        return propertyValue;
-                    }
-                };
+                return new ConstantTemplateScriptFactory(propertyValue);
             }
         } catch (Exception e) {
             throw ConfigurationUtils.newConfigurationException(processorType, processorTag, propertyName, e);
         }
     }
 
+    /**
+     * A {@link TemplateScript.Factory} for a template without any mustache expressions. It renders to its value whatever parameters it is
+     * given, so it creates its script once and shares it between all documents.
+     */
+    static final class ConstantTemplateScriptFactory implements TemplateScript.Factory {
+
+        private final TemplateScript script;
+
+        ConstantTemplateScriptFactory(String value) {
+            this.script = new TemplateScript(Collections.emptyMap()) {
+                @Override
+                public String execute() {
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public TemplateScript newInstance(Map<String, Object> params) {
+            return script;
+        }
+
+        @Override
+        public boolean isParameterIndependent() {
+            return true;
+        }
+    }
+
     private static void addMetadataToException(
         ElasticsearchException exception,
         String processorType,
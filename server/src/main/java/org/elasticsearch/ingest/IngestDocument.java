@@ -11,6 +11,7 @@ package org.elasticsearch.ingest;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.util.LazyMap;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.mapper.IdFieldMapper;
@@ -28,6 +29,7 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -697,6 +699,9 @@ public final class IngestDocument {
     }
 
     public String renderTemplate(TemplateScript.Factory template) {
+        if (template.isParameterIndependent()) {
+            return template.newInstance(Map.of()).execute();
+        }
         return template.newInstance(createTemplateModel()).execute();
     }
 
@@ -834,6 +839,39 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Executes the given pipeline for a batch of documents, see {@link Pipeline#executeBatch}. The handler is called once for each
+     * document, with its position in the given list.
+     */
+    static void executePipeline(Pipeline pipeline, List<IngestDocument> ingestDocuments, Processor.BatchHandler handler) {
+        final List<IngestDocument> batch = new ArrayList<>(ingestDocuments.size());
+        final int[] slots = new int[ingestDocuments.size()];
+        final Object[] previousPipelines = new Object[ingestDocuments.size()];
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (ingestDocument.executedPipelines.add(pipeline.getId())) {
+                previousPipelines[batch.size()] = ingestDocument.ingestMetadata.put("pipeline", pipeline.getId());
+                slots[batch.size()] = i;
+                batch.add(ingestDocument);
+            } else {
+                handler.accept(i, null, new IllegalStateException(PIPELINE_CYCLE_ERROR_MESSAGE + pipeline.getId()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        pipeline.executeBatch(batch, (slot, result, e) -> {
+            IngestDocument ingestDocument = batch.get(slot);
+            ingestDocument.executedPipelines.remove(pipeline.getId());
+            if (previousPipelines[slot] != null) {
+                ingestDocument.ingestMetadata.put("pipeline", previousPipelines[slot]);
+            } else {
+                ingestDocument.ingestMetadata.remove("pipeline");
+            }
+            handler.accept(slots[slot], result, e);
+        });
+    }
+
     /**
      * @return a pipeline stack; all pipelines that are in execution by this document in reverse order
      */
@@ -922,27 +960,61 @@ public final class IngestDocument {
         private final Object initialContext;
 
         private FieldPath(String path) {
+            ParsedFieldPath parsed = ParsedFieldPath.of(path);
+            this.pathElements = parsed.pathElements;
+            this.initialContext = parsed.ingest ? ingestMetadata : sourceAndMetadata;
+        }
+
+    }
+
+    /**
+     * A field path that has been split into its elements. Most processors access the same few paths for every document that they
+     * process, so parsed paths are cached rather than split again for every access. The callers must not modify the path elements.
+     */
+    private record ParsedFieldPath(boolean ingest, String[] pathElements) {
+
+        private static final int MAX_CACHED_PATHS = 512;
+        private static final Map<String, ParsedFieldPath> CACHE = ConcurrentCollections.newConcurrentMap();
+
+        static ParsedFieldPath of(String path) {
             if (Strings.isEmpty(path)) {
                 throw new IllegalArgumentException("path cannot be null nor empty");
             }
+            ParsedFieldPath parsed = CACHE.get(path);
+            if (parsed == null) {
+                parsed = parse(path);
+                if (CACHE.size() >= MAX_CACHED_PATHS) {
+                    // paths rendered from templates can be unique per document, so don't let them grow the cache without bounds. Only
+                    // one path makes room for the new one, clearing the whole cache would parse the paths that are still used again.
+                    Iterator<String> cachedPaths = CACHE.keySet().iterator();
+                    if (cachedPaths.hasNext()) {
+                        CACHE.remove(cachedPaths.next());
+                    }
+                }
+                CACHE.put(path, parsed);
+            }
+            return parsed;
+        }
+
+        private static ParsedFieldPath parse(String path) {
+            boolean ingest = false;
             String newPath;
             if (path.startsWith(INGEST_KEY_PREFIX)) {
-                initialContext = ingestMetadata;
+                ingest = true;
                 newPath = path.substring(INGEST_KEY_PREFIX.length(), path.length());
             } else {
-                initialContext = sourceAndMetadata;
                 if (path.startsWith(SOURCE_PREFIX)) {
                     newPath = path.substring(SOURCE_PREFIX.length(), path.length());
                 } else {
                     newPath = path;
                 }
             }
-            this.pathElements = newPath.split("\\.");
+            String[] pathElements = newPath.split("\\.");
             if (pathElements.length == 1 && pathElements[0].isEmpty()) {
                 throw new IllegalArgumentException("path [" + path + "] is not valid");
             }
+            return new ParsedFieldPath(ingest, pathElements);
         }
-
     }
 
     private static class ResolveResult {
@@ -73,6 +73,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.IntConsumer;
@@ -92,6 +93,11 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
 
     private static final Logger logger = LogManager.getLogger(IngestService.class);
 
+    /**
+     * The maximum number of documents of a bulk request that are passed together to pipelines that support batch execution.
+     */
+    static final int MAX_BATCH_SIZE = 128;
+
     private final ClusterService clusterService;
     private final ScriptService scriptService;
     private final Map<String, Processor.Factory> processorFactories;
@@ -671,6 +677,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 final AtomicInteger counter = new AtomicInteger(numberOfActionRequests);
+                final Map<String, List<PendingExecution>> batches = new HashMap<>();
                 int i = 0;
                 for (DocWriteRequest<?> actionRequest : actionRequests) {
                     IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
@@ -706,24 +713,53 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                         continue;
                     }
 
-                    executePipelines(
-                        i,
-                        pipelines.iterator(),
-                        hasFinalPipeline,
-                        indexRequest,
-                        onDropped,
-                        onFailure,
-                        counter,
-                        onCompletion,
-                        originalThread
-                    );
+                    if (supportsBatchExecution(pipelines.get(0))) {
+                        batches.computeIfAbsent(pipelines.get(0), k -> new ArrayList<>())
+                            .add(new PendingExecution(i, pipelines.iterator(), hasFinalPipeline, indexRequest));
+                    } else {
+                        executePipelines(
+                            i,
+                            pipelines.iterator(),
+                            hasFinalPipeline,
+                            indexRequest,
+                            onDropped,
+                            onFailure,
+                            counter,
+                            onCompletion,
+                            originalThread
+                        );
+                    }
 
                     i++;
                 }
+
+                batches.forEach((pipelineId, executions) -> {
+                    for (int from = 0; from < executions.size(); from += MAX_BATCH_SIZE) {
+                        executePipelinesBatch(
+                            pipelineId,
+                            executions.subList(from, Math.min(from + MAX_BATCH_SIZE, executions.size())),
+                            onDropped,
+                            onFailure,
+                            counter,
+                            onCompletion,
+                            originalThread
+                        );
+                    }
+                });
             }
         });
     }
 
+    /**
+     * The documents of a bulk request whose first pipeline runs in batches are collected before they are executed.
+     */
+    private record PendingExecution(int slot, Iterator<String> pipelines, boolean hasFinalPipeline, IndexRequest indexRequest) {}
+
+    private boolean supportsBatchExecution(String pipelineId) {
+        PipelineHolder holder = pipelines.get(pipelineId);
+        return holder != null && holder.pipeline.supportsBatchExecution();
+    }
+
     private void executePipelines(
         final int slot,
         final Iterator<String> it,
@@ -743,74 +779,234 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 throw new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
             }
             Pipeline pipeline = holder.pipeline;
-            String originalIndex = indexRequest.indices()[0];
-            innerExecute(slot, indexRequest, pipeline, onDropped, e -> {
-                if (e != null) {
-                    logger.debug(
-                        () -> format(
-                            "failed to execute pipeline [%s] for document [%s/%s]",
-                            pipelineId,
-                            indexRequest.index(),
-                            indexRequest.id()
-                        ),
-                        e
-                    );
-                    onFailure.accept(slot, e);
+            innerExecute(
+                slot,
+                indexRequest,
+                pipeline,
+                onDropped,
+                pipelineHandler(
+                    slot,
+                    pipelineId,
+                    it,
+                    hasFinalPipeline,
+                    indexRequest,
+                    onDropped,
+                    onFailure,
+                    counter,
+                    onCompletion,
+                    originalThread
+                )
+            );
+        } catch (Exception e) {
+            onPipelineFailure(slot, pipelineId, indexRequest, onFailure, counter, onCompletion, originalThread, e);
+        }
+    }
+
+    /**
+     * Executes the first pipeline of the given documents of a bulk request as one batch, and then the remaining pipelines of each
+     * document on its own.
+     */
+    private void executePipelinesBatch(
+        final String pipelineId,
+        final List<PendingExecution> executions,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        final List<Consumer<Exception>> handlers = new ArrayList<>(executions.size());
+        for (PendingExecution execution : executions) {
+            final String next = execution.pipelines().next();
+            assert next.equals(pipelineId);
+            handlers.add(
+                pipelineHandler(
+                    execution.slot(),
+                    pipelineId,
+                    execution.pipelines(),
+                    execution.hasFinalPipeline(),
+                    execution.indexRequest(),
+                    onDropped,
+                    onFailure,
+                    counter,
+                    onCompletion,
+                    originalThread
+                )
+            );
+        }
+        final PipelineHolder holder = pipelines.get(pipelineId);
+        if (holder == null) {
+            // the pipeline was removed since the documents were collected
+            final Exception e = new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
+            for (PendingExecution execution : executions) {
+                onPipelineFailure(
+                    execution.slot(),
+                    pipelineId,
+                    execution.indexRequest(),
+                    onFailure,
+                    counter,
+                    onCompletion,
+                    originalThread,
+                    e
+                );
+            }
+            return;
+        }
+        final Pipeline pipeline = holder.pipeline;
+
+        final long startTimeInNanos = System.nanoTime();
+        final List<PendingExecution> batch = new ArrayList<>(executions.size());
+        final List<Consumer<Exception>> batchHandlers = new ArrayList<>(executions.size());
+        final List<IngestDocument> ingestDocuments = new ArrayList<>(executions.size());
+        for (int i = 0; i < executions.size(); i++) {
+            final PendingExecution execution = executions.get(i);
+            final IngestDocument ingestDocument;
+            try {
+                ingestDocument = newIngestDocument(execution.indexRequest());
+            } catch (Exception e) {
+                onPipelineFailure(
+                    execution.slot(),
+                    pipelineId,
+                    execution.indexRequest(),
+                    onFailure,
+                    counter,
+                    onCompletion,
+                    originalThread,
+                    e
+                );
+                continue;
+            }
+            totalMetrics.preIngest();
+            batch.add(execution);
+            batchHandlers.add(handlers.get(i));
+            ingestDocuments.add(ingestDocument);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        final AtomicIntegerArray completed = new AtomicIntegerArray(batch.size());
+        final Processor.BatchHandler batchHandler = (i, result, e) -> {
+            if (completed.compareAndSet(i, 0, 1) == false) {
+                assert false : "document [" + i + "] of the batch completed more than once";
+                return;
+            }
+            handlePipelineResult(
+                batch.get(i).slot(),
+                batch.get(i).indexRequest(),
+                pipeline,
+                ingestDocuments.get(i),
+                result,
+                e,
+                // each document accounts for an equal share of the time of the batch
+                (System.nanoTime() - startTimeInNanos) / ingestDocuments.size(),
+                onDropped,
+                batchHandlers.get(i)
+            );
+        };
+        try {
+            IngestDocument.executePipeline(pipeline, ingestDocuments, batchHandler);
+        } catch (Exception e) {
+            // like executePipelines does for a single document, fail the documents that have not completed yet, otherwise the bulk
+            // request would wait for them forever
+            for (int i = 0; i < batch.size(); i++) {
+                if (completed.get(i) == 0) {
+                    batchHandler.accept(i, null, e);
                 }
+            }
+        }
+    }
 
-                Iterator<String> newIt = it;
-                boolean newHasFinalPipeline = hasFinalPipeline;
-                String newIndex = indexRequest.indices()[0];
+    /**
+     * Creates the handler that is called once a pipeline was executed for the given document, which executes the next pipeline of the
+     * document if there is one.
+     */
+    private Consumer<Exception> pipelineHandler(
+        final int slot,
+        final String pipelineId,
+        final Iterator<String> it,
+        final boolean hasFinalPipeline,
+        final IndexRequest indexRequest,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        String originalIndex = indexRequest.indices()[0];
+        return e -> {
+            if (e != null) {
+                logger.debug(
+                    () -> format(
+                        "failed to execute pipeline [%s] for document [%s/%s]",
+                        pipelineId,
+                        indexRequest.index(),
+                        indexRequest.id()
+                    ),
+                    e
+                );
+                onFailure.accept(slot, e);
+            }
 
-                if (Objects.equals(originalIndex, newIndex) == false) {
-                    if (hasFinalPipeline && it.hasNext() == false) {
-                        totalMetrics.ingestFailed();
-                        onFailure.accept(
-                            slot,
-                            new IllegalStateException("final pipeline [" + pipelineId + "] can't change the target index")
-                        );
+            Iterator<String> newIt = it;
+            boolean newHasFinalPipeline = hasFinalPipeline;
+            String newIndex = indexRequest.indices()[0];
+
+            if (Objects.equals(originalIndex, newIndex) == false) {
+                if (hasFinalPipeline && it.hasNext() == false) {
+                    totalMetrics.ingestFailed();
+                    onFailure.accept(slot, new IllegalStateException("final pipeline [" + pipelineId + "] can't change the target index"));
+                } else {
+                    indexRequest.isPipelineResolved(false);
+                    resolvePipelines(null, indexRequest, state.metadata());
+                    if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
+                        newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
+                        newHasFinalPipeline = true;
                     } else {
-                        indexRequest.isPipelineResolved(false);
-                        resolvePipelines(null, indexRequest, state.metadata());
-                        if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
-                            newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
-                            newHasFinalPipeline = true;
-                        } else {
-                            newIt = Collections.emptyIterator();
-                        }
+                        newIt = Collections.emptyIterator();
                     }
                 }
+            }
 
-                if (newIt.hasNext()) {
-                    executePipelines(
-                        slot,
-                        newIt,
-                        newHasFinalPipeline,
-                        indexRequest,
-                        onDropped,
-                        onFailure,
-                        counter,
-                        onCompletion,
-                        originalThread
-                    );
-                } else {
-                    if (counter.decrementAndGet() == 0) {
-                        onCompletion.accept(originalThread, null);
-                    }
-                    assert counter.get() >= 0;
+            if (newIt.hasNext()) {
+                executePipelines(
+                    slot,
+                    newIt,
+                    newHasFinalPipeline,
+                    indexRequest,
+                    onDropped,
+                    onFailure,
+                    counter,
+                    onCompletion,
+                    originalThread
+                );
+            } else {
+                if (counter.decrementAndGet() == 0) {
+                    onCompletion.accept(originalThread, null);
                 }
-            });
-        } catch (Exception e) {
-            logger.debug(
-                () -> format("failed to execute pipeline [%s] for document [%s/%s]", pipelineId, indexRequest.index(), indexRequest.id()),
-                e
-            );
-            onFailure.accept(slot, e);
-            if (counter.decrementAndGet() == 0) {
-                onCompletion.accept(originalThread, null);
+                assert counter.get() >= 0;
             }
-            assert counter.get() >= 0;
+        };
+    }
+
+    private void onPipelineFailure(
+        final int slot,
+        final String pipelineId,
+        final IndexRequest indexRequest,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread,
+        final Exception e
+    ) {
+        logger.debug(
+            () -> format("failed to execute pipeline [%s] for document [%s/%s]", pipelineId, indexRequest.index(), indexRequest.id()),
+            e
+        );
+        onFailure.accept(slot, e);
+        if (counter.decrementAndGet() == 0) {
+            onCompletion.accept(originalThread, null);
         }
+        assert counter.get() >= 0;
     }
 
     public IngestStats stats() {
@@ -880,69 +1076,97 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         // the pipeline specific stat holder may not exist and that is fine:
         // (e.g. the pipeline may have been removed while we're ingesting a document
         totalMetrics.preIngest();
+        IngestDocument ingestDocument = newIngestDocument(indexRequest);
+        ingestDocument.executePipeline(
+            pipeline,
+            (result, e) -> handlePipelineResult(
+                slot,
+                indexRequest,
+                pipeline,
+                ingestDocument,
+                result,
+                e,
+                System.nanoTime() - startTimeInNanos,
+                itemDroppedHandler,
+                handler
+            )
+        );
+    }
+
+    private static IngestDocument newIngestDocument(IndexRequest indexRequest) {
         String index = indexRequest.index();
         String id = indexRequest.id();
         String routing = indexRequest.routing();
         long version = indexRequest.version();
         VersionType versionType = indexRequest.versionType();
         Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
-        IngestDocument ingestDocument = new IngestDocument(index, id, version, routing, versionType, sourceAsMap);
-        ingestDocument.executePipeline(pipeline, (result, e) -> {
-            long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
-            totalMetrics.postIngest(ingestTimeInNanos);
-            if (e != null) {
-                totalMetrics.ingestFailed();
-                handler.accept(e);
-            } else if (result == null) {
-                itemDroppedHandler.accept(slot);
-                handler.accept(null);
-            } else {
-                org.elasticsearch.script.Metadata metadata = ingestDocument.getMetadata();
-
-                // it's fine to set all metadata fields all the time, as ingest document holds their starting values
-                // before ingestion, which might also get modified during ingestion.
-                indexRequest.index(metadata.getIndex());
-                indexRequest.id(metadata.getId());
-                indexRequest.routing(metadata.getRouting());
-                indexRequest.version(metadata.getVersion());
-                if (metadata.getVersionType() != null) {
-                    indexRequest.versionType(VersionType.fromString(metadata.getVersionType()));
-                }
-                Number number;
-                if ((number = metadata.getIfSeqNo()) != null) {
-                    indexRequest.setIfSeqNo(number.longValue());
-                }
-                if ((number = metadata.getIfPrimaryTerm()) != null) {
-                    indexRequest.setIfPrimaryTerm(number.longValue());
-                }
-                try {
-                    boolean ensureNoSelfReferences = ingestDocument.doNoSelfReferencesCheck();
-                    indexRequest.source(ingestDocument.getSource(), indexRequest.getContentType(), ensureNoSelfReferences);
-                } catch (IllegalArgumentException ex) {
-                    // An IllegalArgumentException can be thrown when an ingest
-                    // processor creates a source map that is self-referencing.
-                    // In that case, we catch and wrap the exception so we can
-                    // include which pipeline failed.
-                    totalMetrics.ingestFailed();
-                    handler.accept(
-                        new IllegalArgumentException(
-                            "Failed to generate the source document for ingest pipeline [" + pipeline.getId() + "]",
-                            ex
-                        )
-                    );
-                    return;
-                }
-                Map<String, String> map;
-                if ((map = metadata.getDynamicTemplates()) != null) {
-                    Map<String, String> mergedDynamicTemplates = new HashMap<>(indexRequest.getDynamicTemplates());
-                    mergedDynamicTemplates.putAll(map);
-                    indexRequest.setDynamicTemplates(mergedDynamicTemplates);
-                }
-                postIngest(ingestDocument, indexRequest);
+        return new IngestDocument(index, id, version, routing, versionType, sourceAsMap);
+    }
 
-                handler.accept(null);
+    private void handlePipelineResult(
+        int slot,
+        IndexRequest indexRequest,
+        Pipeline pipeline,
+        IngestDocument ingestDocument,
+        IngestDocument result,
+        Exception e,
+        long ingestTimeInNanos,
+        IntConsumer itemDroppedHandler,
+        Consumer<Exception> handler
+    ) {
+        totalMetrics.postIngest(ingestTimeInNanos);
+        if (e != null) {
+            totalMetrics.ingestFailed();
+            handler.accept(e);
+        } else if (result == null) {
+            itemDroppedHandler.accept(slot);
+            handler.accept(null);
+        } else {
+            org.elasticsearch.script.Metadata metadata = ingestDocument.getMetadata();
+
+            // it's fine to set all metadata fields all the time, as ingest document holds their starting values
+            // before ingestion, which might also get modified during ingestion.
+            indexRequest.index(metadata.getIndex());
+            indexRequest.id(metadata.getId());
+            indexRequest.routing(metadata.getRouting());
+            indexRequest.version(metadata.getVersion());
+            if (metadata.getVersionType() != null) {
+                indexRequest.versionType(VersionType.fromString(metadata.getVersionType()));
             }
-        });
+            Number number;
+            if ((number = metadata.getIfSeqNo()) != null) {
+                indexRequest.setIfSeqNo(number.longValue());
+            }
+            if ((number = metadata.getIfPrimaryTerm()) != null) {
+                indexRequest.setIfPrimaryTerm(number.longValue());
+            }
+            try {
+                boolean ensureNoSelfReferences = ingestDocument.doNoSelfReferencesCheck();
+                indexRequest.source(ingestDocument.getSource(), indexRequest.getContentType(), ensureNoSelfReferences);
+            } catch (IllegalArgumentException ex) {
+                // An IllegalArgumentException can be thrown when an ingest
+                // processor creates a source map that is self-referencing.
+                // In that case, we catch and wrap the exception so we can
+                // include which pipeline failed.
+                totalMetrics.ingestFailed();
+                handler.accept(
+                    new IllegalArgumentException(
+                        "Failed to generate the source document for ingest pipeline [" + pipeline.getId() + "]",
+                        ex
+                    )
+                );
+                return;
+            }
+            Map<String, String> map;
+            if ((map = metadata.getDynamicTemplates()) != null) {
+                Map<String, String> mergedDynamicTemplates = new HashMap<>(indexRequest.getDynamicTemplates());
+                mergedDynamicTemplates.putAll(map);
+                indexRequest.setDynamicTemplates(mergedDynamicTemplates);
+            }
+            postIngest(ingestDocument, indexRequest);
+
+            handler.accept(null);
+        }
     }
 
     private void postIngest(IngestDocument ingestDocument, IndexRequest indexRequest) {
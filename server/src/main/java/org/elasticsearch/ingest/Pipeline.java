@@ -124,6 +124,35 @@ public final class Pipeline {
         });
     }
 
+    /**
+     * Modifies the data of a batch of documents to be indexed based on the processor this pipeline holds, see
+     * {@link Processor#executeBatch(List, Processor.BatchHandler)}.
+     */
+    public void executeBatch(List<IngestDocument> ingestDocuments, Processor.BatchHandler handler) {
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        final int batchSize = ingestDocuments.size();
+        for (int i = 0; i < batchSize; i++) {
+            metrics.preIngest();
+        }
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            // the documents of a batch are processed together, so each of them accounts for its share of the time of the batch
+            long ingestTimeInNanos = (relativeTimeProvider.getAsLong() - startTimeInNanos) / batchSize;
+            metrics.postIngest(ingestTimeInNanos);
+            if (e != null) {
+                metrics.ingestFailed();
+            }
+            handler.accept(slot, result, e);
+        });
+    }
+
+    /**
+     * Whether this pipeline has processors that process batches of documents more cheaply than one document at a time, in which case the
+     * documents of a bulk request should be passed to {@link #executeBatch} together.
+     */
+    public boolean supportsBatchExecution() {
+        return compoundProcessor.supportsBatchExecution();
+    }
+
     /**
      * The unique id of this pipeline
      */
@@ -15,6 +15,7 @@ import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.Scheduler;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -58,6 +59,46 @@ public interface Processor {
         return ingestDocument;
     }
 
+    /**
+     * Introspect and potentially modify a batch of documents that belong to the same bulk request. The handler must be called exactly
+     * once for each document of the batch, in any order, with the arguments that {@link #execute(IngestDocument, BiConsumer)} would
+     * have passed to its handler for that document.
+     *
+     * Expert method: only override this method, together with {@link #supportsBatchExecution()}, if a processor can process several
+     * documents more cheaply than one at a time, for instance by looking up the values for all of them at once. The default
+     * implementation executes the documents one at a time.
+     */
+    default void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final int slot = i;
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (isAsync()) {
+                try {
+                    execute(ingestDocument, (result, e) -> handler.accept(slot, result, e));
+                } catch (Exception e) {
+                    handler.accept(slot, null, e);
+                }
+            } else {
+                final IngestDocument result;
+                try {
+                    result = execute(ingestDocument);
+                } catch (Exception e) {
+                    handler.accept(slot, null, e);
+                    continue;
+                }
+                handler.accept(slot, result, null);
+            }
+        }
+    }
+
+    /**
+     * Whether this processor overrides {@link #executeBatch(List, BatchHandler)} to process batches of documents more cheaply than one
+     * document at a time. Pipelines only execute the documents of a bulk request in batches if they contain such a processor.
+     */
+    default boolean supportsBatchExecution() {
+        return false;
+    }
+
     /**
      * Gets the type of a processor
      */
@@ -77,6 +118,20 @@ public interface Processor {
         return false;
     }
 
+    /**
+     * Handles the result of executing a batch of documents, see {@link #executeBatch(List, BatchHandler)}.
+     */
+    @FunctionalInterface
+    interface BatchHandler {
+
+        /**
+         * @param slot the position of the document in the batch
+         * @param ingestDocument the processed document, or {@code null} if it was dropped or failed
+         * @param e the failure, or {@code null} if the document was processed successfully
+         */
+        void accept(int slot, IngestDocument ingestDocument, Exception e);
+    }
+
     /**
      * A factory that knows how to construct a processor based on a map of maps.
      */
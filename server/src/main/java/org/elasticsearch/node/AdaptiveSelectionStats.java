@@ -71,6 +71,18 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                     builder.field("avg_response_time", new TimeValue((long) stats.responseTime, TimeUnit.NANOSECONDS).toString());
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
+                if (stats.responseTimeP50 >= 0) {
+                    if (builder.humanReadable()) {
+                        builder.field("response_time_p50", new TimeValue(stats.responseTimeP50, TimeUnit.NANOSECONDS).toString());
+                    }
+                    builder.field("response_time_p50_ns", stats.responseTimeP50);
+                }
+                if (stats.responseTimeP99 >= 0) {
+                    if (builder.humanReadable()) {
+                        builder.field("response_time_p99", new TimeValue(stats.responseTimeP99, TimeUnit.NANOSECONDS).toString());
+                    }
+                    builder.field("response_time_p99_ns", stats.responseTimeP99);
+                }
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
             builder.endObject();
@@ -552,7 +552,7 @@ public class Node implements Closeable {
                 clusterPlugins,
                 clusterInfoService,
                 snapshotsInfoService,
-                threadPool.getThreadContext(),
+                threadPool,
                 systemIndices
             );
             modules.add(clusterModule);
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -28,7 +29,8 @@ import java.util.concurrent.ConcurrentMap;
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. Response times are also recorded in a histogram so that
+ * the coordinating node can tell how slow the tail of the responses of a node is.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -61,10 +63,13 @@ public final class ResponseCollectorService implements ClusterStateListener {
             if (ns == null) {
                 ExponentiallyWeightedMovingAverage queueEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
                 ExponentiallyWeightedMovingAverage responseEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
-                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
+                ResponseTimeHistogram responseTimeHistogram = new ResponseTimeHistogram();
+                responseTimeHistogram.add(responseTimeNanos);
+                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, responseTimeHistogram, avgServiceTimeNanos);
             } else {
                 ns.queueSize.addValue((double) queueSize);
                 ns.responseTime.addValue((double) responseTimeNanos);
+                ns.responseTimeHistogram.add(responseTimeNanos);
                 ns.serviceTime = avgServiceTimeNanos;
                 return ns;
             }
@@ -93,10 +98,19 @@ public final class ResponseCollectorService implements ClusterStateListener {
         return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns));
     }
 
+    /**
+     * Returns the given percentile of the recent response times of the given node in nanoseconds, or {@code -1} if no response
+     * information exists for the node.
+     */
+    public long getResponseTimePercentile(final String nodeId, final double percentile) {
+        final NodeStatistics nodeStatistics = nodeIdToStats.get(nodeId);
+        return nodeStatistics == null ? -1 : nodeStatistics.responseTimeHistogram.percentile(percentile);
+    }
+
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * and service time, and the median and 99th percentile of the response time.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -111,13 +125,35 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        /**
+         * The median response time in nanoseconds, or {@code -1} if unknown.
+         */
+        public final long responseTimeP50;
+        /**
+         * The 99th percentile of the response time in nanoseconds, or {@code -1} if unknown.
+         */
+        public final long responseTimeP99;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, -1, -1);
+        }
+
+        public ComputedNodeStats(
+            String nodeId,
+            int clientNum,
+            int queueSize,
+            double responseTime,
+            double serviceTime,
+            long responseTimeP50,
+            long responseTimeP99
+        ) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.responseTimeP50 = responseTimeP50;
+            this.responseTimeP99 = responseTimeP99;
         }
 
         ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
@@ -126,7 +162,9 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 clientNum,
                 (int) nodeStats.queueSize.getAverage(),
                 nodeStats.responseTime.getAverage(),
-                nodeStats.serviceTime
+                nodeStats.serviceTime,
+                nodeStats.responseTimeHistogram.percentile(50),
+                nodeStats.responseTimeHistogram.percentile(99)
             );
         }
 
@@ -136,6 +174,13 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_8_4_0)) {
+                this.responseTimeP50 = in.readLong();
+                this.responseTimeP99 = in.readLong();
+            } else {
+                this.responseTimeP50 = -1;
+                this.responseTimeP99 = -1;
+            }
         }
 
         @Override
@@ -145,6 +190,10 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+                out.writeLong(this.responseTimeP50);
+                out.writeLong(this.responseTimeP99);
+            }
         }
 
         /**
@@ -189,6 +238,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append("nodes: ").append(clientNum);
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
+            sb.append(", response time p50: ").append(responseTimeP50);
+            sb.append(", response time p99: ").append(responseTimeP99);
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
@@ -198,24 +249,27 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
+     * time, and service time, and its response time histogram, however, this class is private and intended only
      * to be used for the internal accounting of {@code ResponseCollectorService}.
      */
     private static class NodeStatistics {
         final String nodeId;
         final ExponentiallyWeightedMovingAverage queueSize;
         final ExponentiallyWeightedMovingAverage responseTime;
+        final ResponseTimeHistogram responseTimeHistogram;
         double serviceTime;
 
         NodeStatistics(
             String nodeId,
             ExponentiallyWeightedMovingAverage queueSizeEWMA,
             ExponentiallyWeightedMovingAverage responseTimeEWMA,
+            ResponseTimeHistogram responseTimeHistogram,
             double serviceTimeEWMA
         ) {
             this.nodeId = nodeId;
             this.queueSize = queueSizeEWMA;
             this.responseTime = responseTimeEWMA;
+            this.responseTimeHistogram = responseTimeHistogram;
             this.serviceTime = serviceTimeEWMA;
         }
     }
@@ -0,0 +1,84 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.node;
+
+/**
+ * A histogram of the response times of a node with logarithmic buckets. Every power of two is split into {@link #SUB_BUCKETS} linear
+ * buckets so that percentiles are accurate to within 25% while the histogram stays a small fixed size array. All counts are halved every
+ * {@link #DECAY_INTERVAL} samples so that, like the moving averages of {@link ResponseCollectorService}, the percentiles follow the recent
+ * behaviour of the node rather than its whole history.
+ */
+final class ResponseTimeHistogram {
+
+    static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    static final int DECAY_INTERVAL = 1024;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private int samplesSinceDecay;
+
+    synchronized void add(long nanos) {
+        counts[bucket(Math.max(0, nanos))]++;
+        total++;
+        if (++samplesSinceDecay >= DECAY_INTERVAL) {
+            decay();
+        }
+    }
+
+    private void decay() {
+        total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] >>>= 1;
+            total += counts[i];
+        }
+        samplesSinceDecay = 0;
+    }
+
+    /**
+     * Returns the given percentile of the recorded response times in nanoseconds, or {@code -1} if nothing was recorded. The returned
+     * value is the upper bound of the bucket that contains the percentile so it errs on the side of slower response times.
+     */
+    synchronized long percentile(double percentile) {
+        assert percentile > 0 && percentile <= 100 : percentile;
+        if (total == 0) {
+            return -1;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        throw new AssertionError("rank [" + rank + "] is beyond the total [" + total + "]");
+    }
+
+    static int bucket(long value) {
+        assert value >= 0 : value;
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+        final long lowerBound = (1L << exponent) + (bucket % SUB_BUCKETS) * width;
+        return lowerBound + width - 1;
+    }
+}
@@ -99,6 +99,16 @@ public abstract class AbstractRestChannel implements RestChannel {
         @Nullable XContentType responseContentType,
         boolean useFiltering
     ) throws IOException {
+        return newBuilder(requestContentType, responseContentType, useFiltering, Streams.flushOnCloseStream(bytesOutput()));
+    }
+
+    @Override
+    public XContentBuilder newBuilder(
+        @Nullable XContentType requestContentType,
+        @Nullable XContentType responseContentType,
+        boolean useFiltering,
+        OutputStream out
+    ) throws IOException {
 
         if (responseContentType == null) {
             if (Strings.hasText(format)) {
@@ -129,8 +139,6 @@ public abstract class AbstractRestChannel implements RestChannel {
             excludes = filters.stream().filter(EXCLUDE_FILTER).map(f -> f.substring(1)).collect(toSet());
         }
 
-        OutputStream unclosableOutputStream = Streams.flushOnCloseStream(bytesOutput());
-
         Map<String, String> parameters = request.getParsedAccept() != null
             ? request.getParsedAccept().getParameters()
             : Collections.emptyMap();
@@ -138,7 +146,7 @@ public abstract class AbstractRestChannel implements RestChannel {
 
         XContentBuilder builder = new XContentBuilder(
             XContentFactory.xContent(responseContentType),
-            unclosableOutputStream,
+            out,
             includes,
             excludes,
             responseMediaType,
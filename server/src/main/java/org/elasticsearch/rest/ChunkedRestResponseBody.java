@@ -0,0 +1,153 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStream;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The body of a rest response that is serialized lazily, one chunk at a time, as the channel it is sent on becomes writable, so that
+ * only the chunks that are in flight need to be held in memory.
+ */
+public interface ChunkedRestResponseBody {
+
+    /**
+     * @return true once this response has been written fully.
+     */
+    boolean isDone();
+
+    /**
+     * Serializes the next chunk of this response into pages obtained from the given recycler. The returned bytes must be released once
+     * they have been written out.
+     *
+     * @param sizeHint the number of bytes to aim for in the chunk, which may be exceeded by the last part that is serialized into it
+     * @param recycler the recycler to obtain the pages for the chunk from
+     * @return the serialized chunk
+     */
+    ReleasableBytesReference encodeChunk(int sizeHint, Recycler<BytesRef> recycler) throws IOException;
+
+    /**
+     * @return the response's {@code Content-Type} header value
+     */
+    String getResponseContentTypeString();
+
+    /**
+     * Serializes the whole of the given body, for when its length must be known before it is sent.
+     *
+     * @param body the body to serialize
+     * @param recycler the recycler to obtain the pages for the serialized body from
+     * @return the serialized body, which must be released once it has been written out
+     */
+    static ReleasableBytesReference serializeFully(ChunkedRestResponseBody body, Recycler<BytesRef> recycler) throws IOException {
+        final List<ReleasableBytesReference> chunks = new ArrayList<>();
+        boolean success = false;
+        try {
+            while (body.isDone() == false) {
+                chunks.add(body.encodeChunk(Integer.MAX_VALUE, recycler));
+            }
+            final ReleasableBytesReference result = new ReleasableBytesReference(
+                CompositeBytesReference.of(chunks.toArray(new BytesReference[0])),
+                Releasables.wrap(chunks.toArray(new Releasable[0]))
+            );
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                Releasables.closeWhileHandlingException(chunks.toArray(new Releasable[0]));
+            }
+        }
+    }
+
+    /**
+     * Creates a response body that serializes the given {@link ChunkedToXContent} with the builder settings of the given channel.
+     *
+     * @param chunkedToXContent the object to serialize
+     * @param params the parameters to serialize it with
+     * @param channel the channel that the response is sent on
+     * @return the chunked response body
+     */
+    static ChunkedRestResponseBody fromXContent(ChunkedToXContent chunkedToXContent, ToXContent.Params params, RestChannel channel)
+        throws IOException {
+
+        return new ChunkedRestResponseBody() {
+
+            private final OutputStream out = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                }
+            };
+
+            private final XContentBuilder builder = channel.newBuilder(channel.request().getXContentType(), null, true, out);
+
+            private final Iterator<? extends ToXContent> serialization = chunkedToXContent.toXContentChunked();
+
+            private BytesStream target;
+
+            @Override
+            public boolean isDone() {
+                return serialization.hasNext() == false;
+            }
+
+            @Override
+            public ReleasableBytesReference encodeChunk(int sizeHint, Recycler<BytesRef> recycler) throws IOException {
+                assert target == null : "already encoding a chunk";
+                final RecyclerBytesStreamOutput chunkStream = new RecyclerBytesStreamOutput(recycler);
+                target = chunkStream;
+                boolean success = false;
+                try {
+                    while (serialization.hasNext()) {
+                        serialization.next().toXContent(builder, params);
+                        builder.flush();
+                        if (chunkStream.size() >= sizeHint) {
+                            break;
+                        }
+                    }
+                    if (serialization.hasNext() == false) {
+                        builder.close();
+                    }
+                    final ReleasableBytesReference result = new ReleasableBytesReference(chunkStream.bytes(), chunkStream);
+                    success = true;
+                    return result;
+                } finally {
+                    target = null;
+                    if (success == false) {
+                        Releasables.closeExpectNoException(chunkStream);
+                    }
+                }
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return builder.getResponseContentTypeString();
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
@@ -43,7 +44,10 @@ public class RestResponse {
     private static final Logger SUPPRESSED_ERROR_LOGGER = LogManager.getLogger("rest.suppressed");
 
     private final RestStatus status;
+    @Nullable
     private final BytesReference content;
+    @Nullable
+    private final ChunkedRestResponseBody chunkedResponseBody;
     private final String responseMediaType;
     private Map<String, List<String>> customHeaders;
 
@@ -72,8 +76,26 @@ public class RestResponse {
      * Creates a binary response.
      */
     public RestResponse(RestStatus status, String responseMediaType, BytesReference content) {
+        this(status, responseMediaType, content, null);
+    }
+
+    /**
+     * Creates a response whose body is serialized and sent one chunk at a time.
+     */
+    public RestResponse(RestStatus status, ChunkedRestResponseBody content) {
+        this(status, content.getResponseContentTypeString(), null, content);
+    }
+
+    private RestResponse(
+        RestStatus status,
+        String responseMediaType,
+        @Nullable BytesReference content,
+        @Nullable ChunkedRestResponseBody chunkedResponseBody
+    ) {
+        assert (content == null) != (chunkedResponseBody == null) : "response must have either a content or a chunked body";
         this.status = status;
         this.content = content;
+        this.chunkedResponseBody = chunkedResponseBody;
         this.responseMediaType = responseMediaType;
     }
 
@@ -101,6 +123,7 @@ public class RestResponse {
         try (XContentBuilder builder = channel.newErrorBuilder()) {
             build(builder, params, status, channel.detailedErrorsEnabled(), e);
             this.content = BytesReference.bytes(builder);
+            this.chunkedResponseBody = null;
             this.responseMediaType = builder.contentType().mediaType();
         }
         if (e instanceof ElasticsearchException) {
@@ -112,10 +135,26 @@ public class RestResponse {
         return this.responseMediaType;
     }
 
+    /**
+     * Returns the content of this response, or {@code null} if it is {@link #isChunked() chunked}.
+     */
+    @Nullable
     public BytesReference content() {
         return this.content;
     }
 
+    public boolean isChunked() {
+        return chunkedResponseBody != null;
+    }
+
+    /**
+     * Returns the body of this response if it is {@link #isChunked() chunked}, otherwise {@code null}.
+     */
+    @Nullable
+    public ChunkedRestResponseBody chunkedContent() {
+        return chunkedResponseBody;
+    }
+
     public RestStatus status() {
         return this.status;
     }
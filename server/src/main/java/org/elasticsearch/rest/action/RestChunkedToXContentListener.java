@@ -0,0 +1,38 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest.action;
+
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.common.xcontent.StatusToXContentObject;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * A REST based action listener that sends the response as a {@link ChunkedRestResponseBody}, which is serialized lazily as the channel
+ * becomes writable rather than into a single buffer up front.
+ */
+public class RestChunkedToXContentListener<Response extends ChunkedToXContent> extends RestActionListener<Response> {
+
+    public RestChunkedToXContentListener(RestChannel channel) {
+        super(channel);
+    }
+
+    @Override
+    protected void processResponse(Response response) throws Exception {
+        channel.sendResponse(
+            new RestResponse(getStatus(response), ChunkedRestResponseBody.fromXContent(response, channel.request(), channel))
+        );
+    }
+
+    protected RestStatus getStatus(Response response) {
+        return response instanceof StatusToXContentObject statusToXContentObject ? statusToXContentObject.status() : RestStatus.OK;
+    }
+}
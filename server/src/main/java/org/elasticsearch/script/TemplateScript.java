@@ -35,6 +35,14 @@ public abstract class TemplateScript {
 
     public interface Factory {
         TemplateScript newInstance(Map<String, Object> params);
+
+        /**
+         * Returns {@code true} if the template renders to the same string whatever parameters it is given, so that callers can skip
+         * building the parameters and render it with an empty map instead.
+         */
+        default boolean isParameterIndependent() {
+            return false;
+        }
     }
 
     public static final ScriptContext<Factory> CONTEXT = new ScriptContext<>("template", Factory.class);
@@ -37,12 +37,40 @@ public class AggregationPhase {
         try {
             context.aggregations().aggregators(context.aggregations().factories().createTopLevelAggregators());
             bucketCollector = MultiBucketCollector.wrap(true, List.of(context.aggregations().aggregators()));
+            if (context.aggregations().segmentCache() != null
+                && context.getProfilers() == null
+                && bucketCollector.scoreMode().needsScores() == false) {
+                // the segment caching collector calls preCollection itself once it knows which segments it collects
+                context.queryCollectors()
+                    .put(
+                        AggregationPhase.class,
+                        new SegmentCachingAggregationCollector(
+                            context,
+                            context.aggregations().segmentCache(),
+                            context.aggregations().aggregators(),
+                            bucketCollector.scoreMode()
+                        )
+                    );
+                return;
+            }
+            if (context.searcher() != null
+                && context.searcher().hasSliceExecutor()
+                && context.getProfilers() == null
+                && context.aggregations().factories().supportsConcurrentCollection()
+                && isInSortOrderExecutionRequired(context) == false) {
+                // every thread that collects segments gets its own aggregators, which are pre-collected by the collector itself
+                context.queryCollectors()
+                    .put(
+                        AggregationPhase.class,
+                        new ConcurrentAggregationCollector(context, context.aggregations().aggregators(), bucketCollector.scoreMode())
+                    );
+                return;
+            }
             bucketCollector.preCollection();
         } catch (IOException e) {
             throw new AggregationInitializationException("Could not initialize aggregators", e);
         }
-        if (context.aggregations().factories().context() != null
-            && context.aggregations().factories().context().isInSortOrderExecutionRequired()) {
+        if (isInSortOrderExecutionRequired(context)) {
             TimeSeriesIndexSearcher searcher = new TimeSeriesIndexSearcher(context.searcher(), getCancellationChecks(context));
             try {
                 searcher.search(context.rewrittenQuery(), bucketCollector);
@@ -58,6 +86,20 @@ public class AggregationPhase {
         }
     }
 
+    private static boolean isInSortOrderExecutionRequired(SearchContext context) {
+        return context.aggregations().factories().context() != null
+            && context.aggregations().factories().context().isInSortOrderExecutionRequired();
+    }
+
+    /**
+     * Whether the collector that {@link #preProcess} registered for the aggregations of the given context, if any, can collect
+     * segments from several threads at once.
+     */
+    public static boolean supportsConcurrentCollection(SearchContext context) {
+        final Collector collector = context.queryCollectors().get(AggregationPhase.class);
+        return collector == null || collector == BucketCollector.NO_OP_COLLECTOR || collector instanceof ConcurrentAggregationCollector;
+    }
+
     private static List<Runnable> getCancellationChecks(SearchContext context) {
         List<Runnable> cancellationChecks = new ArrayList<>();
         if (context.lowLevelCancellation()) {
@@ -99,6 +141,31 @@ public class AggregationPhase {
             return;
         }
 
+        if (context.queryCollectors().get(AggregationPhase.class) instanceof SegmentCachingAggregationCollector collector) {
+            // results of a timed out or early terminated search are partial so they must not be cached
+            boolean cacheResults = context.queryResult().searchTimedOut() == false
+                && Boolean.TRUE.equals(context.queryResult().terminatedEarly()) == false;
+            try {
+                context.queryResult().aggregations(collector.buildShardResult(cacheResults));
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to build aggregations", e);
+            }
+            context.aggregations(null);
+            context.queryCollectors().remove(AggregationPhase.class);
+            return;
+        }
+
+        if (context.queryCollectors().get(AggregationPhase.class) instanceof ConcurrentAggregationCollector collector) {
+            try {
+                context.queryResult().aggregations(collector.buildShardResult());
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to build aggregations", e);
+            }
+            context.aggregations(null);
+            context.queryCollectors().remove(AggregationPhase.class);
+            return;
+        }
+
         Aggregator[] aggregators = context.aggregations().aggregators();
 
         List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
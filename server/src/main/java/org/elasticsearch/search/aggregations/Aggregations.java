@@ -9,7 +9,10 @@ package org.elasticsearch.search.aggregations;
 
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
@@ -30,7 +33,7 @@ import static org.elasticsearch.common.xcontent.XContentParserUtils.parseTypedKe
 /**
  * Represents a set of {@link Aggregation}s
  */
-public class Aggregations implements Iterable<Aggregation>, ToXContentFragment {
+public class Aggregations implements Iterable<Aggregation>, ToXContentFragment, ChunkedToXContent {
 
     public static final String AGGREGATIONS_FIELD = "aggregations";
 
@@ -111,6 +114,22 @@ public class Aggregations implements Iterable<Aggregation>, ToXContentFragment {
         return builder.endObject();
     }
 
+    /**
+     * Renders the aggregations one at a time, so that a response with many large aggregations can be sent without serializing all of
+     * them at once.
+     */
+    @Override
+    public Iterator<? extends ToXContent> toXContentChunked() {
+        if (aggregations.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return Iterators.<ToXContent>concat(
+            Iterators.<ToXContent>single((builder, params) -> builder.startObject(AGGREGATIONS_FIELD)),
+            aggregations.iterator(),
+            Iterators.<ToXContent>single((builder, params) -> builder.endObject())
+        );
+    }
+
     /**
      * Directly write all the aggregations without their bounding object. Used by sub-aggregations (non top level aggs)
      */
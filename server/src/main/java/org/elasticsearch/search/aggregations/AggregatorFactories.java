@@ -243,6 +243,20 @@ public class AggregatorFactories {
         return createSubAggregators(null, CardinalityUpperBound.ONE);
     }
 
+    /**
+     * Whether all aggregators built by these factories can collect the segments of a shard on several threads at once.
+     *
+     * @see AggregatorFactory#supportsConcurrentCollection()
+     */
+    public boolean supportsConcurrentCollection() {
+        for (AggregatorFactory factory : factories) {
+            if (factory.supportsConcurrentCollection() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return the number of sub-aggregator factories
      */
@@ -85,6 +85,14 @@ public abstract class AggregatorFactory {
         return parent;
     }
 
+    /**
+     * Whether the aggregators built by this factory, and by its sub-factories, can collect the segments of a shard on several threads
+     * at once. Each thread then collects into its own aggregators, and the results of all threads are reduced into the shard result.
+     */
+    public boolean supportsConcurrentCollection() {
+        return false;
+    }
+
     /**
      * Returns the aggregation subtype for nodes usage stats.
      * <p>
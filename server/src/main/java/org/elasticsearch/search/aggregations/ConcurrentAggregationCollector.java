@@ -0,0 +1,111 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the top level aggregations of a search whose segments may be searched by several threads at once. Every thread collects into
+ * its own set of aggregators, which is created the first time the thread collects a segment, and the shard result is the partial reduce
+ * of the results of all threads. Only used for aggregations that {@link AggregatorFactories#supportsConcurrentCollection() support it}.
+ */
+final class ConcurrentAggregationCollector implements Collector {
+
+    private final SearchContext context;
+    private final ScoreMode scoreMode;
+    // guarded by this
+    private final Map<Thread, Aggregator[]> aggregatorsPerThread = new IdentityHashMap<>();
+    /**
+     * The aggregators that were created up front, until the first thread collects a segment.
+     */
+    private Aggregator[] unusedAggregators;
+
+    ConcurrentAggregationCollector(SearchContext context, Aggregator[] aggregators, ScoreMode scoreMode) {
+        this.context = context;
+        this.unusedAggregators = aggregators;
+        this.scoreMode = scoreMode;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        final BucketCollector bucketCollector = MultiBucketCollector.wrap(true, List.of(aggregatorsOfCurrentThread()));
+        return bucketCollector.getLeafCollector(new AggregationExecutionContext(ctx, null, null));
+    }
+
+    private synchronized Aggregator[] aggregatorsOfCurrentThread() throws IOException {
+        Aggregator[] aggregators = aggregatorsPerThread.get(Thread.currentThread());
+        if (aggregators == null) {
+            aggregators = nextAggregators();
+            aggregatorsPerThread.put(Thread.currentThread(), aggregators);
+        }
+        return aggregators;
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    /**
+     * Builds the results of the aggregators of all threads and reduces them. Must only be called once all threads are done collecting.
+     */
+    synchronized InternalAggregations buildShardResult() throws IOException {
+        final List<InternalAggregations> results = new ArrayList<>(aggregatorsPerThread.size());
+        for (Aggregator[] aggregators : aggregatorsPerThread.values()) {
+            results.add(build(aggregators));
+        }
+        if (results.isEmpty()) {
+            // no segment was visited
+            results.add(build(nextAggregators()));
+        }
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        return InternalAggregations.reduce(
+            results,
+            new AggregationReduceContext.ForPartial(
+                context.aggregations().factories().context().bigArrays(),
+                null,
+                context::isCancelled,
+                context.request().source().aggregations()
+            )
+        );
+    }
+
+    private Aggregator[] nextAggregators() throws IOException {
+        final Aggregator[] aggregators;
+        if (unusedAggregators != null) {
+            aggregators = unusedAggregators;
+            unusedAggregators = null;
+        } else {
+            aggregators = context.aggregations().factories().createTopLevelAggregators();
+        }
+        MultiBucketCollector.wrap(true, List.of(aggregators)).preCollection();
+        return aggregators;
+    }
+
+    private InternalAggregations build(Aggregator[] aggregators) throws IOException {
+        context.aggregations().factories().context().multiBucketConsumer().reset();
+        final List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            aggregator.postCollection();
+            aggregations.add(aggregator.buildTopLevel());
+        }
+        return InternalAggregations.from(aggregations);
+    }
+}
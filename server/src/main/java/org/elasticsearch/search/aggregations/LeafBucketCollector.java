@@ -73,6 +73,24 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long owningBucketOrd) throws IOException;
 
+    /**
+     * Collect a block of {@code count} documents, in increasing doc id
+     * order, in the bucket owned by {@code owningBucketOrd}. This is
+     * equivalent to calling {@link #collect(int, long)} for each of the
+     * documents, which is what the default implementation does, but
+     * collectors that read doc values can override it to load the values
+     * of the whole block at once and reduce them in a tight loop.
+     * <p>
+     * Callers may only use this method when the collector doesn't need
+     * scores since the scorer is positioned on the last document of the
+     * block at best.
+     */
+    public void collect(int[] docs, int count, long owningBucketOrd) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], owningBucketOrd);
+        }
+    }
+
     /**
      * Does this collector collect anything? If this returns true we can safely
      * just never call {@link #collect}.
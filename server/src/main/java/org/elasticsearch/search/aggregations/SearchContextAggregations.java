@@ -7,6 +7,9 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.indices.IndicesSegmentAggregationCache;
+
 /**
  * The aggregation context that is part of the search context.
  */
@@ -14,6 +17,7 @@ public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
     private Aggregator[] aggregators;
+    private IndicesSegmentAggregationCache.ForRequest segmentCache;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -38,4 +42,19 @@ public class SearchContextAggregations {
     public void aggregators(Aggregator[] aggregators) {
         this.aggregators = aggregators;
     }
+
+    /**
+     * The per-segment cache of aggregation results, or {@code null} if the results of this search can't be cached per segment.
+     */
+    @Nullable
+    public IndicesSegmentAggregationCache.ForRequest segmentCache() {
+        return segmentCache;
+    }
+
+    /**
+     * Collect the aggregations per segment and load and cache the results of each segment in the given cache.
+     */
+    public void segmentCache(IndicesSegmentAggregationCache.ForRequest segmentCache) {
+        this.segmentCache = segmentCache;
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.indices.IndicesSegmentAggregationCache;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the top level aggregations of a search with a separate set of aggregators per segment so that the results of each segment
+ * can be loaded from, and stored in, the {@link IndicesSegmentAggregationCache}. Segments with a cached result are not collected at all.
+ * The shard result is the partial reduce of the results of all segments.
+ */
+final class SegmentCachingAggregationCollector implements Collector {
+
+    private final SearchContext context;
+    private final IndicesSegmentAggregationCache.ForRequest cache;
+    private final ScoreMode scoreMode;
+    private final List<InternalAggregations> cachedResults = new ArrayList<>();
+    private final List<CollectedSegment> collectedSegments = new ArrayList<>();
+    /**
+     * The aggregators that were created up front, until they are used to collect a segment.
+     */
+    private Aggregator[] unusedAggregators;
+
+    SegmentCachingAggregationCollector(
+        SearchContext context,
+        IndicesSegmentAggregationCache.ForRequest cache,
+        Aggregator[] aggregators,
+        ScoreMode scoreMode
+    ) {
+        this.context = context;
+        this.cache = cache;
+        this.unusedAggregators = aggregators;
+        this.scoreMode = scoreMode;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        final InternalAggregations cached = cache.get(ctx);
+        if (cached != null) {
+            cachedResults.add(cached);
+            throw new CollectionTerminatedException();
+        }
+        final Aggregator[] aggregators = nextAggregators();
+        final BucketCollector bucketCollector = MultiBucketCollector.wrap(true, List.of(aggregators));
+        bucketCollector.preCollection();
+        collectedSegments.add(new CollectedSegment(ctx, aggregators));
+        return bucketCollector.getLeafCollector(new AggregationExecutionContext(ctx, null, null));
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    /**
+     * Builds the results of the collected segments and reduces them with the cached results of the other segments.
+     *
+     * @param cacheResults whether the results of the collected segments are complete and can be cached
+     */
+    InternalAggregations buildShardResult(boolean cacheResults) throws IOException {
+        final List<InternalAggregations> results = new ArrayList<>(cachedResults);
+        for (CollectedSegment segment : collectedSegments) {
+            final InternalAggregations result = build(segment.aggregators);
+            if (cacheResults) {
+                cache.put(segment.ctx, result);
+            }
+            results.add(result);
+        }
+        if (results.isEmpty()) {
+            // no segment was visited
+            final Aggregator[] aggregators = nextAggregators();
+            MultiBucketCollector.wrap(true, List.of(aggregators)).preCollection();
+            results.add(build(aggregators));
+        }
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        // partial reduces of the cacheable aggregations don't run scripts
+        return InternalAggregations.reduce(
+            results,
+            new AggregationReduceContext.ForPartial(
+                context.aggregations().factories().context().bigArrays(),
+                null,
+                context::isCancelled,
+                cache.builders()
+            )
+        );
+    }
+
+    private Aggregator[] nextAggregators() throws IOException {
+        if (unusedAggregators != null) {
+            final Aggregator[] aggregators = unusedAggregators;
+            unusedAggregators = null;
+            return aggregators;
+        }
+        return context.aggregations().factories().createTopLevelAggregators();
+    }
+
+    private InternalAggregations build(Aggregator[] aggregators) throws IOException {
+        context.aggregations().factories().context().multiBucketConsumer().reset();
+        final List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            aggregator.postCollection();
+            aggregations.add(aggregator.buildTopLevel());
+        }
+        return InternalAggregations.from(aggregations);
+    }
+
+    private record CollectedSegment(LeafReaderContext ctx, Aggregator[] aggregators) {}
+}
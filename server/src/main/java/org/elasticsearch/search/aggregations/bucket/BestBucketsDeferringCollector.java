@@ -52,6 +52,8 @@ public class BestBucketsDeferringCollector extends DeferringBucketCollector {
         }
     }
 
+    private static final int REPLAY_BLOCK_SIZE = 128;
+
     private final Query topLevelQuery;
     private final IndexSearcher searcher;
     private final boolean isGlobal;
@@ -165,6 +167,7 @@ public class BestBucketsDeferringCollector extends DeferringBucketCollector {
             weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1f);
         }
 
+        final int[] replayBlock = new int[REPLAY_BLOCK_SIZE];
         for (Entry entry : entries) {
             assert entry.docDeltas.size() > 0 : "segment should have at least one document to replay, got 0";
             try {
@@ -180,6 +183,9 @@ public class BestBucketsDeferringCollector extends DeferringBucketCollector {
                 final PackedLongValues.Iterator docDeltaIterator = entry.docDeltas.iterator();
                 final PackedLongValues.Iterator buckets = entry.buckets.iterator();
                 int doc = 0;
+                // without scores, runs of documents that go to the same bucket are replayed as blocks
+                int blockSize = 0;
+                long blockBucket = -1;
                 for (long i = 0, end = entry.docDeltas.size(); i < end; ++i) {
                     doc += docDeltaIterator.next();
                     final long bucket = buckets.next();
@@ -191,10 +197,20 @@ public class BestBucketsDeferringCollector extends DeferringBucketCollector {
                             }
                             // aggregations should only be replayed on matching documents
                             assert scoreIt.docID() == doc;
+                            leafCollector.collect(doc, rebasedBucket);
+                        } else {
+                            if (blockSize == replayBlock.length || (blockSize > 0 && rebasedBucket != blockBucket)) {
+                                leafCollector.collect(replayBlock, blockSize, blockBucket);
+                                blockSize = 0;
+                            }
+                            replayBlock[blockSize++] = doc;
+                            blockBucket = rebasedBucket;
                         }
-                        leafCollector.collect(doc, rebasedBucket);
                     }
                 }
+                if (blockSize > 0) {
+                    leafCollector.collect(replayBlock, blockSize, blockBucket);
+                }
             } catch (CollectionTerminatedException e) {
                 // collection was terminated prematurely
                 // continue with the following leaf
@@ -94,7 +94,9 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
         // the errors from the shards that did respond with the terms and
         // subtract that from the sum of the error from all shards
         long docCountError = 0;
-        List<InternalAggregations> aggregationsList = new ArrayList<>(buckets.size());
+        // High cardinality terms aggregations frequently have no sub-aggregations
+        // so we only build the list of sub-aggregations to reduce if there are any
+        List<InternalAggregations> aggregationsList = null;
         for (B bucket : buckets) {
             docCount += bucket.getDocCount();
             if (docCountError != -1) {
@@ -104,7 +106,28 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
                     docCountError += bucket.getDocCountError();
                 }
             }
-            aggregationsList.add((InternalAggregations) bucket.getAggregations());
+            InternalAggregations bucketAggs = (InternalAggregations) bucket.getAggregations();
+            if (bucketAggs.asList().isEmpty() == false) {
+                if (aggregationsList == null) {
+                    aggregationsList = new ArrayList<>(buckets.size());
+                }
+                aggregationsList.add(bucketAggs);
+            }
+        }
+        if (aggregationsList == null) {
+            if (buckets.size() == 1 && context.isFinalReduce() == false) {
+                /*
+                 * A term that only a single shard (or partial result) returned and
+                 * that has no sub-aggregations reduces to an identical bucket on a
+                 * partial reduce, so we reuse it rather than copy it. Buckets are
+                 * not shared between results so we can adjust its error in place
+                 * just like reduce does.
+                 */
+                B bucket = buckets.get(0);
+                bucket.setDocCountError(docCountError);
+                return bucket;
+            }
+            return createBucket(docCount, InternalAggregations.EMPTY, docCountError, buckets.get(0));
         }
         InternalAggregations aggs = InternalAggregations.reduce(aggregationsList, context);
         return createBucket(docCount, aggs, docCountError, buckets.get(0));
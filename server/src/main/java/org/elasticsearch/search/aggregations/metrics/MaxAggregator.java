@@ -86,7 +86,19 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MAX.select(allValues);
+        final NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values);
         return new LeafBucketCollectorBase(sub, allValues) {
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                if (bucket >= maxes.size()) {
+                    long from = maxes.size();
+                    maxes = bigArrays().grow(maxes, bucket + 1);
+                    maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
+                }
+                if (block.load(docs, count) > 0) {
+                    maxes.set(bucket, block.max(maxes.get(bucket)));
+                }
+            }
 
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -58,4 +58,9 @@ class MaxAggregatorFactory extends ValuesSourceAggregatorFactory {
         throws IOException {
         return aggregatorSupplier.build(name, config, context, parent, metadata);
     }
+
+    @Override
+    public boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
@@ -86,7 +86,20 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
+        final NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values);
         return new LeafBucketCollectorBase(sub, allValues) {
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                if (bucket >= mins.size()) {
+                    long from = mins.size();
+                    mins = bigArrays().grow(mins, bucket + 1);
+                    mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
+                }
+                if (block.load(docs, count) > 0) {
+                    mins.set(bucket, block.min(mins.get(bucket)));
+                }
+            }
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (bucket >= mins.size()) {
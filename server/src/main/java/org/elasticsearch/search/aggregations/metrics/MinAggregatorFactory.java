@@ -58,4 +58,9 @@ class MinAggregatorFactory extends ValuesSourceAggregatorFactory {
         throws IOException {
         return aggregatorSupplier.build(name, config, context, parent, metadata);
     }
+
+    @Override
+    public boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
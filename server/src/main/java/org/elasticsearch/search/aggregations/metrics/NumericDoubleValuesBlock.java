@@ -0,0 +1,89 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+
+import java.io.IOException;
+
+/**
+ * Loads the values of a single-valued numeric field for a block of documents into a reusable buffer so that metric aggregators can
+ * reduce them in tight loops over a {@code double[]} rather than one document at a time. The reductions are written so that the JIT
+ * can unroll and vectorize them. See {@link LeafBucketCollector#collect(int[], int, long)}.
+ */
+public final class NumericDoubleValuesBlock {
+
+    private final NumericDoubleValues values;
+    private double[] buffer = new double[0];
+    private int size;
+
+    public NumericDoubleValuesBlock(NumericDoubleValues values) {
+        this.values = values;
+    }
+
+    /**
+     * Loads the values of the first {@code count} documents in {@code docs}, skipping documents without a value.
+     *
+     * @return the number of loaded values
+     */
+    public int load(int[] docs, int count) throws IOException {
+        if (buffer.length < count) {
+            buffer = new double[ArrayUtil.oversize(count, Double.BYTES)];
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (values.advanceExact(docs[i])) {
+                buffer[size++] = values.doubleValue();
+            }
+        }
+        this.size = size;
+        return size;
+    }
+
+    /**
+     * The number of values loaded by the last call to {@link #load}.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The minimum of the loaded values and {@code min}.
+     */
+    public double min(double min) {
+        final double[] buffer = this.buffer;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, buffer[i]);
+        }
+        return min;
+    }
+
+    /**
+     * The maximum of the loaded values and {@code max}.
+     */
+    public double max(double max) {
+        final double[] buffer = this.buffer;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, buffer[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Adds the loaded values to the given Kahan sum.
+     */
+    public void sum(CompensatedSum sum) {
+        final double[] buffer = this.buffer;
+        for (int i = 0; i < size; i++) {
+            sum.add(buffer[i]);
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionContext;
@@ -71,21 +73,32 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
         }
         final SortedNumericDoubleValues values = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        final NumericDoubleValues singleton = FieldData.unwrapSingleton(values);
+        final NumericDoubleValuesBlock block = singleton == null ? null : new NumericDoubleValuesBlock(singleton);
 
         return new LeafBucketCollectorBase(sub, values) {
             @Override
-            public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= counts.size()) {
-                    final long from = counts.size();
-                    final long overSize = BigArrays.overSize(bucket + 1);
-                    counts = bigArrays().resize(counts, overSize);
-                    sums = bigArrays().resize(sums, overSize);
-                    compensations = bigArrays().resize(compensations, overSize);
-                    mins = bigArrays().resize(mins, overSize);
-                    maxes = bigArrays().resize(maxes, overSize);
-                    mins.fill(from, overSize, Double.POSITIVE_INFINITY);
-                    maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                if (block == null) {
+                    super.collect(docs, count, bucket);
+                    return;
+                }
+                maybeGrow(bucket);
+                final int valuesCount = block.load(docs, count);
+                if (valuesCount > 0) {
+                    counts.increment(bucket, valuesCount);
+                    kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                    block.sum(kahanSummation);
+                    sums.set(bucket, kahanSummation.value());
+                    compensations.set(bucket, kahanSummation.delta());
+                    mins.set(bucket, block.min(mins.get(bucket)));
+                    maxes.set(bucket, block.max(maxes.get(bucket)));
                 }
+            }
+
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                maybeGrow(bucket);
 
                 if (values.advanceExact(doc)) {
                     final int valuesCount = values.docValueCount();
@@ -113,6 +126,20 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
         };
     }
 
+    private void maybeGrow(long bucket) {
+        if (bucket >= counts.size()) {
+            final long from = counts.size();
+            final long overSize = BigArrays.overSize(bucket + 1);
+            counts = bigArrays().resize(counts, overSize);
+            sums = bigArrays().resize(sums, overSize);
+            compensations = bigArrays().resize(compensations, overSize);
+            mins = bigArrays().resize(mins, overSize);
+            maxes = bigArrays().resize(maxes, overSize);
+            mins.fill(from, overSize, Double.POSITIVE_INFINITY);
+            maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
+        }
+    }
+
     @Override
     public boolean hasMetric(String name) {
         try {
@@ -10,6 +10,8 @@ package org.elasticsearch.search.aggregations.metrics;
 import org.apache.lucene.search.ScoreMode;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionContext;
@@ -61,7 +63,26 @@ public class SumAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues values = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        final NumericDoubleValues singleton = FieldData.unwrapSingleton(values);
+        final NumericDoubleValuesBlock block = singleton == null ? null : new NumericDoubleValuesBlock(singleton);
         return new LeafBucketCollectorBase(sub, values) {
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                if (block == null) {
+                    super.collect(docs, count, bucket);
+                    return;
+                }
+                sums = bigArrays().grow(sums, bucket + 1);
+                compensations = bigArrays().grow(compensations, bucket + 1);
+
+                if (block.load(docs, count) > 0) {
+                    kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                    block.sum(kahanSummation);
+                    compensations.set(bucket, kahanSummation.delta());
+                    sums.set(bucket, kahanSummation.value());
+                }
+            }
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 sums = bigArrays().grow(sums, bucket + 1);
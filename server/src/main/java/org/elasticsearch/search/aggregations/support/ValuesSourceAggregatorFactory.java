@@ -58,6 +58,17 @@ public abstract class ValuesSourceAggregatorFactory extends AggregatorFactory {
     protected abstract Aggregator doCreateInternal(Aggregator parent, CardinalityUpperBound cardinality, Map<String, Object> metadata)
         throws IOException;
 
+    /**
+     * Whether several threads can read the values of this aggregation at once. That's the case for the doc values of regular fields,
+     * but not for scripts and runtime fields, which share the {@link org.elasticsearch.search.lookup.SearchLookup} of the search, nor
+     * for values sources that plugins provide.
+     */
+    protected final boolean valuesSupportConcurrentCollection() {
+        return config.script() == null
+            && (config.fieldType() == null || config.fieldType().hasDocValues())
+            && config.valueSourceType() instanceof CoreValuesSourceType;
+    }
+
     @Override
     public String getStatsSubtype() {
         return config.valueSourceType().typeName();
@@ -64,6 +64,18 @@ import static java.util.Collections.emptyMap;
 public class FetchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * The minimum number of documents to fetch from a segment for it to be worth reading its stored fields sequentially.
+     */
+    static final int MIN_DOCS_FOR_SEQUENTIAL_READER = 10;
+
+    /**
+     * The maximum average distance between the documents to fetch from a segment for its stored fields to be read sequentially.
+     * Stored fields are compressed in blocks of up to 1024 documents, so with this gap even documents of a few kilobytes
+     * share their blocks with several other documents to fetch.
+     */
+    static final int MAX_AVERAGE_GAP_FOR_SEQUENTIAL_READER = 8;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -143,12 +155,11 @@ public class FetchPhase {
                         endReaderIdx = endReaderIdx(context, leafReaderContext, index, docs);
                         int[] docIdsInLeaf = docIdsInLeaf(index, endReaderIdx, docs, leafReaderContext.docBase);
                         if (leafReaderContext.reader()instanceof SequentialStoredFieldsLeafReader lf
-                            && hasSequentialDocs
-                            && docs.length >= 10) {
-                            // All the docs to fetch are adjacent but Lucene stored fields are optimized
-                            // for random access and don't optimize for sequential access - except for merging.
-                            // So we do a little hack here and pretend we're going to do merges in order to
-                            // get better sequential access.
+                            && ((hasSequentialDocs && docs.length >= MIN_DOCS_FOR_SEQUENTIAL_READER) || hasDenseDocs(docIdsInLeaf))) {
+                            // All the docs to fetch are adjacent, or close enough that many of them share the same
+                            // compressed block, but Lucene stored fields are optimized for random access and don't
+                            // optimize for sequential access - except for merging. So we do a little hack here and
+                            // pretend we're going to do merges in order to decompress each block only once.
                             fieldReader = lf.getSequentialStoredFieldsReader()::visitDocument;
                         } else {
                             fieldReader = leafReaderContext.reader()::document;
@@ -532,6 +543,19 @@ public class FetchPhase {
         return docs.length > 0 && docs[docs.length - 1].docId - docs[0].docId == docs.length - 1;
     }
 
+    /**
+     * Returns <code>true</code> if the provided sorted <code>docIdsInLeaf</code> are numerous and close enough to each other
+     * that, on average, several of them are stored in the same compressed block of stored fields. This is typically the case
+     * when exporting large result sets, e.g. with scroll or point in time searches.
+     */
+    static boolean hasDenseDocs(int[] docIdsInLeaf) {
+        if (docIdsInLeaf.length < MIN_DOCS_FOR_SEQUENTIAL_READER) {
+            return false;
+        }
+        long span = (long) docIdsInLeaf[docIdsInLeaf.length - 1] - docIdsInLeaf[0] + 1;
+        return span <= (long) docIdsInLeaf.length * MAX_AVERAGE_GAP_FOR_SEQUENTIAL_READER;
+    }
+
     interface Profiler {
         ProfileResult finish();
 
@@ -16,6 +16,7 @@ import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConjunctionUtils;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
@@ -33,6 +34,7 @@ import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -43,11 +45,17 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -59,9 +67,18 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      */
     private static int CHECK_CANCELLED_SCORER_INTERVAL = 1 << 11;
 
+    /**
+     * The minimum number of documents in a slice when the segments of a shard are searched concurrently, so that small shards don't pay
+     * the cost of handing work over to other threads.
+     */
+    static final int MIN_DOCS_PER_SLICE = 50_000;
+
     private AggregatedDfs aggregatedDfs;
     private QueryProfiler profiler;
     private MutableQueryTimeout cancellable;
+    @Nullable
+    private final Executor sliceExecutor;
+    private final int maxSlices;
 
     public ContextIndexSearcher(
         IndexReader reader,
@@ -70,7 +87,34 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCachingPolicy queryCachingPolicy,
         boolean wrapWithExitableDirectoryReader
     ) throws IOException {
-        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader);
+        this(reader, similarity, queryCache, queryCachingPolicy, wrapWithExitableDirectoryReader, null, 1);
+    }
+
+    /**
+     * Creates a searcher that searches slices of the segments concurrently when it is given a {@link CollectorManager}.
+     *
+     * @param sliceExecutor the executor that searches all slices but the first one, or {@code null} to search all segments sequentially
+     * @param maxSlices     the maximum number of slices to split the segments into, usually the number of threads of the executor
+     */
+    public ContextIndexSearcher(
+        IndexReader reader,
+        Similarity similarity,
+        QueryCache queryCache,
+        QueryCachingPolicy queryCachingPolicy,
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor sliceExecutor,
+        int maxSlices
+    ) throws IOException {
+        this(
+            reader,
+            similarity,
+            queryCache,
+            queryCachingPolicy,
+            new MutableQueryTimeout(),
+            wrapWithExitableDirectoryReader,
+            sliceExecutor,
+            maxSlices
+        );
     }
 
     private ContextIndexSearcher(
@@ -79,13 +123,27 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCache queryCache,
         QueryCachingPolicy queryCachingPolicy,
         MutableQueryTimeout cancellable,
-        boolean wrapWithExitableDirectoryReader
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor sliceExecutor,
+        int maxSlices
     ) throws IOException {
         super(wrapWithExitableDirectoryReader ? new ExitableDirectoryReader((DirectoryReader) reader, cancellable) : reader);
         setSimilarity(similarity);
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
         this.cancellable = cancellable;
+        if (maxSlices < 1) {
+            throw new IllegalArgumentException("maxSlices must be at least 1 but was [" + maxSlices + "]");
+        }
+        this.sliceExecutor = sliceExecutor;
+        this.maxSlices = maxSlices;
+    }
+
+    /**
+     * Whether this searcher searches slices of the segments concurrently when it is given a {@link CollectorManager}.
+     */
+    public boolean hasSliceExecutor() {
+        return sliceExecutor != null;
     }
 
     public void setProfiler(QueryProfiler profiler) {
@@ -162,6 +220,133 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    /**
+     * Searches slices of the segments concurrently if this searcher has a slice executor and the query isn't profiled, with a collector
+     * per slice that is created by the calling thread. The calling thread searches the first slice, then searches those of the other
+     * slices that the executor hasn't started yet, and finally waits for all slices before reducing the collectors. Cancellation and
+     * timeouts work as for sequential searches because every slice checks the same cancellation runnables.
+     */
+    @Override
+    public <C extends Collector, T> T search(Query query, CollectorManager<C, T> collectorManager) throws IOException {
+        final List<List<LeafReaderContext>> slices = sliceExecutor == null || profiler != null
+            ? List.of()
+            : computeSlices(getIndexReader().leaves());
+        if (slices.size() <= 1) {
+            return super.search(query, collectorManager);
+        }
+        final List<C> collectors = new ArrayList<>(slices.size());
+        ScoreMode scoreMode = null;
+        for (int i = 0; i < slices.size(); i++) {
+            final C collector = collectorManager.newCollector();
+            collectors.add(collector);
+            if (scoreMode == null) {
+                scoreMode = collector.scoreMode();
+            } else if (scoreMode != collector.scoreMode()) {
+                throw new IllegalStateException("CollectorManager does not always produce collectors with the same score mode");
+            }
+        }
+        final Weight weight = createWeight(rewrite(query), scoreMode, 1);
+        final List<FutureTask<Void>> tasks = new ArrayList<>(slices.size() - 1);
+        for (int i = 1; i < slices.size(); i++) {
+            final List<LeafReaderContext> slice = slices.get(i);
+            final C collector = collectors.get(i);
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                search(slice, weight, collector);
+                return null;
+            });
+            tasks.add(task);
+            try {
+                sliceExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // the calling thread runs the task below
+            }
+        }
+        Exception failure = null;
+        try {
+            search(slices.get(0), weight, collectors.get(0));
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (FutureTask<Void> task : tasks) {
+            // runs the task on this thread unless the executor started it already, in which case it waits for it to complete
+            task.run();
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                failure = addFailure(failure, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            } else if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("failed to search slices concurrently", failure);
+        }
+        return collectorManager.reduce(collectors);
+    }
+
+    private static Exception addFailure(Exception failure, Throwable t) {
+        if (t instanceof Error error) {
+            throw error;
+        }
+        final Exception e = (Exception) t;
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    /**
+     * Returns the slices of the given segments that {@link #search(Query, CollectorManager)} searches concurrently. Searches are
+     * sequential if there is at most one slice.
+     */
+    protected List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves) {
+        return computeSlices(leaves, maxSlices, MIN_DOCS_PER_SLICE);
+    }
+
+    /**
+     * Splits the given segments into at most {@code maxSlices} slices of at least {@code minDocsPerSlice} documents each. Every segment
+     * is added to the slice with the fewest documents so far, from the largest segment to the smallest one, so that the slices are of
+     * about the same size. The segments of each slice are sorted by their ordinal.
+     */
+    static List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        final int numSlices = (int) Math.min(Math.min(maxSlices, leaves.size()), Math.max(1, totalDocs / minDocsPerSlice));
+        if (numSlices <= 1) {
+            return leaves.isEmpty() ? List.of() : List.of(leaves);
+        }
+        final List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
+        sortedLeaves.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        final List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        final long[] sliceDocs = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : sortedLeaves) {
+            int smallest = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (sliceDocs[i] < sliceDocs[smallest]) {
+                    smallest = i;
+                }
+            }
+            slices.get(smallest).add(leaf);
+            sliceDocs[smallest] += leaf.reader().maxDoc();
+        }
+        for (List<LeafReaderContext> slice : slices) {
+            slice.sort(Comparator.comparingInt(leaf -> leaf.ord));
+        }
+        return slices;
+    }
+
     @Override
     public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         weight = wrapWeight(weight);
@@ -15,6 +15,7 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -40,7 +41,10 @@ import org.elasticsearch.search.suggest.SuggestPhase;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTerminationCollectorContext;
@@ -206,6 +210,9 @@ public class QueryPhase {
         boolean hasFilterCollector,
         boolean timeoutSet
     ) throws IOException {
+        if (canSearchConcurrently(searchContext, searcher)) {
+            return searchWithCollectorManager(searchContext, searcher, query, collectors, hasFilterCollector, timeoutSet);
+        }
         // create the top docs collector last when the other collectors are known
         final TopDocsCollectorContext topDocsFactory = createTopDocsCollectorContext(searchContext, hasFilterCollector);
         // add the top docs collector, the first collector context in the chain
@@ -225,12 +232,7 @@ public class QueryPhase {
         } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
             queryResult.terminatedEarly(true);
         } catch (TimeExceededException e) {
-            assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
-            if (searchContext.request().allowPartialSearchResults() == false) {
-                // Can't rethrow TimeExceededException because not serializable
-                throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
-            }
-            queryResult.searchTimedOut(true);
+            onTimeExceeded(searchContext, timeoutSet);
         }
         if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER && queryResult.terminatedEarly() == null) {
             queryResult.terminatedEarly(false);
@@ -241,6 +243,71 @@ public class QueryPhase {
         return topDocsFactory.shouldRescore();
     }
 
+    /**
+     * Searches slices of the segments of the shard concurrently, each with its own top docs collector that is created by the
+     * {@link CollectorManager} and with the other collectors of the chain, and merges the top docs of all slices. The collectors of the
+     * slices are post-processed even if the search timed out so that partial results are returned as with sequential searches.
+     */
+    private static boolean searchWithCollectorManager(
+        SearchContext searchContext,
+        ContextIndexSearcher searcher,
+        Query query,
+        LinkedList<QueryCollectorContext> collectors,
+        boolean hasFilterCollector,
+        boolean timeoutSet
+    ) throws IOException {
+        final List<TopDocsCollectorContext> topDocsFactories = new ArrayList<>();
+        final CollectorManager<Collector, Void> collectorManager = new CollectorManager<>() {
+            @Override
+            public Collector newCollector() throws IOException {
+                final TopDocsCollectorContext topDocsFactory = createTopDocsCollectorContext(searchContext, hasFilterCollector);
+                topDocsFactories.add(topDocsFactory);
+                final LinkedList<QueryCollectorContext> sliceCollectors = new LinkedList<>(collectors);
+                sliceCollectors.addFirst(topDocsFactory);
+                return QueryCollectorContext.createQueryCollector(sliceCollectors);
+            }
+
+            @Override
+            public Void reduce(Collection<Collector> sliceCollectors) {
+                // the top docs are merged below, also when the search timed out
+                return null;
+            }
+        };
+        QuerySearchResult queryResult = searchContext.queryResult();
+        try {
+            searcher.search(query, collectorManager);
+        } catch (TimeExceededException e) {
+            onTimeExceeded(searchContext, timeoutSet);
+        }
+        TopDocsCollectorContext.postProcessSlices(topDocsFactories, queryResult);
+        for (QueryCollectorContext ctx : collectors) {
+            ctx.postProcess(queryResult);
+        }
+        return topDocsFactories.get(0).shouldRescore();
+    }
+
+    /**
+     * Returns whether the segments of the shard can be searched concurrently. Searches that are profiled, scroll, terminate after a
+     * number of hits or collapse their hits, and searches with aggregations that can't be collected concurrently, are always sequential.
+     */
+    private static boolean canSearchConcurrently(SearchContext searchContext, ContextIndexSearcher searcher) {
+        return searcher.hasSliceExecutor()
+            && searchContext.getProfilers() == null
+            && searchContext.scrollContext() == null
+            && searchContext.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER
+            && searchContext.collapse() == null
+            && AggregationPhase.supportsConcurrentCollection(searchContext);
+    }
+
+    private static void onTimeExceeded(SearchContext searchContext, boolean timeoutSet) {
+        assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
+        if (searchContext.request().allowPartialSearchResults() == false) {
+            // Can't rethrow TimeExceededException because not serializable
+            throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
+        }
+        searchContext.queryResult().searchTimedOut(true);
+    }
+
     /**
      * Returns whether collection within the provided <code>reader</code> can be early-terminated if it sorts
      * with <code>sortAndFormats</code>.
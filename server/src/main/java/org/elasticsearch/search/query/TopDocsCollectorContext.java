@@ -56,6 +56,7 @@ import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -87,10 +88,40 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         return false;
     }
 
+    /**
+     * Returns the top docs and the total hits that this context collected, with the sort of the request if any.
+     */
+    abstract TopDocsAndMaxScore newTopDocs() throws IOException;
+
+    /**
+     * Returns true if the total hits of {@link #newTopDocs()} are counted by the collector of this context, or false if they are
+     * computed for the whole shard up front or not tracked at all.
+     */
+    boolean collectsTotalHits() {
+        return true;
+    }
+
+    /**
+     * Returns the sort of the request, or <code>null</code> if the top docs are sorted by score.
+     */
+    @Nullable
+    Sort sort() {
+        return null;
+    }
+
+    /**
+     * Returns the formats of the sort values of the top docs, or <code>null</code> if the top docs are sorted by score.
+     */
+    @Nullable
+    DocValueFormat[] sortValueFormats() {
+        return null;
+    }
+
     static class EmptyTopDocsCollectorContext extends TopDocsCollectorContext {
         private final Sort sort;
         private final Collector collector;
         private final Supplier<TotalHits> hitCountSupplier;
+        private final boolean collectsTotalHits;
 
         /**
          * Ctr
@@ -112,6 +143,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 this.collector = new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
                 // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
                 this.hitCountSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                this.collectsTotalHits = false;
             } else {
                 TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
                 // implicit total hit counts are valid only when there is no filter collector in the chain
@@ -128,9 +160,11 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                             col.hasEarlyTerminated() ? TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO : TotalHits.Relation.EQUAL_TO
                         );
                     }
+                    this.collectsTotalHits = true;
                 } else {
                     this.collector = new EarlyTerminatingCollector(hitCountCollector, 0, false);
                     this.hitCountSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+                    this.collectsTotalHits = false;
                 }
             }
         }
@@ -142,7 +176,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
 
         @Override
-        void postProcess(QuerySearchResult result) {
+        TopDocsAndMaxScore newTopDocs() {
             final TotalHits totalHitCount = hitCountSupplier.get();
             final TopDocs topDocs;
             if (sort != null) {
@@ -150,7 +184,22 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             } else {
                 topDocs = new TopDocs(totalHitCount, Lucene.EMPTY_SCORE_DOCS);
             }
-            result.topDocs(new TopDocsAndMaxScore(topDocs, Float.NaN), null);
+            return new TopDocsAndMaxScore(topDocs, Float.NaN);
+        }
+
+        @Override
+        boolean collectsTotalHits() {
+            return collectsTotalHits;
+        }
+
+        @Override
+        Sort sort() {
+            return sort;
+        }
+
+        @Override
+        void postProcess(QuerySearchResult result) {
+            result.topDocs(newTopDocs(), null);
         }
     }
 
@@ -196,9 +245,14 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
 
         @Override
-        void postProcess(QuerySearchResult result) throws IOException {
+        TopDocsAndMaxScore newTopDocs() throws IOException {
             TopFieldGroups topDocs = topDocsCollector.getTopGroups(0);
-            result.topDocs(new TopDocsAndMaxScore(topDocs, maxScoreSupplier.get()), sortFmt);
+            return new TopDocsAndMaxScore(topDocs, maxScoreSupplier.get());
+        }
+
+        @Override
+        void postProcess(QuerySearchResult result) throws IOException {
+            result.topDocs(newTopDocs(), sortFmt);
         }
     }
 
@@ -222,6 +276,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         private final Supplier<TotalHits> totalHitsSupplier;
         private final Supplier<TopDocs> topDocsSupplier;
         private final Supplier<Float> maxScoreSupplier;
+        private final boolean collectsTotalHits;
 
         /**
          * Ctr
@@ -255,11 +310,13 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, Integer.MAX_VALUE);
                 topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                 totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
+                collectsTotalHits = true;
             } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
                 // don't compute hit counts via the collector
                 topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
                 topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                 totalHitsSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                collectsTotalHits = false;
             } else {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 final int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
@@ -267,11 +324,13 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                     topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, trackTotalHitsUpTo);
                     topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                     totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
+                    collectsTotalHits = true;
                 } else {
                     // don't compute hit counts via the collector
                     topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
                     topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
                     totalHitsSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+                    collectsTotalHits = false;
                 }
             }
             MaxScoreCollector maxScoreCollector = null;
@@ -301,6 +360,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return collector;
         }
 
+        @Override
         TopDocsAndMaxScore newTopDocs() {
             TopDocs in = topDocsSupplier.get();
             float maxScore = maxScoreSupplier.get();
@@ -313,10 +373,25 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return new TopDocsAndMaxScore(newTopDocs, maxScore);
         }
 
+        @Override
+        boolean collectsTotalHits() {
+            return collectsTotalHits;
+        }
+
+        @Override
+        Sort sort() {
+            return sortAndFormats == null ? null : sortAndFormats.sort;
+        }
+
+        @Override
+        DocValueFormat[] sortValueFormats() {
+            return sortAndFormats == null ? null : sortAndFormats.formats;
+        }
+
         @Override
         void postProcess(QuerySearchResult result) throws IOException {
             final TopDocsAndMaxScore topDocs = newTopDocs();
-            result.topDocs(topDocs, sortAndFormats == null ? null : sortAndFormats.formats);
+            result.topDocs(topDocs, sortValueFormats());
         }
     }
 
@@ -373,6 +448,49 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
     }
 
+    /**
+     * Merges the top docs that the provided <code>contexts</code>, which were all created for the same request, collected from distinct
+     * slices of the segments of a shard and populates <code>result</code> with them.
+     */
+    static void postProcessSlices(List<TopDocsCollectorContext> contexts, QuerySearchResult result) throws IOException {
+        final TopDocsCollectorContext first = contexts.get(0);
+        if (contexts.size() == 1) {
+            first.postProcess(result);
+            return;
+        }
+        final Sort sort = first.sort();
+        final TopDocs[] sliceTopDocs = sort == null ? new TopDocs[contexts.size()] : new TopFieldDocs[contexts.size()];
+        float maxScore = Float.NaN;
+        long totalHitCount = 0;
+        TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+        for (int i = 0; i < contexts.size(); i++) {
+            final TopDocsAndMaxScore topDocs = contexts.get(i).newTopDocs();
+            sliceTopDocs[i] = topDocs.topDocs;
+            if (Float.isNaN(topDocs.maxScore) == false) {
+                maxScore = Float.isNaN(maxScore) ? topDocs.maxScore : Math.max(maxScore, topDocs.maxScore);
+            }
+            totalHitCount += topDocs.topDocs.totalHits.value;
+            if (topDocs.topDocs.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+                relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+            }
+        }
+        // hit counts that are not collected are the same for all slices
+        final TotalHits totalHits = first.collectsTotalHits() ? new TotalHits(totalHitCount, relation) : sliceTopDocs[0].totalHits;
+        final TopDocs topDocs;
+        if (sort != null) {
+            final ScoreDoc[] scoreDocs = first.numHits() == 0
+                ? Lucene.EMPTY_SCORE_DOCS
+                : TopDocs.merge(sort, 0, first.numHits(), (TopFieldDocs[]) sliceTopDocs).scoreDocs;
+            topDocs = new TopFieldDocs(totalHits, scoreDocs, sort.getSort());
+        } else {
+            final ScoreDoc[] scoreDocs = first.numHits() == 0
+                ? Lucene.EMPTY_SCORE_DOCS
+                : TopDocs.merge(0, first.numHits(), sliceTopDocs).scoreDocs;
+            topDocs = new TopDocs(totalHits, scoreDocs);
+        }
+        result.topDocs(new TopDocsAndMaxScore(topDocs, maxScore), first.sortValueFormats());
+    }
+
     /**
      * Returns query total hit count if the <code>query</code> is a {@link MatchAllDocsQuery}
      * or a {@link TermQuery} and the <code>reader</code> has no deletions,
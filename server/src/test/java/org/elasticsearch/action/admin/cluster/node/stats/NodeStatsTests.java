@@ -14,6 +14,7 @@ import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterApplierRecordingService;
 import org.elasticsearch.cluster.service.ClusterApplierRecordingService.Stats.Recording;
+import org.elasticsearch.cluster.service.ClusterStateTaskExecutorStats;
 import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -420,6 +421,8 @@ public class NodeStatsTests extends ESTestCase {
                             deserializedClusterStateUpdateStats.getFailedNotificationElapsedMillis()
                         );
                     }
+
+                    assertEquals(discoveryStats.getTaskExecutorStats(), deserializedDiscoveryStats.getTaskExecutorStats());
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -478,6 +481,8 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.responseTimeP50, bStats.responseTimeP50);
+                        assertEquals(aStats.responseTimeP99, bStats.responseTimeP99);
                     });
                 }
                 ScriptCacheStats scriptCacheStats = nodeStats.getScriptCacheStats();
@@ -761,6 +766,8 @@ public class NodeStatsTests extends ESTestCase {
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
+                            randomNonNegativeLong(),
+                            randomNonNegativeLong(),
                             randomNonNegativeLong()
                         )
                     )
@@ -788,7 +795,25 @@ public class NodeStatsTests extends ESTestCase {
                         randomNonNegativeLong()
                     )
                     : null,
-                timeTrackerStats
+                timeTrackerStats,
+                randomBoolean()
+                    ? new ClusterStateTaskExecutorStats(
+                        randomMap(
+                            0,
+                            4,
+                            () -> new Tuple<>(
+                                randomAlphaOfLength(8),
+                                new ClusterStateTaskExecutorStats.Executor(
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong(),
+                                    randomNonNegativeLong(),
+                                    randomHistogram(),
+                                    randomHistogram()
+                                )
+                            )
+                        )
+                    )
+                    : null
             )
             : null;
         IngestStats ingestStats = null;
@@ -852,7 +877,9 @@ public class NodeStatsTests extends ESTestCase {
                         randomIntBetween(1, 10),
                         randomIntBetween(0, 2000),
                         randomDoubleBetween(1.0, 10000000.0, true),
-                        randomDoubleBetween(1.0, 10000000.0, true)
+                        randomDoubleBetween(1.0, 10000000.0, true),
+                        randomLongBetween(-1, 10000000),
+                        randomLongBetween(-1, 10000000)
                     );
                     nodeStats.put(nodeId, stats);
                 }
@@ -921,4 +948,14 @@ public class NodeStatsTests extends ESTestCase {
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static long[] randomHistogram() {
+        // one bucket more than the number of bucket upper bounds
+        final long[] histogram = new long[6];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = randomNonNegativeLong();
+        }
+        return histogram;
+    }
+
 }
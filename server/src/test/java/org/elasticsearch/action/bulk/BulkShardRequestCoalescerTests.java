@@ -0,0 +1,195 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class BulkShardRequestCoalescerTests extends ESTestCase {
+
+    private final ShardId shardId = new ShardId("index", "_na_", 0);
+    private final List<Tuple<BulkShardRequest, ActionListener<BulkShardResponse>>> sent = new ArrayList<>();
+
+    private BulkShardRequestCoalescer coalescer(boolean enabled, int maxOperations) {
+        final Settings settings = Settings.builder()
+            .put(BulkShardRequestCoalescer.COALESCING_ENABLED_SETTING.getKey(), enabled)
+            .put(BulkShardRequestCoalescer.COALESCING_MAX_OPERATIONS_SETTING.getKey(), maxOperations)
+            .build();
+        return new BulkShardRequestCoalescer(
+            settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            (request, listener) -> sent.add(Tuple.tuple(request, listener))
+        );
+    }
+
+    public void testDisabled() {
+        final BulkShardRequestCoalescer coalescer = coalescer(false, 1000);
+        final BulkShardRequest first = request(0, 1);
+        final BulkShardRequest second = request(1, 2);
+        coalescer.execute(first, 1, false, new PlainActionFuture<>());
+        coalescer.execute(second, 1, false, new PlainActionFuture<>());
+        assertThat(sent.size(), equalTo(2));
+        assertThat(sent.get(0).v1(), sameInstance(first));
+        assertThat(sent.get(1).v1(), sameInstance(second));
+    }
+
+    public void testCoalescesWhileInFlight() throws Exception {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 1000);
+        final PlainActionFuture<BulkShardResponse> firstFuture = new PlainActionFuture<>();
+        final PlainActionFuture<BulkShardResponse> secondFuture = new PlainActionFuture<>();
+        final PlainActionFuture<BulkShardResponse> thirdFuture = new PlainActionFuture<>();
+        final BulkShardRequest first = request(0, 1);
+        coalescer.execute(first, 1, false, firstFuture);
+        assertThat(sent.size(), equalTo(1));
+        assertThat(sent.get(0).v1(), sameInstance(first));
+
+        coalescer.execute(request(3, 2), 2, false, secondFuture);
+        coalescer.execute(request(5, 3), 1, false, thirdFuture);
+        assertThat(sent.size(), equalTo(1));
+        assertThat(coalescer.pendingRequests(), equalTo(2));
+
+        respond(0);
+        assertThat(firstFuture.get().getResponses().length, equalTo(1));
+        assertThat(sent.size(), equalTo(2));
+        assertThat(coalescer.pendingRequests(), equalTo(0));
+
+        final BulkShardRequest coalesced = sent.get(1).v1();
+        assertThat(coalesced.items().length, equalTo(5));
+        for (int i = 0; i < coalesced.items().length; i++) {
+            assertThat(coalesced.items()[i].id(), equalTo(i));
+        }
+        respond(1);
+
+        final BulkItemResponse[] secondResponses = secondFuture.get().getResponses();
+        assertThat(secondResponses.length, equalTo(2));
+        assertThat(secondResponses[0].getItemId(), equalTo(3));
+        assertThat(secondResponses[1].getItemId(), equalTo(4));
+        assertThat(secondResponses[1].getId(), equalTo("doc-4"));
+        final BulkItemResponse[] thirdResponses = thirdFuture.get().getResponses();
+        assertThat(thirdResponses.length, equalTo(3));
+        assertThat(thirdResponses[0].getItemId(), equalTo(5));
+        assertThat(thirdResponses[2].getItemId(), equalTo(7));
+        assertThat(thirdResponses[2].getId(), equalTo("doc-7"));
+    }
+
+    public void testRespectsMaxOperations() {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 4);
+        coalescer.execute(request(0, 1), 1, false, new PlainActionFuture<>());
+        coalescer.execute(request(1, 3), 1, false, new PlainActionFuture<>());
+        coalescer.execute(request(4, 2), 1, false, new PlainActionFuture<>());
+        // requests at the limit bypass the coalescer
+        coalescer.execute(request(6, 4), 1, false, new PlainActionFuture<>());
+        assertThat(sent.size(), equalTo(2));
+
+        respond(0);
+        assertThat(sent.size(), equalTo(3));
+        assertThat(sent.get(2).v1().items().length, equalTo(3));
+        respond(2);
+        assertThat(sent.size(), equalTo(4));
+        assertThat(sent.get(3).v1().items().length, equalTo(2));
+    }
+
+    public void testSkipsRequestsWithRefreshPolicy() {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 1000);
+        coalescer.execute(request(0, 1), 1, false, new PlainActionFuture<>());
+        final BulkShardRequest withRefresh = request(1, 1);
+        withRefresh.setRefreshPolicy(randomFrom(RefreshPolicy.IMMEDIATE, RefreshPolicy.WAIT_UNTIL));
+        coalescer.execute(withRefresh, 1, false, new PlainActionFuture<>());
+        assertThat(sent.size(), equalTo(2));
+        assertThat(sent.get(1).v1(), sameInstance(withRefresh));
+    }
+
+    public void testFailureIsPropagatedToAllRequests() {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 1000);
+        coalescer.execute(request(0, 1), 1, false, new PlainActionFuture<>());
+        final PlainActionFuture<BulkShardResponse> secondFuture = new PlainActionFuture<>();
+        final PlainActionFuture<BulkShardResponse> thirdFuture = new PlainActionFuture<>();
+        coalescer.execute(request(1, 1), 1, false, secondFuture);
+        coalescer.execute(request(2, 1), 1, false, thirdFuture);
+        respond(0);
+        sent.get(1).v2().onFailure(new IllegalStateException("boom"));
+        assertThat(expectThrows(IllegalStateException.class, secondFuture::actionGet).getMessage(), equalTo("boom"));
+        assertThat(expectThrows(IllegalStateException.class, thirdFuture::actionGet).getMessage(), equalTo("boom"));
+        assertThat(coalescer.pendingRequests(), equalTo(0));
+    }
+
+    public void testSkipsRequestsWithCancellableParent() {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 1000);
+        coalescer.execute(request(0, 1), 1, false, new PlainActionFuture<>());
+        final BulkShardRequest cancellable = request(1, 1);
+        coalescer.execute(cancellable, 1, true, new PlainActionFuture<>());
+        assertThat(sent.size(), equalTo(2));
+        assertThat(sent.get(1).v1(), sameInstance(cancellable));
+        assertThat(coalescer.pendingRequests(), equalTo(0));
+    }
+
+    public void testNotifiesAllRequestsIfOneListenerThrows() {
+        final BulkShardRequestCoalescer coalescer = coalescer(true, 1000);
+        coalescer.execute(request(0, 1), 1, false, new PlainActionFuture<>());
+        final AtomicReference<Exception> secondFailure = new AtomicReference<>();
+        coalescer.execute(request(1, 1), 1, false, new ActionListener<>() {
+            @Override
+            public void onResponse(BulkShardResponse response) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                secondFailure.set(e);
+            }
+        });
+        final PlainActionFuture<BulkShardResponse> thirdFuture = new PlainActionFuture<>();
+        coalescer.execute(request(2, 1), 1, false, thirdFuture);
+        respond(0);
+        respond(1);
+        assertThat(secondFailure.get().getMessage(), equalTo("boom"));
+        assertThat(thirdFuture.actionGet().getResponses()[0].getItemId(), equalTo(2));
+        assertThat(coalescer.pendingRequests(), equalTo(0));
+    }
+
+    private BulkShardRequest request(int firstItemId, int numItems) {
+        final BulkItemRequest[] items = new BulkItemRequest[numItems];
+        for (int i = 0; i < numItems; i++) {
+            final int id = firstItemId + i;
+            items[i] = new BulkItemRequest(id, new IndexRequest("index").id("doc-" + id).source("field", "value"));
+        }
+        return new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+    }
+
+    private void respond(int index) {
+        final Tuple<BulkShardRequest, ActionListener<BulkShardResponse>> request = sent.get(index);
+        final BulkItemRequest[] items = request.v1().items();
+        final BulkItemResponse[] responses = new BulkItemResponse[items.length];
+        for (int i = 0; i < items.length; i++) {
+            final String id = items[i].request().id();
+            responses[i] = BulkItemResponse.success(
+                items[i].id(),
+                DocWriteRequest.OpType.INDEX,
+                new IndexResponse(shardId, id, i, 1, 1, true)
+            );
+        }
+        request.v2().onResponse(new BulkShardResponse(shardId, responses));
+    }
+}
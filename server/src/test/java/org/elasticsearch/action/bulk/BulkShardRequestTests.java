@@ -8,11 +8,19 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.apache.lucene.tests.util.TestUtil.randomSimpleString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BulkShardRequestTests extends ESTestCase {
     public void testToString() {
@@ -31,4 +39,43 @@ public class BulkShardRequestTests extends ESTestCase {
         assertEquals("BulkShardRequest [" + shardId + "] containing [" + count + "] requests blocking until refresh", r.toString());
         assertEquals("requests[" + count + "], index[" + index + "][0], refresh[WAIT_UNTIL]", r.getDescription());
     }
+
+    public void testSourcesAreReleasedWithRequest() throws Exception {
+        final ShardId shardId = new ShardId(randomSimpleString(random(), 1, 10), "_na_", 0);
+        final BulkItemRequest[] items = new BulkItemRequest[between(1, 10)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest(shardId.getIndexName()).id(Integer.toString(i)).source("field", i));
+        }
+        final BytesStreamOutput out = new BytesStreamOutput();
+        new BulkShardRequest(shardId, RefreshPolicy.NONE, items).writeTo(out);
+
+        final AtomicBoolean released = new AtomicBoolean();
+        final ReleasableBytesReference bytes = new ReleasableBytesReference(out.bytes(), () -> released.set(true));
+        final BulkShardRequest request;
+        try (StreamInput in = bytes.streamInput()) {
+            request = new BulkShardRequest(in);
+        }
+        bytes.decRef();
+        assertFalse("sources must retain the network bytes", released.get());
+        for (int i = 0; i < items.length; i++) {
+            final IndexRequest indexRequest = (IndexRequest) request.items()[i].request();
+            assertThat(indexRequest.source(), instanceOf(ReleasableBytesReference.class));
+            assertThat(indexRequest.sourceAsMap().get("field"), equalTo(i));
+        }
+
+        request.incRef();
+        assertFalse(request.decRef());
+        assertFalse(released.get());
+        assertTrue(request.decRef());
+        assertTrue(released.get());
+        assertFalse(request.hasReferences());
+    }
+
+    public void testLocalRequestIsNotRefCounted() {
+        final ShardId shardId = new ShardId(randomSimpleString(random(), 1, 10), "_na_", 0);
+        final BulkShardRequest request = new BulkShardRequest(shardId, RefreshPolicy.NONE, new BulkItemRequest[0]);
+        assertFalse(request.decRef());
+        assertTrue(request.tryIncRef());
+        assertTrue(request.hasReferences());
+    }
 }
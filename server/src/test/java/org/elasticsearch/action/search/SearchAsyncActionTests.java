@@ -16,17 +16,23 @@ import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.internal.ShardSearchContextId;
+import org.elasticsearch.test.ClusterServiceUtils;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
@@ -694,6 +700,123 @@ public class SearchAsyncActionTests extends ESTestCase {
         assertThat(searchResponse.get().getSuccessfulShards(), equalTo(shardsIter.size()));
     }
 
+    public void testHedgeSlowShardRequests() throws Exception {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(true);
+        int numShards = randomIntBetween(1, 5);
+        DiscoveryNode primaryNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode replicaNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+        GroupShardsIterator<SearchShardIterator> shardsIter = getShardsIter(
+            "idx",
+            new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards,
+            true,
+            primaryNode,
+            replicaNode
+        );
+        SearchTransportService transportService = new SearchTransportService(null, null, null);
+        Map<String, Transport.Connection> lookup = new HashMap<>();
+        lookup.put(primaryNode.getId(), new MockConnection(primaryNode));
+        lookup.put(replicaNode.getId(), new MockConnection(replicaNode));
+        Map<String, AliasFilter> aliasFilters = Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY));
+
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool);
+            ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
+            responseCollectorService.addNodeStatistics(primaryNode.getId(), 0, 1_000_000, 1_000_000);
+            responseCollectorService.addNodeStatistics(replicaNode.getId(), 0, 1_000_000, 1_000_000);
+            ShardRequestHedging hedging = new ShardRequestHedging(threadPool, responseCollectorService, TimeValue.ZERO);
+
+            AtomicInteger contextIdGenerator = new AtomicInteger(0);
+            Map<ShardId, AtomicInteger> requestsPerShard = new ConcurrentHashMap<>();
+            // the first copy of every shard never answers until the search is done
+            List<Runnable> slowResponses = Collections.synchronizedList(new ArrayList<>());
+            Set<ShardSearchContextId> releasedContexts = newConcurrentSet();
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<SearchResponse> searchResponse = new AtomicReference<>();
+            ActionListener<SearchResponse> responseListener = ActionListener.wrap(
+                searchResponse::set,
+                (e) -> { throw new AssertionError("unexpected", e); }
+            );
+            AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction = new AbstractSearchAsyncAction<>(
+                "test",
+                logger,
+                transportService,
+                (cluster, node) -> lookup.get(node),
+                aliasFilters,
+                Collections.emptyMap(),
+                null,
+                request,
+                responseListener,
+                shardsIter,
+                new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+                ClusterState.EMPTY_STATE,
+                null,
+                new ArraySearchPhaseResults<>(shardsIter.size()),
+                request.getMaxConcurrentShardRequests(),
+                SearchResponse.Clusters.EMPTY,
+                hedging
+            ) {
+                @Override
+                protected void executePhaseOnShard(
+                    SearchShardIterator shardIt,
+                    SearchShardTarget shard,
+                    SearchActionListener<TestSearchPhaseResult> listener
+                ) {
+                    Runnable respond = () -> listener.onResponse(
+                        new TestSearchPhaseResult(
+                            new ShardSearchContextId(UUIDs.randomBase64UUID(), contextIdGenerator.incrementAndGet()),
+                            lookup.get(shard.getNodeId()).getNode()
+                        )
+                    );
+                    if (requestsPerShard.computeIfAbsent(shard.getShardId(), k -> new AtomicInteger()).incrementAndGet() == 1) {
+                        slowResponses.add(respond);
+                    } else {
+                        new Thread(respond).start();
+                    }
+                }
+
+                @Override
+                protected SearchPhase getNextPhase(SearchPhaseResults<TestSearchPhaseResult> results, SearchPhaseContext context) {
+                    return new SearchPhase("test") {
+                        @Override
+                        public void run() {
+                            latch.countDown();
+                        }
+                    };
+                }
+
+                @Override
+                public void sendReleaseSearchContext(
+                    ShardSearchContextId contextId,
+                    Transport.Connection connection,
+                    OriginalIndices originalIndices
+                ) {
+                    releasedContexts.add(contextId);
+                }
+            };
+            asyncAction.start();
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            for (AtomicInteger requests : requestsPerShard.values()) {
+                assertThat(requests.get(), equalTo(2));
+            }
+
+            // the slow responses lost the race so their contexts are released
+            assertThat(slowResponses.size(), equalTo(numShards));
+            slowResponses.forEach(Runnable::run);
+            assertThat(releasedContexts.size(), equalTo(numShards));
+
+            asyncAction.sendSearchResponse(null, null);
+            assertNotNull(searchResponse.get());
+            assertEquals(0, searchResponse.get().getFailedShards());
+            assertEquals(numShards, searchResponse.get().getSuccessfulShards());
+            clusterService.close();
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
     static GroupShardsIterator<SearchShardIterator> getShardsIter(
         String index,
         OriginalIndices originalIndices,
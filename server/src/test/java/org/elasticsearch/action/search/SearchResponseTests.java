@@ -12,10 +12,14 @@ import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.action.search.RestSearchAction;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
@@ -30,6 +34,9 @@ import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.SuggestTests;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.InternalAggregationTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
+import org.elasticsearch.test.rest.FakeRestRequest;
+import org.elasticsearch.transport.BytesRefRecycler;
 import org.elasticsearch.xcontent.NamedXContentRegistry;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
@@ -306,6 +313,33 @@ public class SearchResponseTests extends ESTestCase {
         }
     }
 
+    public void testChunkedToXContentMatchesToXContent() throws IOException {
+        // includes hits, aggregations, suggestions and profile results
+        SearchResponse response = createTestItem(false);
+        ToXContent.Params params = randomBoolean()
+            ? ToXContent.EMPTY_PARAMS
+            : new ToXContent.MapParams(singletonMap(RestSearchAction.TYPED_KEYS_PARAM, "true"));
+
+        XContentBuilder expected = XContentBuilder.builder(XContentType.JSON.xContent());
+        response.toXContent(expected, params);
+
+        ChunkedRestResponseBody body = ChunkedRestResponseBody.fromXContent(
+            response,
+            params,
+            new FakeRestChannel(new FakeRestRequest(), true, 1)
+        );
+        List<BytesReference> encoded = new ArrayList<>();
+        while (body.isDone() == false) {
+            try (ReleasableBytesReference chunk = body.encodeChunk(randomIntBetween(1, 1024), BytesRefRecycler.NON_RECYCLING_INSTANCE)) {
+                encoded.add(new BytesArray(BytesReference.toBytes(chunk)));
+            }
+        }
+        assertEquals(
+            BytesReference.bytes(expected).utf8ToString(),
+            CompositeBytesReference.of(encoded.toArray(new BytesReference[0])).utf8ToString()
+        );
+    }
+
     public void testSerialization() throws IOException {
         SearchResponse searchResponse = createTestItem(false);
         SearchResponse deserialized = copyWriteable(searchResponse, namedWriteableRegistry, SearchResponse::new, Version.CURRENT);
@@ -40,12 +40,13 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsModule;
-import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.gateway.GatewayAllocator;
 import org.elasticsearch.indices.EmptySystemIndices;
 import org.elasticsearch.plugins.ClusterPlugin;
 import org.elasticsearch.tasks.TaskManager;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -53,17 +54,18 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 public class ClusterModuleTests extends ModuleTestCase {
     private ClusterInfoService clusterInfoService = EmptyClusterInfoService.INSTANCE;
     private ClusterService clusterService;
-    private ThreadContext threadContext;
+    private ThreadPool threadPool;
 
     @Override
     public void setUp() throws Exception {
         super.setUp();
-        threadContext = new ThreadContext(Settings.EMPTY);
+        threadPool = new TestThreadPool(getTestName());
         clusterService = new ClusterService(
             Settings.EMPTY,
             new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
@@ -76,6 +78,7 @@ public class ClusterModuleTests extends ModuleTestCase {
     public void tearDown() throws Exception {
         super.tearDown();
         clusterService.close();
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
     }
 
     static class FakeAllocationDecider extends AllocationDecider {
@@ -140,7 +143,7 @@ public class ClusterModuleTests extends ModuleTestCase {
                 public Collection<AllocationDecider> createAllocationDeciders(Settings settings, ClusterSettings clusterSettings) {
                     return Collections.singletonList(new EnableAllocationDecider(settings, clusterSettings));
                 }
-            }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE)
+            }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE)
         );
         assertEquals(e.getMessage(), "Cannot specify allocation decider [" + EnableAllocationDecider.class.getName() + "] twice");
     }
@@ -151,7 +154,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             public Collection<AllocationDecider> createAllocationDeciders(Settings settings, ClusterSettings clusterSettings) {
                 return Collections.singletonList(new FakeAllocationDecider());
             }
-        }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE);
+        }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE);
         assertTrue(module.deciderList.stream().anyMatch(d -> d.getClass().equals(FakeAllocationDecider.class)));
     }
 
@@ -161,7 +164,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             public Map<String, Supplier<ShardsAllocator>> getShardsAllocators(Settings settings, ClusterSettings clusterSettings) {
                 return Collections.singletonMap(name, supplier);
             }
-        }), clusterInfoService, null, threadContext, EmptySystemIndices.INSTANCE);
+        }), clusterInfoService, null, threadPool, EmptySystemIndices.INSTANCE);
     }
 
     public void testRegisterShardsAllocator() {
@@ -188,7 +191,7 @@ public class ClusterModuleTests extends ModuleTestCase {
                 Collections.emptyList(),
                 clusterInfoService,
                 null,
-                threadContext,
+                threadPool,
                 EmptySystemIndices.INSTANCE
             )
         );
@@ -245,7 +248,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             List.of(existingShardsAllocatorPlugin(GatewayAllocator.ALLOCATOR_NAME)),
             clusterInfoService,
             null,
-            threadContext,
+            threadPool,
             EmptySystemIndices.INSTANCE
         );
         expectThrows(IllegalArgumentException.class, () -> clusterModule.setExistingShardsAllocators(new TestGatewayAllocator()));
@@ -258,7 +261,7 @@ public class ClusterModuleTests extends ModuleTestCase {
             List.of(existingShardsAllocatorPlugin("duplicate"), existingShardsAllocatorPlugin("duplicate")),
             clusterInfoService,
             null,
-            threadContext,
+            threadPool,
             EmptySystemIndices.INSTANCE
         );
         expectThrows(IllegalArgumentException.class, () -> clusterModule.setExistingShardsAllocators(new TestGatewayAllocator()));
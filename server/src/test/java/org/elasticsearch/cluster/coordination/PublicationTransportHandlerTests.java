@@ -11,6 +11,7 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStatePublicationEvent;
 import org.elasticsearch.cluster.Diff;
@@ -21,6 +22,8 @@ import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.service.BatchSummary;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.InputStreamStreamInput;
@@ -29,6 +32,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Nullable;
@@ -42,7 +46,11 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesRefRecycler;
 import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.RemoteTransportException;
+import org.elasticsearch.transport.RequestHandlerRegistry;
+import org.elasticsearch.transport.TestTransportChannel;
+import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportRequest;
+import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
@@ -57,8 +65,14 @@ import java.util.concurrent.TimeUnit;
 import static java.util.Collections.emptyMap;
 import static org.elasticsearch.cluster.service.MasterService.STATE_UPDATE_ACTION_NAME;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -71,7 +85,12 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
         when(transportService.newNetworkBytesStream()).then(invocation -> new RecyclerBytesStreamOutput(recycler));
 
-        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+        final PublicationTransportHandler handler = new PublicationTransportHandler(
+            Settings.EMPTY,
+            transportService,
+            writableRegistry(),
+            pu -> null
+        );
 
         final DiscoveryNode otherNode = new DiscoveryNode("otherNode", buildNewFakeTransportAddress(), Version.CURRENT);
         final ClusterState clusterState = CoordinationStateTests.clusterState(
@@ -205,7 +224,12 @@ public class PublicationTransportHandlerTests extends ESTestCase {
                 new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
                 Collections.emptySet()
             );
-            final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+            final PublicationTransportHandler handler = new PublicationTransportHandler(
+                Settings.EMPTY,
+                transportService,
+                writableRegistry(),
+                pu -> null
+            );
             transportService.start();
             transportService.acceptIncomingRequests();
 
@@ -330,4 +354,335 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         }
     }
 
+    public void testPublishChunkRequestSerialization() throws IOException {
+        final PublishChunkRequest request = new PublishChunkRequest(
+            UUIDs.randomBase64UUID(random()),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomBoolean(),
+            ReleasableBytesReference.wrap(new BytesArray(randomByteArrayOfLength(between(0, 100)))),
+            Version.CURRENT
+        );
+        final Version version = VersionUtils.randomVersionBetween(random(), Version.V_8_4_0, Version.CURRENT);
+        final PublishChunkRequest copy = copyWriteable(request, writableRegistry(), PublishChunkRequest::new, version);
+        assertThat(copy.getPublicationId(), equalTo(request.getPublicationId()));
+        assertThat(copy.getTerm(), equalTo(request.getTerm()));
+        assertThat(copy.getStateVersion(), equalTo(request.getStateVersion()));
+        assertThat(copy.getOffset(), equalTo(request.getOffset()));
+        assertThat(copy.isLast(), equalTo(request.isLast()));
+        assertThat(copy.bytes(), equalTo(request.bytes()));
+        assertThat(copy.version(), equalTo(version));
+    }
+
+    public void testSendsLargeStatesInChunks() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool("test");
+        try {
+            threadPool.getThreadContext().markAsSystemContext();
+            final DiscoveryNode masterNode = newNode("master");
+            final DiscoveryNode otherNode = newNode("other");
+            final long term = randomLongBetween(1L, 1000L);
+            final long version = randomLongBetween(2L, 1000L);
+            final ClusterState previousState = clusterState(term, version - 1, masterNode);
+            final ClusterState state = clusterState(term, version, masterNode, otherNode);
+            final ByteSizeValue chunkSize = ByteSizeValue.ofBytes(between(16, 64));
+
+            final List<TransportRequest> requests = publish(threadPool, chunkSize, previousState, state, otherNode);
+            assertThat(requests.size(), greaterThan(1));
+
+            final Receiver receiver = newReceiver(threadPool, otherNode);
+            long offset = 0L;
+            for (int i = 0; i < requests.size(); i++) {
+                assertThat(requests.get(i), instanceOf(PublishChunkRequest.class));
+                final PublishChunkRequest chunk = (PublishChunkRequest) requests.get(i);
+                final boolean last = i == requests.size() - 1;
+                assertThat(chunk.getPublicationId(), equalTo(state.stateUUID() + "/full"));
+                assertThat(chunk.getTerm(), equalTo(term));
+                assertThat(chunk.getStateVersion(), equalTo(version));
+                assertThat(chunk.getOffset(), equalTo(offset));
+                assertThat(chunk.isLast(), equalTo(last));
+                if (last) {
+                    assertThat((long) chunk.bytes().length(), lessThanOrEqualTo(chunkSize.getBytes()));
+                } else {
+                    assertThat((long) chunk.bytes().length(), equalTo(chunkSize.getBytes()));
+                }
+                offset += chunk.bytes().length();
+
+                final PublishChunkResponse response = (PublishChunkResponse) deliver(receiver, chunk);
+                if (last) {
+                    assertThat(response.getPublishWithJoinResponse().getPublishResponse().getVersion(), equalTo(version));
+                    assertThat(receiver.handler().getChunkedPublicationBytes(), equalTo(0L));
+                } else {
+                    assertThat(response.getPublishWithJoinResponse(), nullValue());
+                    assertThat(receiver.handler().getChunkedPublicationBytes(), equalTo(offset));
+                    assertThat(receiver.acceptedStates(), empty());
+                }
+            }
+
+            assertThat(receiver.acceptedStates(), hasSize(1));
+            assertThat(receiver.acceptedStates().get(0).stateUUID(), equalTo(state.stateUUID()));
+            assertThat(receiver.handler().stats().getFullClusterStateReceivedCount(), equalTo(1L));
+        } finally {
+            assertTrue(ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS));
+        }
+    }
+
+    public void testReleasesIncompleteChunkedPublications() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool("test");
+        try {
+            threadPool.getThreadContext().markAsSystemContext();
+            final DiscoveryNode masterNode = newNode("master");
+            final DiscoveryNode otherNode = newNode("other");
+            final long term = randomLongBetween(1L, 1000L);
+            final long version = randomLongBetween(2L, 1000L);
+            final ClusterState previousState = clusterState(term, version - 1, masterNode);
+            final ClusterState firstState = clusterState(term, version, masterNode, otherNode);
+            final ClusterState secondState = clusterState(term, version + 1, masterNode, otherNode);
+            final ClusterState thirdState = clusterState(term + 1, version + 2, masterNode, otherNode);
+            final ByteSizeValue chunkSize = ByteSizeValue.ofBytes(between(16, 32));
+
+            final List<TransportRequest> firstChunks = publish(threadPool, chunkSize, previousState, firstState, otherNode);
+            final List<TransportRequest> secondChunks = publish(threadPool, chunkSize, previousState, secondState, otherNode);
+            final List<TransportRequest> thirdRequests = publish(threadPool, ByteSizeValue.ZERO, previousState, thirdState, otherNode);
+            assertThat(firstChunks.size(), greaterThanOrEqualTo(3));
+            assertThat(secondChunks.size(), greaterThanOrEqualTo(2));
+            assertThat(thirdRequests, hasSize(1));
+            assertThat(thirdRequests.get(0), instanceOf(BytesTransportRequest.class));
+
+            final Receiver receiver = newReceiver(threadPool, otherNode);
+            final PublicationTransportHandler handler = receiver.handler();
+
+            // a chunk that does not follow the chunks received so far aborts the publication
+            deliver(receiver, firstChunks.get(0));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(chunkLength(firstChunks.get(0))));
+            final IllegalStateException unexpectedOffset = expectThrows(
+                IllegalStateException.class,
+                () -> deliver(receiver, firstChunks.get(2))
+            );
+            assertThat(unexpectedOffset.getMessage(), containsString("but expected offset"));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(0L));
+
+            // the following chunks of the aborted publication are rejected
+            final IllegalStateException unknownPublication = expectThrows(
+                IllegalStateException.class,
+                () -> deliver(receiver, firstChunks.get(1))
+            );
+            assertThat(unknownPublication.getMessage(), containsString("of unknown publication"));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(0L));
+
+            // the chunks of a newer state supersede the incomplete publication of an older state
+            deliver(receiver, firstChunks.get(0));
+            deliver(receiver, secondChunks.get(0));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(chunkLength(secondChunks.get(0))));
+
+            // the chunks of an older state are rejected without releasing the chunks of the newer state
+            final IllegalStateException olderPublication = expectThrows(
+                IllegalStateException.class,
+                () -> deliver(receiver, firstChunks.get(0))
+            );
+            assertThat(olderPublication.getMessage(), containsString("while receiving publication"));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(chunkLength(secondChunks.get(0))));
+
+            // a newer state that is not sent in chunks releases the incomplete publication too
+            final PublishWithJoinResponse response = (PublishWithJoinResponse) deliver(receiver, thirdRequests.get(0));
+            assertThat(response.getPublishResponse().getVersion(), equalTo(thirdState.version()));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(0L));
+            assertThat(receiver.acceptedStates(), hasSize(1));
+            assertThat(receiver.acceptedStates().get(0).stateUUID(), equalTo(thirdState.stateUUID()));
+
+            // the chunks are released if the state that they make up cannot be applied
+            final List<TransportRequest> diffRequests = publish(
+                threadPool,
+                chunkSize,
+                clusterState(term + 1, version + 3, masterNode, otherNode),
+                clusterState(term + 1, version + 4, masterNode, otherNode),
+                otherNode
+            );
+            for (TransportRequest request : diffRequests.subList(0, diffRequests.size() - 1)) {
+                deliver(receiver, request);
+            }
+            final TransportRequest lastDiffRequest = diffRequests.get(diffRequests.size() - 1);
+            expectThrows(IncompatibleClusterStateVersionException.class, () -> deliver(receiver, lastDiffRequest));
+            assertThat(handler.getChunkedPublicationBytes(), equalTo(0L));
+            assertThat(handler.stats().getIncompatibleClusterStateDiffReceivedCount(), equalTo(1L));
+            assertThat(receiver.acceptedStates(), hasSize(1));
+        } finally {
+            assertTrue(ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static DiscoveryNode newNode(String name) {
+        return new DiscoveryNode(
+            name,
+            buildNewFakeTransportAddress(),
+            Collections.emptyMap(),
+            Set.of(DiscoveryNodeRole.MASTER_ROLE),
+            Version.CURRENT
+        );
+    }
+
+    /**
+     * A cluster state of the given nodes, the first of which is the local node.
+     */
+    private static ClusterState clusterState(long term, long version, DiscoveryNode localNode, DiscoveryNode... otherNodes) {
+        final DiscoveryNodes.Builder nodes = DiscoveryNodes.builder().add(localNode).localNodeId(localNode.getId());
+        for (DiscoveryNode otherNode : otherNodes) {
+            nodes.add(otherNode);
+        }
+        return CoordinationStateTests.clusterState(
+            term,
+            version,
+            nodes.build(),
+            VotingConfiguration.EMPTY_CONFIG,
+            VotingConfiguration.EMPTY_CONFIG,
+            randomLong()
+        );
+    }
+
+    private static PublishWithJoinResponse publishWithJoinResponse(ClusterState state) {
+        return new PublishWithJoinResponse(new PublishResponse(state.term(), state.version()), Optional.empty());
+    }
+
+    private static TransportService newTransportService(ThreadPool threadPool, DiscoveryNode localNode, MockTransport mockTransport) {
+        final TransportService transportService = mockTransport.createTransportService(
+            Settings.EMPTY,
+            threadPool,
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            Collections.emptySet()
+        );
+        transportService.start();
+        transportService.acceptIncomingRequests();
+        return transportService;
+    }
+
+    /**
+     * Publishes the new state from the local node of that state to the given node, and returns copies of the requests that were sent to
+     * it. The destination acknowledges every request without handling it.
+     */
+    private List<TransportRequest> publish(
+        ThreadPool threadPool,
+        ByteSizeValue chunkSize,
+        ClusterState previousState,
+        ClusterState newState,
+        DiscoveryNode destination
+    ) throws IOException {
+        final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+        final List<TransportRequest> sentRequests = new ArrayList<>();
+        final MockTransport mockTransport = new MockTransport() {
+            @Override
+            protected void onSendRequest(long requestId, String action, TransportRequest request, DiscoveryNode node) {
+                assertThat(node, equalTo(destination));
+                try {
+                    if (request instanceof PublishChunkRequest chunk) {
+                        assertThat(action, equalTo(PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME));
+                        sentRequests.add(copyWriteable(chunk, writableRegistry(), PublishChunkRequest::new, node.getVersion()));
+                        handleResponse(
+                            requestId,
+                            chunk.isLast() ? new PublishChunkResponse(publishWithJoinResponse(newState)) : PublishChunkResponse.ACKNOWLEDGED
+                        );
+                    } else {
+                        assertThat(action, equalTo(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME));
+                        final BytesTransportRequest bytesRequest = (BytesTransportRequest) request;
+                        sentRequests.add(copyWriteable(bytesRequest, writableRegistry(), BytesTransportRequest::new, node.getVersion()));
+                        handleResponse(requestId, publishWithJoinResponse(newState));
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError("unexpected", e);
+                }
+            }
+
+            @Override
+            public RecyclerBytesStreamOutput newNetworkBytesStream() {
+                return new RecyclerBytesStreamOutput(recycler);
+            }
+        };
+        final TransportService transportService = newTransportService(threadPool, newState.nodes().getLocalNode(), mockTransport);
+        final PublicationTransportHandler handler = new PublicationTransportHandler(
+            Settings.builder().put(PublicationTransportHandler.PUBLISH_CHUNK_SIZE_SETTING.getKey(), chunkSize).build(),
+            transportService,
+            writableRegistry(),
+            pu -> null
+        );
+
+        final PublicationTransportHandler.PublicationContext context = handler.newPublicationContext(
+            new ClusterStatePublicationEvent(
+                new BatchSummary("test"),
+                previousState,
+                newState,
+                new Task(randomNonNegativeLong(), "test", STATE_UPDATE_ACTION_NAME, "", TaskId.EMPTY_TASK_ID, emptyMap()),
+                0L,
+                0L
+            )
+        );
+        final PlainActionFuture<PublishWithJoinResponse> future = PlainActionFuture.newFuture();
+        try {
+            context.sendPublishRequest(destination, new PublishRequest(newState), future);
+        } finally {
+            context.decRef();
+        }
+        assertThat(future.actionGet().getPublishResponse().getVersion(), equalTo(newState.version()));
+
+        final ClusterStateSerializationStats stats = handler.stats().getClusterStateSerializationStats();
+        if (sentRequests.get(0) instanceof PublishChunkRequest) {
+            assertThat(stats.getChunkedSendCount(), equalTo(1L));
+            assertThat(stats.getTotalChunkCount(), equalTo((long) sentRequests.size()));
+        } else {
+            assertThat(sentRequests, hasSize(1));
+            assertThat(stats.getChunkedSendCount(), equalTo(0L));
+            assertThat(stats.getTotalChunkCount(), equalTo(0L));
+        }
+        return sentRequests;
+    }
+
+    private record Receiver(TransportService transportService, PublicationTransportHandler handler, List<ClusterState> acceptedStates) {}
+
+    private Receiver newReceiver(ThreadPool threadPool, DiscoveryNode localNode) {
+        final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+        final TransportService transportService = newTransportService(threadPool, localNode, new MockTransport() {
+            @Override
+            public RecyclerBytesStreamOutput newNetworkBytesStream() {
+                return new RecyclerBytesStreamOutput(recycler);
+            }
+        });
+        final List<ClusterState> acceptedStates = new ArrayList<>();
+        final PublicationTransportHandler handler = new PublicationTransportHandler(
+            Settings.EMPTY,
+            transportService,
+            writableRegistry(),
+            request -> {
+                acceptedStates.add(request.getAcceptedState());
+                return publishWithJoinResponse(request.getAcceptedState());
+            }
+        );
+        return new Receiver(transportService, handler, acceptedStates);
+    }
+
+    /**
+     * Handles the given publication request on the receiving node and returns the response, or throws the exception that the handler threw.
+     */
+    private static TransportResponse deliver(Receiver receiver, TransportRequest request) throws Exception {
+        final String action = request instanceof PublishChunkRequest
+            ? PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME
+            : PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME;
+        final PlainActionFuture<TransportResponse> future = PlainActionFuture.newFuture();
+        processMessageReceived(receiver.transportService().getRequestHandler(action), request, new TestTransportChannel(future));
+        assertTrue(future.isDone());
+        return future.actionGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends TransportRequest> void processMessageReceived(
+        RequestHandlerRegistry<T> registry,
+        TransportRequest request,
+        TransportChannel channel
+    ) throws Exception {
+        registry.processMessageReceived((T) request, channel);
+    }
+
+    private static long chunkLength(TransportRequest request) {
+        return ((PublishChunkRequest) request).bytes().length();
+    }
+
 }
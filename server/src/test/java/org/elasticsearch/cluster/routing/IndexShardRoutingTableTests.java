@@ -45,4 +45,26 @@ public class IndexShardRoutingTableTests extends ESTestCase {
         assertNotEquals(table1, s);
         assertNotEquals(table1, table3);
     }
+
+    public void testStartedShardsShareLists() {
+        ShardId shardId = new ShardId(new Index("a", "b"), 0);
+        List<ShardRouting> shards = new ArrayList<>();
+        shards.add(TestShardRouting.newShardRouting(shardId, "node-0", true, ShardRoutingState.STARTED));
+        int replicas = randomIntBetween(0, 3);
+        for (int i = 1; i <= replicas; i++) {
+            shards.add(TestShardRouting.newShardRouting(shardId, "node-" + i, false, ShardRoutingState.STARTED));
+        }
+        IndexShardRoutingTable table = new IndexShardRoutingTable(shardId, shards);
+        assertTrue(table.allShardsStarted());
+        assertEquals(shards, table.activeShards());
+        assertSame(table.activeShards(), table.assignedShards());
+        assertTrue(table.getAllInitializingShards().isEmpty());
+
+        shards.add(TestShardRouting.newShardRouting(shardId, "node-x", false, ShardRoutingState.INITIALIZING));
+        table = new IndexShardRoutingTable(shardId, shards);
+        assertFalse(table.allShardsStarted());
+        assertEquals(shards.subList(0, shards.size() - 1), table.activeShards());
+        assertEquals(shards, table.assignedShards());
+        assertEquals(List.of(shards.get(shards.size() - 1)), table.getAllInitializingShards());
+    }
 }
@@ -160,6 +160,16 @@ public class DataTierTests extends ESTestCase {
         return nodesList;
     }
 
+    public void testParseTierList() {
+        assertThat(DataTier.parseTierList(""), is(List.of()));
+        assertThat(DataTier.parseTierList(DATA_HOT), is(List.of(DATA_HOT)));
+        assertThat(DataTier.parseTierList(DATA_COLD + "," + DATA_HOT), is(List.of(DATA_COLD, DATA_HOT)));
+        // the common tier preferences are parsed once and shared between all indices
+        String preference = getPreferredTiersConfiguration(randomFrom(DATA_HOT, DATA_WARM, DATA_COLD));
+        assertSame(DataTier.parseTierList(preference), DataTier.parseTierList(new String(preference)));
+        assertThat(DataTier.parseTierList(preference), is(Arrays.asList(preference.split(","))));
+    }
+
     public void testDataTierSettingValidator() {
         DataTierSettingValidator validator = new DataTierSettingValidator();
 
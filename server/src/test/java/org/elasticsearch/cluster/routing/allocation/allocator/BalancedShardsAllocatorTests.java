@@ -32,10 +32,12 @@ import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ThrottlingAllocationDecider;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
+import org.elasticsearch.threadpool.TestThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -136,6 +138,53 @@ public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
         }
     }
 
+    public void testBalanceWithThreads() {
+        var discoveryNodesBuilder = DiscoveryNodes.builder();
+        for (int node = 0; node < 2; node++) {
+            discoveryNodesBuilder.add(createNode("node-" + node));
+        }
+
+        var metadataBuilder = Metadata.builder();
+        var routingTableBuilder = RoutingTable.builder();
+        // enough balanced indices for the balance of the indices to be computed on several threads
+        for (int i = 0; i < 2 * BalancedShardsAllocator.MIN_INDICES_PER_THREAD; i++) {
+            addIndex(metadataBuilder, routingTableBuilder, "balanced-" + i, Map.of("node-0", 1, "node-1", 1));
+        }
+        addIndex(metadataBuilder, routingTableBuilder, "unbalanced", Map.of("node-0", 4));
+
+        var clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .nodes(discoveryNodesBuilder)
+            .metadata(metadataBuilder)
+            .routingTable(routingTableBuilder)
+            .build();
+
+        var settings = Settings.builder().put(BalancedShardsAllocator.THREADS_SETTING.getKey(), 3).build();
+        var threadPool = new TestThreadPool(getTestName());
+        try {
+            var allocator = new BalancedShardsAllocator(
+                settings,
+                new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+                threadPool
+            );
+            var allocation = new RoutingAllocation(
+                new AllocationDeciders(Collections.emptyList()),
+                RoutingNodes.mutable(clusterState.routingTable(), clusterState.nodes()),
+                clusterState,
+                ClusterInfo.EMPTY,
+                SnapshotShardSizeInfo.EMPTY,
+                System.nanoTime()
+            );
+            allocator.allocate(allocation);
+
+            var unbalanced = clusterState.metadata().index("unbalanced").getIndex();
+            assertThat(allocation.routingNodes().node("node-0").numberOfOwningShardsForIndex(unbalanced), equalTo(2));
+            assertThat(allocation.routingNodes().node("node-1").numberOfOwningShardsForIndex(unbalanced), equalTo(2));
+            assertThat(RoutingNodesHelper.shardsWithState(allocation.routingNodes(), RELOCATING).size(), equalTo(2));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     private Map<String, Integer> getTargetShardPerNodeCount(IndexRoutingTable indexRoutingTable) {
         var counts = new HashMap<String, Integer>();
         for (int shardId = 0; shardId < indexRoutingTable.size(); shardId++) {
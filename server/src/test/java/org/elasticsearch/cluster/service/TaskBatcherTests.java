@@ -25,10 +25,12 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TaskBatcherTests extends TaskExecutorTests {
 
@@ -41,6 +43,8 @@ public class TaskBatcherTests extends TaskExecutorTests {
 
     static class TestTaskBatcher extends TaskBatcher {
 
+        volatile int maxBatchSize = Integer.MAX_VALUE;
+
         TestTaskBatcher(Logger logger, PrioritizedEsThreadPoolExecutor threadExecutor) {
             super(logger, threadExecutor);
         }
@@ -53,6 +57,11 @@ public class TaskBatcherTests extends TaskExecutorTests {
             updateTasks.forEach(updateTask -> updateTask.listener.processed());
         }
 
+        @Override
+        protected int maxBatchSize(Object batchingKey) {
+            return maxBatchSize;
+        }
+
         @Override
         protected void onTimeout(BatchedTask task, TimeValue timeout) {
             threadPool.generic()
@@ -275,6 +284,44 @@ public class TaskBatcherTests extends TaskExecutorTests {
         latch.await();
     }
 
+    public void testBatchSizeIsLimited() throws InterruptedException {
+        final int maxBatchSize = randomIntBetween(1, 5);
+        final int taskCount = randomIntBetween(1, 20);
+        taskBatcher.maxBatchSize = maxBatchSize;
+
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        final TestExecutor<Integer> executor = batches::add;
+        final CountDownLatch latch = new CountDownLatch(taskCount);
+        final TestListener listener = new TestListener() {
+            @Override
+            public void processed() {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+
+        try (BlockingTask blockingTask = new BlockingTask(Priority.IMMEDIATE)) {
+            submitTask("blocking", blockingTask);
+            for (int i = 0; i < taskCount; i++) {
+                submitTask("task " + i, i, ClusterStateTaskConfig.build(Priority.NORMAL), executor, listener);
+            }
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        final List<Integer> executed = new ArrayList<>();
+        for (List<Integer> batch : batches) {
+            assertThat(batch.size(), lessThanOrEqualTo(maxBatchSize));
+            executed.addAll(batch);
+        }
+        assertThat(batches.size(), equalTo((taskCount + maxBatchSize - 1) / maxBatchSize));
+        assertThat(executed, equalTo(IntStream.range(0, taskCount).boxed().toList()));
+        assertTrue("expected empty map but was " + taskBatcher.tasksPerBatchingKey, taskBatcher.tasksPerBatchingKey.isEmpty());
+    }
+
     private static class SimpleTask {
         private final int id;
 
@@ -40,4 +40,10 @@ public class CacheBuilderTests extends ESTestCase {
         Cache<Object, Object> cache = CacheBuilder.builder().setExpireAfterWrite(timeValue).build();
         assertEquals(timeValue.getNanos(), cache.getExpireAfterWriteNanos());
     }
+
+    public void testSettingFrequencyBasedAdmission() {
+        assertFalse(CacheBuilder.builder().build().isFrequencyBasedAdmission());
+        assertFalse(CacheBuilder.builder().setFrequencyBasedAdmission(false).build().isFrequencyBasedAdmission());
+        assertTrue(CacheBuilder.builder().setFrequencyBasedAdmission(true).build().isFrequencyBasedAdmission());
+    }
 }
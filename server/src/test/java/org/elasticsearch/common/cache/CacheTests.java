@@ -37,7 +37,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -907,4 +909,135 @@ public class CacheTests extends ESTestCase {
             assertEquals(RemovalNotification.RemovalReason.INVALIDATED, removalNotifications.get(i).getRemovalReason());
         }
     }
+
+    public void testFrequencyBasedAdmissionKeepsFrequentlyUsedEntries() {
+        final int maximumWeight = 100;
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(maximumWeight)
+            .setFrequencyBasedAdmission(true)
+            .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < maximumWeight; i++) {
+                assertEquals(Integer.toString(i), cache.get(i));
+            }
+        }
+        cache.refresh();
+
+        // a scan of entries that are used only once doesn't flush the frequently used entries out of the cache
+        for (int i = maximumWeight; i < 10 * maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        cache.refresh();
+        assertEquals(maximumWeight, cache.count());
+        int retained = 0;
+        for (int i = 0; i < maximumWeight; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        assertThat(retained, greaterThanOrEqualTo(maximumWeight * 9 / 10));
+    }
+
+    public void testFrequencyBasedAdmissionRemovalNotifications() {
+        final Map<Integer, String> live = new HashMap<>();
+        final List<RemovalNotification<Integer, String>> notifications = new ArrayList<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(randomIntBetween(1, 200))
+            .setFrequencyBasedAdmission(true)
+            .removalListener(notification -> {
+                notifications.add(notification);
+                live.remove(notification.getKey(), notification.getValue());
+            })
+            .build();
+        assertTrue(cache.isFrequencyBasedAdmission());
+
+        final int numberOfKeys = randomIntBetween(1, 500);
+        for (int i = 0; i < numberOfEntries; i++) {
+            Integer key = randomIntBetween(0, numberOfKeys);
+            switch (randomIntBetween(0, 3)) {
+                case 0 -> {
+                    String value = Integer.toString(i);
+                    live.put(key, value);
+                    cache.put(key, value);
+                }
+                case 1 -> cache.invalidate(key);
+                default -> {
+                    String value = cache.get(key);
+                    if (value != null) {
+                        assertEquals(live.get(key), value);
+                    }
+                }
+            }
+        }
+        cache.refresh();
+
+        assertEquals(live.size(), cache.count());
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : cache.keys()) {
+            keys.add(key);
+        }
+        assertEquals(live.keySet(), keys);
+
+        int removed = notifications.size();
+        cache.invalidateAll();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.weight());
+        assertThat(live.keySet(), empty());
+        assertEquals(removed + keys.size(), notifications.size());
+        for (RemovalNotification<Integer, String> notification : notifications.subList(removed, notifications.size())) {
+            assertEquals(RemovalNotification.RemovalReason.INVALIDATED, notification.getRemovalReason());
+        }
+    }
+
+    public void testFrequencyBasedAdmissionConcurrentReads() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final int maximumWeight = randomIntBetween(10, 1000);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(maximumWeight)
+            .setFrequencyBasedAdmission(true)
+            .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        CopyOnWriteArrayList<Exception> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(2 * maximumWeight);
+                        String value = cache.computeIfAbsent(key, k -> Integer.toString(k));
+                        if (value.equals(Integer.toString(key)) == false) {
+                            failures.add(new IllegalStateException("unexpected value [" + value + "] for key [" + key + "]"));
+                        }
+                        if (random.nextInt(100) == 0) {
+                            cache.invalidate(key);
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException | ExecutionException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        assertThat(failures, empty());
+        cache.refresh();
+        assertThat(cache.count(), lessThanOrEqualTo(maximumWeight));
+        assertEquals(cache.count(), cache.weight());
+        int iterated = 0;
+        for (String ignored : cache.values()) {
+            iterated++;
+        }
+        assertEquals(cache.count(), iterated);
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(512);
+        int hash = randomInt();
+        assertThat(sketch.frequency(hash), equalTo(0));
+        int increments = randomIntBetween(1, FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(hash);
+        }
+        // the sketch may over estimate frequencies because of collisions but it never under estimates them
+        assertThat(sketch.frequency(hash), greaterThanOrEqualTo(increments));
+    }
+
+    public void testFrequencyIsCapped() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(512);
+        int hash = randomInt();
+        for (int i = 0; i < 2 * FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), equalTo(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch();
+        int hot = randomInt();
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(hot);
+        }
+        assertThat(sketch.frequency(hot), equalTo(FrequencySketch.MAX_FREQUENCY));
+        // enough increments of other keys halve all counters, so that keys that were popular a long time ago age out
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment(hot + 1 + i);
+        }
+        assertThat(sketch.frequency(hot), lessThan(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testHotKeysAreMoreFrequentThanColdKeys() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(1024);
+        for (int round = 0; round < 8; round++) {
+            for (int hot = 0; hot < 64; hot++) {
+                sketch.increment(hot);
+            }
+        }
+        for (int cold = 64; cold < 1024; cold++) {
+            sketch.increment(cold);
+        }
+        for (int hot = 0; hot < 64; hot++) {
+            assertThat(sketch.frequency(hot), greaterThanOrEqualTo(4));
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.elasticsearch.http;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.BytesStream;
@@ -22,6 +23,7 @@ import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
@@ -39,7 +41,9 @@ import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -342,6 +346,75 @@ public class DefaultRestChannelTests extends ESTestCase {
         }
     }
 
+    public void testChunkedResponseIsSerializedIfLengthIsRequired() {
+        // HEAD responses and responses to clients that don't support chunked transfer encoding carry the length of the body
+        final boolean isHeadRequest = randomBoolean();
+        final boolean supportsChunkedResponse = isHeadRequest && randomBoolean();
+        final RestRequest.Method method = isHeadRequest ? RestRequest.Method.HEAD : RestRequest.Method.GET;
+        final TestHttpRequest httpRequest = new TestHttpRequest(HttpRequest.HttpVersion.HTTP_1_1, method, "/") {
+            @Override
+            public boolean supportsChunkedResponse() {
+                return supportsChunkedResponse;
+            }
+
+            @Override
+            public HttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+                throw new AssertionError("the response should have been serialized");
+            }
+        };
+        final RestRequest request = RestRequest.request(parserConfig(), httpRequest, httpChannel);
+        DefaultRestChannel channel = new DefaultRestChannel(
+            httpChannel,
+            httpRequest,
+            request,
+            bigArrays,
+            HttpHandlingSettings.fromSettings(Settings.EMPTY),
+            threadPool.getThreadContext(),
+            CorsHandler.fromSettings(Settings.EMPTY),
+            null
+        );
+        channel.sendResponse(new RestResponse(RestStatus.OK, chunkedBody("{\"hits\":[", "{\"id\":1}", "]}")));
+
+        ArgumentCaptor<TestHttpResponse> responseCaptor = ArgumentCaptor.forClass(TestHttpResponse.class);
+        verify(httpChannel).sendResponse(responseCaptor.capture(), any());
+        TestHttpResponse httpResponse = responseCaptor.getValue();
+        assertEquals("19", httpResponse.headers().get(DefaultRestChannel.CONTENT_LENGTH).get(0));
+        assertEquals(isHeadRequest ? "" : "{\"hits\":[{\"id\":1}]}", httpResponse.content().utf8ToString());
+    }
+
+    public void testChunkedResponseHasNoContentLength() {
+        final TestHttpRequest httpRequest = new TestHttpRequest(HttpRequest.HttpVersion.HTTP_1_1, RestRequest.Method.GET, "/") {
+            @Override
+            public boolean supportsChunkedResponse() {
+                return true;
+            }
+
+            @Override
+            public HttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+                assertFalse(content.isDone());
+                return new TestHttpResponse(status, BytesArray.EMPTY);
+            }
+        };
+        final RestRequest request = RestRequest.request(parserConfig(), httpRequest, httpChannel);
+        DefaultRestChannel channel = new DefaultRestChannel(
+            httpChannel,
+            httpRequest,
+            request,
+            bigArrays,
+            HttpHandlingSettings.fromSettings(Settings.EMPTY),
+            threadPool.getThreadContext(),
+            CorsHandler.fromSettings(Settings.EMPTY),
+            null
+        );
+        channel.sendResponse(new RestResponse(RestStatus.OK, chunkedBody("{", "}")));
+
+        ArgumentCaptor<TestHttpResponse> responseCaptor = ArgumentCaptor.forClass(TestHttpResponse.class);
+        verify(httpChannel).sendResponse(responseCaptor.capture(), any());
+        Map<String, List<String>> headers = responseCaptor.getValue().headers();
+        assertThat(headers.get(DefaultRestChannel.CONTENT_LENGTH), nullValue());
+        assertEquals("application/json", headers.get(DefaultRestChannel.CONTENT_TYPE).get(0));
+    }
+
     public void testCloseOnException() {
         final boolean close = randomBoolean();
         final HttpRequest.HttpVersion httpVersion = close ? HttpRequest.HttpVersion.HTTP_1_0 : HttpRequest.HttpVersion.HTTP_1_1;
@@ -416,4 +489,24 @@ public class DefaultRestChannelTests extends ESTestCase {
     private static RestResponse testRestResponse() {
         return new RestResponse(RestStatus.OK, "content");
     }
+
+    private static ChunkedRestResponseBody chunkedBody(String... chunks) {
+        final Iterator<String> iterator = Arrays.asList(chunks).iterator();
+        return new ChunkedRestResponseBody() {
+            @Override
+            public boolean isDone() {
+                return iterator.hasNext() == false;
+            }
+
+            @Override
+            public ReleasableBytesReference encodeChunk(int sizeHint, Recycler<BytesRef> recycler) {
+                return ReleasableBytesReference.wrap(new BytesArray(iterator.next()));
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return "application/json";
+            }
+        };
+    }
 }
@@ -191,6 +191,7 @@ public class IndexModuleTests extends ESTestCase {
             clusterService,
             null,
             indicesQueryCache,
+            null,
             mapperRegistry,
             new IndicesFieldDataCache(settings, listener),
             writableRegistry(),
@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class PagedVersionValueMapTests extends ESTestCase {
+
+    public void testPutGetRemove() {
+        PagedVersionValueMap map = new PagedVersionValueMap(BigArrays.NON_RECYCLING_INSTANCE, randomIntBetween(0, 100));
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        int iters = randomIntBetween(100, 5000);
+        for (int i = 0; i < iters; i++) {
+            BytesRef uid = new BytesRef(TestUtil.randomSimpleString(random(), 1, 4));
+            if (randomBoolean()) {
+                IndexVersionValue value = randomIndexVersionValue();
+                assertEquals(expected.put(uid, value), map.put(uid, value));
+            } else {
+                assertEquals(expected.remove(uid), map.remove(uid));
+            }
+            assertEquals(expected.get(uid), map.get(uid));
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.isEmpty(), map.isEmpty());
+        }
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    public void testClear() {
+        PagedVersionValueMap map = new PagedVersionValueMap(BigArrays.NON_RECYCLING_INSTANCE, randomIntBetween(0, 100));
+        long initialRamBytesUsed = map.ramBytesUsed();
+        int numEntries = randomIntBetween(1, 5000);
+        for (int i = 0; i < numEntries; i++) {
+            map.put(new BytesRef(Integer.toString(i)), randomIndexVersionValue());
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get(new BytesRef("0")));
+        assertThat(map.ramBytesUsed(), equalTo(initialRamBytesUsed));
+
+        IndexVersionValue value = randomIndexVersionValue();
+        assertNull(map.put(new BytesRef("0"), value));
+        assertEquals(value, map.get(new BytesRef("0")));
+        assertEquals(1, map.size());
+    }
+
+    public void testRejectsDeletes() {
+        PagedVersionValueMap map = new PagedVersionValueMap(BigArrays.NON_RECYCLING_INSTANCE, 0);
+        DeleteVersionValue delete = new DeleteVersionValue(1, 1, 1, 1);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> map.put(new BytesRef("1"), delete));
+        assertThat(e.getMessage(), equalTo("only index version values can be stored in a paged version map but got [" + delete + "]"));
+    }
+
+    public void testRamBytesUsedGrows() {
+        PagedVersionValueMap map = new PagedVersionValueMap(BigArrays.NON_RECYCLING_INSTANCE, 0);
+        long initial = map.ramBytesUsed();
+        for (int i = 0; i < 10000; i++) {
+            map.put(new BytesRef(Integer.toString(i)), randomIndexVersionValue());
+        }
+        assertThat(map.ramBytesUsed(), greaterThan(initial));
+    }
+
+    public void testLiveVersionMapWithPagedMaps() throws Exception {
+        LiveVersionMap map = new LiveVersionMap(true);
+        BytesRef uid = new BytesRef("test");
+        try (Releasable r = map.acquireLock(uid)) {
+            IndexVersionValue value = new IndexVersionValue(new Translog.Location(1, 2, 3), 1, 1, 1);
+            map.putIndexUnderLock(uid, value);
+            assertEquals(value, map.getUnderLock(uid));
+            long ramBytesUsed = map.ramBytesUsed();
+            assertThat(ramBytesUsed, greaterThan(0L));
+            map.beforeRefresh();
+            assertEquals(value, map.getUnderLock(uid));
+            assertThat(map.getRefreshingBytes(), greaterThan(0L));
+            map.afterRefresh(randomBoolean());
+            assertNull(map.getUnderLock(uid));
+            assertThat(map.getRefreshingBytes(), equalTo(0L));
+
+            map.putIndexUnderLock(uid, value);
+            map.putDeleteUnderLock(uid, new DeleteVersionValue(2, 2, 1, 1));
+            assertEquals(new DeleteVersionValue(2, 2, 1, 1), map.getUnderLock(uid));
+            assertEquals(0, map.getAllCurrent().size());
+            map.beforeRefresh();
+            map.afterRefresh(randomBoolean());
+            assertEquals(new DeleteVersionValue(2, 2, 1, 1), map.getUnderLock(uid));
+            map.pruneTombstones(2, 2);
+            assertNull(map.getUnderLock(uid));
+        }
+    }
+
+    private static IndexVersionValue randomIndexVersionValue() {
+        Translog.Location location = randomBoolean()
+            ? null
+            : new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomInt());
+        return new IndexVersionValue(location, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+}
@@ -18,6 +18,7 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Term;
@@ -37,6 +38,7 @@ import org.apache.lucene.tests.util.TestUtil;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.UnicodeUtil;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.search.Queries;
@@ -49,6 +51,7 @@ import org.elasticsearch.search.MultiValueMode;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
@@ -565,6 +568,60 @@ public abstract class AbstractStringFieldDataTestCase extends AbstractFieldDataI
         assertThat(ord, equalTo(SortedSetDocValues.NO_MORE_ORDS));
     }
 
+    public void testGlobalOrdinalsAfterAddingSegments() throws Exception {
+        fillExtendedMvSet();
+        refreshReader();
+        IndexOrdinalsFieldData ifd = getForField("string", "value", hasDocValues());
+        // keep the global ordinals of the first reader alive so that the ones of the next reader are built from them
+        IndexOrdinalsFieldData previous = ifd.loadGlobal(topLevelReader);
+        assertNotNull(previous.getOrdinalMap());
+
+        Document d = new Document();
+        addField(d, "_id", "11");
+        addField(d, "value", "00");
+        addField(d, "value", "05");
+        writer.addDocument(d);
+        writer.commit();
+
+        d = new Document();
+        addField(d, "_id", "12");
+        addField(d, "value", "07b");
+        addField(d, "value", "11");
+        writer.addDocument(d);
+        refreshReader();
+        assertThat(topLevelReader.leaves().size(), equalTo(5));
+
+        IndexOrdinalsFieldData globalOrdinals = ifd.loadGlobal(topLevelReader);
+        assertThat(globalOrdinals, instanceOf(GlobalOrdinalsIndexFieldData.Consumer.class));
+        assertFalse(((GlobalOrdinalsIndexFieldData.Consumer) previous).isBuiltIncrementally());
+        assertTrue(((GlobalOrdinalsIndexFieldData.Consumer) globalOrdinals).isBuiltIncrementally());
+        assertThat(globalOrdinals.getOrdinalMap(), not(sameInstance(previous.getOrdinalMap())));
+
+        TreeSet<BytesRef> allTerms = new TreeSet<>();
+        for (LeafReaderContext leaf : topLevelReader.leaves()) {
+            TermsEnum termsEnum = ifd.load(leaf).getOrdinalsValues().termsEnum();
+            for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                allTerms.add(BytesRef.deepCopyOf(term));
+            }
+        }
+        List<BytesRef> terms = new ArrayList<>(allTerms);
+        OrdinalMap ordinalMap = globalOrdinals.getOrdinalMap();
+        assertThat(ordinalMap.getValueCount(), equalTo((long) terms.size()));
+        for (LeafReaderContext leaf : topLevelReader.leaves()) {
+            SortedSetDocValues segmentValues = ifd.load(leaf).getOrdinalsValues();
+            SortedSetDocValues globalValues = globalOrdinals.load(leaf).getOrdinalsValues();
+            assertThat(globalValues.getValueCount(), equalTo((long) terms.size()));
+            LongValues globalOrds = globalOrdinals.getGlobalOrds(leaf.ord);
+            for (long ord = 0; ord < segmentValues.getValueCount(); ord++) {
+                BytesRef term = BytesRef.deepCopyOf(segmentValues.lookupOrd(ord));
+                long globalOrd = terms.indexOf(term);
+                assertThat(globalOrds.get(ord), equalTo(globalOrd));
+                assertThat(ordinalMap.getGlobalOrds(leaf.ord).get(ord), equalTo(globalOrd));
+                assertThat(globalValues.lookupOrd(globalOrd), equalTo(term));
+            }
+        }
+    }
+
     public void testTermsEnum() throws Exception {
         fillExtendedMvSet();
         writer.forceMerge(1);
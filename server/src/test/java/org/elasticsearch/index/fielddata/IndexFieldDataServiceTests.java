@@ -11,6 +11,7 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
@@ -19,11 +20,14 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedDoublesIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedNumericIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedSetOrdinalsIndexFieldData;
@@ -31,8 +35,8 @@ import org.elasticsearch.index.mapper.BooleanFieldMapper;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperBuilderContext;
-import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.mapper.NumberFieldMapper.NumberType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.mapper.TextFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
@@ -47,6 +51,7 @@ import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.mockito.ArgumentMatchers;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -59,6 +64,8 @@ import static org.elasticsearch.index.mapper.NumberFieldMapper.NumberType.INTEGE
 import static org.elasticsearch.index.mapper.NumberFieldMapper.NumberType.LONG;
 import static org.elasticsearch.index.mapper.NumberFieldMapper.NumberType.SHORT;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -207,6 +214,58 @@ public class IndexFieldDataServiceTests extends ESSingleNodeTestCase {
         ifdService.clear();
     }
 
+    public void testClearShardForgetsLastLoadedGlobalOrdinals() throws Exception {
+        final IndexService indexService = createIndex("test");
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(
+            indexService.getIndexSettings(),
+            indicesService.getIndicesFieldDataCache(),
+            indicesService.getCircuitBreakerService()
+        );
+        final MappedFieldType fieldType = new KeywordFieldMapper.Builder("field", Version.CURRENT).build(MapperBuilderContext.ROOT)
+            .fieldType();
+        final IndexOrdinalsFieldData ifd = (IndexOrdinalsFieldData) ifdService.getForField(
+            fieldType,
+            "test",
+            () -> { throw new UnsupportedOperationException(); }
+        );
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+        final IndexWriter writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new KeywordAnalyzer()));
+
+        addKeywordDocument(writer, "a");
+        addKeywordDocument(writer, "b");
+        final DirectoryReader firstReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        // keep the global ordinals of the first reader alive so that the ones of the next readers could be built from them
+        final IndexOrdinalsFieldData first = ifd.loadGlobal(firstReader);
+        assertThat(first, instanceOf(GlobalOrdinalsIndexFieldData.Consumer.class));
+        assertFalse(((GlobalOrdinalsIndexFieldData.Consumer) first).isBuiltIncrementally());
+
+        addKeywordDocument(writer, "c");
+        final DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        final IndexOrdinalsFieldData second = ifd.loadGlobal(secondReader);
+        assertTrue(((GlobalOrdinalsIndexFieldData.Consumer) second).isBuiltIncrementally());
+
+        // once the shard is closed, the global ordinals that were last loaded for it are not reused
+        ifdService.clearShard(shardId);
+        addKeywordDocument(writer, "d");
+        final DirectoryReader thirdReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        final IndexOrdinalsFieldData third = ifd.loadGlobal(thirdReader);
+        assertFalse(((GlobalOrdinalsIndexFieldData.Consumer) third).isBuiltIncrementally());
+        assertThat(third.getOrdinalMap().getValueCount(), equalTo(4L));
+        assertThat(first.getOrdinalMap().getValueCount(), equalTo(2L));
+
+        IOUtils.close(firstReader, secondReader, thirdReader, writer);
+        ifdService.clear();
+    }
+
+    private static void addKeywordDocument(IndexWriter writer, String value) throws IOException {
+        Document doc = new Document();
+        doc.add(new SortedSetDocValuesField("field", new BytesRef(value)));
+        writer.addDocument(doc);
+        // a segment per document, so that the readers need global ordinals
+        writer.commit();
+    }
+
     public void testFieldDataCacheListener() throws Exception {
         final IndexService indexService = createIndex("test");
         final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
@@ -72,7 +72,8 @@ public class IndexReaderWrapperTests extends ESTestCase {
                 () -> closeCalled.set(true)
             ),
             mock(ShardFieldUsageTracker.FieldUsageStatsTrackingSession.class),
-            wrapper
+            wrapper,
+            null
         );
         assertEquals(1, wrap.getIndexReader().getRefCount());
         ElasticsearchDirectoryReader.addReaderCloseListener(wrap.getDirectoryReader(), key -> {
@@ -126,7 +127,8 @@ public class IndexReaderWrapperTests extends ESTestCase {
                     () -> closeCalled.set(true)
                 ),
                 mock(ShardFieldUsageTracker.FieldUsageStatsTrackingSession.class),
-                wrapper
+                wrapper,
+                null
             )
         ) {
             ElasticsearchDirectoryReader.addReaderCloseListener(wrap.getDirectoryReader(), key -> { cache.remove(key); });
@@ -166,13 +168,15 @@ public class IndexReaderWrapperTests extends ESTestCase {
                     open::close
                 ),
                 mock(ShardFieldUsageTracker.FieldUsageStatsTrackingSession.class),
-                wrapper
+                wrapper,
+                null
             )
         ) {
             final Engine.Searcher wrap = IndexShard.wrapSearcher(
                 engineSearcher,
                 mock(ShardFieldUsageTracker.FieldUsageStatsTrackingSession.class),
-                wrapper
+                wrapper,
+                null
             );
             assertNotSame(wrap, engineSearcher);
             assertThat(wrap.getDirectoryReader(), instanceOf(FieldUsageTrackingDirectoryReader.class));
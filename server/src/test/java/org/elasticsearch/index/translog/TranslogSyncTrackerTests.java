@@ -0,0 +1,119 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AsyncIOProcessor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TranslogSyncTrackerTests extends ESTestCase {
+
+    public void testStats() {
+        final TranslogSyncTracker tracker = TranslogSyncTracker.noGroupCommit();
+        tracker.onSynced(3, TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.onSynced(5, TimeUnit.MILLISECONDS.toNanos(4));
+        assertThat(tracker.getSyncs(), equalTo(2L));
+        assertThat(tracker.getSyncedOperations(), equalTo(8L));
+        assertThat(tracker.getSyncTimeInMillis(), equalTo(6L));
+        assertThat(tracker.getGroupCommitWaitTimeInMillis(), equalTo(0L));
+    }
+
+    public void testNoDelayWhenDisabled() {
+        final TranslogSyncTracker tracker = TranslogSyncTracker.noGroupCommit();
+        tracker.onSynced(2, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(tracker.groupCommitDelayNanos(between(2, 100)), equalTo(0L));
+    }
+
+    public void testNoDelayForSingleWriter() {
+        final TranslogSyncTracker tracker = new TranslogSyncTracker(() -> TimeValue.timeValueMillis(50));
+        for (int i = 0; i < randomIntBetween(1, 10); i++) {
+            assertThat(tracker.groupCommitDelayNanos(1), equalTo(0L));
+            tracker.maybeAwaitGroupCommitWindow(1);
+            tracker.onSynced(1, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertThat(tracker.getGroupCommitWaitTimeInMillis(), equalTo(0L));
+    }
+
+    public void testDelayAdaptsToFsyncLatency() {
+        final TimeValue maxDelay = TimeValue.timeValueMillis(between(1, 100));
+        final TranslogSyncTracker tracker = new TranslogSyncTracker(() -> maxDelay);
+        final long fsyncNanos = TimeUnit.MILLISECONDS.toNanos(between(1, 10));
+        for (int i = 0; i < 100; i++) {
+            tracker.onSynced(2, fsyncNanos);
+        }
+        final long delayNanos = tracker.groupCommitDelayNanos(between(2, 100));
+        assertThat(delayNanos, greaterThan(0L));
+        assertThat(delayNanos, lessThanOrEqualTo(maxDelay.nanos()));
+        assertThat(delayNanos, lessThanOrEqualTo(fsyncNanos / 2 + 1));
+        assertThat(tracker.groupCommitDelayNanos(1), equalTo(0L));
+    }
+
+    public void testWindowOpensForConcurrentSyncRequests() throws Exception {
+        final TranslogSyncTracker tracker = new TranslogSyncTracker(() -> TimeValue.timeValueMillis(100));
+        final long fsyncNanos = TimeUnit.MILLISECONDS.toNanos(20);
+        for (int i = 0; i < 10; i++) {
+            tracker.onSynced(1, fsyncNanos);
+        }
+        final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final AsyncIOProcessor<Integer> processor = new AsyncIOProcessor<>(logger, 1024, new ThreadContext(Settings.EMPTY)) {
+            @Override
+            protected void awaitBatch(int concurrentItems) {
+                tracker.maybeAwaitGroupCommitWindow(concurrentItems);
+            }
+
+            @Override
+            protected void write(List<Tuple<Integer, Consumer<Exception>>> candidates) throws IOException {
+                if (batchSizes.isEmpty()) {
+                    firstBatchStarted.countDown();
+                    try {
+                        assertTrue(releaseFirstBatch.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+                batchSizes.add(candidates.size());
+            }
+        };
+
+        // the first writer is alone, so it syncs without waiting and keeps the processor busy
+        final Thread firstWriter = new Thread(() -> processor.put(0, e -> {}));
+        firstWriter.start();
+        assertTrue(firstBatchStarted.await(10, TimeUnit.SECONDS));
+        assertThat(tracker.getGroupCommitWaitTimeInMillis(), equalTo(0L));
+
+        // concurrent writers queue their sync requests in the meantime, which opens the window for the next batch
+        final int concurrentWriters = between(2, 10);
+        final CountDownLatch synced = new CountDownLatch(concurrentWriters);
+        for (int i = 1; i <= concurrentWriters; i++) {
+            processor.put(i, e -> synced.countDown());
+        }
+        releaseFirstBatch.countDown();
+        firstWriter.join();
+        assertTrue(synced.await(10, TimeUnit.SECONDS));
+
+        assertThat(batchSizes, equalTo(List.of(1, concurrentWriters)));
+        assertThat(tracker.getGroupCommitWaitTimeInMillis(), greaterThan(0L));
+    }
+}
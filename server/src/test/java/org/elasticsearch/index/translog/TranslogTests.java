@@ -512,6 +512,9 @@ public class TranslogTests extends ESTestCase {
             assertThat(stats.getUncommittedOperations(), equalTo(4));
             assertThat(stats.getUncommittedSizeInBytes(), equalTo(271L));
             assertThat(stats.getEarliestLastModifiedAge(), greaterThan(0L));
+            assertThat(stats.getSyncs(), greaterThan(0L));
+            assertThat(stats.getSyncedOperations(), equalTo(4L));
+            assertThat(stats.getGroupCommitWaitTimeInMillis(), equalTo(0L));
         }
 
         {
@@ -521,6 +524,9 @@ public class TranslogTests extends ESTestCase {
             final TranslogStats copy = new TranslogStats(out.bytes().streamInput());
             assertThat(copy.estimatedNumberOfOperations(), equalTo(4));
             assertThat(copy.getTranslogSizeInBytes(), equalTo(326L));
+            assertThat(copy.getSyncs(), equalTo(stats.getSyncs()));
+            assertThat(copy.getSyncedOperations(), equalTo(stats.getSyncedOperations()));
+            assertThat(copy.getSyncTimeInMillis(), equalTo(stats.getSyncTimeInMillis()));
 
             try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
                 builder.startObject();
@@ -533,9 +539,15 @@ public class TranslogTests extends ESTestCase {
                         "size_in_bytes": 326,
                         "uncommitted_operations": 4,
                         "uncommitted_size_in_bytes": 271,
-                        "earliest_last_modified_age": %s
+                        "earliest_last_modified_age": %s,
+                        "sync": {
+                          "total": %s,
+                          "operations": 4,
+                          "total_time_in_millis": %s,
+                          "group_commit_wait_time_in_millis": 0
+                        }
                       }
-                    }""".formatted(stats.getEarliestLastModifiedAge()))));
+                    }""".formatted(stats.getEarliestLastModifiedAge(), stats.getSyncs(), stats.getSyncTimeInMillis()))));
             }
         }
         translog.getDeletionPolicy().setLocalCheckpointOfSafeCommit(randomLongBetween(3, Long.MAX_VALUE));
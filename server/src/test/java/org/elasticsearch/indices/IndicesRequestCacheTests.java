@@ -23,7 +23,9 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
@@ -45,12 +47,15 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.containsString;
 
 public class IndicesRequestCacheTests extends ESTestCase {
 
     public void testBasicOperationsCache() throws Exception {
         ShardRequestCache requestCacheStats = new ShardRequestCache();
-        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder().put(IndicesRequestCache.INDICES_CACHE_FREQUENCY_BASED_ADMISSION.getKey(), randomBoolean()).build()
+        );
         Directory dir = newDirectory();
         IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
 
@@ -344,6 +349,224 @@ public class IndicesRequestCacheTests extends ESTestCase {
         IOUtils.close(reader, secondReader, thirdReader, writer, dir, cache);
     }
 
+    public void testEvictionToWarmTier() throws Exception {
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        final ByteSizeValue size;
+        {
+            IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+            AtomicBoolean indexShard = new AtomicBoolean(true);
+            ShardRequestCache requestCacheStats = new ShardRequestCache();
+            Directory dir = newDirectory();
+            IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+            writer.addDocument(newDoc(0, "foo"));
+            DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+            TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+            BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+            TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+            Loader loader = new Loader(reader, 0);
+
+            BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+            assertEquals("foo", value.streamInput().readString());
+            size = requestCacheStats.stats().getMemorySize();
+            IOUtils.close(reader, writer, dir, cache);
+        }
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder()
+                .put(IndicesRequestCache.INDICES_CACHE_QUERY_SIZE.getKey(), size.getBytes() + 1 + "b")
+                .put(IndicesRequestCache.INDICES_CACHE_WARM_SIZE.getKey(), "1mb")
+                .build()
+        );
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+
+        writer.updateDocument(new Term("id", "0"), newDoc(0, "bar"));
+        DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TestEntity secondEntity = new TestEntity(requestCacheStats, indexShard);
+
+        BytesReference value1 = cache.getOrCompute(entity, new Loader(reader, 0), mappingKey, reader, termBytes);
+        assertEquals("foo", value1.streamInput().readString());
+        BytesReference value2 = cache.getOrCompute(secondEntity, new Loader(secondReader, 0), mappingKey, secondReader, termBytes);
+        assertEquals("bar", value2.streamInput().readString());
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.warmCount());
+        assertEquals(1, requestCacheStats.stats().getEvictions());
+        // the evicted value is smaller than a page of the warm tier
+        assertEquals(IndicesRequestCache.WarmTier.PAGE_SIZE, requestCacheStats.stats().getWarmMemorySizeInBytes());
+
+        // the evicted entry is moved back from the warm tier instead of being computed again
+        Loader loader = new Loader(reader, 0);
+        value1 = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertEquals("foo", value1.streamInput().readString());
+        assertTrue(loader.loadedFromCache);
+        assertEquals(1, requestCacheStats.stats().getWarmHitCount());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.warmCount());
+
+        // the entries of a closed reader are not moved to the warm tier, even if they are evicted before the reader is cleaned up
+        reader.close();
+        value2 = cache.getOrCompute(secondEntity, new Loader(secondReader, 0), mappingKey, secondReader, termBytes);
+        assertEquals("bar", value2.streamInput().readString());
+        assertEquals(2, requestCacheStats.stats().getWarmHitCount());
+        assertEquals(1, cache.count());
+        assertEquals(0, cache.warmCount());
+        assertEquals(ByteSizeValue.ofMb(1).getBytes(), cache.warmFreeBytes());
+
+        // closing a reader cleans up its entries in both tiers
+        secondReader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.warmCount());
+        assertEquals(0L, requestCacheStats.stats().getWarmMemorySizeInBytes());
+        IOUtils.close(writer, dir, cache);
+    }
+
+    public void testWarmTierReusesPages() {
+        final int pageSize = IndicesRequestCache.WarmTier.PAGE_SIZE;
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        TestEntity entity = new TestEntity(requestCacheStats, new AtomicBoolean(true));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        Object readerCacheKey = new Object();
+        IndicesRequestCache.WarmTier warmTier = new IndicesRequestCache.WarmTier(4 * pageSize, null, key -> true);
+
+        // a value that is made of several chunks and takes three pages
+        IndicesRequestCache.Key key = new IndicesRequestCache.Key(entity, mappingKey, readerCacheKey, new BytesArray("first"));
+        BytesReference value = CompositeBytesReference.of(
+            new BytesArray(randomByteArrayOfLength(pageSize + 10)),
+            new BytesArray(randomByteArrayOfLength(pageSize))
+        );
+        warmTier.put(key, value);
+        assertEquals(1, warmTier.count());
+        assertEquals(pageSize, warmTier.freeBytes());
+        assertEquals(3L * pageSize, requestCacheStats.stats().getWarmMemorySizeInBytes());
+
+        // a value that needs more pages than are free evicts the oldest value
+        IndicesRequestCache.Key otherKey = new IndicesRequestCache.Key(entity, mappingKey, readerCacheKey, new BytesArray("second"));
+        BytesReference otherValue = new BytesArray(randomByteArrayOfLength(pageSize + 1));
+        warmTier.put(otherKey, otherValue);
+        assertEquals(1, warmTier.count());
+        assertNull(warmTier.remove(key));
+        assertEquals(2L * pageSize, warmTier.freeBytes());
+        assertEquals(2L * pageSize, requestCacheStats.stats().getWarmMemorySizeInBytes());
+
+        // moving a value back to the heap frees its pages
+        assertEquals(otherValue, warmTier.remove(otherKey));
+        assertEquals(0, warmTier.count());
+        assertEquals(4L * pageSize, warmTier.freeBytes());
+        assertEquals(0L, requestCacheStats.stats().getWarmMemorySizeInBytes());
+
+        // the pages are reused for the next values, but a value that is larger than the warm tier is dropped
+        warmTier.put(key, value);
+        warmTier.put(otherKey, new BytesArray(randomByteArrayOfLength(4 * pageSize + 1)));
+        assertEquals(1, warmTier.count());
+        assertEquals(value, warmTier.remove(key));
+
+        // invalidating a value frees its pages too
+        warmTier.put(otherKey, otherValue);
+        assertEquals(2L * pageSize, warmTier.freeBytes());
+        warmTier.invalidate(otherKey);
+        assertEquals(0, warmTier.count());
+        assertEquals(4L * pageSize, warmTier.freeBytes());
+        assertEquals(0L, requestCacheStats.stats().getWarmMemorySizeInBytes());
+    }
+
+    public void testWarmTierAllocatesBuffersWhenNeeded() {
+        final int pageSize = IndicesRequestCache.WarmTier.PAGE_SIZE;
+        final int pagesPerBuffer = IndicesRequestCache.WarmTier.PAGES_PER_BUFFER;
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        TestEntity entity = new TestEntity(requestCacheStats, new AtomicBoolean(true));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        Object readerCacheKey = new Object();
+        IndicesRequestCache.WarmTier warmTier = new IndicesRequestCache.WarmTier(3L * pagesPerBuffer * pageSize, null, key -> true);
+        assertEquals(0L, warmTier.allocatedBytes());
+        assertEquals(3L * pagesPerBuffer * pageSize, warmTier.freeBytes());
+
+        IndicesRequestCache.Key key = new IndicesRequestCache.Key(entity, mappingKey, readerCacheKey, new BytesArray("first"));
+        BytesReference value = new BytesArray(randomByteArrayOfLength(between(1, pageSize)));
+        warmTier.put(key, value);
+        assertEquals((long) pagesPerBuffer * pageSize, warmTier.allocatedBytes());
+
+        // a value that does not fit into the free pages of the first buffer allocates the next one rather than evicting
+        IndicesRequestCache.Key otherKey = new IndicesRequestCache.Key(entity, mappingKey, readerCacheKey, new BytesArray("second"));
+        BytesReference otherValue = new BytesArray(randomByteArrayOfLength(pagesPerBuffer * pageSize + 1));
+        warmTier.put(otherKey, otherValue);
+        assertEquals(2, warmTier.count());
+        assertEquals(2L * pagesPerBuffer * pageSize, warmTier.allocatedBytes());
+        assertEquals(3L * pagesPerBuffer * pageSize - (pagesPerBuffer + 2L) * pageSize, warmTier.freeBytes());
+        assertEquals(otherValue, warmTier.remove(otherKey));
+        assertEquals(value, warmTier.remove(key));
+
+        // values are only evicted once all buffers are allocated
+        warmTier.put(key, value);
+        warmTier.put(otherKey, new BytesArray(randomByteArrayOfLength(3 * pagesPerBuffer * pageSize)));
+        assertEquals(3L * pagesPerBuffer * pageSize, warmTier.allocatedBytes());
+        assertEquals(1, warmTier.count());
+        assertNull(warmTier.remove(key));
+        assertEquals(0L, warmTier.freeBytes());
+    }
+
+    public void testWarmSizeIsLimitedByDirectMemory() {
+        final long maxWarmSize = IndicesRequestCache.maxDirectMemory() / 2;
+        assertEquals(
+            maxWarmSize,
+            IndicesRequestCache.INDICES_CACHE_WARM_SIZE.get(
+                Settings.builder().put(IndicesRequestCache.INDICES_CACHE_WARM_SIZE.getKey(), maxWarmSize + "b").build()
+            ).getBytes()
+        );
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> IndicesRequestCache.INDICES_CACHE_WARM_SIZE.get(
+                Settings.builder().put(IndicesRequestCache.INDICES_CACHE_WARM_SIZE.getKey(), maxWarmSize + 1 + "b").build()
+            )
+        );
+        assertThat(e.getMessage(), containsString("indices.requests.cache.warm.size"));
+
+        assertEquals(1024L, IndicesRequestCache.parseJvmMemorySize("1024"));
+        assertEquals(ByteSizeValue.ofKb(64).getBytes(), IndicesRequestCache.parseJvmMemorySize("64k"));
+        assertEquals(ByteSizeValue.ofMb(512).getBytes(), IndicesRequestCache.parseJvmMemorySize("512M"));
+        assertEquals(ByteSizeValue.ofGb(2).getBytes(), IndicesRequestCache.parseJvmMemorySize("2g"));
+        assertEquals(0L, IndicesRequestCache.parseJvmMemorySize("bogus"));
+    }
+
+    public void testWarmTierOnlyAcceptsEntriesOfOpenReaders() {
+        final int pageSize = IndicesRequestCache.WarmTier.PAGE_SIZE;
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        TestEntity entity = new TestEntity(requestCacheStats, new AtomicBoolean(true));
+        Object readerCacheKey = new Object();
+        AtomicBoolean readerOpen = new AtomicBoolean(true);
+        IndicesRequestCache.WarmTier warmTier = new IndicesRequestCache.WarmTier(
+            4 * pageSize,
+            null,
+            key -> key.readerCacheKey == readerCacheKey && readerOpen.get()
+        );
+        IndicesRequestCache.Key key = new IndicesRequestCache.Key(
+            entity,
+            MappingLookup.EMPTY.cacheKey(),
+            readerCacheKey,
+            new BytesArray("key")
+        );
+
+        warmTier.put(key, new BytesArray("value"));
+        assertEquals(1, warmTier.count());
+        readerOpen.set(false);
+        warmTier.removeIf(k -> k.readerCacheKey == readerCacheKey);
+        assertEquals(0, warmTier.count());
+        warmTier.put(key, new BytesArray("value"));
+        assertEquals(0, warmTier.count());
+        assertEquals(4L * pageSize, warmTier.freeBytes());
+        assertEquals(0L, requestCacheStats.stats().getWarmMemorySizeInBytes());
+    }
+
     public void testClearAllEntityIdentity() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         AtomicBoolean indexShard = new AtomicBoolean(true);
@@ -0,0 +1,230 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.AggregatorTestCase;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Sum;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.query.QueryPhase;
+import org.elasticsearch.test.TestSearchContext;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IndicesSegmentAggregationCacheTests extends AggregatorTestCase {
+
+    private static final NamedWriteableRegistry REGISTRY = new NamedWriteableRegistry(
+        List.of(
+            new NamedWriteableRegistry.Entry(InternalAggregation.class, SumAggregationBuilder.NAME, Sum::new),
+            new NamedWriteableRegistry.Entry(DocValueFormat.class, DocValueFormat.RAW.getWriteableName(), in -> DocValueFormat.RAW)
+        )
+    );
+
+    public void testPutAndGet() throws Exception {
+        IndicesSegmentAggregationCache cache = new IndicesSegmentAggregationCache(Settings.EMPTY, REGISTRY);
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            writer.addDocument(newDoc("foo"));
+            try (DirectoryReader reader = openReader(writer)) {
+                LeafReaderContext leaf = reader.leaves().get(0);
+                MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+                IndicesSegmentAggregationCache.ForRequest forRequest = cache.forRequest(mappingKey, new BytesArray("request"), builders());
+                assertThat(forRequest.get(leaf), nullValue());
+
+                forRequest.put(leaf, InternalAggregations.from(List.of(new Sum("sum", 42, DocValueFormat.RAW, null))));
+                assertEquals(1, cache.count());
+                Sum sum = forRequest.get(leaf).get("sum");
+                assertThat(sum.value(), equalTo(42.0));
+
+                // a different request doesn't share the cached result
+                assertThat(cache.forRequest(mappingKey, new BytesArray("other"), builders()).get(leaf), nullValue());
+            }
+        }
+        // closing the reader of the segment invalidates its results
+        assertEquals(0, cache.count());
+        cache.close();
+    }
+
+    public void testNewSegmentReaderMisses() throws Exception {
+        IndicesSegmentAggregationCache cache = new IndicesSegmentAggregationCache(Settings.EMPTY, REGISTRY);
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            writer.addDocument(newDoc("foo"));
+            writer.commit();
+            try (DirectoryReader reader = openReader(writer)) {
+                IndicesSegmentAggregationCache.ForRequest forRequest = cache.forRequest(
+                    MappingLookup.EMPTY.cacheKey(),
+                    new BytesArray("request"),
+                    builders()
+                );
+                forRequest.put(reader.leaves().get(0), InternalAggregations.from(List.of(new Sum("sum", 1, DocValueFormat.RAW, null))));
+
+                // deleting a document changes the reader of the segment
+                writer.deleteDocuments(new Term("id", "foo"));
+                writer.addDocument(newDoc("bar"));
+                try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer)) {
+                    for (LeafReaderContext leaf : newReader.leaves()) {
+                        assertThat(forRequest.get(leaf), nullValue());
+                    }
+                }
+            }
+        }
+        assertEquals(0, cache.count());
+        cache.close();
+    }
+
+    public void testCachedResultsAreSameAsCollectedResults() throws Exception {
+        IndicesSegmentAggregationCache cache = new IndicesSegmentAggregationCache(Settings.EMPTY, writableRegistry());
+        IndicesSegmentAggregationCache.ForRequest forRequest = cache.forRequest(
+            MappingLookup.EMPTY.cacheKey(),
+            new BytesArray("request"),
+            searchSource().aggregations()
+        );
+        try (
+            Directory dir = newDirectory();
+            IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))
+        ) {
+            int numDocs = indexDocsInSeveralSegments(writer, 0);
+            try (DirectoryReader reader = openReader(writer)) {
+                InternalAggregations expected = executeQueryPhase(reader, null);
+                // the first search caches the result of every segment and the next ones use the cached results
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(expected.asList(), executeQueryPhase(reader, forRequest).asList());
+                    assertEquals(reader.leaves().size(), cache.count());
+                }
+                assertEquals(expected.asList(), executeQueryPhase(reader, null).asList());
+
+                // updates and deletes change the readers of their segments, whose cached results must not be used anymore
+                String updatedId = Integer.toString(randomIntBetween(0, numDocs - 1));
+                writer.updateDocument(new Term("id", updatedId), newDoc(updatedId, randomIntBetween(-1000, 1000)));
+                writer.deleteDocuments(new Term("id", Integer.toString(randomIntBetween(0, numDocs - 1))));
+                indexDocsInSeveralSegments(writer, numDocs);
+                try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer)) {
+                    assertNotNull(newReader);
+                    InternalAggregations newExpected = executeQueryPhase(newReader, null);
+                    assertEquals(newExpected.asList(), executeQueryPhase(newReader, forRequest).asList());
+                    assertEquals(newExpected.asList(), executeQueryPhase(newReader, forRequest).asList());
+                    reader.close();
+                    // the results of the segments that are only used by the closed reader are invalidated
+                    assertEquals(newReader.leaves().size(), cache.count());
+                }
+            }
+        }
+        assertEquals(0, cache.count());
+        cache.close();
+    }
+
+    /**
+     * Indexes documents with ids starting at {@code firstId} into several segments and returns the number of indexed documents.
+     */
+    private static int indexDocsInSeveralSegments(IndexWriter writer, int firstId) throws IOException {
+        int numDocs = 0;
+        int numSegments = randomIntBetween(1, 5);
+        for (int i = 0; i < numSegments; i++) {
+            int segmentDocs = randomIntBetween(1, 100);
+            for (int j = 0; j < segmentDocs; j++) {
+                // values are small enough for sums of doubles to be exact in any order
+                writer.addDocument(newDoc(Integer.toString(firstId + numDocs), randomIntBetween(-1000, 1000)));
+                numDocs++;
+            }
+            writer.flush();
+        }
+        return numDocs;
+    }
+
+    private InternalAggregations executeQueryPhase(DirectoryReader reader, IndicesSegmentAggregationCache.ForRequest segmentCache)
+        throws IOException {
+        ContextIndexSearcher searcher = new ContextIndexSearcher(
+            reader,
+            IndexSearcher.getDefaultSimilarity(),
+            IndexSearcher.getDefaultQueryCache(),
+            IndexSearcher.getDefaultQueryCachingPolicy(),
+            true
+        );
+        SearchSourceBuilder source = searchSource();
+        Query query = new MatchAllDocsQuery();
+        AggregationContext aggregationContext = createAggregationContext(searcher, query, longField("value"));
+        SearchContextAggregations aggregations = new SearchContextAggregations(source.aggregations().build(aggregationContext, null));
+        aggregations.segmentCache(segmentCache);
+        TestSearchContext context = new TestSearchContext(null, null, searcher);
+        context.request().source(source);
+        context.parsedQuery(new ParsedQuery(query));
+        context.aggregations(aggregations);
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.execute(context);
+        return context.queryResult().consumeAggs();
+    }
+
+    private static SearchSourceBuilder searchSource() {
+        return new SearchSourceBuilder().aggregation(new SumAggregationBuilder("sum").field("value"))
+            .aggregation(new MinAggregationBuilder("min").field("value"))
+            .aggregation(new MaxAggregationBuilder("max").field("value"))
+            .aggregation(new AvgAggregationBuilder("avg").field("value"))
+            .aggregation(new StatsAggregationBuilder("stats").field("value"))
+            .aggregation(new ValueCountAggregationBuilder("count").field("value"));
+    }
+
+    private static DirectoryReader openReader(IndexWriter writer) throws Exception {
+        return ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+    }
+
+    private static AggregatorFactories.Builder builders() {
+        return new AggregatorFactories.Builder().addAggregator(new SumAggregationBuilder("sum").field("value"));
+    }
+
+    private static Document newDoc(String id) {
+        Document doc = new Document();
+        doc.add(new StringField("id", id, Field.Store.NO));
+        return doc;
+    }
+
+    private static Document newDoc(String id, long value) {
+        Document doc = newDoc(id);
+        doc.add(new LongPoint("value", value));
+        doc.add(new SortedNumericDocValuesField("value", value));
+        return doc;
+    }
+}
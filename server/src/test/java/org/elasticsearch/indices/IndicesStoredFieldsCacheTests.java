@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class IndicesStoredFieldsCacheTests extends ESTestCase {
+
+    private static final Settings ENABLED = Settings.builder()
+        .put(IndicesStoredFieldsCache.INDICES_STORED_FIELDS_CACHE_SIZE_SETTING.getKey(), "1mb")
+        .build();
+
+    public void testDisabledByDefault() throws Exception {
+        IndicesStoredFieldsCache cache = new IndicesStoredFieldsCache(Settings.EMPTY, new AccountingBreaker());
+        assertFalse(cache.isEnabled());
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            writer.addDocument(newDoc("foo", 1));
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(cache.wrap(reader), sameInstance(reader));
+            }
+        }
+        cache.close();
+    }
+
+    public void testCachesDocuments() throws Exception {
+        AccountingBreaker breaker = new AccountingBreaker();
+        IndicesStoredFieldsCache cache = new IndicesStoredFieldsCache(ENABLED, breaker);
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            writer.addDocuments(List.of(newDoc("foo", 1), newDoc("bar", 2)));
+            try (DirectoryReader reader = cache.wrap(DirectoryReader.open(writer))) {
+                LeafReader leaf = reader.leaves().get(0).reader();
+                assertThat(visit(leaf, 0, "text"), contains("foo"));
+                assertEquals(1, cache.count());
+                assertEquals(0, cache.stats().getHitCount());
+                assertEquals(1, cache.stats().getMissCount());
+                assertThat(breaker.getUsed(), greaterThan(0L));
+                assertThat(breaker.getUsed(), equalTo(cache.stats().getMemorySizeInBytes()));
+
+                // the cached document has all fields so that visitors that need other fields hit it too
+                assertThat(visit(leaf, 0, "number"), contains(1));
+                assertThat(visit(leaf, 0, "binary"), contains(new BytesRef("foo")));
+                assertEquals(2, cache.stats().getHitCount());
+                assertEquals(1, cache.stats().getMissCount());
+
+                assertThat(visit(leaf, 1, "text"), contains("bar"));
+                assertEquals(2, cache.count());
+            }
+        }
+        // closing the segment invalidates its documents
+        assertEquals(0, cache.count());
+        assertEquals(0, breaker.getUsed());
+        cache.close();
+    }
+
+    public void testDoesNotCacheWhenBreakerTrips() throws Exception {
+        AccountingBreaker breaker = new AccountingBreaker();
+        breaker.breaking.set(true);
+        IndicesStoredFieldsCache cache = new IndicesStoredFieldsCache(ENABLED, breaker);
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            writer.addDocument(newDoc("foo", 1));
+            try (DirectoryReader reader = cache.wrap(DirectoryReader.open(writer))) {
+                LeafReader leaf = reader.leaves().get(0).reader();
+                assertThat(visit(leaf, 0, "text"), contains("foo"));
+                assertEquals(0, cache.count());
+                assertEquals(0, breaker.getUsed());
+            }
+        }
+        cache.close();
+    }
+
+    private static Document newDoc(String text, int number) {
+        Document doc = new Document();
+        doc.add(new StoredField("text", text));
+        doc.add(new StoredField("number", number));
+        doc.add(new StoredField("binary", new BytesRef(text)));
+        return doc;
+    }
+
+    private static List<Object> visit(LeafReader reader, int docId, String field) throws Exception {
+        List<Object> values = new ArrayList<>();
+        reader.document(docId, new StoredFieldVisitor() {
+            @Override
+            public Status needsField(FieldInfo fieldInfo) {
+                return fieldInfo.name.equals(field) ? Status.YES : Status.NO;
+            }
+
+            @Override
+            public void stringField(FieldInfo fieldInfo, String value) {
+                values.add(value);
+            }
+
+            @Override
+            public void intField(FieldInfo fieldInfo, int value) {
+                values.add(value);
+            }
+
+            @Override
+            public void binaryField(FieldInfo fieldInfo, byte[] value) {
+                values.add(new BytesRef(value));
+            }
+        });
+        return values;
+    }
+
+    private static class AccountingBreaker extends NoopCircuitBreaker {
+
+        private final AtomicLong used = new AtomicLong();
+        private final AtomicBoolean breaking = new AtomicBoolean();
+
+        AccountingBreaker() {
+            super(CircuitBreaker.ACCOUNTING);
+        }
+
+        @Override
+        public void addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+            if (breaking.get()) {
+                throw new CircuitBreakingException("broken", getDurability());
+            }
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public void addWithoutBreaking(long bytes) {
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public long getUsed() {
+            return used.get();
+        }
+    }
+}
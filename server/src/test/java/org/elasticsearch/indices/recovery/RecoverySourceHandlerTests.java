@@ -46,6 +46,7 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
@@ -244,6 +245,86 @@ public class RecoverySourceHandlerTests extends MapperServiceTestCase {
         );
     }
 
+    public void testSendFilesConcurrently() throws Throwable {
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        Store store = newStore(createTempDir());
+        RandomIndexWriter writer = new RandomIndexWriter(random(), store.directory(), newIndexWriterConfig());
+        int numDocs = randomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            Document document = new Document();
+            document.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+            document.add(newField("field", randomUnicodeOfCodepointLengthBetween(1, 10), TextField.TYPE_STORED));
+            writer.addDocument(document);
+        }
+        writer.commit();
+        writer.close();
+
+        Store.MetadataSnapshot metadata = store.getMetadata(null);
+        List<StoreFileMetadata> metas = new ArrayList<>();
+        for (StoreFileMetadata md : metadata) {
+            metas.add(md);
+        }
+        Store targetStore = newStore(createTempDir());
+        MultiFileWriter multiFileWriter = new MultiFileWriter(targetStore, mock(RecoveryState.Index.class), "", logger, () -> {});
+        final List<Tuple<StoreFileMetadata, ActionListener<Void>>> unrepliedChunks = new CopyOnWriteArrayList<>();
+        RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(
+                StoreFileMetadata md,
+                long position,
+                ReleasableBytesReference content,
+                boolean lastChunk,
+                int totalTranslogOps,
+                ActionListener<Void> listener
+            ) {
+                try {
+                    multiFileWriter.writeFileChunk(md, position, content, lastChunk);
+                    unrepliedChunks.add(Tuple.tuple(md, listener));
+                } catch (Exception e) {
+                    listener.onFailure(e);
+                }
+            }
+        };
+        final int maxConcurrentFiles = between(2, 8);
+        RecoverySourceHandler handler = new RecoverySourceHandler(
+            null,
+            target,
+            threadPool,
+            request,
+            between(512, 8192),
+            1,
+            maxConcurrentFiles,
+            between(1, 5),
+            between(1, 5),
+            false,
+            recoveryPlannerService
+        );
+        PlainActionFuture<Void> sendFilesFuture = new PlainActionFuture<>();
+        handler.sendFiles(store, metas.toArray(new StoreFileMetadata[0]), () -> 0, sendFilesFuture);
+
+        // each group of files has a single chunk in flight, so as many files as there are groups are sent at the same time
+        final int expectedGroups = Math.min(maxConcurrentFiles, metas.size());
+        assertBusy(() -> {
+            assertThat(unrepliedChunks, hasSize(expectedGroups));
+            assertThat(unrepliedChunks.stream().map(chunk -> chunk.v1().name()).collect(Collectors.toSet()), hasSize(expectedGroups));
+        });
+        while (sendFilesFuture.isDone() == false) {
+            assertBusy(() -> assertTrue(sendFilesFuture.isDone() || unrepliedChunks.isEmpty() == false));
+            List<Tuple<StoreFileMetadata, ActionListener<Void>>> chunksToAck = new ArrayList<>(unrepliedChunks);
+            unrepliedChunks.removeAll(chunksToAck);
+            chunksToAck.forEach(chunk -> chunk.v2().onResponse(null));
+        }
+        sendFilesFuture.actionGet();
+
+        Store.RecoveryDiff recoveryDiff = targetStore.getMetadata(null).recoveryDiff(metadata);
+        assertEquals(metas.size(), recoveryDiff.identical.size());
+        assertEquals(0, recoveryDiff.different.size());
+        assertEquals(0, recoveryDiff.missing.size());
+        IndexReader reader = DirectoryReader.open(targetStore.directory());
+        assertEquals(numDocs, reader.maxDoc());
+        IOUtils.close(reader, store, multiFileWriter, targetStore);
+    }
+
     public void testSendSnapshotSendsOps() throws IOException {
         IndexOpFactory iof = randomBoolean() ? new StandardModeIndexOpFactory() : new TimeSeriesModeIndexOpFactory();
         final int fileChunkSizeInBytes = between(1, 4096);
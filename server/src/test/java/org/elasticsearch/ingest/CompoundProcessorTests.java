@@ -12,10 +12,13 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -539,6 +542,221 @@ public class CompoundProcessorTests extends ESTestCase {
         }
     }
 
+    public void testExecuteBatch() {
+        List<Integer> batchSizes = new ArrayList<>();
+        Processor batchProcessor = newBatchProcessor(ingestDocuments -> {
+            batchSizes.add(ingestDocuments.size());
+            ingestDocuments.forEach(ingestDocument -> ingestDocument.setFieldValue("batched", true));
+        });
+        TestProcessor failSecond = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.getFieldValue("id", Integer.class) == 1) {
+                throw new RuntimeException("error");
+            }
+        });
+        TestProcessor dropThird = new TestProcessor(
+            null,
+            "drop",
+            null,
+            ingestDocument -> ingestDocument.getFieldValue("id", Integer.class) == 2 ? null : ingestDocument
+        );
+        CompoundProcessor compoundProcessor = new CompoundProcessor(
+            false,
+            List.of(failSecond, dropThird, batchProcessor),
+            List.of(),
+            () -> 0L
+        );
+        assertTrue(compoundProcessor.supportsBatchExecution());
+        assertFalse(new CompoundProcessor(failSecond, dropThird).supportsBatchExecution());
+
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IngestDocument ingestDocument = TestIngestDocument.emptyIngestDocument();
+            ingestDocument.setFieldValue("id", i);
+            ingestDocuments.add(ingestDocument);
+        }
+        IngestDocument[] results = new IngestDocument[ingestDocuments.size()];
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        int[] calls = new int[ingestDocuments.size()];
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            calls[slot]++;
+            results[slot] = result;
+            failures[slot] = e;
+        });
+
+        assertThat(batchSizes, equalTo(List.of(3)));
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            assertThat(calls[i], equalTo(1));
+            if (i == 1) {
+                assertThat(results[i], nullValue());
+                assertThat(((ElasticsearchException) failures[i]).getRootCause().getMessage(), equalTo("error"));
+            } else if (i == 2) {
+                assertThat(results[i], nullValue());
+                assertThat(failures[i], nullValue());
+            } else {
+                assertThat(results[i], sameInstance(ingestDocuments.get(i)));
+                assertThat(failures[i], nullValue());
+                assertThat(results[i].getFieldValue("batched", Boolean.class), is(true));
+            }
+        }
+        assertStats(0, compoundProcessor, 0, 5, 1, 0);
+        assertStats(1, compoundProcessor, 0, 4, 0, 0);
+        assertStats(2, compoundProcessor, 0, 3, 0, 0);
+    }
+
+    public void testExecuteBatchIteratesOverSynchronousProcessors() {
+        List<Integer> stackDepths = new ArrayList<>();
+        List<Processor> processors = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            processors.add(newBatchProcessor(ingestDocuments -> stackDepths.add(Thread.currentThread().getStackTrace().length)));
+        }
+        CompoundProcessor compoundProcessor = new CompoundProcessor(false, processors, List.of(), () -> 0L);
+        List<IngestDocument> ingestDocuments = List.of(TestIngestDocument.emptyIngestDocument(), TestIngestDocument.emptyIngestDocument());
+        int[] calls = new int[ingestDocuments.size()];
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(e, nullValue());
+            calls[slot]++;
+        });
+
+        assertThat(calls, equalTo(new int[] { 1, 1 }));
+        assertThat(stackDepths, hasSize(processors.size()));
+        // the stack does not grow with every processor
+        assertThat(stackDepths.get(stackDepths.size() - 1), equalTo(stackDepths.get(0)));
+    }
+
+    public void testExecuteBatchContinuesFromAsynchronousProcessor() throws Exception {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        Processor asyncBatchProcessor = new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < ingestDocuments.size(); i++) {
+                        ingestDocuments.get(i).setFieldValue("async", true);
+                        handler.accept(i, ingestDocuments.get(i), null);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public boolean isAsync() {
+                return true;
+            }
+
+            @Override
+            public String getType() {
+                return "async_batch";
+            }
+        };
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CompoundProcessor compoundProcessor = new CompoundProcessor(
+            false,
+            List.of(asyncBatchProcessor, newBatchProcessor(ingestDocuments -> batchSizes.add(ingestDocuments.size()))),
+            List.of(),
+            () -> 0L
+        );
+        List<IngestDocument> ingestDocuments = List.of(TestIngestDocument.emptyIngestDocument(), TestIngestDocument.emptyIngestDocument());
+        CountDownLatch latch = new CountDownLatch(ingestDocuments.size());
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(e, nullValue());
+            assertThat(result.getFieldValue("async", Boolean.class), is(true));
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(batchSizes, equalTo(List.of(2)));
+    }
+
+    public void testExecuteBatchSplitsTimeAcrossDocuments() {
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(4));
+        CompoundProcessor compoundProcessor = new CompoundProcessor(
+            false,
+            List.of(newBatchProcessor(ingestDocuments -> {})),
+            List.of(),
+            relativeTimeProvider
+        );
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ingestDocuments.add(TestIngestDocument.emptyIngestDocument());
+        }
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {});
+        // the batch took 4ms, which is counted once rather than once per document
+        assertStats(compoundProcessor, 4, 0, 4);
+    }
+
+    public void testExecuteBatchFailsRemainingDocumentsWhenProcessorThrows() {
+        Processor processor = new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                handler.accept(0, ingestDocuments.get(0), null);
+                throw new IllegalStateException("batch failed");
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+        CompoundProcessor compoundProcessor = new CompoundProcessor(false, List.of(processor), List.of(), () -> 0L);
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ingestDocuments.add(TestIngestDocument.emptyIngestDocument());
+        }
+        IngestDocument[] results = new IngestDocument[ingestDocuments.size()];
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        int[] calls = new int[ingestDocuments.size()];
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            calls[slot]++;
+            results[slot] = result;
+            failures[slot] = e;
+        });
+
+        assertThat(calls, equalTo(new int[] { 1, 1, 1 }));
+        assertThat(results[0], sameInstance(ingestDocuments.get(0)));
+        assertThat(failures[0], nullValue());
+        for (int i = 1; i < ingestDocuments.size(); i++) {
+            assertThat(results[i], nullValue());
+            assertThat(((ElasticsearchException) failures[i]).getRootCause().getMessage(), equalTo("batch failed"));
+        }
+        assertStats(compoundProcessor, 3, 2, 0);
+    }
+
+    private static Processor newBatchProcessor(Consumer<List<IngestDocument>> onBatch) {
+        return new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                onBatch.accept(ingestDocuments);
+                for (int i = 0; i < ingestDocuments.size(); i++) {
+                    handler.accept(i, ingestDocuments.get(i), null);
+                }
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+    }
+
     private TestProcessor getTestProcessor(String tag, boolean isAsync, boolean shouldThrowException) {
         return new TestProcessor(
             tag,
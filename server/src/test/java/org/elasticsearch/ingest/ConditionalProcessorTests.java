@@ -250,6 +250,97 @@ public class ConditionalProcessorTests extends ESTestCase {
         execProcessor(processor, ingestDoc, (doc, e) -> { assertThat(e.getMessage(), equalTo("runtime problem")); });
     }
 
+    public void testExecuteBatchPassesMatchingDocumentsToWrappedProcessor() {
+        String conditionalField = "field1";
+        ScriptService scriptService = MockScriptService.singleContext(
+            IngestConditionalScript.CONTEXT,
+            code -> params -> new IngestConditionalScript(params) {
+                @Override
+                public boolean execute(Map<String, Object> ctx) {
+                    if (ctx.containsKey("error")) {
+                        throw new IllegalArgumentException("runtime problem");
+                    }
+                    return Boolean.TRUE.equals(ctx.get(conditionalField));
+                }
+            },
+            Map.of()
+        );
+        List<List<IngestDocument>> batches = new ArrayList<>();
+        Processor batchProcessor = new AbstractProcessor(null, null) {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                batches.add(List.copyOf(ingestDocuments));
+                for (int i = 0; i < ingestDocuments.size(); i++) {
+                    ingestDocuments.get(i).setFieldValue("foo", "bar");
+                    handler.accept(i, ingestDocuments.get(i), null);
+                }
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+        Script script = new Script(ScriptType.INLINE, "lang", "foo", Map.of());
+        ConditionalProcessor processor = new ConditionalProcessor(null, null, script, scriptService, batchProcessor);
+        assertTrue(processor.supportsBatchExecution());
+        assertFalse(
+            new ConditionalProcessor(null, null, script, scriptService, new FakeProcessor(null, null, null, null)).supportsBatchExecution()
+        );
+
+        int numDocs = randomIntBetween(1, 20);
+        List<IngestDocument> ingestDocuments = new ArrayList<>(numDocs);
+        List<Integer> expectedMatching = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            IngestDocument ingestDocument = TestIngestDocument.emptyIngestDocument();
+            boolean matches = randomBoolean();
+            ingestDocument.setFieldValue(conditionalField, matches);
+            if (matches) {
+                expectedMatching.add(i);
+            } else if (randomBoolean()) {
+                ingestDocument.setFieldValue("error", true);
+            }
+            ingestDocuments.add(ingestDocument);
+        }
+
+        IngestDocument[] results = new IngestDocument[numDocs];
+        Exception[] failures = new Exception[numDocs];
+        int[] calls = new int[numDocs];
+        processor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            calls[slot]++;
+            results[slot] = result;
+            failures[slot] = e;
+        });
+
+        if (expectedMatching.isEmpty()) {
+            assertThat(batches.size(), equalTo(0));
+        } else {
+            assertThat(batches.size(), equalTo(1));
+            assertThat(batches.get(0), equalTo(expectedMatching.stream().map(ingestDocuments::get).toList()));
+        }
+        for (int i = 0; i < numDocs; i++) {
+            assertThat(calls[i], equalTo(1));
+            IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (expectedMatching.contains(i)) {
+                assertThat(results[i], is(ingestDocument));
+                assertThat(ingestDocument.getFieldValue("foo", String.class), equalTo("bar"));
+            } else if (ingestDocument.hasField("error")) {
+                assertNull(results[i]);
+                assertThat(failures[i].getMessage(), equalTo("runtime problem"));
+            } else {
+                assertThat(results[i], is(ingestDocument));
+                assertNull(failures[i]);
+                assertThat(ingestDocument.getSourceAndMetadata(), not(hasKey("foo")));
+            }
+        }
+        assertStats(processor, expectedMatching.size(), 0, 0);
+    }
+
     private static void assertMutatingCtxThrows(Consumer<Map<String, Object>> mutation) throws Exception {
         String scriptName = "conditionalScript";
         CompletableFuture<Exception> expectedException = new CompletableFuture<>();
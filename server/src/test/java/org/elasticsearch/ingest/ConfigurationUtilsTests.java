@@ -278,6 +278,8 @@ public class ConfigurationUtilsTests extends ESTestCase {
             scriptService
         );
         assertThat(result.newInstance(null).execute(), equalTo(propertyValue));
+        assertTrue(result.isParameterIndependent());
+        assertThat(result.newInstance(Map.of("foo", "bar")), sameInstance(result.newInstance(null)));
         verify(scriptService, times(0)).compile(any(), any());
     }
 
@@ -296,6 +298,7 @@ public class ConfigurationUtilsTests extends ESTestCase {
             scriptService
         );
         assertThat(result.newInstance(null).execute(), equalTo(compiledValue));
+        assertFalse(result.isParameterIndependent());
         verify(scriptService, times(1)).compile(any(), any());
     }
 }
@@ -101,6 +101,18 @@ public class IngestDocumentTests extends ESTestCase {
         assertThat(ingestDocument.getFieldValue("_source._ingest.timestamp", ZonedDateTime.class), equalTo(BOGUS_TIMESTAMP));
     }
 
+    public void testGetFieldValueWithManyDistinctPaths() {
+        // more distinct paths than are cached, and the same paths resolved again against different roots
+        for (int i = 0; i < 1000; i++) {
+            ingestDocument.setFieldValue("many.field_" + i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertThat(ingestDocument.getFieldValue("many.field_" + i, Integer.class), equalTo(i));
+            assertThat(ingestDocument.getFieldValue("_source.many.field_" + i, Integer.class), equalTo(i));
+            assertFalse(ingestDocument.hasField("_ingest.many.field_" + i));
+        }
+    }
+
     public void testGetSourceObject() {
         try {
             ingestDocument.getFieldValue("_source", Object.class);
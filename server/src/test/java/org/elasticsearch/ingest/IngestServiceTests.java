@@ -73,10 +73,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -98,9 +100,11 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -116,6 +120,11 @@ import static org.mockito.Mockito.when;
 
 public class IngestServiceTests extends ESTestCase {
 
+    private static final String BATCH_PIPELINE = """
+        {"processors": [{"batch": {}}]}""";
+    private static final String SET_FINAL_FIELD_PIPELINE = """
+        {"processors": [{"set": {"field": "final", "value": true}}]}""";
+
     private static final IngestPlugin DUMMY_PLUGIN = new IngestPlugin() {
         @Override
         public Map<String, Processor.Factory> getProcessors(Processor.Parameters parameters) {
@@ -1462,6 +1471,203 @@ public class IngestServiceTests extends ESTestCase {
         }
     }
 
+    public void testExecuteBatchFailsDocumentsWhenProcessorThrows() {
+        Processor.Factory factory = batchProcessorFactory((documents, handler) -> { throw new IllegalStateException("batch failed"); });
+        IngestService ingestService = createWithProcessors(Map.of("batch", factory));
+        putPipelines(ingestService, ClusterState.builder(new ClusterName("_name")).build(), Map.of("_id", BATCH_PIPELINE));
+
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = randomIntBetween(2, 10);
+        for (int i = 0; i < numRequest; i++) {
+            bulkRequest.add(new IndexRequest("_index").id("_id" + i).source(Map.of()).setPipeline("_id").setFinalPipeline("_none"));
+        }
+
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), failureHandler, completionHandler, slot -> {}, Names.WRITE);
+
+        verify(failureHandler, times(numRequest)).accept(anyInt(), argThat(e -> e.getCause() instanceof IllegalStateException));
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+    }
+
+    public void testExecuteBulkRequestInBatches() {
+        List<Integer> batchSizes = new ArrayList<>();
+        Processor.Factory batchFactory = batchProcessorFactory((documents, handler) -> {
+            batchSizes.add(documents.size());
+            for (int i = 0; i < documents.size(); i++) {
+                IngestDocument document = documents.get(i);
+                String id = document.getMetadata().getId();
+                if (id.startsWith("drop")) {
+                    handler.accept(i, null, null);
+                } else if (id.startsWith("fail")) {
+                    handler.accept(i, null, new IllegalArgumentException("failed [" + id + "]"));
+                } else {
+                    document.setFieldValue("batched", true);
+                    handler.accept(i, document, null);
+                }
+            }
+        });
+        IngestService ingestService = createWithProcessors(Map.of("batch", batchFactory, "set", setProcessorFactory()));
+        putPipelines(
+            ingestService,
+            ClusterState.builder(new ClusterName("_name")).build(),
+            Map.of("batch", BATCH_PIPELINE, "final", SET_FINAL_FIELD_PIPELINE)
+        );
+
+        // 0: delete, 1: only the (non batched) final pipeline, 2: batched pipeline, 3: batched pipeline and final pipeline
+        int numRequest = scaledRandomIntBetween(1, 3 * IngestService.MAX_BATCH_SIZE);
+        int[] kinds = new int[numRequest];
+        Set<Integer> expectedFailures = new HashSet<>();
+        Set<Integer> expectedDrops = new HashSet<>();
+        int numBatched = 0;
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int slot = 0; slot < numRequest; slot++) {
+            kinds[slot] = randomIntBetween(0, 3);
+            if (kinds[slot] == 0) {
+                bulkRequest.add(new DeleteRequest("_index", "_id" + slot));
+                continue;
+            }
+            boolean batched = kinds[slot] >= 2;
+            String outcome = batched ? randomFrom("ok", "drop", "fail") : "ok";
+            if (batched) {
+                numBatched++;
+            }
+            if (outcome.equals("drop")) {
+                expectedDrops.add(slot);
+            } else if (outcome.equals("fail")) {
+                expectedFailures.add(slot);
+            }
+            bulkRequest.add(
+                new IndexRequest("_index").id(outcome + slot)
+                    .source(Map.of("slot", slot))
+                    .setPipeline(batched ? "batch" : "final")
+                    .setFinalPipeline(kinds[slot] == 3 ? "final" : "_none")
+            );
+        }
+
+        Map<Integer, Exception> failures = new HashMap<>();
+        Set<Integer> drops = new HashSet<>();
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), failures::put, completionHandler, drops::add, Names.WRITE);
+
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        assertThat(failures.keySet(), equalTo(expectedFailures));
+        for (Exception failure : failures.values()) {
+            assertThat(failure.getCause(), instanceOf(IllegalArgumentException.class));
+            assertThat(failure.getCause().getMessage(), startsWith("failed [fail"));
+        }
+        assertThat(drops, equalTo(expectedDrops));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum(), equalTo(numBatched));
+        for (int batchSize : batchSizes) {
+            assertThat(batchSize, lessThanOrEqualTo(IngestService.MAX_BATCH_SIZE));
+        }
+        for (int slot = 0; slot < numRequest; slot++) {
+            if (kinds[slot] == 0 || expectedFailures.contains(slot) || expectedDrops.contains(slot)) {
+                continue;
+            }
+            Map<String, Object> source = ((IndexRequest) bulkRequest.requests().get(slot)).sourceAsMap();
+            assertThat(source.get("slot"), equalTo(slot));
+            assertThat(source.containsKey("batched"), is(kinds[slot] >= 2));
+            assertThat(source.containsKey("final"), is(kinds[slot] != 2));
+        }
+    }
+
+    public void testExecuteBatchReroutesToFinalPipelineOfNewIndex() {
+        Processor.Factory batchFactory = batchProcessorFactory((documents, handler) -> {
+            for (int i = 0; i < documents.size(); i++) {
+                IngestDocument document = documents.get(i);
+                if (document.getMetadata().getId().startsWith("reroute")) {
+                    document.getMetadata().setIndex("other_index");
+                }
+                handler.accept(i, document, null);
+            }
+        });
+        IngestService ingestService = createWithProcessors(Map.of("batch", batchFactory, "set", setProcessorFactory()));
+        IndexMetadata.Builder otherIndex = IndexMetadata.builder("other_index")
+            .settings(settings(Version.CURRENT).put(IndexSettings.FINAL_PIPELINE.getKey(), "final"))
+            .numberOfShards(1)
+            .numberOfReplicas(0);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).metadata(Metadata.builder().put(otherIndex)).build();
+        putPipelines(ingestService, clusterState, Map.of("batch", BATCH_PIPELINE, "final", SET_FINAL_FIELD_PIPELINE));
+
+        int numRequest = randomIntBetween(2, 10);
+        boolean[] rerouted = new boolean[numRequest];
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int slot = 0; slot < numRequest; slot++) {
+            rerouted[slot] = randomBoolean();
+            bulkRequest.add(
+                new IndexRequest("_index").id((rerouted[slot] ? "reroute" : "stay") + slot)
+                    .source(Map.of())
+                    .setPipeline("batch")
+                    .setFinalPipeline("_none")
+            );
+        }
+        // a final pipeline must not change the target index, even if it runs in a batch
+        bulkRequest.add(new IndexRequest("_index").id("reroute-final").source(Map.of()).setPipeline("_none").setFinalPipeline("batch"));
+
+        Map<Integer, Exception> failures = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numRequest + 1, bulkRequest.requests(), failures::put, completionHandler, slot -> {}, Names.WRITE);
+
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        assertThat(failures.keySet(), equalTo(Set.of(numRequest)));
+        assertThat(failures.get(numRequest), instanceOf(IllegalStateException.class));
+        assertThat(failures.get(numRequest).getMessage(), equalTo("final pipeline [batch] can't change the target index"));
+        for (int slot = 0; slot < numRequest; slot++) {
+            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(slot);
+            assertThat(indexRequest.index(), equalTo(rerouted[slot] ? "other_index" : "_index"));
+            assertThat(indexRequest.sourceAsMap().containsKey("final"), is(rerouted[slot]));
+        }
+    }
+
+    public void testExecuteBatchFailsDocumentsWhenPipelineIsRemoved() {
+        AtomicReference<Runnable> removeBatchPipeline = new AtomicReference<>();
+        Processor.Factory batchFactory = batchProcessorFactory((documents, handler) -> {
+            throw new AssertionError("the batch pipeline should have been removed");
+        });
+        Processor.Factory removeFactory = (factories, tag, description, config) -> new FakeProcessor(
+            "remove",
+            tag,
+            description,
+            ingestDocument -> removeBatchPipeline.get().run()
+        );
+        IngestService ingestService = createWithProcessors(Map.of("batch", batchFactory, "remove", removeFactory));
+        ClusterState clusterState = putPipelines(
+            ingestService,
+            ClusterState.builder(new ClusterName("_name")).build(),
+            Map.of("batch", BATCH_PIPELINE, "remove", "{\"processors\": [{\"remove\": {}}]}")
+        );
+        removeBatchPipeline.set(() -> {
+            ClusterState newClusterState = executeDelete(new DeletePipelineRequest("batch"), clusterState);
+            ingestService.applyClusterState(new ClusterChangedEvent("", newClusterState, clusterState));
+        });
+
+        // the documents of the batch are collected before the document that removes the pipeline is executed, but the batch is only
+        // executed once all documents of the bulk request were visited
+        int numBatched = randomIntBetween(1, 10);
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int slot = 0; slot < numBatched; slot++) {
+            bulkRequest.add(new IndexRequest("_index").id("_id" + slot).source(Map.of()).setPipeline("batch").setFinalPipeline("_none"));
+        }
+        bulkRequest.add(new IndexRequest("_index").id("remove").source(Map.of()).setPipeline("remove").setFinalPipeline("_none"));
+
+        Map<Integer, Exception> failures = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(numBatched + 1, bulkRequest.requests(), failures::put, completionHandler, slot -> {}, Names.WRITE);
+
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        assertThat(failures.size(), equalTo(numBatched));
+        for (int slot = 0; slot < numBatched; slot++) {
+            assertThat(failures.get(slot), instanceOf(IllegalArgumentException.class));
+            assertThat(failures.get(slot).getMessage(), equalTo("pipeline with id [batch] does not exist"));
+        }
+    }
+
     public void testStats() throws Exception {
         final Processor processor = mock(Processor.class);
         final Processor processorFailure = mock(Processor.class);
@@ -2204,6 +2410,62 @@ public class IngestServiceTests extends ESTestCase {
         }), client);
     }
 
+    /**
+     * A factory of processors that process batches of documents with the given function and single documents as they are.
+     */
+    private static Processor.Factory batchProcessorFactory(BiConsumer<List<IngestDocument>, Processor.BatchHandler> executeBatch) {
+        return (factories, tag, description, config) -> new AbstractProcessor(tag, description) {
+            @Override
+            public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
+                IngestDocument[] result = new IngestDocument[1];
+                Exception[] failure = new Exception[1];
+                executeBatch.accept(List.of(ingestDocument), (slot, document, e) -> {
+                    result[0] = document;
+                    failure[0] = e;
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                return result[0];
+            }
+
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                executeBatch.accept(ingestDocuments, handler);
+            }
+
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public String getType() {
+                return "batch";
+            }
+        };
+    }
+
+    private static Processor.Factory setProcessorFactory() {
+        return (factories, tag, description, config) -> {
+            String field = (String) config.remove("field");
+            Object value = config.remove("value");
+            return new FakeProcessor("set", tag, description, ingestDocument -> ingestDocument.setFieldValue(field, value));
+        };
+    }
+
+    private static ClusterState putPipelines(IngestService ingestService, ClusterState clusterState, Map<String, String> pipelines) {
+        ClusterState previousClusterState = clusterState;
+        for (Map.Entry<String, String> pipeline : pipelines.entrySet()) {
+            clusterState = executePut(
+                new PutPipelineRequest(pipeline.getKey(), new BytesArray(pipeline.getValue()), XContentType.JSON),
+                clusterState
+            );
+        }
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+        return clusterState;
+    }
+
     private CompoundProcessor mockCompoundProcessor() {
         CompoundProcessor processor = mock(CompoundProcessor.class);
         doAnswer(args -> true).when(processor).isAsync();
@@ -28,6 +28,8 @@ import java.util.concurrent.CountDownLatch;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class ResponseCollectorServiceTests extends ESTestCase {
 
@@ -63,6 +65,23 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertThat(nodeStats.get("node1").serviceTime, equalTo(10.0));
     }
 
+    public void testResponseTimePercentiles() throws Exception {
+        assertThat(collector.getResponseTimePercentile("node1", 95), equalTo(-1L));
+        for (int i = 1; i <= 100; i++) {
+            collector.addNodeStatistics("node1", 1, i * 1000L, 10);
+        }
+        long p50 = collector.getResponseTimePercentile("node1", 50);
+        long p95 = collector.getResponseTimePercentile("node1", 95);
+        assertThat(p50, greaterThanOrEqualTo(50_000L));
+        assertThat(p50, lessThanOrEqualTo(50_000L * 5 / 4));
+        assertThat(p95, greaterThanOrEqualTo(95_000L));
+        assertThat(p95, lessThanOrEqualTo(95_000L * 5 / 4));
+
+        ResponseCollectorService.ComputedNodeStats stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.responseTimeP50, equalTo(p50));
+        assertThat(stats.responseTimeP99, greaterThanOrEqualTo(p95));
+    }
+
     /*
      * Test that concurrently adding values and removing nodes does not cause exceptions
      */
@@ -0,0 +1,64 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.node;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ResponseTimeHistogramTests extends ESTestCase {
+
+    public void testBucketBounds() {
+        for (int i = 0; i < 1000; i++) {
+            long value = randomBoolean() ? randomLongBetween(0, 1000) : randomLongBetween(0, Long.MAX_VALUE);
+            int bucket = ResponseTimeHistogram.bucket(value);
+            assertThat(bucket, lessThan(ResponseTimeHistogram.BUCKETS));
+            assertThat(ResponseTimeHistogram.upperBound(bucket), greaterThanOrEqualTo(value));
+            if (bucket > 0) {
+                assertThat(ResponseTimeHistogram.upperBound(bucket - 1), lessThan(value));
+            }
+        }
+        assertThat(ResponseTimeHistogram.upperBound(ResponseTimeHistogram.BUCKETS - 1), equalTo(Long.MAX_VALUE));
+    }
+
+    public void testPercentiles() {
+        ResponseTimeHistogram histogram = new ResponseTimeHistogram();
+        assertThat(histogram.percentile(50), equalTo(-1L));
+
+        int numValues = randomIntBetween(1, ResponseTimeHistogram.DECAY_INTERVAL - 1);
+        long[] values = new long[numValues];
+        for (int i = 0; i < numValues; i++) {
+            values[i] = randomLongBetween(0, 1_000_000_000L);
+            histogram.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[] { 50, 95, 99, 100 }) {
+            long expected = values[(int) Math.ceil(percentile / 100 * numValues) - 1];
+            long actual = histogram.percentile(percentile);
+            assertThat(actual, greaterThanOrEqualTo(expected));
+            assertThat(actual, lessThanOrEqualTo(Math.max(expected + expected / 4, 3)));
+        }
+    }
+
+    public void testDecayFollowsRecentValues() {
+        ResponseTimeHistogram histogram = new ResponseTimeHistogram();
+        for (int i = 0; i < ResponseTimeHistogram.DECAY_INTERVAL; i++) {
+            histogram.add(1_000_000);
+        }
+        for (int i = 0; i < ResponseTimeHistogram.DECAY_INTERVAL * 4; i++) {
+            histogram.add(1_000);
+        }
+        assertThat(histogram.percentile(95), lessThanOrEqualTo(1_250L));
+    }
+}
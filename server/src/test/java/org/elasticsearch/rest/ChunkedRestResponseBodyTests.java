@@ -0,0 +1,61 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
+import org.elasticsearch.test.rest.FakeRestRequest;
+import org.elasticsearch.transport.BytesRefRecycler;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChunkedRestResponseBodyTests extends ESTestCase {
+
+    public void testEncodesChunkedXContentCorrectly() throws Exception {
+        final List<ToXContent> chunks = new ArrayList<>();
+        chunks.add((b, p) -> b.startObject().startArray("values"));
+        final int values = randomIntBetween(0, 100);
+        for (int i = 0; i < values; i++) {
+            final String value = randomAlphaOfLengthBetween(1, 100);
+            chunks.add((b, p) -> b.startObject().field("value", value).endObject());
+        }
+        chunks.add((b, p) -> b.endArray().endObject());
+        final ChunkedToXContent chunkedToXContent = chunks::iterator;
+
+        final XContentBuilder expected = XContentBuilder.builder(XContentType.JSON.xContent());
+        ChunkedToXContent.wrapAsToXContentObject(chunkedToXContent).toXContent(expected, ToXContent.EMPTY_PARAMS);
+
+        final FakeRestRequest request = new FakeRestRequest();
+        final ChunkedRestResponseBody body = ChunkedRestResponseBody.fromXContent(
+            chunkedToXContent,
+            ToXContent.EMPTY_PARAMS,
+            new FakeRestChannel(request, true, 1)
+        );
+        final List<BytesReference> encoded = new ArrayList<>();
+        while (body.isDone() == false) {
+            try (ReleasableBytesReference chunk = body.encodeChunk(randomIntBetween(1, 1024), BytesRefRecycler.NON_RECYCLING_INSTANCE)) {
+                encoded.add(new BytesArray(BytesReference.toBytes(chunk)));
+            }
+        }
+        assertEquals(
+            BytesReference.bytes(expected).utf8ToString(),
+            CompositeBytesReference.of(encoded.toArray(new BytesReference[0])).utf8ToString()
+        );
+        assertEquals(expected.getResponseContentTypeString(), body.getResponseContentTypeString());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.query.QueryPhase;
+import org.elasticsearch.test.TestSearchContext;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class ConcurrentAggregationCollectorTests extends AggregatorTestCase {
+
+    private static final int NUM_SLICES = 3;
+
+    public void testConcurrentCollectionReturnsSameResultsAsSequentialCollection() throws IOException {
+        final MappedFieldType fieldType = longField("value");
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                final int numSegments = randomIntBetween(NUM_SLICES, 8);
+                for (int i = 0; i < numSegments; i++) {
+                    final int segmentDocs = randomIntBetween(1, 200);
+                    for (int j = 0; j < segmentDocs; j++) {
+                        Document doc = new Document();
+                        // values are small enough for sums of doubles to be exact in any order
+                        final long value = randomIntBetween(-1000, 1000);
+                        doc.add(new LongPoint("value", value));
+                        doc.add(new SortedNumericDocValuesField("value", value));
+                        w.addDocument(doc);
+                    }
+                    w.flush();
+                }
+            }
+            final EsThreadPoolExecutor executor = EsExecutors.newFixed(
+                getTestName(),
+                NUM_SLICES,
+                -1,
+                EsExecutors.daemonThreadFactory(getTestName()),
+                new ThreadContext(Settings.EMPTY),
+                false
+            );
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final Query query = randomBoolean() ? new MatchAllDocsQuery() : LongPoint.newRangeQuery("value", -500, 500);
+                final SlicingContextIndexSearcher sequentialSearcher = new SlicingContextIndexSearcher(reader, null);
+                final InternalAggregations expected = executeQueryPhase(sequentialSearcher, query, fieldType);
+                assertThat(sequentialSearcher.searchedSlices.get(), equalTo(1));
+
+                final SlicingContextIndexSearcher concurrentSearcher = new SlicingContextIndexSearcher(reader, executor);
+                final InternalAggregations actual = executeQueryPhase(concurrentSearcher, query, fieldType);
+                // the segments are only searched concurrently if the aggregations are collected concurrently
+                assertThat(concurrentSearcher.searchedSlices.get(), equalTo(NUM_SLICES));
+
+                assertEquals(expected.asList(), actual.asList());
+            } finally {
+                ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private InternalAggregations executeQueryPhase(ContextIndexSearcher searcher, Query query, MappedFieldType fieldType)
+        throws IOException {
+        final SearchSourceBuilder source = new SearchSourceBuilder().aggregation(new SumAggregationBuilder("sum").field("value"))
+            .aggregation(new MinAggregationBuilder("min").field("value"))
+            .aggregation(new MaxAggregationBuilder("max").field("value"))
+            .aggregation(new AvgAggregationBuilder("avg").field("value"))
+            .aggregation(new StatsAggregationBuilder("stats").field("value"))
+            .aggregation(new ValueCountAggregationBuilder("count").field("value"));
+        final AggregationContext aggregationContext = createAggregationContext(searcher, query, fieldType);
+        final TestSearchContext context = new TestSearchContext(null, null, searcher);
+        context.request().source(source);
+        context.parsedQuery(new ParsedQuery(query));
+        context.aggregations(new SearchContextAggregations(source.aggregations().build(aggregationContext, null)));
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.execute(context);
+        return context.queryResult().consumeAggs();
+    }
+
+    /**
+     * A searcher that splits the segments into {@link #NUM_SLICES} slices however few documents they have and counts the searched slices.
+     */
+    private static class SlicingContextIndexSearcher extends ContextIndexSearcher {
+        final AtomicInteger searchedSlices = new AtomicInteger();
+
+        SlicingContextIndexSearcher(IndexReader reader, Executor sliceExecutor) throws IOException {
+            super(
+                reader,
+                IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(),
+                IndexSearcher.getDefaultQueryCachingPolicy(),
+                true,
+                sliceExecutor,
+                NUM_SLICES
+            );
+        }
+
+        @Override
+        protected List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves) {
+            final List<List<LeafReaderContext>> slices = new ArrayList<>();
+            for (int i = 0; i < NUM_SLICES; i++) {
+                slices.add(new ArrayList<>());
+            }
+            for (LeafReaderContext leaf : leaves) {
+                slices.get(leaf.ord % NUM_SLICES).add(leaf);
+            }
+            return slices;
+        }
+
+        @Override
+        public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+            searchedSlices.incrementAndGet();
+            super.search(leaves, weight, collector);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 
 import java.util.ArrayList;
@@ -22,6 +23,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
 public class StringTermsTests extends InternalTermsTestCase {
     @Override
     protected InternalTerms<?, ?> createTestInstance(
@@ -134,6 +139,44 @@ public class StringTermsTests extends InternalTermsTestCase {
         }
     }
 
+    public void testPartialReduceReusesBucketsWithoutSubAggregations() {
+        StringTerms.Bucket a = bucket("a", 3);
+        StringTerms.Bucket b1 = bucket("b", 2);
+        StringTerms.Bucket b2 = bucket("b", 4);
+        StringTerms.Bucket c = bucket("c", 1);
+        List<InternalAggregation> toReduce = List.of(terms(List.of(a, b1)), terms(List.of(b2, c)));
+
+        StringTerms reduced = (StringTerms) toReduce.get(0).reduce(toReduce, emptyReduceContextBuilder().forPartialReduction());
+        List<StringTerms.Bucket> buckets = reduced.getBuckets();
+        assertThat(buckets.size(), equalTo(3));
+        assertThat(buckets.get(0), sameInstance(a));
+        assertThat(buckets.get(1), not(sameInstance(b1)));
+        assertThat(buckets.get(1).getKeyAsString(), equalTo("b"));
+        assertThat(buckets.get(1).getDocCount(), equalTo(6L));
+        assertThat(buckets.get(2), sameInstance(c));
+    }
+
+    private static StringTerms.Bucket bucket(String term, long docCount) {
+        return new StringTerms.Bucket(new BytesRef(term), docCount, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW);
+    }
+
+    private static StringTerms terms(List<StringTerms.Bucket> buckets) {
+        return new StringTerms(
+            "terms",
+            BucketOrder.key(true),
+            BucketOrder.count(false),
+            10,
+            1,
+            null,
+            DocValueFormat.RAW,
+            10,
+            false,
+            0,
+            buckets,
+            0L
+        );
+    }
+
     private BytesRef[] generateRandomDict() {
         Set<BytesRef> terms = new HashSet<>();
         int numTerms = randomIntBetween(2, 100);
@@ -0,0 +1,85 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class NumericDoubleValuesBlockTests extends ESTestCase {
+
+    public void testMatchesPerDocReduction() throws IOException {
+        final int maxDoc = randomIntBetween(1, 10000);
+        final Double[] docValues = new Double[maxDoc];
+        for (int i = 0; i < maxDoc; i++) {
+            docValues[i] = randomBoolean() ? null : randomDoubleBetween(-1000, 1000, true);
+        }
+        final NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values(docValues));
+
+        final int[] docs = new int[randomIntBetween(1, 256)];
+        int doc = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final CompensatedSum sum = new CompensatedSum();
+        double expectedMin = Double.POSITIVE_INFINITY;
+        double expectedMax = Double.NEGATIVE_INFINITY;
+        final CompensatedSum expectedSum = new CompensatedSum();
+        while (doc < maxDoc) {
+            int count = 0;
+            int expectedSize = 0;
+            while (count < docs.length && doc < maxDoc) {
+                if (docValues[doc] != null) {
+                    expectedSize++;
+                    expectedMin = Math.min(expectedMin, docValues[doc]);
+                    expectedMax = Math.max(expectedMax, docValues[doc]);
+                    expectedSum.add(docValues[doc]);
+                }
+                docs[count++] = doc;
+                doc += randomIntBetween(1, 3);
+            }
+            assertThat(block.load(docs, count), equalTo(expectedSize));
+            assertThat(block.size(), equalTo(expectedSize));
+            min = block.min(min);
+            max = block.max(max);
+            block.sum(sum);
+        }
+        assertThat(min, equalTo(expectedMin));
+        assertThat(max, equalTo(expectedMax));
+        assertThat(sum.value(), equalTo(expectedSum.value()));
+        assertThat(sum.delta(), equalTo(expectedSum.delta()));
+    }
+
+    public void testEmptyBlock() throws IOException {
+        final NumericDoubleValuesBlock block = new NumericDoubleValuesBlock(values(new Double[] { null, null }));
+        assertThat(block.load(new int[] { 0, 1 }, 2), equalTo(0));
+        assertThat(block.min(Double.POSITIVE_INFINITY), equalTo(Double.POSITIVE_INFINITY));
+        assertThat(block.max(Double.NEGATIVE_INFINITY), equalTo(Double.NEGATIVE_INFINITY));
+    }
+
+    private static NumericDoubleValues values(Double[] docValues) {
+        return new NumericDoubleValues() {
+            private int doc = -1;
+
+            @Override
+            public boolean advanceExact(int target) {
+                assert target > doc : "docs must be advanced in increasing order";
+                doc = target;
+                return docValues[target] != null;
+            }
+
+            @Override
+            public double doubleValue() {
+                return docValues[doc];
+            }
+        };
+    }
+}
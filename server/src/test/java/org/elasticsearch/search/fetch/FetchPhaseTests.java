@@ -28,4 +28,28 @@ public class FetchPhaseTests extends ESTestCase {
         }
         assertFalse(FetchPhase.hasSequentialDocs(docs));
     }
+
+    public void testDenseDocs() {
+        int[] docs = new int[randomIntBetween(0, FetchPhase.MIN_DOCS_FOR_SEQUENTIAL_READER - 1)];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = i;
+        }
+        assertFalse("too few docs", FetchPhase.hasDenseDocs(docs));
+
+        docs = new int[randomIntBetween(FetchPhase.MIN_DOCS_FOR_SEQUENTIAL_READER, 1000)];
+        int doc = randomIntBetween(0, Short.MAX_VALUE);
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = doc;
+            doc += randomIntBetween(1, FetchPhase.MAX_AVERAGE_GAP_FOR_SEQUENTIAL_READER);
+        }
+        assertTrue(FetchPhase.hasDenseDocs(docs));
+
+        int maxGap = FetchPhase.MAX_AVERAGE_GAP_FOR_SEQUENTIAL_READER;
+        doc = docs[0];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = doc;
+            doc += randomIntBetween(maxGap + 1, 10 * maxGap);
+        }
+        assertFalse(FetchPhase.hasDenseDocs(docs));
+    }
 }
@@ -65,6 +65,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
 import static org.elasticsearch.search.internal.ContextIndexSearcher.intersectScorerAndBitSet;
@@ -160,6 +161,43 @@ public class ContextIndexSearcherTests extends ESTestCase {
         directory.close();
     }
 
+    public void testComputeSlices() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                // segments of 40, 30, 20 and 10 documents
+                for (int numDocs = 40; numDocs > 0; numDocs -= 10) {
+                    for (int i = 0; i < numDocs; i++) {
+                        w.addDocument(new Document());
+                    }
+                    w.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                List<LeafReaderContext> leaves = reader.leaves();
+                assertEquals(4, leaves.size());
+
+                assertEquals(List.of(), ContextIndexSearcher.computeSlices(List.of(), 4, 1));
+                assertEquals(List.of(leaves), ContextIndexSearcher.computeSlices(leaves, 1, 1));
+                // not enough documents for more than one slice
+                assertEquals(List.of(leaves), ContextIndexSearcher.computeSlices(leaves, 4, 100));
+
+                List<List<LeafReaderContext>> slices = ContextIndexSearcher.computeSlices(leaves, 2, 1);
+                assertEquals(2, slices.size());
+                assertEquals(List.of(leaves.get(0), leaves.get(3)), slices.get(0));
+                assertEquals(List.of(leaves.get(1), leaves.get(2)), slices.get(1));
+
+                slices = ContextIndexSearcher.computeSlices(leaves, 8, 1);
+                assertEquals(4, slices.size());
+                for (int i = 0; i < leaves.size(); i++) {
+                    assertEquals(List.of(leaves.get(i)), slices.get(i));
+                }
+
+                // at most 100 / 40 = 2 slices
+                assertEquals(2, ContextIndexSearcher.computeSlices(leaves, 8, 40).size());
+            }
+        }
+    }
+
     public void testContextIndexSearcherSparseNoDeletions() throws IOException {
         doTestContextIndexSearcher(true, false);
     }
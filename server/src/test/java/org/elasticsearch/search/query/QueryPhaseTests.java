@@ -58,6 +58,11 @@ import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
@@ -76,19 +81,26 @@ import org.elasticsearch.tasks.TaskCancelHelper;
 import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.TestSearchContext;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntUnaryOperator;
 
 import static org.elasticsearch.search.query.TopDocsCollectorContext.hasInfMaxScore;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
 import static org.mockito.Mockito.mock;
@@ -937,6 +949,205 @@ public class QueryPhaseTests extends IndexShardTestCase {
         }
     }
 
+    public void testConcurrentSearchReturnsSameResultsAsSequentialSearch() throws Exception {
+        try (Directory dir = newDirectory()) {
+            final int numDocs = indexDocumentsInSeveralSegments(dir);
+            final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+            final EsThreadPoolExecutor executor = EsExecutors.newFixed(
+                getTestName(),
+                SlicingContextIndexSearcher.NUM_SLICES,
+                -1,
+                EsExecutors.daemonThreadFactory(getTestName()),
+                threadContext,
+                false
+            );
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final SortAndFormats[] sorts = new SortAndFormats[] {
+                    null,
+                    new SortAndFormats(new Sort(new SortField("rank", SortField.Type.LONG)), new DocValueFormat[] { DocValueFormat.RAW }),
+                    new SortAndFormats(
+                        new Sort(new SortField("rank", SortField.Type.LONG, true), SortField.FIELD_SCORE),
+                        new DocValueFormat[] { DocValueFormat.RAW, DocValueFormat.RAW }
+                    ) };
+                final Query[] queries = new Query[] {
+                    new MatchAllDocsQuery(),
+                    new TermQuery(new Term("text", "foo")),
+                    new BooleanQuery.Builder().add(new TermQuery(new Term("text", "foo")), Occur.SHOULD)
+                        .add(new TermQuery(new Term("text", "baz")), Occur.SHOULD)
+                        .add(new TermQuery(new Term("filter", "a")), Occur.FILTER)
+                        .build(),
+                    LongPoint.newRangeQuery("rank", 5, 15) };
+                final int iters = scaledRandomIntBetween(10, 30);
+                for (int i = 0; i < iters; i++) {
+                    final Query query = randomFrom(queries);
+                    final SortAndFormats sort = sorts[randomIntBetween(0, sorts.length - 1)];
+                    final boolean trackScores = randomBoolean();
+                    final int size = randomIntBetween(0, 50);
+                    final int trackTotalHitsUpTo = randomFrom(
+                        SearchContext.TRACK_TOTAL_HITS_ACCURATE,
+                        SearchContext.TRACK_TOTAL_HITS_DISABLED,
+                        randomIntBetween(1, numDocs)
+                    );
+                    // the segment at which the search times out, if any
+                    final int timeoutSegment = randomBoolean() ? Integer.MAX_VALUE : randomIntBetween(0, reader.leaves().size() - 1);
+
+                    final SlicingContextIndexSearcher sequentialSearcher = new SlicingContextIndexSearcher(reader, null, threadContext);
+                    sequentialSearcher.timeoutSegment = timeoutSegment;
+                    final QuerySearchResult expected = executeQuery(sequentialSearcher, query, sort, trackScores, size, trackTotalHitsUpTo);
+                    assertThat(sequentialSearcher.sliceHeaders, hasSize(1));
+
+                    final SlicingContextIndexSearcher concurrentSearcher = new SlicingContextIndexSearcher(reader, executor, threadContext);
+                    concurrentSearcher.timeoutSegment = timeoutSegment;
+                    final String header = randomAlphaOfLength(10);
+                    final QuerySearchResult actual;
+                    try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                        threadContext.putHeader(SlicingContextIndexSearcher.HEADER, header);
+                        actual = executeQuery(concurrentSearcher, query, sort, trackScores, size, trackTotalHitsUpTo);
+                    }
+                    // every slice is searched with the thread context of the thread that executes the query phase
+                    assertThat(concurrentSearcher.sliceHeaders, hasSize(SlicingContextIndexSearcher.NUM_SLICES));
+                    assertThat(concurrentSearcher.sliceHeaders, everyItem(equalTo(header)));
+
+                    assertEquals(expected.searchTimedOut(), actual.searchTimedOut());
+                    assertEquals(timeoutSegment < reader.leaves().size(), actual.searchTimedOut());
+                    assertSameTopDocs(expected.topDocs(), actual.topDocs(), trackTotalHitsUpTo);
+                    assertArrayEquals(expected.sortValueFormats(), actual.sortValueFormats());
+                }
+            } finally {
+                ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Indexes random documents into several segments, some with deletions, and returns the number of indexed documents.
+     */
+    private static int indexDocumentsInSeveralSegments(Directory dir) throws IOException {
+        int numDocs = 0;
+        try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            final int numSegments = randomIntBetween(SlicingContextIndexSearcher.NUM_SLICES, 8);
+            for (int i = 0; i < numSegments; i++) {
+                final int segmentDocs = randomIntBetween(1, 200);
+                for (int j = 0; j < segmentDocs; j++) {
+                    Document doc = new Document();
+                    doc.add(new TextField("text", randomFrom("foo", "foo bar", "bar", "foo foo baz", "baz"), Store.NO));
+                    doc.add(new StringField("filter", randomFrom("a", "b"), Store.NO));
+                    final long rank = randomIntBetween(0, 20);
+                    doc.add(new LongPoint("rank", rank));
+                    doc.add(new NumericDocValuesField("rank", rank));
+                    w.addDocument(doc);
+                }
+                numDocs += segmentDocs;
+                if (rarely()) {
+                    w.deleteDocuments(LongPoint.newExactQuery("rank", randomIntBetween(0, 20)));
+                }
+                w.flush();
+            }
+        }
+        return numDocs;
+    }
+
+    private QuerySearchResult executeQuery(
+        ContextIndexSearcher searcher,
+        Query query,
+        SortAndFormats sort,
+        boolean trackScores,
+        int size,
+        int trackTotalHitsUpTo
+    ) {
+        TestSearchContext context = new TestSearchContext(null, indexShard, searcher);
+        context.parsedQuery(new ParsedQuery(query));
+        context.sort(sort);
+        context.trackScores(trackScores);
+        context.setSize(size);
+        context.trackTotalHitsUpTo(trackTotalHitsUpTo);
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.executeInternal(context);
+        return context.queryResult();
+    }
+
+    private static void assertSameTopDocs(TopDocsAndMaxScore expected, TopDocsAndMaxScore actual, int trackTotalHitsUpTo) {
+        assertEquals(expected.maxScore, actual.maxScore, 0f);
+        assertEquals(
+            coordinatingNodeTotalHits(expected.topDocs.totalHits, trackTotalHitsUpTo),
+            coordinatingNodeTotalHits(actual.topDocs.totalHits, trackTotalHitsUpTo)
+        );
+        assertEquals(expected.topDocs.getClass(), actual.topDocs.getClass());
+        assertEquals(expected.topDocs.scoreDocs.length, actual.topDocs.scoreDocs.length);
+        for (int i = 0; i < expected.topDocs.scoreDocs.length; i++) {
+            final ScoreDoc expectedDoc = expected.topDocs.scoreDocs[i];
+            final ScoreDoc actualDoc = actual.topDocs.scoreDocs[i];
+            assertEquals(expectedDoc.doc, actualDoc.doc);
+            assertEquals(expectedDoc.score, actualDoc.score, 0f);
+            if (expectedDoc instanceof FieldDoc expectedFieldDoc) {
+                assertArrayEquals(expectedFieldDoc.fields, ((FieldDoc) actualDoc).fields);
+            }
+        }
+    }
+
+    /**
+     * Returns the total hits that the coordinating node reports for the given total hits of a shard. Hits are tracked up to
+     * {@code trackTotalHitsUpTo} per slice when searching concurrently and per shard otherwise, so shard results may differ above
+     * that number.
+     */
+    private static TotalHits coordinatingNodeTotalHits(TotalHits totalHits, int trackTotalHitsUpTo) {
+        if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE
+            || trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED
+            || totalHits.value <= trackTotalHitsUpTo) {
+            return totalHits;
+        }
+        return new TotalHits(trackTotalHitsUpTo, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+    }
+
+    /**
+     * A searcher that splits the segments into {@link #NUM_SLICES} slices however few documents they have, records the
+     * {@link #HEADER} of the thread context of every thread that searches a slice, and times out once it reaches
+     * {@link #timeoutSegment}.
+     */
+    private static class SlicingContextIndexSearcher extends ContextIndexSearcher {
+        static final int NUM_SLICES = 3;
+        static final String HEADER = "slice_header";
+
+        private final ThreadContext threadContext;
+        final List<String> sliceHeaders = new CopyOnWriteArrayList<>();
+        volatile int timeoutSegment = Integer.MAX_VALUE;
+
+        SlicingContextIndexSearcher(IndexReader reader, Executor sliceExecutor, ThreadContext threadContext) throws IOException {
+            super(
+                reader,
+                IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(),
+                IndexSearcher.getDefaultQueryCachingPolicy(),
+                true,
+                sliceExecutor,
+                NUM_SLICES
+            );
+            this.threadContext = threadContext;
+        }
+
+        @Override
+        protected List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves) {
+            final List<List<LeafReaderContext>> slices = new ArrayList<>();
+            for (int i = 0; i < NUM_SLICES; i++) {
+                slices.add(new ArrayList<>());
+            }
+            for (LeafReaderContext leaf : leaves) {
+                slices.get(leaf.ord % NUM_SLICES).add(leaf);
+            }
+            return slices;
+        }
+
+        @Override
+        public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+            sliceHeaders.add(Objects.requireNonNullElse(threadContext.getHeader(HEADER), ""));
+            final List<LeafReaderContext> searchedLeaves = leaves.stream().filter(leaf -> leaf.ord < timeoutSegment).toList();
+            super.search(searchedLeaves, weight, collector);
+            if (searchedLeaves.size() < leaves.size()) {
+                throw new QueryPhase.TimeExceededException();
+            }
+        }
+    }
+
     private static ContextIndexSearcher newContextSearcher(IndexReader reader) throws IOException {
         return new ContextIndexSearcher(
             reader,
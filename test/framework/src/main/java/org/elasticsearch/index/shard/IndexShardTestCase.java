@@ -425,7 +425,7 @@ public abstract class IndexShardTestCase extends ESTestCase {
         }
         boolean success = false;
         try {
-            IndexCache indexCache = new IndexCache(DisabledQueryCache.INSTANCE, null);
+            IndexCache indexCache = new IndexCache(DisabledQueryCache.INSTANCE, null, null);
             MapperService mapperService = MapperTestUtils.newMapperService(
                 xContentRegistry(),
                 createTempDir(),
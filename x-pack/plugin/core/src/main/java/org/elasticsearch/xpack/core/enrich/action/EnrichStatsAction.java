@@ -273,18 +273,25 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
             private final long count;
             private final long hits;
             private final long misses;
+            private final long coalesced;
             private final long evictions;
 
-            public CacheStats(String nodeId, long count, long hits, long misses, long evictions) {
+            public CacheStats(String nodeId, long count, long hits, long misses, long coalesced, long evictions) {
                 this.nodeId = nodeId;
                 this.count = count;
                 this.hits = hits;
                 this.misses = misses;
+                this.coalesced = coalesced;
                 this.evictions = evictions;
             }
 
             public CacheStats(StreamInput in) throws IOException {
-                this(in.readString(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+                this.nodeId = in.readString();
+                this.count = in.readVLong();
+                this.hits = in.readVLong();
+                this.misses = in.readVLong();
+                this.evictions = in.readVLong();
+                this.coalesced = in.getVersion().onOrAfter(Version.V_8_4_0) ? in.readVLong() : 0;
             }
 
             public String getNodeId() {
@@ -303,6 +310,13 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 return misses;
             }
 
+            /**
+             * The number of enrich lookups that missed the cache but didn't search, because a search for the same lookup was in flight.
+             */
+            public long getCoalesced() {
+                return coalesced;
+            }
+
             public long getEvictions() {
                 return evictions;
             }
@@ -313,6 +327,7 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 builder.field("count", count);
                 builder.field("hits", hits);
                 builder.field("misses", misses);
+                builder.field("coalesced", coalesced);
                 builder.field("evictions", evictions);
                 return builder;
             }
@@ -324,6 +339,9 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 out.writeVLong(hits);
                 out.writeVLong(misses);
                 out.writeVLong(evictions);
+                if (out.getVersion().onOrAfter(Version.V_8_4_0)) {
+                    out.writeVLong(coalesced);
+                }
             }
 
             @Override
@@ -334,13 +352,14 @@ public class EnrichStatsAction extends ActionType<EnrichStatsAction.Response> {
                 return count == that.count
                     && hits == that.hits
                     && misses == that.misses
+                    && coalesced == that.coalesced
                     && evictions == that.evictions
                     && nodeId.equals(that.nodeId);
             }
 
             @Override
             public int hashCode() {
-                return Objects.hash(nodeId, count, hits, misses, evictions);
+                return Objects.hash(nodeId, count, hits, misses, coalesced, evictions);
             }
         }
     }
@@ -7,22 +7,33 @@
 
 package org.elasticsearch.xpack.enrich;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.ContextPreservingActionListener;
 import org.elasticsearch.cluster.metadata.IndexAbstraction;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
-import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 /**
  * A simple cache for enrich that uses {@link Cache}. There is one instance of this cache and
@@ -41,23 +52,77 @@ import java.util.Objects;
  * since there is no easy check to see that an enrich index used as cache key no longer is the
  * current enrich index the enrich alias of an policy refers to. It would require checking
  * all cached entries on each cluster state update)
+ *
+ * Cached search results are kept in serialized form, which is more compact than the maps of the search hits and gives every lookup its
+ * own mutable copy when it is read. Lookups that didn't find any document are cached as well, as a shared empty value. Concurrent
+ * lookups that miss the cache for the same key wait for the search of the first one instead of each sending the same search.
  */
 public final class EnrichCache {
 
-    private final Cache<CacheKey, List<Map<?, ?>>> cache;
+    /**
+     * The cached value of lookups that didn't find any document.
+     */
+    private static final BytesReference NO_MATCHES = BytesArray.EMPTY;
+
+    private final Cache<CacheKey, BytesReference> cache;
+    private final ConcurrentMap<CacheKey, ListenableFuture<BytesReference>> inFlightSearches = ConcurrentCollections.newConcurrentMap();
+    private final CounterMetric coalesced = new CounterMetric();
     private volatile Metadata metadata;
 
     EnrichCache(long maxSize) {
-        this.cache = CacheBuilder.<CacheKey, List<Map<?, ?>>>builder().setMaximumWeight(maxSize).build();
+        this.cache = CacheBuilder.<CacheKey, BytesReference>builder().setMaximumWeight(maxSize).build();
+    }
+
+    /**
+     * Returns the cached result of the given search request, or runs the search with the given fetcher and caches its result. If a
+     * search for the same request is already running then its result is used instead. The listener is completed in the thread context
+     * of the caller, also if it waits for the search of another lookup.
+     */
+    void computeIfAbsent(
+        SearchRequest searchRequest,
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> searchResponseFetcher,
+        ThreadContext threadContext,
+        ActionListener<List<Map<?, ?>>> listener
+    ) {
+        CacheKey cacheKey = new CacheKey(getEnrichIndexKey(searchRequest), searchRequest);
+        BytesReference value = cache.get(cacheKey);
+        if (value != null) {
+            listener.onResponse(toDocuments(value));
+            return;
+        }
+
+        // waiters are completed by the thread that completes the search, which runs in the thread context of the lookup that started it
+        ActionListener<List<Map<?, ?>>> contextPreservingListener = ContextPreservingActionListener.wrapPreservingContext(
+            listener,
+            threadContext
+        );
+        ListenableFuture<BytesReference> search = new ListenableFuture<>();
+        ListenableFuture<BytesReference> inFlightSearch = inFlightSearches.putIfAbsent(cacheKey, search);
+        if (inFlightSearch != null) {
+            coalesced.inc();
+            inFlightSearch.addListener(contextPreservingListener.map(EnrichCache::toDocuments));
+            return;
+        }
+        // a search that completed between checking the cache and registering this one is repeated, which is harmless
+        search.addListener(contextPreservingListener.map(EnrichCache::toDocuments));
+        searchResponseFetcher.accept(searchRequest, ActionListener.wrap(response -> {
+            BytesReference result = toCacheValue(response);
+            cache.put(cacheKey, result);
+            inFlightSearches.remove(cacheKey, search);
+            search.onResponse(result);
+        }, e -> {
+            inFlightSearches.remove(cacheKey, search);
+            search.onFailure(e);
+        }));
     }
 
     List<Map<?, ?>> get(SearchRequest searchRequest) {
         String enrichIndex = getEnrichIndexKey(searchRequest);
         CacheKey cacheKey = new CacheKey(enrichIndex, searchRequest);
 
-        List<Map<?, ?>> response = cache.get(cacheKey);
+        BytesReference response = cache.get(cacheKey);
         if (response != null) {
-            return deepCopy(response, false);
+            return toDocuments(response);
         } else {
             return null;
         }
@@ -67,7 +132,7 @@ public final class EnrichCache {
         String enrichIndex = getEnrichIndexKey(searchRequest);
         CacheKey cacheKey = new CacheKey(enrichIndex, searchRequest);
 
-        cache.put(cacheKey, response);
+        cache.put(cacheKey, serialize(response));
     }
 
     void setMetadata(Metadata metadata) {
@@ -81,6 +146,7 @@ public final class EnrichCache {
             cache.count(),
             cacheStats.getHits(),
             cacheStats.getMisses(),
+            coalesced.count(),
             cacheStats.getEvictions()
         );
     }
@@ -91,38 +157,39 @@ public final class EnrichCache {
         return ia.getIndices().get(0).getName();
     }
 
-    List<Map<?, ?>> toCacheValue(SearchResponse response) {
+    private static BytesReference toCacheValue(SearchResponse response) {
         List<Map<?, ?>> result = new ArrayList<>(response.getHits().getHits().length);
         for (SearchHit hit : response.getHits()) {
-            result.add(deepCopy(hit.getSourceAsMap(), true));
+            result.add(hit.getSourceAsMap());
         }
-        return Collections.unmodifiableList(result);
+        return serialize(result);
     }
 
-    @SuppressWarnings("unchecked")
-    static <T> T deepCopy(T value, boolean unmodifiable) {
-        return (T) innerDeepCopy(value, unmodifiable);
+    static BytesReference serialize(List<Map<?, ?>> documents) {
+        if (documents.isEmpty()) {
+            return NO_MATCHES;
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeGenericValue(documents);
+            // don't keep the unused capacity of the last page of the stream around
+            return new BytesArray(BytesReference.toBytes(out.bytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private static Object innerDeepCopy(Object value, boolean unmodifiable) {
-        if (value instanceof Map<?, ?> mapValue) {
-            Map<Object, Object> copy = Maps.newMapWithExpectedSize(mapValue.size());
-            for (Map.Entry<?, ?> entry : mapValue.entrySet()) {
-                copy.put(entry.getKey(), innerDeepCopy(entry.getValue(), unmodifiable));
-            }
-            return unmodifiable ? Collections.unmodifiableMap(copy) : copy;
-        } else if (value instanceof List<?> listValue) {
-            List<Object> copy = new ArrayList<>(listValue.size());
-            for (Object itemValue : listValue) {
-                copy.add(innerDeepCopy(itemValue, unmodifiable));
-            }
-            return unmodifiable ? Collections.unmodifiableList(copy) : copy;
-        } else if (value instanceof byte[] bytes) {
-            return Arrays.copyOf(bytes, bytes.length);
-        } else if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
-            return value;
-        } else {
-            throw new IllegalArgumentException("unexpected value type [" + value.getClass() + "]");
+    /**
+     * Deserializes a cached value into new mutable maps, that the caller is free to modify.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<?, ?>> toDocuments(BytesReference value) {
+        if (value.length() == 0) {
+            return new ArrayList<>();
+        }
+        try (StreamInput in = value.streamInput()) {
+            return (List<Map<?, ?>>) in.readGenericValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
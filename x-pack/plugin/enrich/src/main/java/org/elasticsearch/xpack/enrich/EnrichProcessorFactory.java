@@ -129,18 +129,11 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
         EnrichCache enrichCache
     ) {
         Client originClient = new OriginSettingClient(client, ENRICH_ORIGIN);
-        return (req, handler) -> {
-            // intentionally non-locking for simplicity...it's OK if we re-put the same key/value in the cache during a race condition.
-            List<Map<?, ?>> response = enrichCache.get(req);
-            if (response != null) {
-                handler.accept(response, null);
-            } else {
-                originClient.execute(EnrichCoordinatorProxyAction.INSTANCE, req, ActionListener.wrap(resp -> {
-                    List<Map<?, ?>> value = enrichCache.toCacheValue(resp);
-                    enrichCache.put(req, value);
-                    handler.accept(EnrichCache.deepCopy(value, false), null);
-                }, e -> { handler.accept(null, e); }));
-            }
-        };
+        return (req, handler) -> enrichCache.computeIfAbsent(
+            req,
+            (searchRequest, listener) -> originClient.execute(EnrichCoordinatorProxyAction.INSTANCE, searchRequest, listener),
+            client.threadPool().getThreadContext(),
+            ActionListener.wrap(response -> handler.accept(response, null), e -> handler.accept(null, e))
+        );
     }
 }
@@ -6,20 +6,37 @@
  */
 package org.elasticsearch.xpack.enrich;
 
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.cluster.metadata.AliasMetadata;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.query.MatchQueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.SearchProfileResults;
+import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
@@ -136,7 +153,7 @@ public class EnrichCacheTests extends ESTestCase {
         assertThat(cacheStats.getEvictions(), equalTo(4L));
     }
 
-    public void testDeepCopy() {
+    public void testSerialization() {
         Map<String, Object> original = new HashMap<>();
         {
             original.put("foo", "bar");
@@ -166,21 +183,172 @@ public class EnrichCacheTests extends ESTestCase {
             original.put("list2", list2);
         }
 
-        Map<?, ?> result = EnrichCache.deepCopy(original, false);
-        assertThat(result, equalTo(original));
+        BytesReference value = EnrichCache.serialize(List.<Map<?, ?>>of(original));
+        List<Map<?, ?>> documents = EnrichCache.toDocuments(value);
+        assertThat(documents, equalTo(List.<Map<?, ?>>of(original)));
+        Map<?, ?> result = documents.get(0);
         assertThat(result, not(sameInstance(original)));
 
-        result = EnrichCache.deepCopy(original, true);
-        assertThat(result, equalTo(original));
-        assertThat(result, not(sameInstance(original)));
-        Map<?, ?> innerMap = (Map<?, ?>) result.get("fizz");
-        expectThrows(UnsupportedOperationException.class, () -> innerMap.remove("x"));
-        List<?> innerList = (List<?>) result.get("list");
-        expectThrows(UnsupportedOperationException.class, () -> innerList.remove(0));
+        // every read returns a new copy that can be modified
+        Map<?, ?> other = EnrichCache.toDocuments(value).get(0);
+        assertThat(other, not(sameInstance(result)));
+        ((Map<?, ?>) result.get("fizz")).remove("buzz");
+        ((List<?>) result.get("list")).remove(0);
+        assertEquals(original, other);
 
         original.put("embedded_object", new byte[] { 1, 2, 3 });
-        result = EnrichCache.deepCopy(original, false);
+        result = EnrichCache.toDocuments(EnrichCache.serialize(List.<Map<?, ?>>of(original))).get(0);
         assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) result.get("embedded_object"));
+
+        // lookups without matches share one cached value, but are read as new lists
+        assertThat(EnrichCache.serialize(List.<Map<?, ?>>of()), sameInstance(EnrichCache.serialize(new ArrayList<>())));
+        List<Map<?, ?>> noMatches = EnrichCache.toDocuments(EnrichCache.serialize(List.<Map<?, ?>>of()));
+        assertThat(noMatches, equalTo(List.<Map<?, ?>>of()));
+        noMatches.add(Map.of());
+    }
+
+    public void testComputeIfAbsentCoalescesConcurrentSearches() {
+        var searchRequest = policy1SearchRequest();
+        EnrichCache enrichCache = policy1Cache();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> fetcher = (request, listener) -> searches.add(listener);
+        List<List<Map<?, ?>>> results = new ArrayList<>();
+        ActionListener<List<Map<?, ?>>> resultListener = ActionListener.wrap(results::add, e -> { throw new AssertionError(e); });
+        for (int i = 0; i < 3; i++) {
+            enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, resultListener);
+        }
+        assertThat(searches.size(), equalTo(1));
+        assertThat(results.size(), equalTo(0));
+        var cacheStats = enrichCache.getStats("_id");
+        assertThat(cacheStats.getMisses(), equalTo(3L));
+        assertThat(cacheStats.getCoalesced(), equalTo(2L));
+
+        searches.get(0).onResponse(emptySearchResponse());
+        assertThat(results, equalTo(List.<List<Map<?, ?>>>of(List.of(), List.of(), List.of())));
+
+        // the result is cached now, including that there are no matches
+        enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, resultListener);
+        assertThat(searches.size(), equalTo(1));
+        assertThat(results.size(), equalTo(4));
+        cacheStats = enrichCache.getStats("_id");
+        assertThat(cacheStats.getCount(), equalTo(1L));
+        assertThat(cacheStats.getHits(), equalTo(1L));
+        assertThat(cacheStats.getCoalesced(), equalTo(2L));
+    }
+
+    public void testComputeIfAbsentFailure() {
+        var searchRequest = policy1SearchRequest();
+        EnrichCache enrichCache = policy1Cache();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> fetcher = (request, listener) -> searches.add(listener);
+        List<Exception> failures = new ArrayList<>();
+        ActionListener<List<Map<?, ?>>> resultListener = ActionListener.wrap(r -> fail("unexpected response"), failures::add);
+        for (int i = 0; i < 2; i++) {
+            enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, resultListener);
+        }
+        searches.get(0).onFailure(new ElasticsearchException("boom"));
+        assertThat(failures.size(), equalTo(2));
+        assertThat(enrichCache.getStats("_id").getCount(), equalTo(0L));
+
+        // failures are not cached, the next lookup searches again
+        enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, resultListener);
+        assertThat(searches.size(), equalTo(2));
+    }
+
+    public void testComputeIfAbsentCompletesWaitersInTheirOwnThreadContext() {
+        var searchRequest = policy1SearchRequest();
+        EnrichCache enrichCache = policy1Cache();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        BiConsumer<SearchRequest, ActionListener<SearchResponse>> fetcher = (request, listener) -> searches.add(listener);
+        int numLookups = randomIntBetween(2, 5);
+        List<List<Map<?, ?>>> results = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        for (int i = 0; i < numLookups; i++) {
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("lookup", Integer.toString(i));
+                enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, ActionListener.wrap(r -> {
+                    results.add(r);
+                    headers.add(threadContext.getHeader("lookup"));
+                }, e -> { throw new AssertionError(e); }));
+            }
+        }
+        assertThat(searches.size(), equalTo(1));
+
+        Map<String, Object> document = Map.of("match_field", "1", "value", "a");
+        SearchHit hit = new SearchHit(0).sourceRef(new BytesArray("{\"match_field\":\"1\",\"value\":\"a\"}"));
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            // the search completes in the thread context of the transport response, not in that of any lookup
+            threadContext.putHeader("lookup", "search");
+            searches.get(0).onResponse(searchResponse(hit));
+        }
+        assertThat(results.size(), equalTo(numLookups));
+        for (int i = 0; i < numLookups; i++) {
+            assertThat(results.get(i), equalTo(List.<Map<?, ?>>of(document)));
+            assertThat(headers.get(i), equalTo(Integer.toString(i)));
+        }
+        // every lookup gets its own copy of the documents
+        assertThat(results.get(0).get(0), not(sameInstance(results.get(1).get(0))));
+        assertNull(threadContext.getHeader("lookup"));
+
+        ActionListener<List<Map<?, ?>>> resultListener = ActionListener.wrap(results::add, e -> { throw new AssertionError(e); });
+        enrichCache.computeIfAbsent(searchRequest, fetcher, threadContext, resultListener);
+        assertThat(searches.size(), equalTo(1));
+        assertThat(results.get(numLookups), equalTo(List.<Map<?, ?>>of(document)));
+    }
+
+    /**
+     * Creates a cache for the metadata of a single enrich index of policy1 with its alias.
+     */
+    private static EnrichCache policy1Cache() {
+        var metadata = Metadata.builder()
+            .put(
+                IndexMetadata.builder(EnrichPolicy.getBaseName("policy1") + "-1")
+                    .settings(settings(Version.CURRENT))
+                    .numberOfShards(1)
+                    .numberOfReplicas(0)
+                    .putAlias(AliasMetadata.builder(EnrichPolicy.getBaseName("policy1")).build())
+            )
+            .build();
+        EnrichCache enrichCache = new EnrichCache(3);
+        enrichCache.setMetadata(metadata);
+        return enrichCache;
+    }
+
+    private static SearchRequest policy1SearchRequest() {
+        return new SearchRequest(EnrichPolicy.getBaseName("policy1")).source(
+            new SearchSourceBuilder().query(new MatchQueryBuilder("match_field", "1"))
+        );
+    }
+
+    private static SearchResponse emptySearchResponse() {
+        return searchResponse();
+    }
+
+    private static SearchResponse searchResponse(SearchHit... hits) {
+        return new SearchResponse(
+            new InternalSearchResponse(
+                new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), 0.0f),
+                InternalAggregations.EMPTY,
+                new Suggest(Collections.emptyList()),
+                new SearchProfileResults(Collections.emptyMap()),
+                false,
+                false,
+                1
+            ),
+            "",
+            1,
+            1,
+            0,
+            0,
+            ShardSearchFailure.EMPTY_ARRAY,
+            SearchResponse.Clusters.EMPTY
+        );
     }
 
 }
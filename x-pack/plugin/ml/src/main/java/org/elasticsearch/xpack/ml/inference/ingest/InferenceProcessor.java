@@ -53,6 +53,7 @@ import org.elasticsearch.xpack.ml.inference.loadingservice.LocalModel;
 import org.elasticsearch.xpack.ml.notifications.InferenceAuditor;
 import org.elasticsearch.xpack.ml.utils.InferenceProcessorInfoExtractor;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -128,13 +129,64 @@ public class InferenceProcessor extends AbstractProcessor {
         );
     }
 
-    void handleResponse(InferModelAction.Response response, IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
-        if (previouslyLicensed == false) {
-            previouslyLicensed = true;
+    /**
+     * Infers the documents of the batch with a single request, so that the model is only looked up and loaded once for all of them.
+     */
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        List<Map<String, Object>> objectsToInfer = new ArrayList<>(ingestDocuments.size());
+        for (IngestDocument ingestDocument : ingestDocuments) {
+            objectsToInfer.add(buildObjectToInfer(ingestDocument));
         }
-        if (response.isLicensed() == false) {
-            auditWarningAboutLicenseIfNecessary();
+        executeAsyncWithOrigin(
+            client,
+            ML_ORIGIN,
+            InferModelAction.INSTANCE,
+            new InferModelAction.Request(modelId, objectsToInfer, inferenceConfig, previouslyLicensed),
+            ActionListener.wrap(r -> handleBatchResponse(r, ingestDocuments, handler), e -> {
+                // the request fails as a whole if any of its documents fails, so infer them one at a time to only fail those
+                for (int i = 0; i < ingestDocuments.size(); i++) {
+                    final int slot = i;
+                    execute(ingestDocuments.get(i), (result, ex) -> handler.accept(slot, result, ex));
+                }
+            })
+        );
+    }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
+    void handleBatchResponse(InferModelAction.Response response, List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        updateLicenseState(response);
+        if (response.getInferenceResults().size() != ingestDocuments.size()) {
+            ElasticsearchException e = new ElasticsearchStatusException(
+                "Unexpected number of inference results [{}], expected [{}]",
+                RestStatus.INTERNAL_SERVER_ERROR,
+                response.getInferenceResults().size(),
+                ingestDocuments.size()
+            );
+            for (int i = 0; i < ingestDocuments.size(); i++) {
+                handler.accept(i, ingestDocuments.get(i), e);
+            }
+            return;
+        }
+        String responseModelId = response.getModelId() != null ? response.getModelId() : modelId;
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            IngestDocument ingestDocument = ingestDocuments.get(i);
+            try {
+                InferenceResults.writeResult(response.getInferenceResults().get(i), ingestDocument, targetField, responseModelId);
+            } catch (ElasticsearchException ex) {
+                handler.accept(i, ingestDocument, ex);
+                continue;
+            }
+            handler.accept(i, ingestDocument, null);
         }
+    }
+
+    void handleResponse(InferModelAction.Response response, IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
+        updateLicenseState(response);
         try {
             mutateDocument(response, ingestDocument);
             handler.accept(ingestDocument, null);
@@ -143,14 +195,27 @@ public class InferenceProcessor extends AbstractProcessor {
         }
     }
 
+    private void updateLicenseState(InferModelAction.Response response) {
+        if (previouslyLicensed == false) {
+            previouslyLicensed = true;
+        }
+        if (response.isLicensed() == false) {
+            auditWarningAboutLicenseIfNecessary();
+        }
+    }
+
     InferModelAction.Request buildRequest(IngestDocument ingestDocument) {
+        return new InferModelAction.Request(modelId, buildObjectToInfer(ingestDocument), inferenceConfig, previouslyLicensed);
+    }
+
+    private Map<String, Object> buildObjectToInfer(IngestDocument ingestDocument) {
         Map<String, Object> fields = new HashMap<>(ingestDocument.getSourceAndMetadata());
         // Add ingestMetadata as previous processors might have added metadata from which we are predicting (see: foreach processor)
         if (ingestDocument.getIngestMetadata().isEmpty() == false) {
             fields.put(INGEST_KEY, ingestDocument.getIngestMetadata());
         }
         LocalModel.mapFieldsIfNecessary(fields, fieldMap);
-        return new InferModelAction.Request(modelId, fields, inferenceConfig, previouslyLicensed);
+        return fields;
     }
 
     void auditWarningAboutLicenseIfNecessary() {
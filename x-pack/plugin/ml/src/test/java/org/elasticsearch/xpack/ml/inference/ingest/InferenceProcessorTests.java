@@ -6,14 +6,21 @@
  */
 package org.elasticsearch.xpack.ml.inference.ingest;
 
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.client.internal.Client;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.TestIngestDocument;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.core.ml.action.InferModelAction;
 import org.elasticsearch.xpack.core.ml.inference.results.ClassificationFeatureImportance;
 import org.elasticsearch.xpack.core.ml.inference.results.ClassificationInferenceResults;
+import org.elasticsearch.xpack.core.ml.inference.results.InferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.results.RegressionFeatureImportance;
 import org.elasticsearch.xpack.core.ml.inference.results.RegressionInferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.results.TopClassEntry;
@@ -31,17 +38,22 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class InferenceProcessorTests extends ESTestCase {
 
@@ -491,4 +503,192 @@ public class InferenceProcessorTests extends ESTestCase {
         assertThat(document.getFieldValue("ml.my_processor.foo", Double.class), equalTo(0.7));
         assertThat(document.getFieldValue("ml.my_processor.model_id", String.class), equalTo(modelId));
     }
+
+    public void testHandleBatchResponse() {
+        String targetField = "ml.my_processor";
+        InferenceProcessor inferenceProcessor = new InferenceProcessor(
+            client,
+            auditor,
+            "my_processor",
+            null,
+            targetField,
+            "regression_model",
+            RegressionConfigUpdate.EMPTY_PARAMS,
+            Collections.emptyMap()
+        );
+
+        int numDocuments = randomIntBetween(1, 10);
+        List<IngestDocument> documents = new ArrayList<>(numDocuments);
+        List<InferenceResults> results = new ArrayList<>(numDocuments);
+        for (int i = 0; i < numDocuments; i++) {
+            documents.add(TestIngestDocument.emptyIngestDocument());
+            results.add(new RegressionInferenceResults(i, RegressionConfig.EMPTY_PARAMS));
+        }
+        InferModelAction.Response response = new InferModelAction.Response(results, "regression-123", true);
+
+        Map<Integer, Exception> handled = new HashMap<>();
+        inferenceProcessor.handleBatchResponse(response, documents, (slot, document, e) -> {
+            assertThat(document, sameInstance(documents.get(slot)));
+            assertThat(handled.containsKey(slot), is(false));
+            handled.put(slot, e);
+        });
+
+        assertThat(handled.size(), equalTo(numDocuments));
+        for (int i = 0; i < numDocuments; i++) {
+            assertThat(handled.get(i), nullValue());
+            IngestDocument document = documents.get(i);
+            assertThat(document.getFieldValue(targetField + ".predicted_value", Double.class), equalTo((double) i));
+            assertThat(document.getFieldValue(targetField + ".model_id", String.class), equalTo("regression-123"));
+        }
+    }
+
+    public void testHandleBatchResponseWithUnexpectedNumberOfResults() {
+        InferenceProcessor inferenceProcessor = new InferenceProcessor(
+            client,
+            auditor,
+            "my_processor",
+            null,
+            "ml.my_processor",
+            "regression_model",
+            RegressionConfigUpdate.EMPTY_PARAMS,
+            Collections.emptyMap()
+        );
+
+        List<IngestDocument> documents = List.of(TestIngestDocument.emptyIngestDocument(), TestIngestDocument.emptyIngestDocument());
+        InferModelAction.Response response = new InferModelAction.Response(
+            Collections.singletonList(new RegressionInferenceResults(0.7, RegressionConfig.EMPTY_PARAMS)),
+            null,
+            true
+        );
+
+        Map<Integer, Exception> handled = new HashMap<>();
+        inferenceProcessor.handleBatchResponse(response, documents, (slot, document, e) -> handled.put(slot, e));
+
+        assertThat(handled.keySet(), equalTo(Set.of(0, 1)));
+        for (Exception e : handled.values()) {
+            assertThat(e, instanceOf(ElasticsearchStatusException.class));
+            assertThat(e.getMessage(), equalTo("Unexpected number of inference results [1], expected [2]"));
+        }
+        assertThat(documents.get(0).hasField("ml.my_processor"), is(false));
+    }
+
+    public void testExecuteBatch() {
+        String targetField = "ml.my_processor";
+        InferenceProcessor inferenceProcessor = new InferenceProcessor(
+            mockClientWithThreadContext(),
+            auditor,
+            "my_processor",
+            null,
+            targetField,
+            "regression_model",
+            RegressionConfigUpdate.EMPTY_PARAMS,
+            Collections.emptyMap()
+        );
+        List<InferModelAction.Request> requests = new ArrayList<>();
+        doAnswer(invocationOnMock -> {
+            InferModelAction.Request request = invocationOnMock.getArgument(1);
+            ActionListener<InferModelAction.Response> listener = invocationOnMock.getArgument(2);
+            requests.add(request);
+            listener.onResponse(regressionResponse(request));
+            return null;
+        }).when(client).execute(eq(InferModelAction.INSTANCE), any(), any());
+
+        int numDocuments = randomIntBetween(2, 10);
+        List<IngestDocument> documents = new ArrayList<>(numDocuments);
+        for (int i = 0; i < numDocuments; i++) {
+            documents.add(TestIngestDocument.withDefaultVersion(new HashMap<>(Map.of("value", i))));
+        }
+
+        Map<Integer, Exception> handled = new HashMap<>();
+        inferenceProcessor.executeBatch(documents, (slot, document, e) -> handled.put(slot, e));
+
+        // all documents are inferred with a single request
+        assertThat(requests.size(), equalTo(1));
+        assertThat(requests.get(0).getObjectsToInfer().size(), equalTo(numDocuments));
+        assertThat(handled.size(), equalTo(numDocuments));
+        for (int i = 0; i < numDocuments; i++) {
+            assertThat(handled.get(i), nullValue());
+            assertThat(documents.get(i).getFieldValue(targetField + ".predicted_value", Double.class), equalTo((double) i));
+        }
+    }
+
+    public void testExecuteBatchFallsBackToSingleDocumentsOnFailure() {
+        String targetField = "ml.my_processor";
+        InferenceProcessor inferenceProcessor = new InferenceProcessor(
+            mockClientWithThreadContext(),
+            auditor,
+            "my_processor",
+            null,
+            targetField,
+            "regression_model",
+            RegressionConfigUpdate.EMPTY_PARAMS,
+            Collections.emptyMap()
+        );
+        List<InferModelAction.Request> requests = new ArrayList<>();
+        doAnswer(invocationOnMock -> {
+            InferModelAction.Request request = invocationOnMock.getArgument(1);
+            ActionListener<InferModelAction.Response> listener = invocationOnMock.getArgument(2);
+            requests.add(request);
+            // the request fails as a whole if one of its documents can't be inferred
+            if (request.getObjectsToInfer().stream().anyMatch(object -> object.containsKey("fail"))) {
+                listener.onFailure(new ElasticsearchStatusException("cannot infer document", RestStatus.BAD_REQUEST));
+            } else {
+                listener.onResponse(regressionResponse(request));
+            }
+            return null;
+        }).when(client).execute(eq(InferModelAction.INSTANCE), any(), any());
+
+        int numDocuments = randomIntBetween(2, 10);
+        int failingDocument = randomIntBetween(0, numDocuments - 1);
+        List<IngestDocument> documents = new ArrayList<>(numDocuments);
+        for (int i = 0; i < numDocuments; i++) {
+            Map<String, Object> source = new HashMap<>(Map.of("value", i));
+            if (i == failingDocument) {
+                source.put("fail", true);
+            }
+            documents.add(TestIngestDocument.withDefaultVersion(source));
+        }
+
+        Map<Integer, Exception> handled = new HashMap<>();
+        inferenceProcessor.executeBatch(documents, (slot, document, e) -> {
+            assertThat(handled.containsKey(slot), is(false));
+            handled.put(slot, e);
+        });
+
+        // the failed batch request is followed by one request per document
+        assertThat(requests.size(), equalTo(numDocuments + 1));
+        assertThat(requests.get(0).getObjectsToInfer().size(), equalTo(numDocuments));
+        for (int i = 1; i < requests.size(); i++) {
+            assertThat(requests.get(i).getObjectsToInfer().size(), equalTo(1));
+        }
+        assertThat(handled.size(), equalTo(numDocuments));
+        for (int i = 0; i < numDocuments; i++) {
+            if (i == failingDocument) {
+                assertThat(handled.get(i), instanceOf(ElasticsearchStatusException.class));
+                assertThat(documents.get(i).hasField(targetField), is(false));
+            } else {
+                assertThat(handled.get(i), nullValue());
+                assertThat(documents.get(i).getFieldValue(targetField + ".predicted_value", Double.class), equalTo((double) i));
+            }
+        }
+    }
+
+    private Client mockClientWithThreadContext() {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        when(client.threadPool()).thenReturn(threadPool);
+        return client;
+    }
+
+    /**
+     * Predicts the "value" field of each object to infer.
+     */
+    private static InferModelAction.Response regressionResponse(InferModelAction.Request request) {
+        List<InferenceResults> results = new ArrayList<>(request.getObjectsToInfer().size());
+        for (Map<String, Object> objectToInfer : request.getObjectsToInfer()) {
+            double value = ((Number) objectToInfer.get("value")).doubleValue();
+            results.add(new RegressionInferenceResults(value, RegressionConfig.EMPTY_PARAMS));
+        }
+        return new InferModelAction.Response(results, null, true);
+    }
 }